@@ -0,0 +1,380 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.databinding.utils;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.namespace.QName;
+
+import org.apache.axis2.classloader.BeanInfoCache;
+import org.apache.axis2.deployment.util.BeanExcludeInfo;
+import org.apache.axis2.util.JavaUtils;
+
+/**
+ * Serialization and deserialization plan for a bean class, used by {@link BeanUtil}. The plan
+ * holds everything {@link BeanUtil} previously rebuilt from the {@link BeanInfo} for every
+ * bean: the property lists, the lookup tables used to bind child elements to properties, and
+ * handles for the accessor methods. Plans are cached by {@link BeanInfoCache}, i.e. by the
+ * {@link org.apache.axis2.deployment.DeploymentClassLoader} for classes loaded from a service
+ * archive, so that they are discarded when the service is undeployed.
+ */
+final class BeanPlan {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE =
+            MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final BeanInfoCache.Derived<BeanPlan> PLANS = new BeanInfoCache.Derived<BeanPlan>() {
+        @Override
+        protected BeanPlan compute(Class<?> beanClass) throws IntrospectionException {
+            return new BeanPlan(beanClass);
+        }
+    };
+
+    /**
+     * A bean property with pre-resolved accessors. The accessors are invoked through method
+     * handles when the bean and value have the expected types, and through reflection otherwise,
+     * so that errors are reported as by {@link Method#invoke(Object, Object...)}. Method handles
+     * are only created for accessors that are accessible without
+     * {@link Method#setAccessible(boolean)}; the other ones are invoked through a private,
+     * accessible copy of the {@link Method}, because the instances returned by the cached
+     * {@link PropertyDescriptor} are shared and must not be modified.
+     */
+    static final class Property {
+        private final int index;
+        private final String name;
+        private final Class<?> type;
+        private final Method readMethod;
+        private final Method writeMethod;
+        private final Method readInvoker;
+        private final Method writeInvoker;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        /** The parameter type of the write method, with primitive types boxed */
+        private final Class<?> valueType;
+        /** Whether <code>null</code> can be passed to the write method */
+        private final boolean nullable;
+        private final QName unqualifiedName;
+        private volatile QName lastElementName;
+
+        Property(int index, PropertyDescriptor descriptor, Method readMethod) {
+            this.index = index;
+            name = descriptor.getName();
+            type = descriptor.getPropertyType();
+            this.readMethod = readMethod;
+            writeMethod = descriptor.getWriteMethod();
+            getter = readMethod == null ? null : unreflect(readMethod, GETTER_TYPE);
+            setter = writeMethod == null ? null : unreflect(writeMethod, SETTER_TYPE);
+            readInvoker = getter == null ? makeAccessible(readMethod) : readMethod;
+            writeInvoker = setter == null ? makeAccessible(writeMethod) : writeMethod;
+            if (writeMethod == null) {
+                valueType = null;
+                nullable = false;
+            } else {
+                Class<?> parameterType = writeMethod.getParameterTypes()[0];
+                nullable = !parameterType.isPrimitive();
+                valueType = nullable ? parameterType : JavaUtils.getWrapperClass(parameterType);
+            }
+            unqualifiedName = new QName(name);
+        }
+
+        private static MethodHandle unreflect(Method method, MethodType type) {
+            if (!Modifier.isPublic(method.getModifiers())
+                    || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                return null;
+            }
+            try {
+                return MethodHandles.lookup().unreflect(method).asType(type);
+            } catch (IllegalAccessException ex) {
+                return null;
+            } catch (RuntimeException ex) {
+                // E.g. a SecurityException; use reflection instead
+                return null;
+            }
+        }
+
+        /**
+         * Get a copy of an accessor on which {@link Method#setAccessible(boolean)} has been
+         * called, so that accessors declared by non public classes can be invoked as
+         * {@link BeanUtil} always did.
+         *
+         * @param method the accessor, or <code>null</code>
+         * @return the accessible copy, or the accessor itself if it can't be made accessible
+         */
+        private static Method makeAccessible(Method method) {
+            if (method == null) {
+                return null;
+            }
+            try {
+                // getDeclaredMethod returns a new Method instance on every call
+                Method copy = method.getDeclaringClass().getDeclaredMethod(method.getName(),
+                        method.getParameterTypes());
+                copy.setAccessible(true);
+                return copy;
+            } catch (NoSuchMethodException ex) {
+                return method;
+            } catch (RuntimeException ex) {
+                // A SecurityException, or an InaccessibleObjectException on Java 9 and above;
+                // invoking the method will report the access error as before
+                return method;
+            }
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+
+        Method getReadMethod() {
+            return readMethod;
+        }
+
+        Type getGenericType() {
+            return readMethod.getGenericReturnType();
+        }
+
+        boolean isWritable() {
+            return writeMethod != null;
+        }
+
+        /**
+         * Get the name of the element for this property.
+         *
+         * @param namespaceURI the namespace URI, or <code>null</code> for an unqualified name
+         * @param prefix the prefix; ignored if <code>namespaceURI</code> is <code>null</code>
+         * @return the element name
+         */
+        QName getElementName(String namespaceURI, String prefix) {
+            if (namespaceURI == null) {
+                return unqualifiedName;
+            }
+            // Beans are almost always serialized with the same namespace, so remembering the
+            // last name is enough to avoid creating a QName for every property
+            QName elementName = lastElementName;
+            if (elementName == null || !elementName.getNamespaceURI().equals(namespaceURI)
+                    || !elementName.getPrefix().equals(prefix)) {
+                elementName = new QName(namespaceURI, name, prefix);
+                lastElementName = elementName;
+            }
+            return elementName;
+        }
+
+        Object get(Object bean) throws IllegalAccessException, InvocationTargetException {
+            if (getter == null || !readMethod.getDeclaringClass().isInstance(bean)) {
+                return readInvoker.invoke(bean);
+            }
+            try {
+                return (Object)getter.invokeExact(bean);
+            } catch (WrongMethodTypeException ex) {
+                throw new IllegalArgumentException(ex);
+            } catch (Throwable ex) {
+                // The bean has been checked, so the exception comes from the read method
+                throw new InvocationTargetException(ex);
+            }
+        }
+
+        void set(Object bean, Object value) throws IllegalAccessException,
+                InvocationTargetException {
+            if (setter == null || !writeMethod.getDeclaringClass().isInstance(bean)
+                    || (value == null ? !nullable : !valueType.isInstance(value))) {
+                writeInvoker.invoke(bean, value);
+                return;
+            }
+            try {
+                setter.invokeExact(bean, value);
+            } catch (WrongMethodTypeException ex) {
+                throw new IllegalArgumentException(ex);
+            } catch (Throwable ex) {
+                // The bean and the value have been checked, so the exception comes from the
+                // write method
+                throw new InvocationTargetException(ex);
+            }
+        }
+    }
+
+    private final Class<?> beanClass;
+    private final BeanPlan superPlan;
+    private final Property[] declaredProperties;
+    private final Map<String, Property[]> declaredPropertiesByExclusion =
+            new ConcurrentHashMap<String, Property[]>();
+    private final Map<String, Property> propertiesByName;
+    private final Map<String, Property> propertiesByLowerCaseName;
+    private final int propertyCount;
+
+    private BeanPlan(Class<?> beanClass) throws IntrospectionException {
+        this.beanClass = beanClass;
+        Class<?> superClass = beanClass.getSuperclass();
+
+        // Serialization: properties declared by this class, the ones of the super classes
+        // being handled by the plans of the super classes
+        if (superClass != null && !getPackageName(superClass).startsWith("java.")) {
+            superPlan = get(superClass);
+        } else {
+            superPlan = null;
+        }
+        List<Property> declared = new ArrayList<Property>();
+        for (PropertyDescriptor descriptor : BeanInfoCache.getCachedBeanInfo(beanClass,
+                superClass).getPropertyDescriptors()) {
+            if (descriptor.getName().equals("class") || descriptor.getPropertyType() == null) {
+                continue;
+            }
+            declared.add(new Property(declared.size(), descriptor,
+                    getReadMethod(beanClass, descriptor)));
+        }
+        declaredProperties = declared.toArray(new Property[declared.size()]);
+
+        // Deserialization: all properties of the bean
+        PropertyDescriptor[] descriptors =
+                BeanInfoCache.getCachedBeanInfo(beanClass, null).getPropertyDescriptors();
+        propertiesByName = new HashMap<String, Property>();
+        propertiesByLowerCaseName = new HashMap<String, Property>();
+        for (int i = 0; i < descriptors.length; i++) {
+            Property property = new Property(i, descriptors[i], descriptors[i].getReadMethod());
+            propertiesByName.put(property.getName(), property);
+            propertiesByLowerCaseName.put(property.getName().toLowerCase(Locale.ENGLISH),
+                    property);
+        }
+        propertyCount = descriptors.length;
+    }
+
+    private static String getPackageName(Class<?> clazz) {
+        Package pkg = clazz.getPackage();
+        return pkg == null ? "" : pkg.getName();
+    }
+
+    /**
+     * Get the read method of a property. For {@link Boolean} properties, the
+     * <code>is</code> prefix is accepted in addition to <code>get</code>.
+     */
+    private static Method getReadMethod(Class<?> beanClass, PropertyDescriptor descriptor) {
+        Method readMethod = descriptor.getReadMethod();
+        if (readMethod == null && descriptor.getPropertyType() == Boolean.class) {
+            Method writeMethod = descriptor.getWriteMethod();
+            if (writeMethod != null) {
+                String writeMethodName = writeMethod.getName();
+                try {
+                    readMethod = new PropertyDescriptor(descriptor.getName(), beanClass,
+                            "is" + writeMethodName.substring(3), writeMethodName).getReadMethod();
+                } catch (IntrospectionException ex) {
+                    // The property is not readable
+                }
+            }
+        }
+        return readMethod;
+    }
+
+    /**
+     * Get the plan for a bean class.
+     *
+     * @param beanClass the bean class
+     * @return the plan
+     * @throws IntrospectionException if an exception occurs during introspection
+     */
+    static BeanPlan get(Class<?> beanClass) throws IntrospectionException {
+        return BeanInfoCache.getCachedDerived(PLANS, beanClass);
+    }
+
+    Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * Get the plan of the super class, if the properties of the super class are serialized.
+     *
+     * @return the plan, or <code>null</code> if the super class is a <code>java.*</code> class
+     */
+    BeanPlan getSuperPlan() {
+        return superPlan;
+    }
+
+    /**
+     * Get the properties declared by the bean class, in serialization order.
+     *
+     * @param excludeInfo the properties to exclude, or <code>null</code>
+     * @return the properties that are not excluded
+     */
+    Property[] getDeclaredProperties(BeanExcludeInfo excludeInfo) {
+        if (excludeInfo == null) {
+            return declaredProperties;
+        }
+        // BeanExcludeInfo matches regular expressions; filter only once per configuration
+        String key = excludeInfo.getExcludeProperties() + '\u0000'
+                + excludeInfo.getIncludeProperties();
+        Property[] properties = declaredPropertiesByExclusion.get(key);
+        if (properties == null) {
+            List<Property> list = new ArrayList<Property>(declaredProperties.length);
+            for (Property property : declaredProperties) {
+                if (!excludeInfo.isExcludedProperty(property.getName())) {
+                    list.add(property);
+                }
+            }
+            properties = list.toArray(new Property[list.size()]);
+            declaredPropertiesByExclusion.put(key, properties);
+        }
+        return properties;
+    }
+
+    /**
+     * @return the number of properties of the bean, including inherited ones; this is an upper
+     *         bound for {@link Property#getIndex()} of the properties returned by
+     *         {@link #getProperty(String)} and {@link #getPropertyIgnoreCase(String)}
+     */
+    int getPropertyCount() {
+        return propertyCount;
+    }
+
+    /**
+     * Look up a property, including inherited ones, by name.
+     */
+    Property getProperty(String name) {
+        return propertiesByName.get(name);
+    }
+
+    /**
+     * Look up a property, including inherited ones, by name, ignoring case.
+     */
+    Property getPropertyIgnoreCase(String name) {
+        Property property = propertiesByName.get(name);
+        return property != null ? property
+                : propertiesByLowerCaseName.get(name.toLowerCase(Locale.ENGLISH));
+    }
+}
@@ -20,9 +20,7 @@
 package org.apache.axis2.databinding.utils;
 
 
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
-import java.beans.PropertyDescriptor;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -30,7 +28,6 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -57,7 +54,6 @@ import javax.xml.stream.XMLStreamReader;
 import org.apache.axiom.om.*;
 import org.apache.axiom.util.base64.Base64Utils;
 import org.apache.axis2.AxisFault;
-import org.apache.axis2.classloader.BeanInfoCache;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.databinding.typemapping.SimpleTypeMapper;
 import org.apache.axis2.databinding.utils.reader.ADBXMLStreamReaderImpl;
@@ -111,26 +107,33 @@ public class BeanUtil {
     }
 
 
-    private static BeanInfo getBeanInfo(Class beanClass, Class beanSuperclass) throws IntrospectionException {
-        return BeanInfoCache.getCachedBeanInfo(beanClass, beanSuperclass);
-    }
-
-    private static BeanInfo getBeanInfo(Class beanClass) throws IntrospectionException {
-        return getBeanInfo(beanClass, null);
+    private static List<Object> getPropertyQnameList(Object beanObject,
+                                                     Class<?> beanClass,
+                                                     QName beanName,
+                                                     TypeTable typeTable,
+                                                     boolean qualified,
+                                                     boolean processingDocLitBare) {
+        try {
+            return getPropertyQnameList(beanObject, BeanPlan.get(beanClass), beanName, typeTable,
+                    qualified, processingDocLitBare);
+        } catch (java.beans.IntrospectionException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     private static List<Object> getPropertyQnameList(Object beanObject,
-                                                     Class<?> beanClass,
+                                                     BeanPlan plan,
                                                      QName beanName,
                                                      TypeTable typeTable,
                                                      boolean qualified,
                                                      boolean processingDocLitBare) {
         List<Object> propertyQnameValueList;
-        Class<?> supperClass = beanClass.getSuperclass();
+        Class<?> beanClass = plan.getBeanClass();
+        BeanPlan superPlan = plan.getSuperPlan();
 
-        if (!getQualifiedName(supperClass.getPackage()).startsWith("java.")) {
+        if (superPlan != null) {
             propertyQnameValueList = getPropertyQnameList(beanObject,
-                                                          supperClass, beanName, typeTable, qualified, processingDocLitBare);
+                                                          superPlan, beanName, typeTable, qualified, processingDocLitBare);
         } else {
             propertyQnameValueList = new ArrayList<Object>();
         }
@@ -158,36 +161,13 @@ public class BeanUtil {
             if (axisService != null && axisService.getExcludeInfo() != null) {
                 beanExcludeInfo = axisService.getExcludeInfo().getBeanExcludeInfoForClass(beanClass.getName());
             }
-            BeanInfo beanInfo = getBeanInfo(beanClass, beanClass.getSuperclass());
-            PropertyDescriptor[] properties = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor property : properties) {
+            for (BeanPlan.Property property : plan.getDeclaredProperties(beanExcludeInfo)) {
                 String propertyName = property.getName();
-                Class<?> ptype = property.getPropertyType();
-                if (propertyName.equals("class") ||
-                    beanExcludeInfo != null && beanExcludeInfo.isExcludedProperty(propertyName) || ptype == null) {
-                    continue;
-                }
+                Class<?> ptype = property.getType();
 
-                Method readMethod = property.getReadMethod();
-                if (readMethod == null) {
-                    Class propertyType = property.getPropertyType();
-                    if (propertyType == java.lang.Boolean.class) {
-                        Method writeMethod = property.getWriteMethod();
-                        if (writeMethod != null) {
-                            String tmpWriteMethodName = writeMethod.getName();
-                            PropertyDescriptor tmpPropDesc =
-                                    new PropertyDescriptor(property.getName(),
-                                            beanObject.getClass(),
-                                            "is" + tmpWriteMethodName.substring(3),
-                                            tmpWriteMethodName);
-                            readMethod = tmpPropDesc.getReadMethod();
-                        }
-                    }
-                }
                 Object value;
-                if (readMethod != null) {
-                    readMethod.setAccessible(true);
-                    value = readMethod.invoke(beanObject);
+                if (property.getReadMethod() != null) {
+                    value = property.get(beanObject);
                 } else {
                     throw new AxisFault("Property '" + propertyName + "' in bean class '"
                                         + beanClass.getName() + "'is not readable.");
@@ -288,7 +268,7 @@ public class BeanUtil {
                         QName qNamefortheType = null;
                         qNamefortheType = (QName) typeTable
                                 .getComplexSchemaMap().get(getClassName(beanClass));
-                        Type genericType = property.getReadMethod().getGenericReturnType();
+                        Type genericType = property.getGenericType();
                         OMElement collection = BeanUtil.getCollectionElement(
                                 fac, genericType,
                                 (Collection) value, propertyName,null,
@@ -399,8 +379,6 @@ public class BeanUtil {
 
         } catch (java.io.IOException e) {
             throw new RuntimeException(e);
-        } catch (java.beans.IntrospectionException e) {
-            throw new RuntimeException(e);
         } catch (java.lang.reflect.InvocationTargetException e) {
             throw new RuntimeException(e);
         } catch (java.lang.IllegalAccessException e) {
@@ -410,17 +388,18 @@ public class BeanUtil {
 
     private static void addTypeQname(QName elemntNameSpace,
                                      List<Object> propertyQnameValueList,
-                                     PropertyDescriptor propDesc,
+                                     BeanPlan.Property property,
                                      QName beanName,
                                      boolean processingDocLitBare) {
         if (elemntNameSpace != null) {
-            propertyQnameValueList.add(new QName(elemntNameSpace.getNamespaceURI(),
-                                                 propDesc.getName(), elemntNameSpace.getPrefix()));
+            propertyQnameValueList.add(property.getElementName(
+                    elemntNameSpace.getNamespaceURI(), elemntNameSpace.getPrefix()));
         } else {
             if (processingDocLitBare) {
-                propertyQnameValueList.add(new QName(propDesc.getName()));
+                propertyQnameValueList.add(property.getElementName(null, null));
             } else {
-                propertyQnameValueList.add(new QName(beanName.getNamespaceURI(), propDesc.getName(), beanName.getPrefix()));
+                propertyQnameValueList.add(property.getElementName(beanName.getNamespaceURI(),
+                        beanName.getPrefix()));
             }
 
         }
@@ -542,25 +521,11 @@ public class BeanUtil {
                     return beanElement.getFirstOMChild();
                 }
 
-                //use a comaprator to ignore the case of the bean element
-                //names eg. if the property descriptor is getServiceName it
-                //should accept child element with ServiceName as well.
-                //but currently accepts only serviceName
-                Comparator comparator = new Comparator() {
-                    public int compare(Object o1, Object o2) {
-                        String string1 = (String) o1;
-                        String string2 = (String) o2;
-                        return string1.compareToIgnoreCase(string2);
-                    }
-                };
-                Map<String, PropertyDescriptor> properties = new TreeMap<String, PropertyDescriptor>(comparator);
-
-
-                BeanInfo beanInfo = getBeanInfo(beanClass);
-                PropertyDescriptor[] propDescs = beanInfo.getPropertyDescriptors();
-                for (PropertyDescriptor proprty : propDescs) {
-                    properties.put(proprty.getName(), proprty);
-                }
+                //ignore the case of the bean element names eg. if the property descriptor is
+                //getServiceName it should accept child element with ServiceName as well.
+                //Each property is bound at most once.
+                BeanPlan plan = BeanPlan.get(beanClass);
+                boolean[] bound = new boolean[plan.getPropertyCount()];
                 Iterator elements = beanElement.getChildren();
                 beanObj = objectSupplier.getObject(beanClass);
                 while (elements.hasNext()) {
@@ -580,9 +545,10 @@ public class BeanUtil {
                     // if parts/@href != null then need to find element with id and deserialize.
                     // before that first check whether we already have it in the hashtable
                     String partsLocalName = parts.getLocalName();
-                    PropertyDescriptor prty = properties.remove(partsLocalName);
-                    if (prty != null) {
-                        Class parameters = prty.getPropertyType();
+                    BeanPlan.Property prty = plan.getPropertyIgnoreCase(partsLocalName);
+                    if (prty != null && !bound[prty.getIndex()]) {
+                        bound[prty.getIndex()] = true;
+                        Class parameters = prty.getType();
                         if (prty.getName().equals("class"))
                             continue;
 
@@ -603,7 +569,7 @@ public class BeanUtil {
                                 partObj = SimpleTypeMapper.getHashSet((OMElement)
                                         parts.getParent(), prty.getName());
                             } else if (SimpleTypeMapper.isCollection(parameters)) {
-                                Type type = prty.getReadMethod().getGenericReturnType();
+                                Type type = prty.getGenericType();
                                 partObj = processGenericCollection(parts, type, null, objectSupplier);  
 
                             } else if (SimpleTypeMapper.isDataHandler(parameters)) {
@@ -613,7 +579,7 @@ public class BeanUtil {
                                                       objectSupplier, prty.getName());
                             } else if (SimpleTypeMapper.isMap(parameters)){
                                 partObj = null;
-                                final Type type = prty.getReadMethod().getGenericReturnType();
+                                final Type type = prty.getGenericType();
                                 if (type instanceof ParameterizedType) {
                                     ParameterizedType aType = (ParameterizedType) type;
                                     Type[] parameterArgTypes = aType.getActualTypeArguments();
@@ -630,11 +596,8 @@ public class BeanUtil {
                                 partObj = deserialize(parameters, parts, objectSupplier, null);
                             }
                         }
-                        Object[] parms = new Object[]{partObj};
-                        Method writeMethod = prty.getWriteMethod();
-                        if (writeMethod != null) {
-                            writeMethod.setAccessible(true);
-                            writeMethod.invoke(beanObj, parms);
+                        if (prty.isWritable()) {
+                            prty.set(beanObj, partObj);
                         }
                     }
                 }
@@ -659,12 +622,7 @@ public class BeanUtil {
                                      ObjectSupplier objectSupplier) throws AxisFault {
         Object beanObj;
         try {
-            HashMap<String, PropertyDescriptor> properties = new HashMap<String, PropertyDescriptor>();
-            BeanInfo beanInfo = getBeanInfo(beanClass);
-            PropertyDescriptor[] propDescs = beanInfo.getPropertyDescriptors();
-            for (PropertyDescriptor proprty : propDescs) {
-                properties.put(proprty.getName(), proprty);
-            }
+            BeanPlan plan = BeanPlan.get(beanClass);
 
             beanObj = objectSupplier.getObject(beanClass);
             Iterator elements = beanElement.getChildren();
@@ -677,10 +635,10 @@ public class BeanUtil {
                     continue;
                 }
                 String partsLocalName = parts.getLocalName();
-                PropertyDescriptor prty = properties.get(
+                BeanPlan.Property prty = plan.getProperty(
                         partsLocalName.toLowerCase());
                 if (prty != null) {
-                    Class parameters = prty.getPropertyType();
+                    Class parameters = prty.getType();
                     if (prty.getName().equals("class"))
                         continue;
                     Object partObj;
@@ -697,11 +655,8 @@ public class BeanUtil {
                             partObj = deserialize(parameters, parts, objectSupplier, null);
                         }
                     }
-                    Object[] parms = new Object[]{partObj};
-                    Method writeMethod = prty.getWriteMethod();
-                    if (writeMethod != null) {
-                        writeMethod.setAccessible(true);
-                        writeMethod.invoke(beanObj, parms);
+                    if (prty.isWritable()) {
+                        prty.set(beanObj, partObj);
                     }
                 }
             }
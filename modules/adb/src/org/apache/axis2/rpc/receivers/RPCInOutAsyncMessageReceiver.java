@@ -80,24 +80,13 @@ public class RPCInOutAsyncMessageReceiver extends AbstractMessageReceiver {
 
             AxisMessage inaxisMessage = op.getMessage(WSDLConstants.MESSAGE_LABEL_IN_VALUE);
             String messageNameSpace = null;
-            String methodName = op.getName().getLocalPart();
-            Method[] methods = ImplClass.getMethods();
-            for (int i = 0; i < methods.length; i++) {
-                if (methods[i].isBridge()) {
-                    continue;
-                }
-                if (methods[i].getName().equals(methodName)) {
-                    method = methods[i];
-                    break;
-                }
-            }
+            RPCInvocationPlan plan = RPCInvocationPlan.get(op, inMessage.getAxisService(),
+                    ImplClass);
+            method = plan.getMethod();
             Object resObject = null;
             if (inaxisMessage != null) {
-                resObject = RPCUtil.invokeServiceClass(inaxisMessage,
-                        method,
-                        obj,
-                        messageNameSpace,
-                        methodElement,inMessage);
+                resObject = RPCUtil.invokeServiceClass(inaxisMessage, plan, obj,
+                        methodElement, inMessage);
             }
 
 
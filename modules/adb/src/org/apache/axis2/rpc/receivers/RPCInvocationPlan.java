@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.rpc.receivers;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.util.JavaUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Everything the RPC message receivers need to know to invoke the service method of an
+ * operation, resolved once per {@link AxisOperation} and implementation class. The plan is
+ * cached as a parameter of the operation, so it is discarded together with the operation when
+ * the service is redeployed. It is also rebuilt if the implementation class changes, which
+ * happens if the service class is loaded by a different class loader (see AXIS2-3947).
+ * <p>
+ * The service method is invoked through a {@link MethodHandle} when the method is accessible
+ * to {@link MethodHandles#publicLookup()}, and through reflection otherwise. Calls with
+ * arguments that the method handle can't take as they are (e.g. arguments that need a widening
+ * conversion, or that are invalid) also go through reflection, so that they are converted or
+ * rejected with an {@link IllegalArgumentException} exactly as before.
+ */
+final class RPCInvocationPlan {
+    private static final Log log = LogFactory.getLog(RPCInvocationPlan.class);
+
+    /**
+     * Name of the operation parameter that holds the plan.
+     */
+    static final String PARAMETER_NAME = "rpcInvocationPlan";
+
+    private static final MethodType INVOKER_TYPE =
+            MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final Class<?> implClass;
+    private final Method method;
+    private final MethodHandle invoker;
+    private final Class<?>[] parameterTypes;
+    /** The parameter types, with primitive types replaced by their wrapper classes */
+    private final Class<?>[] argumentTypes;
+    private final String[] parameterNames;
+
+    private RPCInvocationPlan(Class<?> implClass, Method method, String[] parameterNames) {
+        this.implClass = implClass;
+        this.method = method;
+        this.parameterTypes = method.getParameterTypes();
+        this.parameterNames = parameterNames;
+        this.invoker = createInvoker(method, parameterTypes.length);
+        argumentTypes = new Class<?>[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            argumentTypes[i] = parameterTypes[i].isPrimitive()
+                    ? JavaUtils.getWrapperClass(parameterTypes[i]) : parameterTypes[i];
+        }
+    }
+
+    private static MethodHandle createInvoker(Method method, int parameterCount) {
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.publicLookup().unreflect(method);
+        } catch (IllegalAccessException ex) {
+            // This happens e.g. for public methods of non public classes
+            if (log.isDebugEnabled()) {
+                log.debug("Falling back to reflection to invoke " + method, ex);
+            }
+            return null;
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return handle.asSpreader(Object[].class, parameterCount).asType(INVOKER_TYPE);
+    }
+
+    /**
+     * Get the plan for the given operation, building it if necessary.
+     *
+     * @param operation the operation
+     * @param service the service the operation belongs to
+     * @param implClass the class of the service implementation object
+     * @return the plan
+     * @throws AxisFault if the implementation class has no method for the operation
+     */
+    static RPCInvocationPlan get(AxisOperation operation, AxisService service,
+                                 Class<?> implClass) throws AxisFault {
+        Object value = operation.getParameterValue(PARAMETER_NAME);
+        if (value instanceof RPCInvocationPlan) {
+            RPCInvocationPlan plan = (RPCInvocationPlan)value;
+            if (plan.implClass == implClass) {
+                return plan;
+            }
+        }
+        String methodName = operation.getName().getLocalPart();
+        Method method = null;
+        for (Method candidate : implClass.getMethods()) {
+            if (!candidate.isBridge() && candidate.getName().equals(methodName)) {
+                method = candidate;
+                break;
+            }
+        }
+        if (method == null) {
+            throw new AxisFault("No such method '" + methodName +
+                    "' in class " + implClass.getName());
+        }
+        String[] parameterNames = null;
+        if (service != null) {
+            Parameter namesParameter = service.getParameter(method.getName());
+            if (namesParameter != null && namesParameter.getValue() instanceof String[]) {
+                parameterNames = (String[])namesParameter.getValue();
+            }
+        }
+        RPCInvocationPlan plan = new RPCInvocationPlan(implClass, method, parameterNames);
+        operation.addParameter(PARAMETER_NAME, plan);
+        return plan;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    Class<?>[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * @return the names of the parameters, as recorded by the service deployer, or
+     *         <code>null</code> if they are not known
+     */
+    String[] getParameterNames() {
+        return parameterNames;
+    }
+
+    /**
+     * Invoke the service method, with the same semantics as
+     * {@link Method#invoke(Object, Object...)}: invalid arguments are reported with an
+     * {@link IllegalArgumentException}, and only exceptions thrown by the method itself are
+     * wrapped in an {@link InvocationTargetException}.
+     *
+     * @param implObject the service implementation object
+     * @param args the arguments
+     * @return the return value, or <code>null</code> if the method is void
+     * @throws IllegalAccessException
+     * @throws InvocationTargetException
+     */
+    Object invoke(Object implObject, Object[] args)
+            throws IllegalAccessException, InvocationTargetException {
+        if (args == null) {
+            args = new Object[0];
+        }
+        if (invoker == null || !isApplicable(implObject, args)) {
+            return method.invoke(implObject, args);
+        }
+        try {
+            return (Object)invoker.invokeExact(implObject, args);
+        } catch (WrongMethodTypeException ex) {
+            throw new IllegalArgumentException(ex);
+        } catch (Throwable ex) {
+            // The receiver and the arguments have been checked, so the casts done by the method
+            // handle can't fail and any exception (including a ClassCastException) comes from
+            // the method itself
+            throw new InvocationTargetException(ex);
+        }
+    }
+
+    /**
+     * Check whether the method handle can be invoked with the given receiver and arguments
+     * without any conversion other than casts and unboxing.
+     */
+    private boolean isApplicable(Object implObject, Object[] args) {
+        if (!Modifier.isStatic(method.getModifiers())
+                && !method.getDeclaringClass().isInstance(implObject)) {
+            return false;
+        }
+        if (args.length != argumentTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (arg == null ? parameterTypes[i].isPrimitive()
+                    : !argumentTypes[i].isInstance(arg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -204,6 +204,11 @@ public class RPCUtil {
         return processRequest(methodElement, method, objectSupplier, null);
     }
 
+    /**
+     * @deprecated The namespace of the request is taken from <code>inAxisMessage</code>, so
+     *             <code>messageNameSpace</code> is ignored; use
+     *             {@link #invokeServiceClass(AxisMessage, Method, Object, OMElement, MessageContext)}
+     */
     public static Object invokeServiceClass(AxisMessage inAxisMessage,
                                             Method method,
                                             Object implObject,
@@ -211,6 +216,47 @@ public class RPCUtil {
                                             OMElement methodElement,
                                             MessageContext inMessage) throws AxisFault,
             IllegalAccessException, InvocationTargetException {
+        return invokeServiceClass(inAxisMessage, method, implObject, methodElement, inMessage);
+    }
+
+    public static Object invokeServiceClass(AxisMessage inAxisMessage,
+                                            Method method,
+                                            Object implObject,
+                                            OMElement methodElement,
+                                            MessageContext inMessage) throws AxisFault,
+            IllegalAccessException, InvocationTargetException {
+        String[] parameterNames = null;
+        Parameter namesParameter = inMessage.getAxisService().getParameter(method.getName());
+        if (namesParameter != null && namesParameter.getValue() instanceof String[]) {
+            parameterNames = (String[]) namesParameter.getValue();
+        }
+        return invokeServiceClass(inAxisMessage, method, null, method.getParameterTypes(),
+                parameterNames, implObject, methodElement, inMessage);
+    }
+
+    /**
+     * Invoke the service method described by an {@link RPCInvocationPlan}.
+     */
+    static Object invokeServiceClass(AxisMessage inAxisMessage,
+                                     RPCInvocationPlan plan,
+                                     Object implObject,
+                                     OMElement methodElement,
+                                     MessageContext inMessage) throws AxisFault,
+            IllegalAccessException, InvocationTargetException {
+        return invokeServiceClass(inAxisMessage, plan.getMethod(), plan,
+                plan.getParameterTypes(), plan.getParameterNames(), implObject, methodElement,
+                inMessage);
+    }
+
+    private static Object invokeServiceClass(AxisMessage inAxisMessage,
+                                             Method method,
+                                             RPCInvocationPlan plan,
+                                             Class[] parameterTypes,
+                                             String[] parameterNames,
+                                             Object implObject,
+                                             OMElement methodElement,
+                                             MessageContext inMessage) throws AxisFault,
+            IllegalAccessException, InvocationTargetException {
         
         //POJO was not WS-I complient since it does generate an empty soap message for in comming
         //soap envelope when no input parameters are set. But now we have fixed this to include the
@@ -220,10 +266,10 @@ public class RPCUtil {
 
         if ((inAxisMessage.getElementQName() == null) || (methodElement == null)) {
             // method accept empty SOAPbody
-            return method.invoke(implObject);
+            return plan == null ? method.invoke(implObject) : plan.invoke(implObject, null);
         } else {
             QName elementQName = inAxisMessage.getElementQName();
-            messageNameSpace = elementQName.getNamespaceURI();
+            String messageNameSpace = elementQName.getNamespaceURI();
             OMNamespace namespace = methodElement.getNamespace();
             if (messageNameSpace != null) {
                 if (namespace == null) {
@@ -242,19 +288,16 @@ public class RPCUtil {
                                 "qualified element. But received a namespace qualified element");
             }
             Object[] objectArray;
+            ObjectSupplier objectSupplier = inMessage.getAxisService().getObjectSupplier();
             if (inAxisMessage.isWrapped()) {
-                Parameter namesParameter = inMessage.getAxisService().getParameter(method.getName());
-                String[] parameterNames = null;
-                if (namesParameter != null){
-                    parameterNames = (String[]) namesParameter.getValue();
-                }
-                objectArray = RPCUtil.processRequest(methodElement,
-                        method, inMessage.getAxisService().getObjectSupplier(), parameterNames);
+                objectArray = BeanUtil.deserialize(methodElement, parameterTypes,
+                        objectSupplier, parameterNames, method);
             } else {
-                objectArray = RPCUtil.processRequest((OMElement) methodElement.getParent(),
-                        method, inMessage.getAxisService().getObjectSupplier());
+                objectArray = BeanUtil.deserialize((OMElement) methodElement.getParent(),
+                        parameterTypes, objectSupplier, null, method);
             }
-            return method.invoke(implObject, objectArray);
+            return plan == null ? method.invoke(implObject, objectArray)
+                    : plan.invoke(implObject, objectArray);
 
         }
     }
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.databinding.utils;
+
+import java.beans.PropertyDescriptor;
+
+import javax.xml.namespace.QName;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.classloader.BeanInfoCache;
+import org.apache.axis2.deployment.util.BeanExcludeInfo;
+
+public class BeanPlanTest extends TestCase {
+    public static class Base {
+        private String id;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+    }
+
+    public static class Person extends Base {
+        private String name;
+        private int age;
+        private Boolean active;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public Boolean isActive() {
+            return active;
+        }
+
+        public void setActive(Boolean active) {
+            this.active = active;
+        }
+    }
+
+    static class Hidden {
+        private String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    private static String[] getNames(BeanPlan.Property[] properties) {
+        String[] names = new String[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            names[i] = properties[i].getName();
+        }
+        return names;
+    }
+
+    public void testPlanIsCached() throws Exception {
+        assertSame(BeanPlan.get(Person.class), BeanPlan.get(Person.class));
+    }
+
+    public void testDeclaredProperties() throws Exception {
+        BeanPlan plan = BeanPlan.get(Person.class);
+        assertEquals(3, plan.getDeclaredProperties(null).length);
+        assertSame(BeanPlan.get(Base.class), plan.getSuperPlan());
+        assertNull(plan.getSuperPlan().getSuperPlan());
+        assertEquals(1, plan.getSuperPlan().getDeclaredProperties(null).length);
+
+        BeanExcludeInfo excludeInfo = new BeanExcludeInfo("a.*", "age");
+        BeanPlan.Property[] properties = plan.getDeclaredProperties(excludeInfo);
+        assertEquals(2, properties.length);
+        assertEquals("age", getNames(properties)[0]);
+        assertSame(properties, plan.getDeclaredProperties(excludeInfo));
+    }
+
+    public void testBooleanIsAccessor() throws Exception {
+        Person person = new Person();
+        person.setActive(Boolean.TRUE);
+        for (BeanPlan.Property property : BeanPlan.get(Person.class).getDeclaredProperties(null)) {
+            if (property.getName().equals("active")) {
+                assertEquals(Boolean.TRUE, property.get(person));
+                return;
+            }
+        }
+        fail("Property not found");
+    }
+
+    public void testAccessors() throws Exception {
+        BeanPlan plan = BeanPlan.get(Person.class);
+        Person person = new Person();
+        plan.getPropertyIgnoreCase("Name").set(person, "test");
+        plan.getProperty("age").set(person, 42);
+        plan.getProperty("id").set(person, "1");
+        assertEquals("test", person.getName());
+        assertEquals(42, person.getAge());
+        assertEquals("1", plan.getProperty("id").get(person));
+        assertNull(plan.getProperty("Name"));
+    }
+
+    public void testInvalidArguments() throws Exception {
+        BeanPlan plan = BeanPlan.get(Person.class);
+        Person person = new Person();
+        Object[][] invalidArguments = {
+                { person, "age", "42" },
+                { person, "age", null },
+                { "not a person", "name", "test" },
+        };
+        for (Object[] args : invalidArguments) {
+            try {
+                plan.getProperty((String)args[1]).set(args[0], args[2]);
+                fail("Expected IllegalArgumentException");
+            } catch (IllegalArgumentException ex) {
+                // Expected
+            }
+        }
+        try {
+            plan.getProperty("name").get("not a person");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    public void testElementName() throws Exception {
+        BeanPlan.Property property = BeanPlan.get(Person.class).getProperty("name");
+        assertEquals(new QName("name"), property.getElementName(null, null));
+        QName name = property.getElementName("urn:test", "t");
+        assertEquals(new QName("urn:test", "name"), name);
+        assertEquals("t", name.getPrefix());
+        assertSame(name, property.getElementName("urn:test", "t"));
+        assertEquals("u", property.getElementName("urn:test", "u").getPrefix());
+    }
+
+    /**
+     * Accessors of a class that is not public are invoked through reflection, without changing
+     * the accessibility of the {@link java.lang.reflect.Method} instances of the cached
+     * {@link PropertyDescriptor}.
+     */
+    public void testNonPublicClass() throws Exception {
+        BeanPlan.Property property = BeanPlan.get(Hidden.class).getProperty("value");
+        Hidden bean = new Hidden();
+        property.set(bean, "test");
+        assertEquals("test", bean.getValue());
+        assertEquals("test", property.get(bean));
+        for (PropertyDescriptor descriptor : BeanInfoCache.getCachedBeanInfo(Hidden.class,
+                null).getPropertyDescriptors()) {
+            if (descriptor.getName().equals("value")) {
+                assertFalse(descriptor.getReadMethod().isAccessible());
+                assertFalse(descriptor.getWriteMethod().isAccessible());
+            }
+        }
+    }
+
+    /**
+     * The method handles don't make the shared {@link java.lang.reflect.Method} instances
+     * accessible either.
+     */
+    public void testPublicClassMethodsNotModified() throws Exception {
+        BeanPlan.get(Person.class);
+        for (PropertyDescriptor descriptor : BeanInfoCache.getCachedBeanInfo(Person.class,
+                null).getPropertyDescriptors()) {
+            if (descriptor.getReadMethod() != null) {
+                assertFalse(descriptor.getReadMethod().isAccessible());
+            }
+            if (descriptor.getWriteMethod() != null) {
+                assertFalse(descriptor.getWriteMethod().isAccessible());
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.rpc.receivers;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.InOutAxisOperation;
+
+import javax.xml.namespace.QName;
+import java.lang.reflect.InvocationTargetException;
+
+public class RPCInvocationPlanTest extends TestCase {
+    public static class Calculator {
+        public int add(int a, int b) {
+            return a + b;
+        }
+
+        public static String echo(String s) {
+            return s;
+        }
+
+        public void fail(String message) throws Exception {
+            throw new Exception(message);
+        }
+
+        public long twice(long value) {
+            return 2 * value;
+        }
+
+        public String toText(Object value) {
+            return (String)value;
+        }
+    }
+
+    public static class ExtendedCalculator extends Calculator {
+        @Override
+        public int add(int a, int b) {
+            return a + b + 1;
+        }
+    }
+
+    private static AxisOperation createOperation(AxisService service, String name)
+            throws AxisFault {
+        AxisOperation operation = new InOutAxisOperation(new QName(name));
+        service.addOperation(operation);
+        return operation;
+    }
+
+    public void testInvoke() throws Exception {
+        AxisService service = new AxisService("Calculator");
+        AxisOperation add = createOperation(service, "add");
+        RPCInvocationPlan plan = RPCInvocationPlan.get(add, service, Calculator.class);
+        assertEquals("add", plan.getMethod().getName());
+        assertEquals(Integer.valueOf(5), plan.invoke(new Calculator(), new Object[] { 2, 3 }));
+        assertSame(plan, RPCInvocationPlan.get(add, service, Calculator.class));
+
+        AxisOperation echo = createOperation(service, "echo");
+        plan = RPCInvocationPlan.get(echo, service, Calculator.class);
+        assertEquals("test", plan.invoke(new Calculator(), new Object[] { "test" }));
+    }
+
+    public void testExceptionIsWrapped() throws Exception {
+        AxisService service = new AxisService("Calculator");
+        AxisOperation fail = createOperation(service, "fail");
+        RPCInvocationPlan plan = RPCInvocationPlan.get(fail, service, Calculator.class);
+        try {
+            plan.invoke(new Calculator(), new Object[] { "boom" });
+            fail("Expected InvocationTargetException");
+        } catch (InvocationTargetException ex) {
+            assertEquals("boom", ex.getCause().getMessage());
+        }
+    }
+
+    public void testInvalidArguments() throws Exception {
+        AxisService service = new AxisService("Calculator");
+        AxisOperation add = createOperation(service, "add");
+        RPCInvocationPlan plan = RPCInvocationPlan.get(add, service, Calculator.class);
+        Object[][] invalidArguments = {
+                { 2 },
+                { 2, "3" },
+                { 2, null },
+        };
+        for (Object[] args : invalidArguments) {
+            try {
+                plan.invoke(new Calculator(), args);
+                fail("Expected IllegalArgumentException");
+            } catch (IllegalArgumentException ex) {
+                // Expected
+            }
+        }
+        try {
+            plan.invoke("not a calculator", new Object[] { 2, 3 });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    public void testWideningConversion() throws Exception {
+        AxisService service = new AxisService("Calculator");
+        AxisOperation twice = createOperation(service, "twice");
+        RPCInvocationPlan plan = RPCInvocationPlan.get(twice, service, Calculator.class);
+        assertEquals(Long.valueOf(6), plan.invoke(new Calculator(), new Object[] { 3 }));
+    }
+
+    public void testClassCastExceptionFromMethodIsWrapped() throws Exception {
+        AxisService service = new AxisService("Calculator");
+        AxisOperation toText = createOperation(service, "toText");
+        RPCInvocationPlan plan = RPCInvocationPlan.get(toText, service, Calculator.class);
+        try {
+            plan.invoke(new Calculator(), new Object[] { 1 });
+            fail("Expected InvocationTargetException");
+        } catch (InvocationTargetException ex) {
+            assertTrue(ex.getCause() instanceof ClassCastException);
+        }
+    }
+
+    public void testPlanIsRebuiltForOtherClass() throws Exception {
+        AxisService service = new AxisService("Calculator");
+        AxisOperation add = createOperation(service, "add");
+        RPCInvocationPlan plan = RPCInvocationPlan.get(add, service, Calculator.class);
+        RPCInvocationPlan other = RPCInvocationPlan.get(add, service, ExtendedCalculator.class);
+        assertNotSame(plan, other);
+        assertEquals(Integer.valueOf(6),
+                other.invoke(new ExtendedCalculator(), new Object[] { 2, 3 }));
+    }
+
+    public void testNoSuchMethod() throws Exception {
+        AxisService service = new AxisService("Calculator");
+        AxisOperation operation = createOperation(service, "subtract");
+        try {
+            RPCInvocationPlan.get(operation, service, Calculator.class);
+            fail("Expected AxisFault");
+        } catch (AxisFault ex) {
+            // Expected
+        }
+    }
+}
@@ -29,6 +29,8 @@ import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.context.ServiceGroupContext;
 import org.apache.axis2.description.Parameter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -40,21 +42,111 @@ import java.util.Map;
  */
 public class DefaultStateManager implements StateManager {
 
+    private static final Log log = LogFactory.getLog(DefaultStateManager.class);
+
+    /**
+     * The interval (in milliseconds) during which property differences are coalesced before
+     * being replicated asynchronously. If this parameter is not set (or is 0), state is
+     * replicated synchronously.
+     */
+    public static final String REPLICATION_BATCH_INTERVAL = "replicationBatchInterval";
+
+    /**
+     * The maximum number of commands replicated in a single message when state is replicated
+     * asynchronously.
+     */
+    public static final String REPLICATION_MAX_BATCH_SIZE = "replicationMaxBatchSize";
+
+    private static final int DEFAULT_REPLICATION_MAX_BATCH_SIZE = 100;
+
     private final Map<String, Parameter> parameters = new HashMap<String, Parameter>();
 
     private ChannelSender sender;
 
+    private volatile StateReplicationPipeline replicationPipeline;
+
     private final Map<String, List> excludedReplicationPatterns = new HashMap<String, List>();
 
     //TODO: Try to use an interface
     public void setSender(ChannelSender sender) {
         this.sender = sender;
+        if (replicationPipeline != null) {
+            replicationPipeline.shutdown();
+            replicationPipeline = null;
+        }
+        long batchInterval = getLongParameter(REPLICATION_BATCH_INTERVAL, 0);
+        if (sender != null && batchInterval > 0) {
+            int maxBatchSize = (int) getLongParameter(REPLICATION_MAX_BATCH_SIZE,
+                                                      DEFAULT_REPLICATION_MAX_BATCH_SIZE);
+            replicationPipeline = new StateReplicationPipeline(sender, batchInterval,
+                                                               Math.max(maxBatchSize, 1));
+        }
+    }
+
+    private long getLongParameter(String name, long defaultValue) {
+        Parameter param = parameters.get(name);
+        if (param == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(((String) param.getValue()).trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value for parameter " + name + ": " + param.getValue());
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Replicate the pending state and stop the background thread used for asynchronous
+     * replication, if enabled.
+     */
+    public void shutdown() {
+        if (replicationPipeline != null) {
+            replicationPipeline.shutdown();
+            replicationPipeline = null;
+        }
+    }
+
+    /**
+     * Get the number of state clustering commands waiting to be replicated.
+     *
+     * @return the queue depth, or 0 if state is replicated synchronously
+     */
+    public int getReplicationQueueDepth() {
+        StateReplicationPipeline pipeline = replicationPipeline;
+        return pipeline == null ? 0 : pipeline.getQueueDepth();
+    }
+
+    /**
+     * Get the time (in milliseconds) the oldest state in the last replicated batch has been
+     * waiting to be replicated.
+     *
+     * @return the replication lag, or 0 if state is replicated synchronously
+     */
+    public long getReplicationLag() {
+        StateReplicationPipeline pipeline = replicationPipeline;
+        return pipeline == null ? 0 : pipeline.getReplicationLag();
+    }
+
+    /**
+     * Get the maximum replication lag (in milliseconds).
+     *
+     * @return the maximum replication lag, or 0 if state is replicated synchronously
+     */
+    public long getMaxReplicationLag() {
+        StateReplicationPipeline pipeline = replicationPipeline;
+        return pipeline == null ? 0 : pipeline.getMaxReplicationLag();
     }
 
     public DefaultStateManager() {
     }
 
     public void updateContext(AbstractContext context) throws ClusteringFault {
+        StateReplicationPipeline pipeline = replicationPipeline;
+        if (pipeline != null) {
+            pipeline.updateContext(context, excludedReplicationPatterns);
+            return;
+        }
         StateClusteringCommand cmd =
                 StateClusteringCommandFactory.getUpdateCommand(context,
                                                                  excludedReplicationPatterns,
@@ -69,11 +161,18 @@ public class DefaultStateManager implements StateManager {
         StateClusteringCommand cmd =
                 StateClusteringCommandFactory.getUpdateCommand(context, propertyNames);
         if (cmd != null) {
-            sender.sendToGroup(cmd);
+            send(cmd, context);
         }
     }
 
     public void updateContexts(AbstractContext[] contexts) throws ClusteringFault {
+        StateReplicationPipeline pipeline = replicationPipeline;
+        if (pipeline != null) {
+            for (AbstractContext context : contexts) {
+                pipeline.updateContext(context, excludedReplicationPatterns);
+            }
+            return;
+        }
         StateClusteringCommandCollection cmd =
                 StateClusteringCommandFactory.getCommandCollection(contexts,
                                                                    excludedReplicationPatterns);
@@ -83,12 +182,22 @@ public class DefaultStateManager implements StateManager {
     }
 
     public void replicateState(StateClusteringCommand command) throws ClusteringFault {
-        sender.sendToGroup(command);
+        send(command, null);
     }
 
     public void removeContext(AbstractContext context) throws ClusteringFault {
         StateClusteringCommand cmd = StateClusteringCommandFactory.getRemoveCommand(context);
-        sender.sendToGroup(cmd);
+        send(cmd, context);
+    }
+
+    private void send(StateClusteringCommand cmd, AbstractContext context) throws ClusteringFault {
+        StateReplicationPipeline pipeline = replicationPipeline;
+        if (pipeline != null) {
+            // Preserve the order with respect to the pending updates
+            pipeline.enqueue(cmd, context);
+        } else {
+            sender.sendToGroup(cmd);
+        }
     }
 
     public boolean isContextClusterable(AbstractContext context) {
@@ -38,6 +38,8 @@ import org.apache.commons.logging.LogFactory;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -106,6 +108,55 @@ public final class StateClusteringCommandFactory {
         return cmd;
     }
 
+    /**
+     * Creates an update command for the given property differences.
+     *
+     * @param context The context
+     * @param diffs   The property differences, as returned by
+     *                {@link #takePropertyDifferences(AbstractContext, Map)}
+     * @return ContextClusteringCommand, or null if there are no property differences
+     */
+    public static StateClusteringCommand getUpdateCommand(AbstractContext context,
+                                                          Collection<PropertyDifference> diffs) {
+        UpdateStateCommand cmd = null;
+        if (!diffs.isEmpty()) {
+            cmd = toUpdateContextCommand(context);
+            if (cmd != null) {
+                for (PropertyDifference diff : diffs) {
+                    cmd.addProperty(diff);
+                }
+            }
+        }
+        return cmd;
+    }
+
+    /**
+     * Gets the property differences of a context that need to be replicated and clears the
+     * property differences of the context, so that they are replicated only once.
+     *
+     * @param context                  The context
+     * @param excludedPropertyPatterns The property patterns to be excluded from replication
+     * @return the property differences, keyed by property name
+     */
+    public static Map<String, PropertyDifference> takePropertyDifferences(
+            AbstractContext context, Map excludedPropertyPatterns) {
+        Map<String, PropertyDifference> result = new HashMap<String, PropertyDifference>();
+        synchronized (context) {
+            Map diffs = context.getPropertyDifferences();
+            for (Object o : diffs.keySet()) {
+                String key = (String) o;
+                PropertyDifference diff = (PropertyDifference) diffs.get(key);
+                Object value = diff.getValue();
+                if (isSerializable(value) &&
+                    !isExcluded(key, context.getClass().getName(), excludedPropertyPatterns)) {
+                    result.put(key, new PropertyDifference(key, value, diff.isRemoved()));
+                }
+            }
+            context.clearPropertyDifferences();
+        }
+        return result;
+    }
+
     private static UpdateStateCommand toUpdateContextCommand(AbstractContext context) {
         UpdateStateCommand cmd = null;
         if (context instanceof ConfigurationContext) {
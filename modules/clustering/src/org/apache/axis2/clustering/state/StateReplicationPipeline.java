@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state;
+
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.MessageSender;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandBatch;
+import org.apache.axis2.context.AbstractContext;
+import org.apache.axis2.context.PropertyDifference;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replicates state asynchronously. Property differences are coalesced per context during the
+ * batch interval, so that a property that is updated by several requests is only replicated once,
+ * and the resulting commands are sent to the group in {@link StateClusteringCommandBatch}es
+ * by a single background thread. Request threads therefore never wait for the cluster. Older
+ * versions can't read these batches, so all members of the cluster must be upgraded before
+ * the pipeline is enabled.
+ * <p/>
+ * The relative order of the commands concerning a given context is preserved: a command that
+ * can't be coalesced (e.g. a command removing a context) closes the pending update for that
+ * context, and subsequent updates are sent after that command.
+ */
+public class StateReplicationPipeline {
+    private static final Log log = LogFactory.getLog(StateReplicationPipeline.class);
+
+    private final MessageSender sender;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService executor;
+    private final Runnable flushTask = new Runnable() {
+        public void run() {
+            flush();
+        }
+    };
+
+    private final Object lock = new Object();
+    /** Pending entries; either {@link PendingUpdate} or {@link StateClusteringCommand} objects */
+    private List<Object> pending = new ArrayList<Object>();
+    /** The pending updates that may still be merged with new property differences */
+    private final Map<AbstractContext, PendingUpdate> openUpdates =
+            new IdentityHashMap<AbstractContext, PendingUpdate>();
+    private long oldestPendingTime;
+    private boolean flushRequested;
+
+    private volatile int queueDepth;
+    private volatile long lastReplicationLag;
+    private volatile long maxReplicationLag;
+
+    /**
+     * Create a new pipeline and start its background thread.
+     *
+     * @param sender        the sender used to send the batches to the group
+     * @param batchInterval the interval (in milliseconds) at which pending state is replicated
+     * @param maxBatchSize  the maximum number of commands per batch; the pending state is
+     *                      replicated immediately when this number of commands is reached
+     */
+    public StateReplicationPipeline(MessageSender sender, long batchInterval, int maxBatchSize) {
+        this.sender = sender;
+        this.maxBatchSize = maxBatchSize;
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Axis2 state replication");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(flushTask, batchInterval, batchInterval,
+                                        TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue the property differences of a context for replication. The property differences
+     * of the context are cleared.
+     *
+     * @param context                  The context
+     * @param excludedPropertyPatterns The property patterns to be excluded from replication
+     */
+    public void updateContext(AbstractContext context, Map excludedPropertyPatterns) {
+        Map<String, PropertyDifference> diffs =
+                StateClusteringCommandFactory.takePropertyDifferences(context,
+                                                                      excludedPropertyPatterns);
+        if (diffs.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            PendingUpdate update = openUpdates.get(context);
+            if (update == null) {
+                update = new PendingUpdate(context);
+                openUpdates.put(context, update);
+                add(update);
+            }
+            // Later differences override earlier ones
+            update.diffs.putAll(diffs);
+        }
+    }
+
+    /**
+     * Queue a command that can't be coalesced.
+     *
+     * @param command The command
+     * @param context The context affected by the command, or null if unknown
+     */
+    public void enqueue(StateClusteringCommand command, AbstractContext context) {
+        synchronized (lock) {
+            if (context != null) {
+                openUpdates.remove(context);
+            }
+            add(command);
+        }
+    }
+
+    private void add(Object entry) {
+        if (pending.isEmpty()) {
+            oldestPendingTime = System.nanoTime();
+        }
+        pending.add(entry);
+        queueDepth = pending.size();
+        if (pending.size() >= maxBatchSize && !flushRequested) {
+            try {
+                executor.execute(flushTask);
+                flushRequested = true;
+            } catch (RejectedExecutionException e) {
+                // The pipeline has been shut down
+            }
+        }
+    }
+
+    /**
+     * Send all pending state to the group. This is normally invoked by the background thread.
+     */
+    void flush() {
+        List<Object> entries;
+        long enqueueTime;
+        synchronized (lock) {
+            flushRequested = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            entries = pending;
+            enqueueTime = oldestPendingTime;
+            pending = new ArrayList<Object>();
+            openUpdates.clear();
+            queueDepth = 0;
+        }
+        List<StateClusteringCommand> commands = new ArrayList<StateClusteringCommand>();
+        for (Object entry : entries) {
+            StateClusteringCommand command;
+            if (entry instanceof PendingUpdate) {
+                PendingUpdate update = (PendingUpdate) entry;
+                command = StateClusteringCommandFactory.getUpdateCommand(update.context,
+                                                                         update.diffs.values());
+            } else {
+                command = (StateClusteringCommand) entry;
+            }
+            if (command != null) {
+                commands.add(command);
+                if (commands.size() == maxBatchSize) {
+                    send(commands);
+                    commands = new ArrayList<StateClusteringCommand>();
+                }
+            }
+        }
+        if (!commands.isEmpty()) {
+            send(commands);
+        }
+        long lag = (System.nanoTime() - enqueueTime) / 1000000;
+        lastReplicationLag = lag;
+        if (lag > maxReplicationLag) {
+            maxReplicationLag = lag;
+        }
+    }
+
+    private void send(List<StateClusteringCommand> commands) {
+        try {
+            if (commands.size() == 1) {
+                sender.sendToGroup(commands.get(0));
+            } else {
+                sender.sendToGroup(new StateClusteringCommandBatch(commands));
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Replicated " + commands.size() + " state clustering commands");
+            }
+        } catch (ClusteringFault e) {
+            log.error("Could not replicate " + commands.size() + " state clustering commands", e);
+        } catch (RuntimeException e) {
+            log.error("Could not replicate " + commands.size() + " state clustering commands", e);
+        }
+    }
+
+    /**
+     * Replicate the pending state and stop the background thread.
+     */
+    public void shutdown() {
+        executor.execute(flushTask);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Timed out while replicating pending state");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the number of commands waiting to be replicated.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Get the replication lag of the last batch, i.e. the time (in milliseconds) between the
+     * moment the oldest state in the batch was queued and the moment the batch was sent.
+     *
+     * @return the replication lag in milliseconds
+     */
+    public long getReplicationLag() {
+        return lastReplicationLag;
+    }
+
+    /**
+     * Get the maximum replication lag observed since this pipeline was started.
+     *
+     * @return the maximum replication lag in milliseconds
+     */
+    public long getMaxReplicationLag() {
+        return maxReplicationLag;
+    }
+
+    private static final class PendingUpdate {
+        final AbstractContext context;
+        final Map<String, PropertyDifference> diffs =
+                new LinkedHashMap<String, PropertyDifference>();
+
+        PendingUpdate(AbstractContext context) {
+            this.context = context;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state.commands;
+
+import org.apache.axis2.clustering.ClusteringFault;
+import org.apache.axis2.clustering.state.StateClusteringCommand;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.PropertyDifference;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A batch of StateClusteringCommands sent by the
+ * {@link org.apache.axis2.clustering.state.StateReplicationPipeline}. The update commands are
+ * written in a compact form: only the identifiers of the context and the names, removal flags
+ * and values of the properties go to the stream, instead of the complete object graph of the
+ * commands. Other commands are serialized as usual.
+ * <p/>
+ * The individual commands keep their default serialized form, so members that replicate state
+ * synchronously stay compatible with older versions. Batches can only be read by members
+ * that know this class: batched replication must only be enabled once all members of the
+ * cluster have been upgraded. The encoding starts with a version number, so that later
+ * changes can be detected.
+ */
+public class StateClusteringCommandBatch extends StateClusteringCommand
+        implements Externalizable {
+
+    private static final int VERSION = 1;
+
+    private static final int OTHER = 0;
+    private static final int UPDATE_CONFIGURATION = 1;
+    private static final int UPDATE_SERVICE_GROUP = 2;
+    private static final int UPDATE_SERVICE = 3;
+
+    private List<StateClusteringCommand> commands;
+
+    /**
+     * Constructor used during deserialization.
+     */
+    public StateClusteringCommandBatch() {
+    }
+
+    public StateClusteringCommandBatch(List<StateClusteringCommand> commands) {
+        this.commands = commands;
+    }
+
+    public List<StateClusteringCommand> getCommands() {
+        return commands;
+    }
+
+    public void execute(ConfigurationContext configContext) throws ClusteringFault {
+        for (StateClusteringCommand command : commands) {
+            command.execute(configContext);
+        }
+    }
+
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeInt(VERSION);
+        out.writeInt(commands.size());
+        for (StateClusteringCommand command : commands) {
+            Class<?> commandClass = command.getClass();
+            if (commandClass == UpdateConfigurationStateCommand.class) {
+                out.writeByte(UPDATE_CONFIGURATION);
+            } else if (commandClass == UpdateServiceGroupStateCommand.class) {
+                UpdateServiceGroupStateCommand cmd = (UpdateServiceGroupStateCommand) command;
+                out.writeByte(UPDATE_SERVICE_GROUP);
+                writeString(out, cmd.serviceGroupName);
+                writeString(out, cmd.serviceGroupContextId);
+            } else if (commandClass == UpdateServiceStateCommand.class) {
+                UpdateServiceStateCommand cmd = (UpdateServiceStateCommand) command;
+                out.writeByte(UPDATE_SERVICE);
+                writeString(out, cmd.serviceGroupName);
+                writeString(out, cmd.serviceGroupContextId);
+                writeString(out, cmd.serviceName);
+            } else {
+                out.writeByte(OTHER);
+                out.writeObject(command);
+                continue;
+            }
+            writeProperties(out, (UpdateStateCommand) command);
+        }
+    }
+
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new InvalidObjectException("Unsupported state clustering command batch version "
+                    + version);
+        }
+        int count = in.readInt();
+        commands = new ArrayList<StateClusteringCommand>(count);
+        for (int i = 0; i < count; i++) {
+            int type = in.readByte();
+            UpdateStateCommand command;
+            switch (type) {
+                case OTHER:
+                    commands.add((StateClusteringCommand) in.readObject());
+                    continue;
+                case UPDATE_CONFIGURATION:
+                    command = new UpdateConfigurationStateCommand();
+                    break;
+                case UPDATE_SERVICE_GROUP:
+                    UpdateServiceGroupStateCommand sgCmd = new UpdateServiceGroupStateCommand();
+                    sgCmd.serviceGroupName = readString(in);
+                    sgCmd.serviceGroupContextId = readString(in);
+                    command = sgCmd;
+                    break;
+                case UPDATE_SERVICE:
+                    UpdateServiceStateCommand serviceCmd = new UpdateServiceStateCommand();
+                    serviceCmd.serviceGroupName = readString(in);
+                    serviceCmd.serviceGroupContextId = readString(in);
+                    serviceCmd.serviceName = readString(in);
+                    command = serviceCmd;
+                    break;
+                default:
+                    throw new InvalidObjectException("Unknown state clustering command type "
+                            + type);
+            }
+            readProperties(in, command);
+            commands.add(command);
+        }
+    }
+
+    private static void writeProperties(ObjectOutput out, UpdateStateCommand command)
+            throws IOException {
+        Map properties = command.propertyUpdater.getProperties();
+        if (properties == null) {
+            out.writeInt(0);
+            return;
+        }
+        out.writeInt(properties.size());
+        for (Object o : properties.values()) {
+            PropertyDifference diff = (PropertyDifference) o;
+            out.writeUTF(diff.getKey());
+            out.writeBoolean(diff.isRemoved());
+            if (!diff.isRemoved()) {
+                out.writeObject(diff.getValue());
+            }
+        }
+    }
+
+    private static void readProperties(ObjectInput in, UpdateStateCommand command)
+            throws IOException, ClassNotFoundException {
+        int count = in.readInt();
+        Map properties = new HashMap();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            boolean removed = in.readBoolean();
+            Object value = removed ? null : in.readObject();
+            properties.put(key, new PropertyDifference(key, value, removed));
+        }
+        command.propertyUpdater.setProperties(properties);
+    }
+
+    private static void writeString(ObjectOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(ObjectInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public String toString() {
+        return "StateClusteringCommandBatch";
+    }
+}
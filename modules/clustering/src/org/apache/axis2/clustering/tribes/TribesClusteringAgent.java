@@ -826,6 +826,9 @@ public class TribesClusteringAgent implements ClusteringAgent {
      */
     public void shutdown() throws ClusteringFault {
         log.debug("Enter: TribesClusteringAgent::shutdown");
+        if (contextManager != null) {
+            contextManager.shutdown();
+        }
         if (channel != null) {
             try {
                 channel.removeChannelListener(rpcInitChannel);
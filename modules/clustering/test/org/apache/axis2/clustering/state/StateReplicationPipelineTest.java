@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state;
+
+import junit.framework.TestCase;
+import org.apache.axis2.clustering.ClusteringCommand;
+import org.apache.axis2.clustering.MessageSender;
+import org.apache.axis2.clustering.state.commands.DeleteServiceGroupStateCommand;
+import org.apache.axis2.clustering.state.commands.StateClusteringCommandBatch;
+import org.apache.axis2.clustering.tribes.TribesClusteringAgent;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ServiceGroupContext;
+import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.engine.AxisConfiguration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StateReplicationPipelineTest extends TestCase {
+    private static class RecordingSender implements MessageSender {
+        final List<ClusteringCommand> commands = new ArrayList<ClusteringCommand>();
+
+        public synchronized void sendToGroup(ClusteringCommand msg) {
+            commands.add(msg);
+            notifyAll();
+        }
+
+        public void sendToSelf(ClusteringCommand msg) {
+        }
+
+        synchronized ClusteringCommand await() throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (commands.isEmpty() && System.currentTimeMillis() < deadline) {
+                wait(1000);
+            }
+            assertEquals(1, commands.size());
+            return commands.get(0);
+        }
+    }
+
+    private final Map excludes = new HashMap();
+    private ConfigurationContext configContext;
+    private RecordingSender sender;
+
+    protected void setUp() throws Exception {
+        AxisConfiguration axisConfig = new AxisConfiguration();
+        TribesClusteringAgent clusteringAgent = new TribesClusteringAgent();
+        clusteringAgent.setStateManager(new DefaultStateManager());
+        axisConfig.setClusteringAgent(clusteringAgent);
+        configContext = new ConfigurationContext(axisConfig);
+        sender = new RecordingSender();
+    }
+
+    private ServiceGroupContext createServiceGroupContext(String id) {
+        AxisServiceGroup serviceGroup = new AxisServiceGroup(configContext.getAxisConfiguration());
+        serviceGroup.setServiceGroupName("sg");
+        ServiceGroupContext sgCtx = new ServiceGroupContext(configContext, serviceGroup);
+        sgCtx.setId(id);
+        return sgCtx;
+    }
+
+    private static Object copy(Object orig) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(orig);
+        out.close();
+        return new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray())).readObject();
+    }
+
+    public void testCoalescing() throws Exception {
+        StateReplicationPipeline pipeline = new StateReplicationPipeline(sender, 3600000, 100);
+        try {
+            configContext.setProperty("a", "1");
+            pipeline.updateContext(configContext, excludes);
+            configContext.setProperty("a", "2");
+            configContext.setProperty("b", "3");
+            pipeline.updateContext(configContext, excludes);
+            ServiceGroupContext sgCtx = createServiceGroupContext("sg1");
+            sgCtx.setProperty("c", "4");
+            pipeline.updateContext(sgCtx, excludes);
+            assertEquals(2, pipeline.getQueueDepth());
+            assertTrue(configContext.getPropertyDifferences().isEmpty());
+
+            pipeline.flush();
+            assertEquals(0, pipeline.getQueueDepth());
+            assertEquals(1, sender.commands.size());
+            StateClusteringCommandBatch batch =
+                    (StateClusteringCommandBatch) copy(sender.commands.get(0));
+
+            // Apply the replicated state to another member
+            ConfigurationContext otherConfigContext =
+                    new ConfigurationContext(new AxisConfiguration());
+            AxisServiceGroup serviceGroup =
+                    new AxisServiceGroup(otherConfigContext.getAxisConfiguration());
+            serviceGroup.setServiceGroupName("sg");
+            otherConfigContext.getAxisConfiguration().addServiceGroup(serviceGroup);
+            batch.execute(otherConfigContext);
+            assertEquals("2", otherConfigContext.getPropertyNonReplicable("a"));
+            assertEquals("3", otherConfigContext.getPropertyNonReplicable("b"));
+            assertEquals("4", otherConfigContext.getServiceGroupContext("sg1")
+                    .getPropertyNonReplicable("c"));
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    public void testOrderPreserved() throws Exception {
+        StateReplicationPipeline pipeline = new StateReplicationPipeline(sender, 3600000, 100);
+        try {
+            ServiceGroupContext sgCtx = createServiceGroupContext("sg1");
+            sgCtx.setProperty("a", "1");
+            pipeline.updateContext(sgCtx, excludes);
+            pipeline.enqueue(StateClusteringCommandFactory.getRemoveCommand(sgCtx), sgCtx);
+            sgCtx.setProperty("a", "2");
+            pipeline.updateContext(sgCtx, excludes);
+            assertEquals(3, pipeline.getQueueDepth());
+            pipeline.flush();
+            StateClusteringCommandBatch batch =
+                    (StateClusteringCommandBatch) copy(sender.commands.get(0));
+            List<StateClusteringCommand> commands = batch.getCommands();
+            assertEquals(3, commands.size());
+            assertTrue(commands.get(1) instanceof DeleteServiceGroupStateCommand);
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+
+    public void testFlushWhenBatchIsFull() throws Exception {
+        StateReplicationPipeline pipeline = new StateReplicationPipeline(sender, 3600000, 2);
+        try {
+            ServiceGroupContext sgCtx1 = createServiceGroupContext("sg1");
+            sgCtx1.setProperty("a", "1");
+            pipeline.updateContext(sgCtx1, excludes);
+            ServiceGroupContext sgCtx2 = createServiceGroupContext("sg2");
+            sgCtx2.setProperty("a", "1");
+            pipeline.updateContext(sgCtx2, excludes);
+            assertTrue(sender.await() instanceof StateClusteringCommandBatch);
+        } finally {
+            pipeline.shutdown();
+        }
+    }
+}
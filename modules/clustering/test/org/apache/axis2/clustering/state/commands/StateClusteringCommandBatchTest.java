@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.clustering.state.commands;
+
+import junit.framework.TestCase;
+import org.apache.axis2.clustering.state.StateClusteringCommand;
+import org.apache.axis2.context.PropertyDifference;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class StateClusteringCommandBatchTest extends TestCase {
+
+    private static Object copy(Object orig) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        out.writeObject(orig);
+        out.close();
+        return new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray())).readObject();
+    }
+
+    public void testRoundTrip() throws Exception {
+        List<StateClusteringCommand> commands = new ArrayList<StateClusteringCommand>();
+        UpdateConfigurationStateCommand configCmd = new UpdateConfigurationStateCommand();
+        configCmd.addProperty(new PropertyDifference("a", "1", false));
+        commands.add(configCmd);
+        UpdateServiceGroupStateCommand sgCmd = new UpdateServiceGroupStateCommand();
+        sgCmd.setServiceGroupName("sg");
+        sgCmd.setServiceGroupContextId("sg1");
+        sgCmd.addProperty(new PropertyDifference("b", null, true));
+        commands.add(sgCmd);
+        UpdateServiceStateCommand serviceCmd = new UpdateServiceStateCommand();
+        serviceCmd.setServiceGroupName("sg");
+        serviceCmd.setServiceGroupContextId("sg1");
+        serviceCmd.setServiceName("Echo");
+        serviceCmd.addProperty(new PropertyDifference("c", Integer.valueOf(3), false));
+        commands.add(serviceCmd);
+        DeleteServiceGroupStateCommand deleteCmd = new DeleteServiceGroupStateCommand();
+        deleteCmd.setServiceGroupContextId("sg2");
+        commands.add(deleteCmd);
+
+        List<StateClusteringCommand> copies =
+                ((StateClusteringCommandBatch) copy(new StateClusteringCommandBatch(commands)))
+                        .getCommands();
+        assertEquals(4, copies.size());
+
+        Map properties = ((UpdateConfigurationStateCommand) copies.get(0))
+                .propertyUpdater.getProperties();
+        assertEquals("1", ((PropertyDifference) properties.get("a")).getValue());
+
+        UpdateServiceGroupStateCommand sgCopy = (UpdateServiceGroupStateCommand) copies.get(1);
+        assertEquals("sg", sgCopy.getServiceGroupName());
+        assertEquals("sg1", sgCopy.getServiceGroupContextId());
+        assertTrue(((PropertyDifference) sgCopy.propertyUpdater.getProperties().get("b"))
+                .isRemoved());
+
+        UpdateServiceStateCommand serviceCopy = (UpdateServiceStateCommand) copies.get(2);
+        assertEquals("sg", serviceCopy.serviceGroupName);
+        assertEquals("sg1", serviceCopy.serviceGroupContextId);
+        assertEquals("Echo", serviceCopy.serviceName);
+        assertEquals(Integer.valueOf(3), ((PropertyDifference) serviceCopy.propertyUpdater
+                .getProperties().get("c")).getValue());
+
+        assertTrue(copies.get(3) instanceof DeleteServiceGroupStateCommand);
+    }
+
+    public void testUnknownVersionRejected() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bos);
+        new StateClusteringCommandBatch(new ArrayList<StateClusteringCommand>())
+                .writeExternal(out);
+        out.close();
+        byte[] bytes = bos.toByteArray();
+        // the version is the first int of the block data following the stream header
+        bytes[bytes.length - 5] = 99;
+        try {
+            new StateClusteringCommandBatch().readExternal(
+                    new ObjectInputStream(new ByteArrayInputStream(bytes)));
+            fail("Expected InvalidObjectException");
+        } catch (InvalidObjectException expected) {
+            // expected
+        }
+    }
+
+    /**
+     * Members that replicate state synchronously send the update commands in their default
+     * serialized form, which must not change so that they can talk to older versions during
+     * a rolling upgrade.
+     */
+    public void testUpdateCommandsWireCompatible() {
+        assertFalse(Externalizable.class.isAssignableFrom(UpdateStateCommand.class));
+        assertFalse(Externalizable.class.isAssignableFrom(
+                StateClusteringCommandCollection.class));
+        assertEquals(132585676290000399L, ObjectStreamClass.lookup(
+                UpdateConfigurationStateCommand.class).getSerialVersionUID());
+        assertEquals(1086127863968999204L, ObjectStreamClass.lookup(
+                UpdateServiceGroupStateCommand.class).getSerialVersionUID());
+        assertEquals(-8029649062119565112L, ObjectStreamClass.lookup(
+                UpdateServiceStateCommand.class).getSerialVersionUID());
+        assertEquals(-8630925240260284254L, ObjectStreamClass.lookup(
+                StateClusteringCommandCollection.class).getSerialVersionUID());
+    }
+}
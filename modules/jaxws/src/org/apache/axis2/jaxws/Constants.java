@@ -266,5 +266,40 @@ public interface Constants {
      * 
      * If this property is set, the Endpoint.publish methods will throw an UnsupportedOperationException.
      */
-    public static final String  DISABLE_ENDPOINT_PUBLISH_METHODS = "jaxws.endpoint.publish.disable"; 
+    public static final String  DISABLE_ENDPOINT_PUBLISH_METHODS = "jaxws.endpoint.publish.disable";
+
+    /** 
+     * Parameter:
+     * Name: jaxws.handler.chain.pool.size
+     * Value: String representation of an integer
+     * Default: null, which is interpreted as "0"
+     * Can be set on:
+     * - Service (in the services.xml), which affects that jax-ws endpoint
+     * - Axis Configuration, which affects all jax-ws endpoints
+     *
+     * The maximum number of idle handler chains kept per jax-ws endpoint.  By default the
+     * application handlers of an endpoint are instantiated (running resource injection and
+     * the PostConstruct method) for every request, and destroyed (running the PreDestroy method)
+     * once the request has been processed.  If this parameter is set to a positive value,
+     * initialized handler chains are pooled and reused by subsequent requests; the PreDestroy
+     * method is only called for chains that don't fit in the pool, and when the endpoint is
+     * undeployed.
+     */
+    public static final String JAXWS_HANDLER_CHAIN_POOL_SIZE = "jaxws.handler.chain.pool.size";
+
+    /** 
+     * Parameter:
+     * Name: jaxws.handler.chain.threadSafe
+     * Value: String "false" or "true"
+     * Default: null, which is interpreted as "false"
+     * Can be set on:
+     * - Service (in the services.xml), which affects that jax-ws endpoint
+     * - Axis Configuration, which affects all jax-ws endpoints
+     *
+     * Indicates that the application handlers of the endpoint are thread safe.  If this parameter
+     * is set to "true", a single instance of the handler chain is created for the endpoint and
+     * shared by all concurrent requests.  The jaxws.handler.chain.pool.size parameter is then
+     * ignored.
+     */
+    public static final String JAXWS_HANDLER_CHAIN_THREAD_SAFE = "jaxws.handler.chain.threadSafe";
 }
@@ -27,9 +27,13 @@ import org.apache.axis2.deployment.DeploymentEngine;
 import org.apache.axis2.deployment.DeploymentErrorMsgs;
 import org.apache.axis2.deployment.repository.util.DeploymentFileData;
 import org.apache.axis2.deployment.util.Utils;
+import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.description.Parameter;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.i18n.Messages;
+import org.apache.axis2.jaxws.description.EndpointDescription;
+import org.apache.axis2.jaxws.server.HandlerChainPool;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -196,6 +200,13 @@ public class JAXWSDeployer extends AbstractDeployer {
         try {
             AxisServiceGroup serviceGroup =
                     axisConfig.removeServiceGroup(fileName);
+            for (Iterator<AxisService> services = serviceGroup.getServices(); services.hasNext(); ) {
+                Parameter param = services.next().getParameter(
+                        EndpointDescription.AXIS_SERVICE_PARAMETER);
+                if (param != null && param.getValue() instanceof EndpointDescription) {
+                    HandlerChainPool.close((EndpointDescription) param.getValue());
+                }
+            }
             if(configCtx != null) {
                 configCtx.removeServiceGroupContext(serviceGroup);
             }
@@ -81,6 +81,13 @@ public class EndpointController {
 
     private static final Log log = LogFactory.getLog(EndpointController.class);
 
+    /**
+     * The pool the handlers of the current request have been taken from, if any, and these
+     * handlers. An EndpointController is created for every request.
+     */
+    private HandlerChainPool handlerChainPool;
+    private List<Handler> pooledHandlers;
+
 
     /**
      * This method is used to start the JAX-WS invocation of a target endpoint. It takes an
@@ -146,16 +153,21 @@ public class EndpointController {
             boolean good = handleRequest(eic);
 
             if (!good) {
+                releasePooledHandlers(eic, request);
                 return;
             }
             EndpointDispatcher dispatcher = eic.getDispatcher();
             if (request != null && dispatcher != null) {
+                if (pooledHandlers != null) {
+                    eic.setCallback(new PooledHandlersCallback(eic.getCallback()));
+                }
                 dispatcher.invokeAsync(request, eic.getCallback());    
             }
             else {
                 throw ExceptionFactory.makeWebServiceException(Messages.getMessage("invokeErr"));
             }
         } catch (Exception e) {
+            releasePooledHandlers(eic, request);
             Throwable toBeThrown = InvocationHelper.determineMappedException(e, eic);
             if(toBeThrown == null) {
                 toBeThrown = e;
@@ -199,6 +211,8 @@ public class EndpointController {
         } finally {
             // Passed pivot point
             request.getMessage().setPostPivot();
+            // There is no outbound flow for a one-way request
+            releasePooledHandlers(eic, request);
         }
         
         return;
@@ -235,7 +249,12 @@ public class EndpointController {
                 }
                 HandlerResolverImpl hri = new HandlerResolverImpl(endpointDesc.getServiceDescription());
                 PortInfo portInfo = endpointDesc.getPortInfo();
-                eic.setHandlers(hri.getHandlerChain(portInfo));
+                HandlerChainPool pool = HandlerChainPool.getInstance(endpointDesc);
+                if (pool != null) {
+                    acquirePooledHandlers(eic, pool);
+                } else {
+                    eic.setHandlers(hri.getHandlerChain(portInfo));
+                }
                 handlerRoles = hri.getRoles(portInfo);
             }
             
@@ -417,9 +436,44 @@ public class EndpointController {
         return true;
     }
 
+    /**
+     * Take the handlers of the current request from a pool. They must be returned with
+     * {@link #releasePooledHandlers(EndpointInvocationContext, MessageContext)} once the
+     * request has been processed.
+     */
+    void acquirePooledHandlers(EndpointInvocationContext eic, HandlerChainPool pool) {
+        handlerChainPool = pool;
+        pooledHandlers = pool.acquire();
+        eic.setHandlers(pooledHandlers);
+    }
+
+    /**
+     * Return the handlers of the current request to the pool they have been taken from, if
+     * any. This may be called more than once, and by the thread completing an asynchronous
+     * request.
+     *
+     * @return true if the handlers have been taken from a pool
+     */
+    private synchronized boolean releasePooledHandlers(EndpointInvocationContext eic,
+                                                       MessageContext request) {
+        List<Handler> list = eic.getHandlers();
+        if (list == null || list != pooledHandlers) {
+            return false;
+        }
+        // The handlers are reused by subsequent requests
+        if (handlerChainPool != null) {
+            handlerChainPool.release(list, request);
+            handlerChainPool = null;
+        }
+        return true;
+    }
+
     private void destroyHandlers(EndpointInvocationContext eic, MessageContext request) {
-        HandlerLifecycleManager hlm = createHandlerlifecycleManager();
+        if (releasePooledHandlers(eic, request)) {
+            return;
+        }
         List<Handler> list = eic.getHandlers();
+        HandlerLifecycleManager hlm = createHandlerlifecycleManager();
         if(list != null) {
             for (Iterator it = list.iterator(); it.hasNext();) {
                 try {
@@ -719,4 +773,33 @@ public class EndpointController {
     	return msgContext;
     }
     
+    /**
+     * Returns the pooled handlers of an asynchronous request to their pool once the response
+     * or fault has gone through the outbound handler flow.
+     */
+    private class PooledHandlersCallback extends EndpointCallback {
+        private final EndpointCallback callback;
+
+        PooledHandlersCallback(EndpointCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void handleResponse(EndpointInvocationContext eic) {
+            try {
+                callback.handleResponse(eic);
+            } finally {
+                releasePooledHandlers(eic, eic.getRequestMessageContext());
+            }
+        }
+
+        @Override
+        public void handleFaultResponse(EndpointInvocationContext eic) {
+            try {
+                callback.handleFaultResponse(eic);
+            } finally {
+                releasePooledHandlers(eic, eic.getRequestMessageContext());
+            }
+        }
+    }
 }
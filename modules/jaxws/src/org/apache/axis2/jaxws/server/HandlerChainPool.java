@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.server;
+
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.jaxws.Constants;
+import org.apache.axis2.jaxws.ExceptionFactory;
+import org.apache.axis2.jaxws.core.MessageContext;
+import org.apache.axis2.jaxws.description.EndpointDescription;
+import org.apache.axis2.jaxws.handler.HandlerResolverImpl;
+import org.apache.axis2.jaxws.handler.lifecycle.factory.HandlerLifecycleManager;
+import org.apache.axis2.jaxws.handler.lifecycle.factory.HandlerLifecycleManagerFactory;
+import org.apache.axis2.jaxws.registry.FactoryRegistry;
+import org.apache.axis2.util.JavaUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.xml.ws.handler.Handler;
+import javax.xml.ws.handler.PortInfo;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A per-endpoint pool of initialized server side handler chains. Without a pool, the
+ * {@link EndpointController} instantiates the handlers of the endpoint (running resource
+ * injection and <code>@PostConstruct</code>) for every request, and destroys them
+ * (running <code>@PreDestroy</code>) once the response has been processed.
+ * <p/>
+ * Pooling is enabled by the {@link Constants#JAXWS_HANDLER_CHAIN_POOL_SIZE} and
+ * {@link Constants#JAXWS_HANDLER_CHAIN_THREAD_SAFE} parameters. With a pool, a chain is taken
+ * from the pool (or created if the pool is empty) for each request, and returned to the pool
+ * afterwards. Chains that don't fit in the pool are destroyed. If the handlers are declared
+ * thread safe, a single chain is shared by all concurrent requests. The handlers still in the
+ * pool are destroyed when the endpoint is undeployed.
+ */
+public class HandlerChainPool {
+    private static final Log log = LogFactory.getLog(HandlerChainPool.class);
+
+    private static final String PROPERTY_NAME = HandlerChainPool.class.getName();
+
+    private final EndpointDescription endpointDesc;
+    private final BlockingQueue<List<Handler>> idleChains;
+    /** The chain shared by all requests if the handlers are thread safe */
+    private final List<Handler> sharedChain;
+    private volatile boolean closed;
+
+    HandlerChainPool(EndpointDescription endpointDesc, int size, boolean threadSafe) {
+        this.endpointDesc = endpointDesc;
+        if (threadSafe) {
+            idleChains = null;
+            sharedChain = createChain();
+        } else {
+            idleChains = new ArrayBlockingQueue<List<Handler>>(size);
+            sharedChain = null;
+        }
+    }
+
+    /**
+     * Get the pool of an endpoint, creating it if necessary.
+     *
+     * @param endpointDesc the endpoint
+     * @return the pool, or <code>null</code> if handler chains are not pooled for the endpoint
+     */
+    public static HandlerChainPool getInstance(EndpointDescription endpointDesc) {
+        synchronized (endpointDesc) {
+            Object pool = endpointDesc.getProperty(PROPERTY_NAME);
+            if (pool == null) {
+                AxisService axisService = endpointDesc.getAxisService();
+                int size = 0;
+                boolean threadSafe = false;
+                if (axisService != null) {
+                    Parameter param = axisService.getParameter(
+                            Constants.JAXWS_HANDLER_CHAIN_POOL_SIZE);
+                    if (param != null && param.getValue() != null) {
+                        try {
+                            size = Integer.parseInt(param.getValue().toString().trim());
+                        } catch (NumberFormatException e) {
+                            log.warn("Invalid value for " + Constants.JAXWS_HANDLER_CHAIN_POOL_SIZE
+                                    + " : " + param.getValue());
+                        }
+                    }
+                    param = axisService.getParameter(Constants.JAXWS_HANDLER_CHAIN_THREAD_SAFE);
+                    threadSafe = param != null && JavaUtils.isTrueExplicitly(param.getValue());
+                }
+                if (threadSafe || size > 0) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Pooling the handler chains of endpoint "
+                                + endpointDesc.getPortQName() + (threadSafe ? " (thread safe)"
+                                : " (pool size " + size + ")"));
+                    }
+                    pool = new HandlerChainPool(endpointDesc, size, threadSafe);
+                } else {
+                    pool = Boolean.FALSE;
+                }
+                endpointDesc.setProperty(PROPERTY_NAME, pool);
+            }
+            return pool instanceof HandlerChainPool ? (HandlerChainPool) pool : null;
+        }
+    }
+
+    /**
+     * Destroy the handlers pooled for an endpoint, e.g. because it is undeployed.
+     *
+     * @param endpointDesc the endpoint
+     */
+    public static void close(EndpointDescription endpointDesc) {
+        Object pool;
+        synchronized (endpointDesc) {
+            pool = endpointDesc.getProperty(PROPERTY_NAME);
+            endpointDesc.setProperty(PROPERTY_NAME, null);
+        }
+        if (pool instanceof HandlerChainPool) {
+            ((HandlerChainPool) pool).close();
+        }
+    }
+
+    /**
+     * Get an initialized handler chain.
+     *
+     * @return the handler chain; it must be returned with {@link #release(List, MessageContext)}
+     */
+    public List<Handler> acquire() {
+        if (sharedChain != null) {
+            return sharedChain;
+        }
+        List<Handler> chain = idleChains.poll();
+        return chain != null ? chain : createChain();
+    }
+
+    /**
+     * Return a handler chain obtained from {@link #acquire()}.
+     *
+     * @param chain the handler chain
+     * @param request the request during which the chain has been used
+     */
+    public void release(List<Handler> chain, MessageContext request) {
+        if (chain == sharedChain) {
+            return;
+        }
+        if (closed || !idleChains.offer(chain)) {
+            destroyChain(chain, request);
+        }
+    }
+
+    /**
+     * Destroy the pooled handlers.
+     */
+    void close() {
+        closed = true;
+        MessageContext ctx = createMessageContext();
+        if (sharedChain != null) {
+            closeChain(sharedChain, ctx);
+        } else {
+            List<Handler> chain;
+            while ((chain = idleChains.poll()) != null) {
+                closeChain(chain, ctx);
+            }
+        }
+    }
+
+    private void closeChain(List<Handler> chain, MessageContext ctx) {
+        try {
+            destroyChain(chain, ctx);
+        } catch (RuntimeException e) {
+            log.warn("Error destroying the pooled handlers of endpoint "
+                    + endpointDesc.getPortQName(), e);
+        }
+    }
+
+    List<Handler> createChain() {
+        HandlerResolverImpl hri = new HandlerResolverImpl(endpointDesc.getServiceDescription());
+        PortInfo portInfo = endpointDesc.getPortInfo();
+        return hri.getHandlerChain(portInfo);
+    }
+
+    private MessageContext createMessageContext() {
+        // Create temporary MessageContext to pass information to HandlerLifecycleManager
+        MessageContext ctx = new MessageContext();
+        ctx.setEndpointDescription(endpointDesc);
+        return ctx;
+    }
+
+    private static void destroyChain(List<Handler> chain, MessageContext request) {
+        HandlerLifecycleManagerFactory hlmf = (HandlerLifecycleManagerFactory) FactoryRegistry
+                .getFactory(HandlerLifecycleManagerFactory.class);
+        HandlerLifecycleManager hlm = hlmf.createHandlerLifecycleManager();
+        for (Handler handler : chain) {
+            try {
+                hlm.destroyHandlerInstance(request, handler);
+            } catch (Exception e) {
+                throw ExceptionFactory.makeWebServiceException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.jaxws.server;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import junit.framework.TestCase;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.jaxws.Constants;
+import org.apache.axis2.jaxws.core.MessageContext;
+import org.apache.axis2.jaxws.description.EndpointDescription;
+import org.apache.axis2.jaxws.message.Message;
+import org.apache.axis2.jaxws.server.dispatcher.EndpointDispatcher;
+
+import javax.xml.ws.handler.Handler;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the reuse of server side handler chains by {@link HandlerChainPool}.
+ */
+public class HandlerChainPoolTests extends TestCase {
+    private EndpointDescription endpointDesc;
+    private AxisService axisService;
+
+    protected void setUp() throws Exception {
+        endpointDesc = mock(EndpointDescription.class);
+        axisService = new AxisService("TestService");
+        when(endpointDesc.getAxisService()).thenReturn(axisService);
+    }
+
+    private HandlerChainPool createPool(int size, boolean threadSafe) {
+        return new HandlerChainPool(endpointDesc, size, threadSafe) {
+            @Override
+            List<Handler> createChain() {
+                return new ArrayList<Handler>();
+            }
+        };
+    }
+
+    private MessageContext createRequest() {
+        MessageContext request = new MessageContext();
+        request.setEndpointDescription(endpointDesc);
+        return request;
+    }
+
+    private EndpointInvocationContext createInvocationContext() {
+        EndpointInvocationContext eic = new EndpointInvocationContextImpl();
+        MessageContext request = createRequest();
+        request.setMessage(mock(Message.class));
+        eic.setRequestMessageContext(request);
+        eic.setCallback(new EndpointCallback() {
+            @Override
+            public void handleResponse(EndpointInvocationContext eic) {
+            }
+
+            @Override
+            public void handleFaultResponse(EndpointInvocationContext eic) {
+            }
+        });
+        return eic;
+    }
+
+    /**
+     * Create a controller that takes the handlers from the given pool and skips the
+     * rest of the inbound processing.
+     */
+    private EndpointController createController(final HandlerChainPool pool) {
+        final EndpointDispatcher dispatcher = mock(EndpointDispatcher.class);
+        return new EndpointController() {
+            @Override
+            protected boolean handleRequest(EndpointInvocationContext eic) {
+                acquirePooledHandlers(eic, pool);
+                eic.setEndpointDispatcher(dispatcher);
+                return true;
+            }
+        };
+    }
+
+    public void testPoolingDisabledByDefault() {
+        assertThat(HandlerChainPool.getInstance(endpointDesc)).isNull();
+    }
+
+    public void testPoolingEnabledByParameter() throws Exception {
+        axisService.addParameter(Constants.JAXWS_HANDLER_CHAIN_POOL_SIZE, "4");
+        assertThat(HandlerChainPool.getInstance(endpointDesc)).isNotNull();
+    }
+
+    public void testChainReused() {
+        HandlerChainPool pool = createPool(1, false);
+        List<Handler> chain = pool.acquire();
+        pool.release(chain, createRequest());
+        assertThat(pool.acquire()).isSameAs(chain);
+    }
+
+    public void testConcurrentRequestsGetDistinctChains() {
+        HandlerChainPool pool = createPool(1, false);
+        List<Handler> chain1 = pool.acquire();
+        List<Handler> chain2 = pool.acquire();
+        assertThat(chain2).isNotSameAs(chain1);
+        pool.release(chain1, createRequest());
+        // The pool is full; this chain is destroyed
+        pool.release(chain2, createRequest());
+        assertThat(pool.acquire()).isSameAs(chain1);
+        assertThat(pool.acquire()).isNotSameAs(chain2);
+    }
+
+    public void testThreadSafeChainShared() {
+        HandlerChainPool pool = createPool(0, true);
+        List<Handler> chain = pool.acquire();
+        assertThat(pool.acquire()).isSameAs(chain);
+        pool.release(chain, createRequest());
+        assertThat(pool.acquire()).isSameAs(chain);
+    }
+
+    public void testReleaseAfterClose() {
+        HandlerChainPool pool = createPool(1, false);
+        List<Handler> chain = pool.acquire();
+        pool.close();
+        pool.release(chain, createRequest());
+        assertThat(pool.acquire()).isNotSameAs(chain);
+    }
+
+    public void testOneWayRequestReleasesChain() {
+        HandlerChainPool pool = createPool(1, false);
+        EndpointInvocationContext eic = createInvocationContext();
+        createController(pool).invokeOneWay(eic);
+        assertThat(pool.acquire()).isSameAs(eic.getHandlers());
+    }
+
+    public void testAsyncRequestReleasesChainAfterResponse() {
+        HandlerChainPool pool = createPool(1, false);
+        EndpointInvocationContext eic = createInvocationContext();
+        createController(pool).invokeAsync(eic);
+        List<Handler> chain = eic.getHandlers();
+        // The chain is still used by the outbound flow of the pending response
+        assertThat(pool.acquire()).isNotSameAs(chain);
+        eic.getCallback().handleResponse(eic);
+        assertThat(pool.acquire()).isSameAs(chain);
+    }
+
+    public void testAsyncRequestReleasesChainAfterFault() {
+        HandlerChainPool pool = createPool(1, false);
+        EndpointInvocationContext eic = createInvocationContext();
+        createController(pool).invokeAsync(eic);
+        List<Handler> chain = eic.getHandlers();
+        eic.getCallback().handleFaultResponse(eic);
+        assertThat(pool.acquire()).isSameAs(chain);
+    }
+}
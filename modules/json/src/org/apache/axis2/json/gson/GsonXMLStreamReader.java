@@ -23,11 +23,11 @@ import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.AxisService;
 import org.apache.axis2.json.gson.factory.JSONType;
 import org.apache.axis2.json.gson.factory.JsonConstant;
 import org.apache.axis2.json.gson.factory.JsonObject;
-import org.apache.axis2.json.gson.factory.XmlNode;
-import org.apache.axis2.json.gson.factory.XmlNodeGenerator;
+import org.apache.axis2.json.gson.factory.XmlNodeCache;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.ws.commons.schema.XmlSchema;
@@ -38,10 +38,8 @@ import javax.xml.stream.Location;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.Stack;
@@ -63,18 +61,10 @@ public class GsonXMLStreamReader implements XMLStreamReader {
 
     private boolean isProcessed;
 
-    private ConfigurationContext configContext;
-
     private QName elementQname;
 
-    private XmlNode mainXmlNode;
-
-    private List<XmlSchema> xmlSchemaList;
-
     private Queue<JsonObject> queue = new LinkedList<JsonObject>();
 
-    private XmlNodeGenerator xmlNodeGenerator;
-
     private Stack<JsonObject> stackObj = new Stack<JsonObject>();
     private Stack<JsonObject> miniStack = new Stack<JsonObject>();
     private JsonObject topNestedArrayObj = null;
@@ -98,42 +88,27 @@ public class GsonXMLStreamReader implements XMLStreamReader {
     }
 
     public void initXmlStreamReader(QName elementQname, List<XmlSchema> xmlSchemaList, ConfigurationContext configContext) throws AxisFault {
+        initXmlStreamReader(elementQname, xmlSchemaList, XmlNodeCache.getInstance(configContext));
+    }
+
+    /**
+     * Initialize the reader for a request to the given service. The JSON structure generated
+     * from the schemas of the service is cached on the service.
+     */
+    public void initXmlStreamReader(QName elementQname, AxisService axisService) throws AxisFault {
+        initXmlStreamReader(elementQname, axisService.getSchema(),
+                XmlNodeCache.getInstance(axisService));
+    }
+
+    private void initXmlStreamReader(QName elementQname, List<XmlSchema> xmlSchemaList,
+                                     XmlNodeCache xmlNodeCache) throws AxisFault {
         this.elementQname = elementQname;
-        this.xmlSchemaList = xmlSchemaList;
-        this.configContext = configContext;
         try {
-            process();
+            queue = xmlNodeCache.getQueue(elementQname, xmlSchemaList);
         } catch (AxisFault axisFault) {
             throw new AxisFault("Error while initializing XMLStreamReader ", axisFault);
         }
         isProcessed = true;
-
-    }
-
-    private void process() throws AxisFault {
-        Object ob = configContext.getProperty(JsonConstant.XMLNODES);
-        if (ob != null) {
-            Map<QName, XmlNode> nodeMap = (Map<QName, XmlNode>) ob;
-            XmlNode requesNode = nodeMap.get(elementQname);
-            if (requesNode != null) {
-                xmlNodeGenerator = new XmlNodeGenerator();
-                queue = xmlNodeGenerator.getQueue(requesNode);
-            } else {
-                xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQname);
-                mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-                queue = xmlNodeGenerator.getQueue(mainXmlNode);
-                nodeMap.put(elementQname, mainXmlNode);
-                configContext.setProperty(JsonConstant.XMLNODES, nodeMap);
-            }
-        } else {
-            Map<QName, XmlNode> newNodeMap = new HashMap<QName, XmlNode>();
-            xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQname);
-            mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-            queue = xmlNodeGenerator.getQueue(mainXmlNode);
-            newNodeMap.put(elementQname, mainXmlNode);
-            configContext.setProperty(JsonConstant.XMLNODES, newNodeMap);
-        }
-        isProcessed = true;
     }
 
 
@@ -21,11 +21,10 @@ package org.apache.axis2.json.gson;
 
 import com.google.gson.stream.JsonWriter;
 import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.AxisService;
 import org.apache.axis2.json.gson.factory.JSONType;
-import org.apache.axis2.json.gson.factory.JsonConstant;
 import org.apache.axis2.json.gson.factory.JsonObject;
-import org.apache.axis2.json.gson.factory.XmlNode;
-import org.apache.axis2.json.gson.factory.XmlNodeGenerator;
+import org.apache.axis2.json.gson.factory.XmlNodeCache;
 import org.apache.ws.commons.schema.XmlSchema;
 
 import javax.xml.namespace.NamespaceContext;
@@ -75,14 +74,9 @@ public class GsonXMLStreamWriter implements XMLStreamWriter {
      */
     private QName elementQName;
 
-    /**
-     * Intermediate representation of XmlSchema
-     */
-    private XmlNode mainXmlNode;
-
     private ConfigurationContext configContext;
 
-    private XmlNodeGenerator xmlNodeGenerator;
+    private AxisService axisService;
 
     private boolean isProcessed;
 
@@ -100,29 +94,21 @@ public class GsonXMLStreamWriter implements XMLStreamWriter {
         this.configContext = context;
     }
 
+    /**
+     * Create a writer for a response of the given service. The JSON structure generated from the
+     * schemas of the service is cached on the service.
+     */
+    public GsonXMLStreamWriter(JsonWriter jsonWriter, QName elementQName, AxisService axisService) {
+        this.jsonWriter = jsonWriter;
+        this.elementQName = elementQName;
+        this.xmlSchemaList = axisService.getSchema();
+        this.axisService = axisService;
+    }
+
     private void process() throws IOException {
-        Object ob = configContext.getProperty(JsonConstant.XMLNODES);
-        if (ob != null) {
-            Map<QName, XmlNode> nodeMap = (Map<QName, XmlNode>) ob;
-            XmlNode resNode = nodeMap.get(elementQName);
-            if (resNode != null) {
-                xmlNodeGenerator = new XmlNodeGenerator();
-                queue = xmlNodeGenerator.getQueue(resNode);
-            } else {
-                xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQName);
-                mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-                queue = xmlNodeGenerator.getQueue(mainXmlNode);
-                nodeMap.put(elementQName, mainXmlNode);
-                configContext.setProperty(JsonConstant.XMLNODES, nodeMap);
-            }
-        } else {
-            Map<QName, XmlNode> newNodeMap = new HashMap<QName, XmlNode>();
-            xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQName);
-            mainXmlNode = xmlNodeGenerator.getMainXmlNode();
-            queue = xmlNodeGenerator.getQueue(mainXmlNode);
-            newNodeMap.put(elementQName, mainXmlNode);
-            configContext.setProperty(JsonConstant.XMLNODES, newNodeMap);
-        }
+        XmlNodeCache xmlNodeCache = axisService != null ? XmlNodeCache.getInstance(axisService)
+                : XmlNodeCache.getInstance(configContext);
+        queue = xmlNodeCache.getQueue(elementQName, xmlSchemaList);
         isProcessed = true;
         this.jsonWriter.beginObject();
     }
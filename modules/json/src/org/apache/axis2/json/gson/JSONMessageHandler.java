@@ -33,10 +33,8 @@ import org.apache.axis2.json.gson.rpc.JsonRpcMessageReceiver;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.ws.commons.schema.XmlSchema;
 
 import javax.xml.namespace.QName;
-import java.util.List;
 
 public class JSONMessageHandler extends AbstractHandler {
     Log log = LogFactory.getLog(JSONMessageHandler.class);
@@ -76,8 +74,7 @@ public class JSONMessageHandler extends AbstractHandler {
                     if (o != null) {
                         GsonXMLStreamReader gsonXMLStreamReader = (GsonXMLStreamReader) o;
                         QName elementQname = msgContext.getAxisOperation().getMessage(WSDLConstants.MESSAGE_LABEL_IN_VALUE).getElementQName();
-                        List<XmlSchema> schemas = msgContext.getAxisService().getSchema();
-                        gsonXMLStreamReader.initXmlStreamReader(elementQname, schemas, msgContext.getConfigurationContext());
+                        gsonXMLStreamReader.initXmlStreamReader(elementQname, msgContext.getAxisService());
                         OMXMLParserWrapper stAXOMBuilder = OMXMLBuilderFactory.createStAXOMBuilder(gsonXMLStreamReader);
                         OMElement omElement = stAXOMBuilder.getDocumentElement();
                         msgContext.getEnvelope().getBody().addChild(omElement);
@@ -27,11 +27,11 @@ import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.json.gson.factory.JsonConstant;
+import org.apache.axis2.json.gson.rpc.JsonUtils;
 import org.apache.axis2.transport.MessageFormatter;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.ws.commons.schema.XmlSchema;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
@@ -41,7 +41,6 @@ import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Type;
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.Iterator;
 
 
@@ -83,11 +82,9 @@ public class JsonFormatter implements MessageFormatter {
                 QName elementQname = outMsgCtxt.getAxisOperation().getMessage
                         (WSDLConstants.MESSAGE_LABEL_OUT_VALUE).getElementQName();
 
-                ArrayList<XmlSchema> schemas = outMsgCtxt.getAxisService().getSchema();
                 GsonXMLStreamWriter xmlsw = new GsonXMLStreamWriter(jsonWriter,
                                                                     elementQname,
-                                                                    schemas,
-                                                                    outMsgCtxt.getConfigurationContext());
+                                                                    outMsgCtxt.getAxisService());
                 try {
                     xmlsw.writeStartDocument();
                     element.serialize(xmlsw, preserve);
@@ -98,7 +95,7 @@ public class JsonFormatter implements MessageFormatter {
 
             } else {
                 try {
-                    Gson gson = new Gson();
+                    Gson gson = JsonUtils.getGson();
                     jsonWriter.beginObject();
                     jsonWriter.name(JsonConstant.RESPONSE);
                     Type returnType = (Type) outMsgCtxt.getProperty(JsonConstant.RETURN_TYPE);
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.factory;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.AxisService;
+import org.apache.ws.commons.schema.XmlSchema;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the JSON structures generated by {@link XmlNodeGenerator}, by element QName. For
+ * each element, the cache stores the flattened list of {@link JsonObject}s that
+ * {@link org.apache.axis2.json.gson.GsonXMLStreamReader} and
+ * {@link org.apache.axis2.json.gson.GsonXMLStreamWriter} consume, so that processing a message
+ * only needs to copy that list instead of walking the XML schemas and the node tree.
+ * <p>
+ * The cache is normally attached to the {@link AxisService}, so that it is discarded when the
+ * service is redeployed.
+ */
+public final class XmlNodeCache {
+    private final Map<QName, JsonObject[]> structures = new ConcurrentHashMap<QName, JsonObject[]>();
+
+    /**
+     * Get the cache attached to a service, creating it if necessary.
+     *
+     * @param axisService the service
+     * @return the cache
+     * @throws AxisFault if the cache can't be attached to the service
+     */
+    public static XmlNodeCache getInstance(AxisService axisService) throws AxisFault {
+        Object cache = axisService.getParameterValue(JsonConstant.XMLNODES);
+        if (cache instanceof XmlNodeCache) {
+            return (XmlNodeCache)cache;
+        }
+        synchronized (axisService) {
+            cache = axisService.getParameterValue(JsonConstant.XMLNODES);
+            if (!(cache instanceof XmlNodeCache)) {
+                cache = new XmlNodeCache();
+                axisService.addParameter(JsonConstant.XMLNODES, cache);
+            }
+            return (XmlNodeCache)cache;
+        }
+    }
+
+    /**
+     * Get the cache stored in the configuration context, creating it if necessary. That cache
+     * is shared by all services and is only used if the service is not known.
+     *
+     * @param configContext the configuration context
+     * @return the cache
+     */
+    public static XmlNodeCache getInstance(ConfigurationContext configContext) {
+        Object cache = configContext.getProperty(JsonConstant.XMLNODES);
+        if (cache instanceof XmlNodeCache) {
+            return (XmlNodeCache)cache;
+        }
+        synchronized (configContext) {
+            cache = configContext.getProperty(JsonConstant.XMLNODES);
+            if (!(cache instanceof XmlNodeCache)) {
+                cache = new XmlNodeCache();
+                configContext.setProperty(JsonConstant.XMLNODES, cache);
+            }
+            return (XmlNodeCache)cache;
+        }
+    }
+
+    /**
+     * Get the JSON structure of an element.
+     *
+     * @param elementQName the element QName
+     * @param xmlSchemaList the schemas defining the element; only used if the structure of the
+     *                      element is not cached yet
+     * @return a new queue, that the caller may consume
+     * @throws AxisFault if the structure can't be generated from the schemas
+     */
+    public Queue<JsonObject> getQueue(QName elementQName, List<XmlSchema> xmlSchemaList)
+            throws AxisFault {
+        JsonObject[] structure = structures.get(elementQName);
+        if (structure == null) {
+            XmlNodeGenerator xmlNodeGenerator = new XmlNodeGenerator(xmlSchemaList, elementQName);
+            Queue<JsonObject> queue = xmlNodeGenerator.getQueue(xmlNodeGenerator.getMainXmlNode());
+            structure = queue.toArray(new JsonObject[queue.size()]);
+            structures.put(elementQName, structure);
+        }
+        return new ArrayDeque<JsonObject>(Arrays.asList(structure));
+    }
+}
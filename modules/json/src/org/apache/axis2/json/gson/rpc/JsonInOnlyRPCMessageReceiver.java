@@ -69,13 +69,15 @@ public class JsonInOnlyRPCMessageReceiver extends RPCInOnlyMessageReceiver {
 
     public void invokeService(JsonReader jsonReader, Object serviceObj, String operation_name) throws AxisFault {
         String msg;
-        Class implClass = serviceObj.getClass();
-        Method[] allMethods = implClass.getDeclaredMethods();
-        Method method = JsonUtils.getOpMethod(operation_name, allMethods);
-        Class[] paramClasses = method.getParameterTypes();
+        JsonRpcRuntime.Operation operation =
+                JsonRpcRuntime.get(serviceObj.getClass()).getOperation(operation_name);
+        if (operation == null) {
+            throw new AxisFault("No such method '" + operation_name +
+                    "' in class " + serviceObj.getClass().getName());
+        }
+        Method method = operation.getMethod();
         try {
-            int paramCount = paramClasses.length;
-            JsonUtils.invokeServiceClass(jsonReader, serviceObj, method, paramClasses, paramCount);
+            JsonUtils.invokeServiceClass(jsonReader, serviceObj, operation);
         } catch (IllegalAccessException e) {
             msg = "Does not have access to " +
                     "the definition of the specified class, field, method or constructor";
@@ -70,13 +70,15 @@ public class JsonRpcMessageReceiver extends RPCMessageReceiver {
     public void invokeService(JsonReader jsonReader, Object serviceObj, String operation_name,
                                    MessageContext outMes) throws AxisFault {
         String msg;
-        Class implClass = serviceObj.getClass();
-        Method[] allMethods = implClass.getDeclaredMethods();
-        Method method = JsonUtils.getOpMethod(operation_name, allMethods);
-        Class[] paramClasses = method.getParameterTypes();
+        JsonRpcRuntime.Operation operation =
+                JsonRpcRuntime.get(serviceObj.getClass()).getOperation(operation_name);
+        if (operation == null) {
+            throw new AxisFault("No such method '" + operation_name +
+                    "' in class " + serviceObj.getClass().getName());
+        }
+        Method method = operation.getMethod();
         try {
-            int paramCount = paramClasses.length;
-            Object retObj = JsonUtils.invokeServiceClass(jsonReader, serviceObj, method, paramClasses, paramCount);
+            Object retObj = JsonUtils.invokeServiceClass(jsonReader, serviceObj, operation);
 
             // handle response
             outMes.setProperty(JsonConstant.RETURN_OBJECT, retObj);
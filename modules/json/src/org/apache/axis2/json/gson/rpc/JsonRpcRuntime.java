@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.rpc;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import org.apache.axis2.classloader.BeanInfoCache;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON RPC runtime for a service implementation class. It resolves the method of each
+ * operation once and holds the Gson {@link TypeAdapter}s used to read the arguments. The
+ * runtime is cached by {@link BeanInfoCache}, so that it is scoped to the class loader of the
+ * service and discarded when the service is undeployed.
+ */
+final class JsonRpcRuntime {
+    private static final BeanInfoCache.Derived<JsonRpcRuntime> RUNTIMES =
+            new BeanInfoCache.Derived<JsonRpcRuntime>() {
+        @Override
+        protected JsonRpcRuntime compute(Class<?> implClass) {
+            return new JsonRpcRuntime(implClass);
+        }
+    };
+
+    /**
+     * A service method, with the adapters for its parameters.
+     */
+    static final class Operation {
+        private final Method method;
+        private final TypeAdapter<?>[] parameterAdapters;
+
+        Operation(Method method) {
+            this.method = method;
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            Type[] genericParameterTypes = method.getGenericParameterTypes();
+            parameterAdapters = new TypeAdapter<?>[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                // Use the generic type if there is one, so that e.g. the elements of a
+                // List<Person> are read as Person objects. Type variables are left to the
+                // erasure, which Gson handles better.
+                Type type = parameterTypes[i];
+                Type genericType = genericParameterTypes[i];
+                if (genericType instanceof ParameterizedType
+                        || genericType instanceof GenericArrayType) {
+                    type = genericType;
+                }
+                parameterAdapters[i] = JsonUtils.getGson().getAdapter(TypeToken.get(type));
+            }
+        }
+
+        Method getMethod() {
+            return method;
+        }
+
+        TypeAdapter<?>[] getParameterAdapters() {
+            return parameterAdapters;
+        }
+    }
+
+    private final Map<String, Method> methods = new HashMap<String, Method>();
+    private final Map<String, Operation> operations = new ConcurrentHashMap<String, Operation>();
+
+    private JsonRpcRuntime(Class<?> implClass) {
+        for (Method method : implClass.getDeclaredMethods()) {
+            // If the method is overloaded, the first one wins
+            if (!methods.containsKey(method.getName())) {
+                methods.put(method.getName(), method);
+            }
+        }
+    }
+
+    /**
+     * Get the runtime for a service implementation class.
+     *
+     * @param implClass the class of the service implementation object
+     * @return the runtime
+     */
+    static JsonRpcRuntime get(Class<?> implClass) {
+        try {
+            return BeanInfoCache.getCachedDerived(RUNTIMES, implClass);
+        } catch (java.beans.IntrospectionException ex) {
+            // Never happens: the runtime doesn't use introspection
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Get the operation with the given name.
+     *
+     * @param name the name of the operation, i.e. of the service method
+     * @return the operation, or <code>null</code> if the service class doesn't declare a method
+     *         with that name
+     */
+    Operation getOperation(String name) {
+        Operation operation = operations.get(name);
+        if (operation == null) {
+            Method method = methods.get(name);
+            if (method == null) {
+                return null;
+            }
+            // Parameter adapters are created on first use, so that unusual parameter types of
+            // methods that are not exposed as operations can't break the whole service
+            operation = new Operation(method);
+            operations.put(name, operation);
+        }
+        return operation;
+    }
+
+    /**
+     * Get the operation for the given method. The cached operation is returned if the method
+     * is the one selected for its name; otherwise, e.g. for an overloaded method, a new one is
+     * created.
+     *
+     * @param method a method declared by the service class
+     * @return the operation
+     */
+    Operation getOperation(Method method) {
+        Operation operation = getOperation(method.getName());
+        return operation != null && operation.getMethod().equals(method)
+                ? operation : new Operation(method);
+    }
+}
@@ -20,6 +20,7 @@
 package org.apache.axis2.json.gson.rpc;
 
 import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 
 import java.io.IOException;
@@ -28,41 +29,74 @@ import java.lang.reflect.Method;
 
 
 public class JsonUtils {
+    /**
+     * Gson instances are thread safe and cache the type adapters they create, so a single
+     * instance is shared by all JSON RPC requests and responses.
+     */
+    private static final Gson gson = new Gson();
 
+    /**
+     * Get the {@link Gson} instance used to read and write JSON RPC messages.
+     *
+     * @return the shared instance
+     */
+    public static Gson getGson() {
+        return gson;
+    }
+
+    /**
+     * @deprecated The arguments are read with the parameter types of <code>operation</code>,
+     *             so <code>paramClasses</code> and <code>paramCount</code> are ignored. The
+     *             receivers now look up the operation once per service class and read the
+     *             arguments with its cached type adapters.
+     */
+    @Deprecated
     public static Object invokeServiceClass(JsonReader jsonReader,
                                             Object service,
                                             Method operation ,
                                             Class[] paramClasses ,
                                             int paramCount ) throws InvocationTargetException,
             IllegalAccessException, IOException  {
+        return invokeServiceClass(jsonReader, service,
+                JsonRpcRuntime.get(operation.getDeclaringClass()).getOperation(operation));
+    }
 
-        Object[] methodParam = new Object[paramCount];
-        Gson gson = new Gson();
-        String[] argNames = new String[paramCount];
+    /**
+     * Read the arguments of a service method from a JSON RPC request and invoke the method.
+     * The arguments are read directly from the stream with the adapters of the operation.
+     */
+    static Object invokeServiceClass(JsonReader jsonReader,
+                                     Object service,
+                                     JsonRpcRuntime.Operation operation)
+            throws InvocationTargetException, IllegalAccessException, IOException {
+        TypeAdapter<?>[] adapters = operation.getParameterAdapters();
+        Object[] methodParam = new Object[adapters.length];
 
         if( ! jsonReader.isLenient()){
             jsonReader.setLenient(true);
         }
         jsonReader.beginObject();
-        String messageName=jsonReader.nextName();     // get message name from input json stream
+        jsonReader.nextName();     // skip the message name
         jsonReader.beginArray();
 
-        int i = 0;
-        for (Class paramType : paramClasses) {
+        for (int i = 0; i < adapters.length; i++) {
             jsonReader.beginObject();
-            argNames[i] = jsonReader.nextName();
-            methodParam[i] = gson.fromJson(jsonReader, paramType);   // gson handle all types well and return an object from it
+            jsonReader.nextName();
+            methodParam[i] = adapters[i].read(jsonReader);
             jsonReader.endObject();
-            i++;
         }
 
         jsonReader.endArray();
         jsonReader.endObject();
 
-        return  operation.invoke(service, methodParam);
-
+        return operation.getMethod().invoke(service, methodParam);
     }
 
+    /**
+     * @deprecated The receivers now resolve the method of an operation once per service class
+     *             instead of scanning the methods for every request.
+     */
+    @Deprecated
     public static Method getOpMethod(String methodName, Method[] methodSet) {
         for (Method method : methodSet) {
             String mName = method.getName();
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.factory;
+
+import org.apache.axis2.description.AxisService;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.apache.ws.commons.schema.XmlSchemaCollection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import javax.xml.transform.stream.StreamSource;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+public class XmlNodeCacheTest {
+    @Test
+    public void testQueuesAreReplayed() throws Exception {
+        InputStream is = new FileInputStream("test-resources/custom_schema/testSchema_1.xsd");
+        XmlSchema schema = new XmlSchemaCollection().read(new StreamSource(is));
+        is.close();
+        List<XmlSchema> schemaList = new ArrayList<XmlSchema>();
+        schemaList.add(schema);
+        QName elementQName = new QName("http://www.w3schools.com", "response");
+
+        AxisService axisService = new AxisService("TestService");
+        XmlNodeCache cache = XmlNodeCache.getInstance(axisService);
+        Assert.assertSame(cache, XmlNodeCache.getInstance(axisService));
+        Assert.assertNotSame(cache, XmlNodeCache.getInstance(new AxisService("OtherService")));
+
+        Queue<JsonObject> first = cache.getQueue(elementQName, schemaList);
+        Assert.assertEquals("response", first.peek().getName());
+        int size = first.size();
+        while (!first.isEmpty()) {
+            first.poll();
+        }
+
+        // Consuming a queue doesn't affect the cached structure, and the schemas are no
+        // longer needed
+        Queue<JsonObject> second = cache.getQueue(elementQName, null);
+        Assert.assertEquals(size, second.size());
+        Assert.assertEquals("response", second.peek().getName());
+    }
+}
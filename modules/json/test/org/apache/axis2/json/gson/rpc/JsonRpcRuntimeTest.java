@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.json.gson.rpc;
+
+import com.google.gson.stream.JsonReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.util.List;
+
+public class JsonRpcRuntimeTest {
+    public static class PersonService {
+        public Person echoPerson(Person person) {
+            return person;
+        }
+
+        public String firstName(List<Person> persons) {
+            return persons.get(0).getName();
+        }
+    }
+
+    public static class OverloadedService {
+        public String name(Person person) {
+            return person.getName();
+        }
+
+        public String name(List<Person> persons) {
+            return persons.get(0).getName();
+        }
+    }
+
+    @Test
+    public void testRuntimeIsCached() throws Exception {
+        JsonRpcRuntime runtime = JsonRpcRuntime.get(PersonService.class);
+        Assert.assertSame(runtime, JsonRpcRuntime.get(PersonService.class));
+        Assert.assertSame(runtime.getOperation("echoPerson"),
+                runtime.getOperation("echoPerson"));
+        Assert.assertNull(runtime.getOperation("unknown"));
+    }
+
+    @Test
+    public void testInvoke() throws Exception {
+        JsonRpcRuntime.Operation operation =
+                JsonRpcRuntime.get(PersonService.class).getOperation("echoPerson");
+        JsonReader jsonReader = new JsonReader(new StringReader(
+                "{\"echoPerson\":[{\"arg0\":{\"name\":\"Simon\",\"age\":\"35\",\"gender\":\"male\"}}]}"));
+        Person person = (Person)JsonUtils.invokeServiceClass(jsonReader, new PersonService(),
+                operation);
+        Assert.assertEquals("Simon", person.getName());
+        Assert.assertEquals("35", person.getAge());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedInvoke() throws Exception {
+        Method method = JsonUtils.getOpMethod("echoPerson",
+                PersonService.class.getDeclaredMethods());
+        JsonReader jsonReader = new JsonReader(new StringReader(
+                "{\"echoPerson\":[{\"arg0\":{\"name\":\"Simon\",\"age\":\"35\"}}]}"));
+        Person person = (Person)JsonUtils.invokeServiceClass(jsonReader, new PersonService(),
+                method, method.getParameterTypes(), method.getParameterTypes().length);
+        Assert.assertEquals("Simon", person.getName());
+        Assert.assertEquals("35", person.getAge());
+    }
+
+    @Test
+    public void testOverloadedMethod() throws Exception {
+        JsonRpcRuntime runtime = JsonRpcRuntime.get(OverloadedService.class);
+        for (Class<?> parameterType : new Class<?>[] { Person.class, List.class }) {
+            Method method = OverloadedService.class.getMethod("name", parameterType);
+            Assert.assertEquals(method, runtime.getOperation(method).getMethod());
+        }
+    }
+
+    @Test
+    public void testGenericParameter() throws Exception {
+        JsonRpcRuntime.Operation operation =
+                JsonRpcRuntime.get(PersonService.class).getOperation("firstName");
+        JsonReader jsonReader = new JsonReader(new StringReader(
+                "{\"firstName\":[{\"arg0\":[{\"name\":\"Simon\"},{\"name\":\"Peter\"}]}]}"));
+        Assert.assertEquals("Simon", JsonUtils.invokeServiceClass(jsonReader,
+                new PersonService(), operation));
+    }
+}
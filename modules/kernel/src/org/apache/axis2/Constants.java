@@ -365,6 +365,14 @@ public class Constants extends org.apache.axis2.namespace.Constants {
 
         public static final String CONFIG_CONTEXT_TIMEOUT_INTERVAL = "ConfigContextTimeoutInterval";
 
+        /**
+         * Interval (in milliseconds) after which a registered operation context that has not
+         * been touched is unregistered, e.g. because the response to an asynchronous request
+         * never arrived. Operation contexts don't expire if this parameter is not set.
+         */
+        public static final String OPERATION_CONTEXT_TIMEOUT_INTERVAL =
+                "OperationContextTimeoutInterval";
+
         public static final String TRANSPORT_IN_URL = "TransportInURL";
 
         public static final String URL_PARAMETER_LIST = "URLParameterList";
@@ -466,5 +474,22 @@ public class Constants extends org.apache.axis2.namespace.Constants {
         public static final String DATA_BUFFER_SIZE="DataBufferSize";
         public static final int DEFAULT_DATA_BUFFER_SIZE=2048;        
 
+        /**
+         * Selects the executor used for asynchronous work such as non blocking client
+         * invocations and transport worker pools. Either {@link #THREAD_POOL_TYPE_PLATFORM}
+         * (the default) or {@link #THREAD_POOL_TYPE_VIRTUAL}. Virtual threads require Java 21;
+         * on older runtimes the platform thread pool is used.
+         */
+        public static final String THREAD_POOL_TYPE = "threadPoolType";
+        public static final String THREAD_POOL_TYPE_PLATFORM = "platform";
+        public static final String THREAD_POOL_TYPE_VIRTUAL = "virtual";
+
+        /**
+         * If set to <code>short</code> or <code>full</code> together with virtual threads,
+         * virtual threads that block while pinned to their carrier thread (e.g. while holding
+         * a monitor) are reported with a stack trace.
+         */
+        public static final String VIRTUAL_THREAD_PINNING_TRACE = "virtualThreadPinningTrace";
+
     }
 }
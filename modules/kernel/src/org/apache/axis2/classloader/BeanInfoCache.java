@@ -63,6 +63,89 @@ public final class BeanInfoCache {
         }
     }
     
+    private static final class DerivedKey {
+        private final Derived<?> derived;
+        private final Class<?> beanClass;
+
+        DerivedKey(Derived<?> derived, Class<?> beanClass) {
+            this.derived = derived;
+            this.beanClass = beanClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31*derived.hashCode() + beanClass.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof DerivedKey) {
+                DerivedKey other = (DerivedKey)obj;
+                return derived == other.derived && beanClass == other.beanClass;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Data computed from the introspection results of a bean class. Instances of this class
+     * are used as keys to store the computed data in the same cache as the {@link BeanInfo}
+     * objects, so that the data has the same lifecycle as the class loader of the bean class.
+     * The computation may be executed more than once for a given class if several threads
+     * request the data concurrently.
+     * 
+     * @param <T> the type of the computed data
+     */
+    public abstract static class Derived<T> {
+        /**
+         * Cache for bean classes loaded by class loaders for which no {@link BeanInfoCache} can
+         * be located. The data is attached to the bean class itself, so that it doesn't prevent
+         * the class loader from being garbage collected.
+         */
+        private final ClassValue<T> fallbackCache = new ClassValue<T>() {
+            @Override
+            protected T computeValue(Class<?> beanClass) {
+                try {
+                    return compute(beanClass);
+                } catch (IntrospectionException ex) {
+                    throw new IntrospectionFailure(ex);
+                }
+            }
+        };
+
+        /**
+         * Compute the data for a given bean class.
+         * 
+         * @param beanClass
+         *            The bean class.
+         * @return The computed data; must not be <code>null</code>.
+         * @exception IntrospectionException
+         *                if an exception occurs during introspection.
+         */
+        protected abstract T compute(Class<?> beanClass) throws IntrospectionException;
+
+        T getFallback(Class<?> beanClass) throws IntrospectionException {
+            try {
+                return fallbackCache.get(beanClass);
+            } catch (IntrospectionFailure ex) {
+                throw (IntrospectionException)ex.getCause();
+            }
+        }
+    }
+
+    /**
+     * Wraps an {@link IntrospectionException} thrown while computing the value of a
+     * {@link ClassValue}.
+     */
+    private static final class IntrospectionFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        IntrospectionFailure(IntrospectionException cause) {
+            super(cause);
+        }
+    }
+
     private static final Log log = LogFactory.getLog(BeanInfoCache.class);
     
     /**
@@ -72,6 +155,8 @@ public final class BeanInfoCache {
     
     private final Map<CacheKey,BeanInfo> cache = new ConcurrentHashMap<CacheKey,BeanInfo>();
     
+    private final Map<DerivedKey,Object> derivedCache = new ConcurrentHashMap<DerivedKey,Object>();
+    
     /**
      * Introspect on a Java bean and return a cached {@link BeanInfo} object.
      * 
@@ -94,6 +179,40 @@ public final class BeanInfoCache {
         return beanInfo;
     }
     
+    /**
+     * Get the data computed by a given {@link Derived} instance for a bean class, computing it
+     * if necessary.
+     * 
+     * @param derived
+     *            The object computing the data.
+     * @param beanClass
+     *            The bean class.
+     * @return The computed data.
+     * @exception IntrospectionException
+     *                if an exception occurs during introspection.
+     */
+    public <T> T getDerived(Derived<T> derived, Class<?> beanClass) throws IntrospectionException {
+        DerivedKey key = new DerivedKey(derived, beanClass);
+        @SuppressWarnings("unchecked")
+        T value = (T)derivedCache.get(key);
+        if (value == null) {
+            value = derived.compute(beanClass);
+            derivedCache.put(key, value);
+        }
+        return value;
+    }
+    
+    private static BeanInfoCache getCache(Class<?> beanClass) {
+        ClassLoader classLoader = beanClass.getClassLoader();
+        if (classLoader instanceof BeanInfoCachingClassLoader) {
+            return ((BeanInfoCachingClassLoader)classLoader).getBeanInfoCache();
+        } else if (classLoader == BeanInfoCache.class.getClassLoader()) {
+            return localCache;
+        } else {
+            return null;
+        }
+    }
+    
     /**
      * Locate an appropriate {@link BeanInfoCache} and return a cached {@link BeanInfo} object.
      * This method ensures that caching the {@link BeanInfo} object will not result in a class
@@ -108,15 +227,7 @@ public final class BeanInfoCache {
      *                if an exception occurs during introspection.
      */
     public static BeanInfo getCachedBeanInfo(Class<?> beanClass, Class<?> stopClass) throws IntrospectionException {
-        ClassLoader classLoader = beanClass.getClassLoader();
-        BeanInfoCache cache;
-        if (classLoader instanceof BeanInfoCachingClassLoader) {
-            cache = ((BeanInfoCachingClassLoader)classLoader).getBeanInfoCache();
-        } else if (classLoader == BeanInfoCache.class.getClassLoader()) {
-            cache = localCache;
-        } else {
-            cache = null;
-        }
+        BeanInfoCache cache = getCache(beanClass);
         if (cache != null) {
             return cache.getBeanInfo(beanClass, stopClass);
         } else {
@@ -127,4 +238,27 @@ public final class BeanInfoCache {
             return Introspector.getBeanInfo(beanClass, stopClass);
         }
     }
+    
+    /**
+     * Locate an appropriate {@link BeanInfoCache} and return the data computed by a given
+     * {@link Derived} instance for a bean class. As with {@link #getCachedBeanInfo(Class, Class)},
+     * this method ensures that caching the data will not result in a class loader leak. If no
+     * cache can be located, the data is attached to the bean class using a {@link ClassValue}.
+     * 
+     * @param derived
+     *            The object computing the data.
+     * @param beanClass
+     *            The bean class.
+     * @return The computed data.
+     * @exception IntrospectionException
+     *                if an exception occurs during introspection.
+     */
+    public static <T> T getCachedDerived(Derived<T> derived, Class<?> beanClass) throws IntrospectionException {
+        BeanInfoCache cache = getCache(beanClass);
+        if (cache != null) {
+            return cache.getDerived(derived, beanClass);
+        } else {
+            return derived.getFallback(beanClass);
+        }
+    }
 }
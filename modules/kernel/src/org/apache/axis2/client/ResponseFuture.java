@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.client;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axis2.client.async.AxisCallback;
+import org.apache.axis2.context.MessageContext;
+
+/**
+ * {@link Future} returned by {@link ServiceClient#sendReceiveAsync(OMElement)}. It is completed
+ * by the {@link AxisCallback} methods, which are invoked by the operation client.
+ */
+final class ResponseFuture implements Future<OMElement>, AxisCallback {
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile OMElement response;
+    private volatile Exception error;
+
+    public void onMessage(MessageContext msgContext) {
+        // The transport may release the input stream once the MEP is complete; build the whole
+        // envelope now
+        SOAPEnvelope envelope = msgContext.getEnvelope();
+        envelope.buildWithAttachments();
+        response = envelope.getBody().getFirstElement();
+    }
+
+    public void onFault(MessageContext msgContext) {
+        // Same as sendReceive if exceptions are not thrown on SOAP faults: return the fault
+        onMessage(msgContext);
+    }
+
+    public void onError(Exception e) {
+        error = e;
+    }
+
+    public void onComplete() {
+        latch.countDown();
+    }
+
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        // The request has already been sent
+        return false;
+    }
+
+    public boolean isCancelled() {
+        return false;
+    }
+
+    public boolean isDone() {
+        return latch.getCount() == 0;
+    }
+
+    public OMElement get() throws InterruptedException, ExecutionException {
+        latch.await();
+        return getResult();
+    }
+
+    public OMElement get(long timeout, TimeUnit unit) throws InterruptedException,
+            ExecutionException, TimeoutException {
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return getResult();
+    }
+
+    private OMElement getResult() throws ExecutionException {
+        if (error != null) {
+            throw new ExecutionException(error);
+        }
+        return response;
+    }
+}
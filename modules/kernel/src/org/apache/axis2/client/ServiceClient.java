@@ -58,6 +58,7 @@ import javax.wsdl.Definition;
 import javax.xml.namespace.QName;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.concurrent.Future;
 
 /**
  * Client access to a service. Each instance of this class is associated with a particular {@link
@@ -581,6 +582,40 @@ public class ServiceClient {
         mepClient.execute(false);
     }
 
+    /**
+     * Directly invoke an anonymous operation with an In-Out MEP without waiting for a response.
+     *
+     * @param elem the data to send (becomes the content of SOAP body)
+     * @return a {@link Future} that gives access to the response
+     * @throws AxisFault in case of error
+     * @see #sendReceiveAsync(QName, OMElement)
+     */
+    public Future<OMElement> sendReceiveAsync(OMElement elem) throws AxisFault {
+        return sendReceiveAsync(ANON_OUT_IN_OP, elem);
+    }
+
+    /**
+     * Directly invoke a named operation with an In-Out MEP without waiting for a response. This
+     * is equivalent to {@link #sendReceiveNonBlocking(QName, OMElement, AxisCallback)}, but the
+     * response is made available through a {@link Future}. If the transport sender is an
+     * {@link org.apache.axis2.transport.AsyncTransportSender}, no thread is blocked while
+     * waiting for the response.
+     * <p>
+     * Errors (including SOAP faults if {@link Options#isExceptionToBeThrownOnSOAPFault()} is
+     * <code>true</code>) are reported as an {@link java.util.concurrent.ExecutionException}
+     * by {@link Future#get()}.
+     *
+     * @param operation name of operation to be invoked (non-<code>null</code>)
+     * @param elem      the data to send (becomes the content of SOAP body)
+     * @return a {@link Future} that gives access to the response
+     * @throws AxisFault in case of error
+     */
+    public Future<OMElement> sendReceiveAsync(QName operation, OMElement elem) throws AxisFault {
+        ResponseFuture future = new ResponseFuture();
+        sendReceiveNonBlocking(operation, elem, future);
+        return future;
+    }
+
     /**
      * Create an operation client with the appropriate message exchange pattern (MEP). This method
      * creates a full-function MEP client which can be used to exchange messages for a specific
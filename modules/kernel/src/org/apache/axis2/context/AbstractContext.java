@@ -108,12 +108,7 @@ public abstract class AbstractContext {
      */
     public Iterator<String> getPropertyNames() {
         initPropertiesMap();
-        while (true) {
-            try {
-                return new HashSet<String>(properties.keySet()).iterator();
-            } catch (Exception cme) {
-            }
-        }
+        return new HashSet<String>(properties.keySet()).iterator();
     }
 
     /**
@@ -123,7 +118,19 @@ public abstract class AbstractContext {
      * @return Returns the property.
      */
     public Object getProperty(String key) {
-        Object obj = properties == null ? null : properties.get(key);
+        return getProperty(key, PropertyMap.slotOf(key));
+    }
+
+    /**
+     * Retrieves an object given a key and the slot of the key in the {@link PropertyMap}s of
+     * the context hierarchy, so that the key only needs to be resolved once.
+     *
+     * @param key the property name
+     * @param slot the slot as returned by {@link PropertyMap#slotOf(String)}
+     * @return Returns the property.
+     */
+    Object getProperty(String key, int slot) {
+        Object obj = getLocalValue(key, slot);
         if (obj!=null) {
             // Assume that a property which is read may be updated.
             // i.e. The object pointed to by 'value' may be modified after it is read
@@ -135,11 +142,20 @@ public abstract class AbstractContext {
                 addPropertyDifference(key, obj, false);
             }
         } else if (parent!=null) {
-            obj = parent.getProperty(key);
+            obj = parent.getProperty(key, slot);
         } 
         return obj;
     }
 
+    private Object getLocalValue(String key, int slot) {
+        Map<String, Object> properties = this.properties;
+        if (properties instanceof PropertyMap) {
+            return ((PropertyMap) properties).get(key, slot);
+        } else {
+            return properties == null ? null : properties.get(key);
+        }
+    }
+
     /**
      * Retrieves an object given a key. Only searches at this level
      * i.e. getLocalProperty on MessageContext does not look in
@@ -175,9 +191,13 @@ public abstract class AbstractContext {
      * @return Returns the property.
      */
     public Object getPropertyNonReplicable(String key) {
-        Object obj = properties == null ? null : properties.get(key);
+        return getPropertyNonReplicable(key, PropertyMap.slotOf(key));
+    }
+
+    private Object getPropertyNonReplicable(String key, int slot) {
+        Object obj = getLocalValue(key, slot);
         if ((obj == null) && (parent != null)) {
-            obj = parent.getPropertyNonReplicable(key);
+            obj = parent.getPropertyNonReplicable(key, slot);
         }
         return obj;
     }
@@ -190,13 +210,7 @@ public abstract class AbstractContext {
      */
     public void setProperty(String key, Object value) {
         initPropertiesMap();
-        while (true) {
-            try {
-                properties.put(key, value);
-                break;
-            } catch (ConcurrentModificationException cme) {
-            }
-        }
+        properties.put(key, value);
         if(!isClusteringCheckDone) {
             isClusteringCheckDone = true;
             isClusteringOn = needPropertyDifferences();
@@ -253,13 +267,7 @@ public abstract class AbstractContext {
      */
     public void setNonReplicableProperty(String key, Object value) {
         initPropertiesMap();
-        while (true) {
-            try {
-                properties.put(key, value);
-                break;
-            } catch (ConcurrentModificationException cme) {
-            }
-        }
+        properties.put(key, value);
     }
 
     /**
@@ -268,21 +276,12 @@ public abstract class AbstractContext {
      *
      * @param key
      */
-    public synchronized void removeProperty(String key) {
+    public void removeProperty(String key) {
         if(properties == null){
             return;
         }
-        Object value = properties.get(key);
+        Object value = properties.remove(key);
         if (value != null) {
-            if (properties != null) {
-                while (true) {
-                    try {
-                        properties.remove(key);
-                        break;
-                    } catch (ConcurrentModificationException cme) {
-                    }
-                }
-            }
             if(!isClusteringCheckDone) {
                 isClusteringCheckDone = true;
                 isClusteringOn = needPropertyDifferences();
@@ -300,15 +299,9 @@ public abstract class AbstractContext {
      *
      * @param key
      */
-    public synchronized void removePropertyNonReplicable(String key) {
+    public void removePropertyNonReplicable(String key) {
         if (properties != null) {
-            while (true) {
-                try {
-                    properties.remove(key);
-                    break;
-                } catch (ConcurrentModificationException cme) {
-                }
-            }
+            properties.remove(key);
         }
     }
 
@@ -376,7 +369,7 @@ public abstract class AbstractContext {
                 // argument map.
                 while (true) {
                     try {
-                        this.properties = new HashMap(properties);
+                        this.properties = new PropertyMap(properties);
                         break;
                     } catch (ConcurrentModificationException cme) {
                     }
@@ -398,13 +391,7 @@ public abstract class AbstractContext {
                  iterator.hasNext();) {
                 String key = iterator.next();
                 Object value = props.get(key);
-                while (true) {
-                    try {
-                        properties.put(key, value);
-                        break;
-                    } catch (ConcurrentModificationException cme) {
-                    }
-                }
+                properties.put(key, value);
                 if (DEBUG_ENABLED) {
                     debugPropertySet((String) key, value);
                 }
@@ -480,9 +467,8 @@ public abstract class AbstractContext {
     private void initPropertiesMap() {
         if (properties == null) {
             // This needs to be a concurrent collection to prevent ConcurrentModificationExcpetions
-            // for async-on-the-wire.  It was originally: 
-//            properties = new HashMap(DEFAULT_MAP_SIZE);
-            properties = new HashMap<String,Object>(DEFAULT_MAP_SIZE);
+            // for async-on-the-wire.
+            properties = new PropertyMap();
         }
     }
 }
@@ -28,6 +28,7 @@ import org.apache.axis2.clustering.ClusteringConstants;
 import org.apache.axis2.clustering.management.NodeManager;
 import org.apache.axis2.clustering.state.StateManager;
 import org.apache.axis2.description.AxisModule;
+import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.AxisServiceGroup;
 import org.apache.axis2.description.Parameter;
@@ -38,21 +39,24 @@ import org.apache.axis2.engine.ServiceLifeCycle;
 import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.java.security.AccessController;
 import org.apache.axis2.modules.Module;
+import org.apache.axis2.util.CallbackReceiver;
 import org.apache.axis2.util.JavaUtils;
 import org.apache.axis2.util.OnDemandLogger;
+import org.apache.axis2.util.Utils;
 import org.apache.axis2.util.threadpool.ThreadFactory;
 import org.apache.axis2.util.threadpool.ThreadPool;
+import org.apache.axis2.util.threadpool.VirtualThreadPool;
+import org.apache.axis2.util.threadpool.VirtualThreads;
 
 import java.io.File;
 import java.net.URL;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.HashMap;
-import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>Axis2 states are held in two information models, called description hierarchy and context
@@ -69,10 +73,15 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ConfigurationContext extends AbstractContext {
 
     private static final OnDemandLogger log = new OnDemandLogger(ConfigurationContext.class);
+    /** Resolution of the timer wheels used to expire operation and service group contexts. */
+    private static final long CONTEXT_EXPIRY_TICK = 1000;
+
     /** Map containing <code>MessageID</code> to <code>OperationContext</code> mapping. */
-    private final ConcurrentHashMap<String, OperationContext> operationContextMap = new ConcurrentHashMap<String, OperationContext>();
-    private final Hashtable<String, ServiceGroupContext> serviceGroupContextMap = new Hashtable<String, ServiceGroupContext>();
-    private Hashtable<String, ServiceGroupContext> applicationSessionServiceGroupContexts = new Hashtable<String, ServiceGroupContext>();
+    private final ContextTable<OperationContext> operationContextMap =
+            new ContextTable<OperationContext>(CONTEXT_EXPIRY_TICK);
+    private final ContextTable<ServiceGroupContext> serviceGroupContextMap =
+            new ContextTable<ServiceGroupContext>(CONTEXT_EXPIRY_TICK);
+    private ConcurrentMap<String, ServiceGroupContext> applicationSessionServiceGroupContexts = new ConcurrentHashMap<String, ServiceGroupContext>();
     private AxisConfiguration axisConfiguration;
     private ThreadFactory threadPool;
     //To keep TransportManager instance
@@ -81,6 +90,9 @@ public class ConfigurationContext extends AbstractContext {
     // current time out interval is 30 secs. Need to make this configurable
     private long serviceGroupContextTimeoutInterval = 30 * 1000;
 
+    // operation contexts are not expired unless a time out interval is configured
+    private long operationContextTimeoutInterval = -1;
+
     //To specify url mapping for services
     private String contextRoot;
     private String servicePath;
@@ -109,6 +121,14 @@ public class ConfigurationContext extends AbstractContext {
                 serviceGroupContextTimeoutInterval = Integer.parseInt((String)value);
             }
         }
+        parameter = axisConfiguration
+                .getParameter(Constants.Configuration.OPERATION_CONTEXT_TIMEOUT_INTERVAL);
+        if (parameter != null) {
+            Object value = parameter.getValue();
+            if (value != null && value instanceof String) {
+                operationContextTimeoutInterval = Long.parseLong(((String)value).trim());
+            }
+        }
     }
 
     /**
@@ -313,10 +333,13 @@ public class ConfigurationContext extends AbstractContext {
         boolean alreadyInMap = false;
         mepContext.setKey(messageID);
 
+        // Reap the operation contexts for which the response never arrived
+        cleanupOperationContexts();
         if (override) {
-            operationContextMap.put(messageID, mepContext);
+            operationContextMap.put(messageID, mepContext, operationContextTimeoutInterval);
         } else {
-            Object previous = operationContextMap.putIfAbsent(messageID, mepContext);
+            Object previous = operationContextMap.putIfAbsent(messageID, mepContext,
+                                                              operationContextTimeoutInterval);
             alreadyInMap = (previous != null);
         }
         if (log.isDebugEnabled()) {
@@ -360,7 +383,8 @@ public class ConfigurationContext extends AbstractContext {
     public void addServiceGroupContextIntoSoapSessionTable(
             ServiceGroupContext serviceGroupContext) {
         String id = serviceGroupContext.getId();
-        serviceGroupContextMap.put(id, serviceGroupContext);
+        serviceGroupContextMap.put(id, serviceGroupContext,
+                                   getServiceGroupContextTimeoutInterval());
         serviceGroupContext.touch();
         serviceGroupContext.setParent(this);
         // this is the best time to clean up the SGCtxts since are not being used anymore
@@ -375,7 +399,7 @@ public class ConfigurationContext extends AbstractContext {
     public void addServiceGroupContextIntoApplicationScopeTable
             (ServiceGroupContext serviceGroupContext) {
         if (applicationSessionServiceGroupContexts == null) {
-            applicationSessionServiceGroupContexts = new Hashtable<String, ServiceGroupContext>();
+            applicationSessionServiceGroupContexts = new ConcurrentHashMap<String, ServiceGroupContext>();
         }
         applicationSessionServiceGroupContexts.put(
                 serviceGroupContext.getDescription().getServiceGroupName(), serviceGroupContext);
@@ -545,7 +569,7 @@ public class ConfigurationContext extends AbstractContext {
     public ServiceGroupContext getServiceGroupContext(String serviceGroupCtxId) {
 
         if (serviceGroupCtxId == null) {
-            // Hashtables require non-null key-value pairs
+            // The context tables don't support null keys
             return null;
         }
 
@@ -574,18 +598,50 @@ public class ConfigurationContext extends AbstractContext {
      * @return Returns hashmap of ServiceGroupContexts.
      */
     public String[] getServiceGroupContextIDs() {
-        String[] ids = new String[serviceGroupContextMap.size() +
-                                  applicationSessionServiceGroupContexts.size()];
-        int index = 0;
-        for (Object o : serviceGroupContextMap.keySet()) {
-            ids[index] = (String)o;
-            index++;
-        }
-        for (Object o : applicationSessionServiceGroupContexts.keySet()) {
-            ids[index] = (String)o;
-            index++;
-        }
-        return ids;
+        // The tables may change concurrently, so don't rely on their sizes
+        List<String> ids = new ArrayList<String>(serviceGroupContextMap.keySet());
+        ids.addAll(applicationSessionServiceGroupContexts.keySet());
+        return ids.toArray(new String[ids.size()]);
+    }
+
+    /**
+     * Get the number of service group contexts in the SOAP session table.
+     *
+     * @return the number of live SOAP session contexts
+     */
+    public int getServiceGroupContextCount() {
+        return serviceGroupContextMap.size();
+    }
+
+    /**
+     * Get the number of service group contexts that have been removed from the SOAP session
+     * table because they timed out.
+     *
+     * @return the number of expired SOAP session contexts
+     */
+    public long getExpiredServiceGroupContextCount() {
+        return serviceGroupContextMap.getExpiredCount();
+    }
+
+    /**
+     * Get the number of registered operation contexts.
+     *
+     * @return the number of live operation contexts
+     */
+    public int getOperationContextCount() {
+        return operationContextMap.size();
+    }
+
+    /**
+     * Get the number of operation contexts that have been unregistered because they were not
+     * touched within the interval configured by
+     * {@link Constants.Configuration#OPERATION_CONTEXT_TIMEOUT_INTERVAL}, e.g. because the
+     * response to an asynchronous request never arrived.
+     *
+     * @return the number of expired operation contexts
+     */
+    public long getExpiredOperationContextCount() {
+        return operationContextMap.getExpiredCount();
     }
 
 
@@ -596,12 +652,38 @@ public class ConfigurationContext extends AbstractContext {
      */
     public ThreadFactory getThreadPool() {
         if (threadPool == null) {
-            threadPool = new ThreadPool();
+            threadPool = createThreadPool();
         }
 
         return threadPool;
     }
 
+    /**
+     * Create the default thread factory, honouring the
+     * {@link Constants.Configuration#THREAD_POOL_TYPE} parameter of the axis configuration.
+     *
+     * @return a new thread factory
+     */
+    private ThreadFactory createThreadPool() {
+        if (axisConfiguration != null && Constants.Configuration.THREAD_POOL_TYPE_VIRTUAL.equals(
+                Utils.getParameterValue(axisConfiguration.getParameter(
+                        Constants.Configuration.THREAD_POOL_TYPE)))) {
+            String pinningTrace = Utils.getParameterValue(axisConfiguration.getParameter(
+                    Constants.Configuration.VIRTUAL_THREAD_PINNING_TRACE));
+            if (pinningTrace != null) {
+                VirtualThreads.enablePinningDiagnostics(pinningTrace);
+            }
+            VirtualThreadPool pool = VirtualThreadPool.newInstance("Axis2 Task");
+            if (pool != null) {
+                log.info("Using virtual threads for asynchronous tasks");
+                return pool;
+            }
+            log.warn("Virtual threads are not supported by this Java runtime; " +
+                    "falling back to the default thread pool");
+        }
+        return new ThreadPool();
+    }
+
     /**
      * Set the AxisConfiguration to the specified configuration
      *
@@ -640,22 +722,44 @@ public class ConfigurationContext extends AbstractContext {
     }
 
     private void cleanupServiceGroupContexts() {
-        if (serviceGroupContextMap == null) {
+        for (ServiceGroupContext serviceGroupContext : serviceGroupContextMap.expire(
+                System.currentTimeMillis(), getServiceGroupContextTimeoutInterval())) {
+            cleanupServiceContexts(serviceGroupContext);
+            contextRemoved(serviceGroupContext);
+        }
+    }
+
+    private void cleanupOperationContexts() {
+        for (OperationContext operationContext : operationContextMap.expire(
+                System.currentTimeMillis(), operationContextTimeoutInterval)) {
+            if (log.isDebugEnabled()) {
+                log.debug("Operation context for operation " +
+                          operationContext.getOperationName() + " timed out");
+            }
+            removeCallbacks(operationContext);
+            contextRemoved(operationContext);
+        }
+    }
+
+    /**
+     * Deregister the callbacks that are still waiting for a response to one of the messages of
+     * an expired operation context. Without this, the {@link CallbackReceiver} of the operation
+     * would keep them (and everything they reference) forever.
+     *
+     * @param operationContext the expired operation context
+     */
+    private static void removeCallbacks(OperationContext operationContext) {
+        AxisOperation axisOperation = operationContext.getAxisOperation();
+        if (axisOperation == null
+                || !(axisOperation.getMessageReceiver() instanceof CallbackReceiver)) {
             return;
         }
-        long currentTime = new Date().getTime();
-
-        synchronized (serviceGroupContextMap) {
-            for (Iterator<String> sgCtxtMapKeyIter = serviceGroupContextMap.keySet().iterator();
-                 sgCtxtMapKeyIter.hasNext();) {
-                String sgCtxtId = sgCtxtMapKeyIter.next();
-                ServiceGroupContext serviceGroupContext =serviceGroupContextMap.get(sgCtxtId);
-                if ((currentTime - serviceGroupContext.getLastTouchedTime()) >
-                    getServiceGroupContextTimeoutInterval()) {
-                    sgCtxtMapKeyIter.remove();
-                    cleanupServiceContexts(serviceGroupContext);
-                    contextRemoved(serviceGroupContext);
-                }
+        CallbackReceiver callbackReceiver = (CallbackReceiver)axisOperation.getMessageReceiver();
+        for (MessageContext messageContext : operationContext.getMessageContexts().values()) {
+            String messageID = messageContext.getMessageID();
+            if (messageID != null && callbackReceiver.lookupCallback(messageID) != null
+                    && log.isDebugEnabled()) {
+                log.debug("Removed the callback for message " + messageID);
             }
         }
     }
@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent table of contexts that expire when they have not been touched for a given
+ * interval. Expiry is tracked with a hashed timer wheel: every context is scheduled in the
+ * bucket of the tick at which it would expire, and {@link #expire(long, long)} only visits the
+ * buckets of the ticks that elapsed since the previous call. Touching a context doesn't
+ * reschedule it; instead, a context that turns out to have been touched when its bucket is
+ * visited is moved to the bucket of its new expiry time. Removing a context from the table
+ * leaves a stale entry in the wheel, which is dropped when its bucket is visited.
+ *
+ * @param <C> the type of context
+ */
+class ContextTable<C extends AbstractContext> {
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static class Entry<C> {
+        final String key;
+        final C context;
+        final long registrationTime;
+
+        Entry(String key, C context, long registrationTime) {
+            this.key = key;
+            this.context = context;
+            this.registrationTime = registrationTime;
+        }
+    }
+
+    private final ConcurrentMap<String, C> contexts = new ConcurrentHashMap<String, C>();
+    private final long tickMillis;
+    private final Queue<Entry<C>>[] wheel;
+    private final AtomicBoolean expiring = new AtomicBoolean();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private long lastTick;
+
+    /**
+     * Constructor.
+     *
+     * @param tickMillis the resolution of the timer wheel, in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    ContextTable(long tickMillis) {
+        this.tickMillis = tickMillis;
+        wheel = new Queue[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<Entry<C>>();
+        }
+        lastTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    C get(String key) {
+        return contexts.get(key);
+    }
+
+    /**
+     * Add a context to the table.
+     *
+     * @param key the key
+     * @param context the context
+     * @param timeout the interval after which the context expires if it is not touched, or a
+     *                value smaller than or equal to 0 if the context never expires
+     * @return the context previously associated with the key, if any
+     */
+    C put(String key, C context, long timeout) {
+        C previous = contexts.put(key, context);
+        schedule(key, context, timeout);
+        return previous;
+    }
+
+    /**
+     * Add a context to the table unless the key is already associated with a context.
+     *
+     * @param key the key
+     * @param context the context
+     * @param timeout see {@link #put(String, AbstractContext, long)}
+     * @return the context already associated with the key, or <code>null</code> if the given
+     *         context has been added
+     */
+    C putIfAbsent(String key, C context, long timeout) {
+        C previous = contexts.putIfAbsent(key, context);
+        if (previous == null) {
+            schedule(key, context, timeout);
+        }
+        return previous;
+    }
+
+    C remove(String key) {
+        return contexts.remove(key);
+    }
+
+    boolean isEmpty() {
+        return contexts.isEmpty();
+    }
+
+    int size() {
+        return contexts.size();
+    }
+
+    Set<String> keySet() {
+        return contexts.keySet();
+    }
+
+    Collection<C> values() {
+        return contexts.values();
+    }
+
+    void clear() {
+        contexts.clear();
+        for (Queue<Entry<C>> bucket : wheel) {
+            bucket.clear();
+        }
+    }
+
+    /**
+     * @return the number of contexts removed by {@link #expire(long, long)} so far
+     */
+    long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    private void schedule(String key, C context, long timeout) {
+        if (timeout > 0) {
+            long now = System.currentTimeMillis();
+            // Round up, so that the entry never lands in the bucket of a tick that
+            // expire(long, long) has already visited
+            wheel[(int)(((now + timeout) / tickMillis + 1) & WHEEL_MASK)].add(
+                    new Entry<C>(key, context, now));
+        }
+    }
+
+    /**
+     * Remove the contexts that have not been touched for longer than the given interval. Only
+     * the buckets of the ticks elapsed since the last call are visited, so calling this method
+     * frequently is cheap. If another thread is already expiring contexts, this method returns
+     * immediately.
+     *
+     * @param now the current time
+     * @param timeout the interval after which untouched contexts expire
+     * @return the contexts that have been removed
+     */
+    List<C> expire(long now, long timeout) {
+        if (timeout <= 0 || !expiring.compareAndSet(false, true)) {
+            return Collections.emptyList();
+        }
+        try {
+            long currentTick = now / tickMillis;
+            if (currentTick <= lastTick) {
+                return Collections.emptyList();
+            }
+            // Visit every bucket at most once, even if the method hasn't been called for
+            // more than a full rotation of the wheel
+            long firstTick = Math.max(lastTick + 1, currentTick - WHEEL_SIZE + 1);
+            lastTick = currentTick;
+            List<C> expired = null;
+            List<Entry<C>> rescheduled = null;
+            for (long tick = firstTick; tick <= currentTick; tick++) {
+                Queue<Entry<C>> bucket = wheel[(int)(tick & WHEEL_MASK)];
+                Entry<C> entry;
+                while ((entry = bucket.poll()) != null) {
+                    if (contexts.get(entry.key) != entry.context) {
+                        // The context has already been removed or replaced
+                        continue;
+                    }
+                    long lastActivity = Math.max(entry.context.getLastTouchedTime(),
+                                                 entry.registrationTime);
+                    if (now - lastActivity > timeout) {
+                        if (contexts.remove(entry.key, entry.context)) {
+                            expiredCount.incrementAndGet();
+                            if (expired == null) {
+                                expired = new ArrayList<C>();
+                            }
+                            expired.add(entry.context);
+                        }
+                    } else {
+                        if (rescheduled == null) {
+                            rescheduled = new ArrayList<Entry<C>>();
+                        }
+                        rescheduled.add(entry);
+                    }
+                }
+            }
+            if (rescheduled != null) {
+                for (Entry<C> entry : rescheduled) {
+                    long lastActivity = Math.max(entry.context.getLastTouchedTime(),
+                                                 entry.registrationTime);
+                    long tick = Math.max((lastActivity + timeout) / tickMillis, currentTick + 1);
+                    wheel[(int)(tick & WHEEL_MASK)].add(entry);
+                }
+            }
+            return expired == null ? Collections.<C>emptyList() : expired;
+        } finally {
+            expiring.set(false);
+        }
+    }
+}
@@ -297,6 +297,12 @@ public class MessageContext extends AbstractContext
      */
     private ArrayList<Handler> executionChain;
 
+    /**
+     * Whether {@link #executionChain} is a compiled chain shared with other messages, in which
+     * case it is copied before {@link #getExecutionChain()} hands it out.
+     */
+    private transient boolean executionChainShared;
+
     /**
      * @serial The chain of executed Handlers/Phases from processing
      */
@@ -640,10 +646,32 @@ public class MessageContext extends AbstractContext
         return envelope;
     }
 
+    /**
+     * Get the execution chain of this message. The returned list may be modified to change the
+     * handlers that will be invoked for this message; if the chain is shared with other messages
+     * (see {@link #setSharedExecutionChain(ArrayList)}), a private copy is made first.
+     *
+     * @return the execution chain
+     */
     public ArrayList<Handler> getExecutionChain() {
         if (DEBUG_ENABLED) {
             checkActivateWarning("getExecutionChain");
         }
+        if (executionChainShared) {
+            executionChain = new ArrayList<Handler>(executionChain);
+            executionChainShared = false;
+        }
+        return executionChain;
+    }
+
+    /**
+     * Get the execution chain of this message without copying it if it is shared with other
+     * messages. This is used by the {@link org.apache.axis2.engine.AxisEngine} to invoke the
+     * handlers; the returned list must not be modified.
+     *
+     * @return the execution chain
+     */
+    public List<Handler> getExecutionChainNoCopy() {
         return executionChain;
     }
 
@@ -940,8 +968,11 @@ public class MessageContext extends AbstractContext
             checkActivateWarning("getProperty");
         }
 
+        // Resolve the key once for the whole context hierarchy
+        int slot = PropertyMap.slotOf(name);
+
         // search in my own options
-        Object obj = super.getProperty(name);
+        Object obj = getProperty(name, slot);
         if (obj != null) {
             return obj;
         }
@@ -959,19 +990,19 @@ public class MessageContext extends AbstractContext
         // is not performed.
         if (operationContext != null) {
             if (!isAncestor(operationContext)) {
-                obj = operationContext.getProperty(name);
+                obj = operationContext.getProperty(name, slot);
             }
         } else if (serviceContext != null) {
             if (!isAncestor(serviceContext)) {
-                obj = serviceContext.getProperty(name);
+                obj = serviceContext.getProperty(name, slot);
             }
         } else if (serviceGroupContext != null) {
             if (!isAncestor(serviceGroupContext)) {
-                obj =  serviceGroupContext.getProperty(name);
+                obj =  serviceGroupContext.getProperty(name, slot);
             }
         } else if (configurationContext != null) {
             if (!isAncestor(configurationContext)) {
-                obj = configurationContext.getProperty(name);
+                obj = configurationContext.getProperty(name, slot);
             }
         }
 
@@ -1336,10 +1367,24 @@ public class MessageContext extends AbstractContext
      */
     public void setExecutionChain(ArrayList<Handler> executionChain) {
         this.executionChain = executionChain;
+        executionChainShared = false;
         currentHandlerIndex = -1;
         currentPhaseIndex = 0;
     }
 
+    /**
+     * Set an execution chain that is shared with other messages, typically one compiled by
+     * {@link org.apache.axis2.engine.CompiledFlow}. The chain is not modified; it is copied if
+     * {@link #getExecutionChain()} is called. As with {@link #setExecutionChain(ArrayList)}, the
+     * current handler/phase indexes are reset.
+     *
+     * @param executionChain the shared execution chain
+     */
+    public void setSharedExecutionChain(ArrayList<Handler> executionChain) {
+        setExecutionChain(executionChain);
+        executionChainShared = true;
+    }
+
     /**
      * @param reference
      */
@@ -3410,7 +3455,7 @@ public class MessageContext extends AbstractContext
             log.trace(getLogIDString() +
                       ": readExternal(): About to read properties, marker is: " + marker);
         }
-        properties = in.readMap(new HashMap());
+        properties = in.readMap(new PropertyMap());
 
 
         //---------------------------------------------------------
@@ -3657,6 +3702,7 @@ public class MessageContext extends AbstractContext
             currentPhaseIndex = metaPhaseIndex;
 
             executionChain = restoreHandlerList(metaExecutionChain);
+            executionChainShared = false;
 
             try {
                 deserializeSelfManagedData();
@@ -3885,6 +3931,7 @@ public class MessageContext extends AbstractContext
             currentPhaseIndex = metaPhaseIndex;
 
             executionChain = restoreHandlerList(metaExecutionChain);
+            executionChainShared = false;
 
             try {
                 deserializeSelfManagedData();
@@ -4147,7 +4194,11 @@ public class MessageContext extends AbstractContext
         // ArrayList executionChain
         //     handler and phase related data
         //---------------------------------------------------------
-        copy.setExecutionChain(executionChain);
+        if (executionChainShared) {
+            copy.setSharedExecutionChain(executionChain);
+        } else {
+            copy.setExecutionChain(executionChain);
+        }
 
         // the setting of the execution chain is actually a reset
         // so copy the indices after putting in the execution chain
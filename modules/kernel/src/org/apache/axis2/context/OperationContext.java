@@ -581,7 +581,7 @@ public class OperationContext extends AbstractContext
         // properties
         //---------------------------------------------------------
         in.readUTF(); // read marker
-        properties = in.readMap(new HashMap());
+        properties = in.readMap(new PropertyMap());
 
         //---------------------------------------------------------
         // axis operation meta data
@@ -0,0 +1,355 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import org.apache.axis2.Constants;
+import org.apache.axis2.addressing.AddressingConstants;
+import org.apache.axis2.transport.RequestResponseTransport;
+import org.apache.axis2.transport.http.HTTPConstants;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Thread safe map used to store the properties of an {@link AbstractContext}. The values of
+ * the properties that Axis2 itself reads on every message are stored in an array, at a slot
+ * determined once per key by {@link #slotOf(String)}. A lookup that walks up the context
+ * hierarchy therefore only needs to resolve the key once. Other properties are stored in a
+ * {@link ConcurrentHashMap} that is created on demand.
+ * <p>
+ * Unlike {@link ConcurrentHashMap}, this map accepts <code>null</code> keys and values, as
+ * the {@link HashMap} previously used by the contexts did.
+ */
+final class PropertyMap extends AbstractMap<String, Object> {
+    /**
+     * Slot number returned by {@link #slotOf(String)} for keys that are not well known.
+     */
+    static final int NO_SLOT = -1;
+
+    private static final String[] WELL_KNOWN_KEYS = {
+        MessageContext.TRANSPORT_IN,
+        MessageContext.TRANSPORT_OUT,
+        MessageContext.TRANSPORT_HEADERS,
+        MessageContext.TRANSPORT_SUCCEED,
+        MessageContext.TRANSPORT_ADDR,
+        MessageContext.REMOTE_ADDR,
+        MessageContext.CHARACTER_SET_ENCODING,
+        MessageContext.IN_MESSAGE_CONTEXT,
+        MessageContext.CLIENT_API_NON_BLOCKING,
+        MessageContext.DISABLE_ASYNC_CALLBACK_ON_TRANSPORT_ERROR,
+        Constants.OUT_TRANSPORT_INFO,
+        Constants.BUILDER,
+        Constants.AXIS_BINDING_OPERATION,
+        Constants.AXIS_BINDING_MESSAGE,
+        Constants.FAULT_INFORMATION_FOR_HEADERS,
+        Constants.HTTP_RESPONSE_STATE,
+        Constants.INBOUND_FAULT_OVERRIDE,
+        Constants.Configuration.CHARACTER_SET_ENCODING,
+        Constants.Configuration.MESSAGE_TYPE,
+        Constants.Configuration.CONTENT_TYPE,
+        Constants.Configuration.ENABLE_MTOM,
+        Constants.Configuration.ENABLE_SWA,
+        Constants.Configuration.HTTP_METHOD,
+        Constants.Configuration.TRANSPORT_URL,
+        Constants.Configuration.SEND_STACKTRACE_DETAILS_WITH_FAULTS,
+        AddressingConstants.WS_ADDRESSING_VERSION,
+        AddressingConstants.DISABLE_ADDRESSING_FOR_OUT_MESSAGES,
+        AddressingConstants.IS_ADDR_INFO_ALREADY_PROCESSED,
+        AddressingConstants.INCLUDE_OPTIONAL_HEADERS,
+        AddressingConstants.REPLACE_ADDRESSING_HEADERS,
+        AddressingConstants.ADDR_VALIDATE_ACTION,
+        RequestResponseTransport.TRANSPORT_CONTROL,
+        RequestResponseTransport.HOLD_RESPONSE,
+        HTTPConstants.HTTP_HEADERS,
+        HTTPConstants.COOKIE_STRING,
+        HTTPConstants.CHUNKED,
+        HTTPConstants.SO_TIMEOUT,
+        HTTPConstants.CONNECTION_TIMEOUT,
+        HTTPConstants.MC_HTTP_SERVLETREQUEST,
+        HTTPConstants.MC_HTTP_SERVLETRESPONSE,
+        HTTPConstants.MC_HTTP_SERVLETCONTEXT,
+        HTTPConstants.MC_HTTP_STATUS_CODE,
+        HTTPConstants.MC_ACCEPT_GZIP,
+        HTTPConstants.MC_GZIP_REQUEST,
+        HTTPConstants.MC_GZIP_RESPONSE,
+    };
+
+    private static final Map<String, Integer> SLOTS;
+    private static final String[] WELL_KNOWN_KEYS_BY_SLOT;
+
+    /**
+     * The <code>null</code> key gets the last slot.
+     */
+    private static final int NULL_KEY_SLOT;
+
+    static {
+        Map<String, Integer> slots = new HashMap<String, Integer>();
+        for (String key : WELL_KNOWN_KEYS) {
+            if (!slots.containsKey(key)) {
+                slots.put(key, slots.size());
+            }
+        }
+        SLOTS = slots;
+        NULL_KEY_SLOT = slots.size();
+        WELL_KNOWN_KEYS_BY_SLOT = new String[NULL_KEY_SLOT + 1];
+        for (Map.Entry<String, Integer> entry : slots.entrySet()) {
+            WELL_KNOWN_KEYS_BY_SLOT[entry.getValue().intValue()] = entry.getKey();
+        }
+    }
+
+    /**
+     * Marker stored in place of <code>null</code> values.
+     */
+    private static final Object NULL = new Object();
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<PropertyMap, ConcurrentHashMap>
+            OTHERS_UPDATER = AtomicReferenceFieldUpdater.newUpdater(PropertyMap.class,
+                    ConcurrentHashMap.class, "others");
+
+    private final AtomicReferenceArray<Object> slots =
+            new AtomicReferenceArray<Object>(NULL_KEY_SLOT + 1);
+    private volatile ConcurrentHashMap<String, Object> others;
+
+    PropertyMap() {
+    }
+
+    PropertyMap(Map<String, ?> map) {
+        putAll(map);
+    }
+
+    /**
+     * Get the slot used to store the given key.
+     *
+     * @param key the property name
+     * @return the slot number, or {@link #NO_SLOT} if the key is not well known
+     */
+    static int slotOf(String key) {
+        if (key == null) {
+            return NULL_KEY_SLOT;
+        }
+        Integer slot = SLOTS.get(key);
+        return slot == null ? NO_SLOT : slot.intValue();
+    }
+
+    private static Object mask(Object value) {
+        return value == null ? NULL : value;
+    }
+
+    private static Object unmask(Object value) {
+        return value == NULL ? null : value;
+    }
+
+    /**
+     * Get the value of a property using a slot number previously obtained from
+     * {@link #slotOf(String)}.
+     *
+     * @param key the property name
+     * @param slot the slot of the property name
+     * @return the value, or <code>null</code> if the property is not set
+     */
+    Object get(String key, int slot) {
+        if (slot != NO_SLOT) {
+            return unmask(slots.get(slot));
+        }
+        ConcurrentHashMap<String, Object> others = this.others;
+        return others == null ? null : unmask(others.get(key));
+    }
+
+    private Object getRaw(String key) {
+        int slot = slotOf(key);
+        if (slot != NO_SLOT) {
+            return slots.get(slot);
+        }
+        ConcurrentHashMap<String, Object> others = this.others;
+        return others == null ? null : others.get(key);
+    }
+
+    private ConcurrentHashMap<String, Object> getOthers() {
+        ConcurrentHashMap<String, Object> others = this.others;
+        if (others == null) {
+            OTHERS_UPDATER.compareAndSet(this, null, new ConcurrentHashMap<String, Object>());
+            others = this.others;
+        }
+        return others;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return key == null || key instanceof String ? get((String) key, slotOf((String) key))
+                : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return (key == null || key instanceof String) && getRaw((String) key) != null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int slot = slotOf(key);
+        if (slot != NO_SLOT) {
+            return unmask(slots.getAndSet(slot, mask(value)));
+        }
+        return unmask(getOthers().put(key, mask(value)));
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (key != null && !(key instanceof String)) {
+            return null;
+        }
+        int slot = slotOf((String) key);
+        if (slot != NO_SLOT) {
+            return unmask(slots.getAndSet(slot, null));
+        }
+        ConcurrentHashMap<String, Object> others = this.others;
+        return others == null ? null : unmask(others.remove(key));
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        ConcurrentHashMap<String, Object> others = this.others;
+        if (others != null) {
+            others.clear();
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                size++;
+            }
+        }
+        ConcurrentHashMap<String, Object> others = this.others;
+        return others == null ? size : size + others.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return PropertyMap.this.size();
+            }
+
+            @Override
+            public void clear() {
+                PropertyMap.this.clear();
+            }
+        };
+    }
+
+    private final class PropertyEntry extends SimpleEntry<String, Object> {
+        private static final long serialVersionUID = 1L;
+
+        PropertyEntry(String key, Object value) {
+            super(key, value);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            super.setValue(value);
+            return put(getKey(), value);
+        }
+    }
+
+    /**
+     * Weakly consistent iterator, in the same way as the iterators of
+     * {@link ConcurrentHashMap}: it never throws {@link java.util.ConcurrentModificationException}.
+     */
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int slot;
+        private Iterator<Entry<String, Object>> othersIterator;
+        private Entry<String, Object> next;
+        private Entry<String, Object> last;
+
+        EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (slot < slots.length()) {
+                int current = slot++;
+                Object value = slots.get(current);
+                if (value != null) {
+                    next = new PropertyEntry(WELL_KNOWN_KEYS_BY_SLOT[current], unmask(value));
+                    return;
+                }
+            }
+            if (othersIterator == null) {
+                ConcurrentHashMap<String, Object> others = PropertyMap.this.others;
+                if (others == null) {
+                    return;
+                }
+                othersIterator = others.entrySet().iterator();
+            }
+            if (othersIterator.hasNext()) {
+                Entry<String, Object> entry = othersIterator.next();
+                next = new PropertyEntry(entry.getKey(), unmask(entry.getValue()));
+            }
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return last;
+        }
+
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            PropertyMap.this.remove(last.getKey());
+            last = null;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.axis2.deployment.repository.util.ArchiveReader;
 import org.apache.axis2.deployment.repository.util.DeploymentFileData;
 import org.apache.axis2.deployment.repository.util.WSInfo;
 import org.apache.axis2.deployment.scheduler.DeploymentIterator;
+import org.apache.axis2.deployment.scheduler.RepositoryWatcher;
 import org.apache.axis2.deployment.scheduler.Scheduler;
 import org.apache.axis2.deployment.scheduler.SchedulerTask;
 import org.apache.axis2.deployment.util.Utils;
@@ -56,10 +57,17 @@ import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.ZipEntry;
@@ -79,6 +87,7 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     protected static String webLocationString = null;
     protected Scheduler scheduler;
     private SchedulerTask schedulerTask;
+    private RepositoryWatcher repositoryWatcher;
 
     public static void setWebLocationString(String webLocationString) {
         DeploymentEngine.webLocationString = webLocationString;
@@ -95,6 +104,23 @@ public abstract class DeploymentEngine implements DeploymentConstants {
      */
     protected boolean hotDeployment = true;
 
+    /**
+     * Whether hot deployment is triggered by file system events instead of periodic scans
+     */
+    protected boolean watchRepository = false;
+
+    /**
+     * The time (in milliseconds) during which no change must be detected in the repository before
+     * hot deployment is triggered by file system events
+     */
+    protected long hotDeploymentDebounceInterval = 1000;
+
+    /**
+     * The number of threads used to build service groups in parallel. 1 means that services are
+     * deployed sequentially; 0 or a negative value means one thread per available processor.
+     */
+    protected int deploymentParallelism = 1;
+
     /**
      * Stores all the web Services to deploy.
      */
@@ -578,21 +604,108 @@ public abstract class DeploymentEngine implements DeploymentConstants {
     public synchronized void doDeploy() {
         try {
             if (wsToDeploy.size() > 0) {
+                long startTime = System.nanoTime();
+                Map<DeploymentFileData, Future<ServiceDeployer.BuiltServiceGroup>> builtServiceGroups =
+                        buildServiceGroups();
+                // Deployables are added to the AxisConfiguration sequentially and in their
+                // original order, even if service groups have been built in parallel
                 for (Object aWsToDeploy : wsToDeploy) {
                     DeploymentFileData fileToDeploy = (DeploymentFileData) aWsToDeploy;
                     try {
-                        fileToDeploy.deploy();
+                        Future<ServiceDeployer.BuiltServiceGroup> builtServiceGroup =
+                                builtServiceGroups.get(fileToDeploy);
+                        if (builtServiceGroup == null) {
+                            fileToDeploy.deploy();
+                        } else {
+                            ((ServiceDeployer) fileToDeploy.getDeployer()).addServiceGroup(
+                                    getBuiltServiceGroup(builtServiceGroup));
+                        }
                     } catch (DeploymentException e) {
                         // TODO : This probably isn't sufficient.  Maybe provide an option to stop?
                         log.info(e);
                     }
                 }
+                if (!builtServiceGroups.isEmpty()) {
+                    log.info("Deployed " + wsToDeploy.size() + " artifacts in "
+                            + (System.nanoTime() - startTime) / 1000000 + " ms ("
+                            + builtServiceGroups.size() + " services built in parallel)");
+                }
             }
         } finally {
             wsToDeploy.clear();
         }
     }
 
+    /**
+     * Starts building the service groups for the service archives and exploded directories in
+     * {@link #wsToDeploy} on a {@link ForkJoinPool}, if parallel deployment is enabled. Only the
+     * build phase (class loader creation, parsing of services.xml and WSDLs) is executed in
+     * parallel; the service groups are added to the AxisConfiguration by {@link #doDeploy()}.
+     *
+     * @return the pending service groups, or an empty map if services are to be deployed
+     *         sequentially
+     */
+    private Map<DeploymentFileData, Future<ServiceDeployer.BuiltServiceGroup>> buildServiceGroups() {
+        List<DeploymentFileData> serviceFiles = new ArrayList<DeploymentFileData>();
+        for (DeploymentFileData fileToDeploy : wsToDeploy) {
+            if (fileToDeploy.getFile() != null
+                    && fileToDeploy.getDeployer() instanceof ServiceDeployer) {
+                serviceFiles.add(fileToDeploy);
+            }
+        }
+        if (deploymentParallelism == 1 || serviceFiles.size() < 2) {
+            return Collections.emptyMap();
+        }
+        int parallelism = deploymentParallelism > 0 ? deploymentParallelism
+                : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, serviceFiles.size()));
+        // Service classes may be loaded using the thread context class loader
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        Map<DeploymentFileData, Future<ServiceDeployer.BuiltServiceGroup>> builtServiceGroups =
+                new IdentityHashMap<DeploymentFileData, Future<ServiceDeployer.BuiltServiceGroup>>();
+        for (final DeploymentFileData serviceFile : serviceFiles) {
+            final ServiceDeployer deployer = (ServiceDeployer) serviceFile.getDeployer();
+            builtServiceGroups.put(serviceFile, pool.submit(
+                    new Callable<ServiceDeployer.BuiltServiceGroup>() {
+                public ServiceDeployer.BuiltServiceGroup call() throws DeploymentException {
+                    Thread thread = Thread.currentThread();
+                    ClassLoader savedClassLoader = thread.getContextClassLoader();
+                    thread.setContextClassLoader(contextClassLoader);
+                    try {
+                        return deployer.buildServiceGroup(serviceFile);
+                    } finally {
+                        thread.setContextClassLoader(savedClassLoader);
+                    }
+                }
+            }));
+        }
+        // Wait for the build phase to complete, so that it never runs concurrently with
+        // deployers that modify the AxisConfiguration
+        pool.shutdown();
+        try {
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return builtServiceGroups;
+    }
+
+    private static ServiceDeployer.BuiltServiceGroup getBuiltServiceGroup(
+            Future<ServiceDeployer.BuiltServiceGroup> future) throws DeploymentException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DeploymentException) {
+                throw (DeploymentException) cause;
+            }
+            throw new DeploymentException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeploymentException(e);
+        }
+    }
+
     /**
      * Checks if the modules, referred by server.xml, exist or that they are deployed.
      *
@@ -643,9 +756,19 @@ public abstract class DeploymentEngine implements DeploymentConstants {
      * @param listener : RepositoryListener
      */
     protected void startSearch(RepositoryListener listener) {
-        scheduler = new Scheduler();
-
         schedulerTask = new SchedulerTask(listener, axisConfig);
+        if (watchRepository) {
+            RepositoryWatcher watcher = new RepositoryWatcher(listener, schedulerTask,
+                    listener.getWatchedDirectories(), hotDeploymentDebounceInterval);
+            try {
+                watcher.start();
+                repositoryWatcher = watcher;
+                return;
+            } catch (IOException e) {
+                log.warn("Unable to watch the repository for changes; falling back to polling", e);
+            }
+        }
+        scheduler = new Scheduler();
         scheduler.schedule(schedulerTask, new DeploymentIterator());
     }
 
@@ -838,6 +961,37 @@ public abstract class DeploymentEngine implements DeploymentConstants {
             this.hotUpdate = JavaUtils.isTrue(hotUpdate.getValue(), true);
         }
 
+        String hotDeploymentMode = (String) axisConfig.getParameterValue(TAG_HOT_DEPLOYMENT_MODE);
+        if (hotDeploymentMode != null) {
+            hotDeploymentMode = hotDeploymentMode.trim();
+            if (HOT_DEPLOYMENT_MODE_WATCH.equalsIgnoreCase(hotDeploymentMode)) {
+                watchRepository = true;
+            } else if (!HOT_DEPLOYMENT_MODE_POLL.equalsIgnoreCase(hotDeploymentMode)) {
+                log.warn("Unsupported value for " + TAG_HOT_DEPLOYMENT_MODE + ": "
+                        + hotDeploymentMode + "; using " + HOT_DEPLOYMENT_MODE_POLL);
+            }
+        }
+
+        String parallelism = (String) axisConfig.getParameterValue(TAG_DEPLOYMENT_PARALLELISM);
+        if (parallelism != null) {
+            try {
+                deploymentParallelism = Integer.parseInt(parallelism.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + TAG_DEPLOYMENT_PARALLELISM + ": " + parallelism);
+            }
+        }
+
+        String debounceInterval =
+                (String) axisConfig.getParameterValue(TAG_HOT_DEPLOYMENT_DEBOUNCE_INTERVAL);
+        if (debounceInterval != null) {
+            try {
+                hotDeploymentDebounceInterval = Long.parseLong(debounceInterval.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Invalid value for " + TAG_HOT_DEPLOYMENT_DEBOUNCE_INTERVAL + ": "
+                        + debounceInterval);
+            }
+        }
+
         String serviceDirPara = (String)
                 axisConfig.getParameterValue(DeploymentConstants.SERVICE_DIR_PATH);
         if (serviceDirPara != null) {
@@ -1175,6 +1329,9 @@ public abstract class DeploymentEngine implements DeploymentConstants {
         if (scheduler != null) {
             scheduler.cleanup(schedulerTask);
         }
+        if (repositoryWatcher != null) {
+            repositoryWatcher.stop();
+        }
         for (Map<String, Deployer> stringDeployerMap : deployerMap.values()) {
             for (Deployer deployer : stringDeployerMap.values()) {
                 try {
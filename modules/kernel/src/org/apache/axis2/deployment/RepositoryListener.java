@@ -35,8 +35,14 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class RepositoryListener implements DeploymentConstants {
     protected static final Log log = LogFactory.getLog(RepositoryListener.class);
@@ -277,13 +283,184 @@ public class RepositoryListener implements DeploymentConstants {
             String directory = entry.getKey();
             Map<String, Deployer> extensionMap = entry.getValue();
             for (String extension : extensionMap.keySet()) {
-                File dirToSearch = new File(directory);
-                if (!dirToSearch.isAbsolute()) {
-                    dirToSearch = new File(deploymentEngine.getRepositoryDir(), directory);
+                findFileForGivenDirectory(getDeployerDirectory(directory), extension, directory);
+            }
+        }
+    }
+
+    private File getDeployerDirectory(String directory) {
+        File dir = new File(directory);
+        if (!dir.isAbsolute()) {
+            dir = new File(deploymentEngine.getRepositoryDir(), directory);
+        }
+        return dir;
+    }
+
+    /**
+     * Gets the directories that need to be watched for hot deployment, i.e. the services
+     * directory and the directories of the deployers specified in axis2.xml.
+     *
+     * @return the list of directories
+     */
+    public List<File> getWatchedDirectories() {
+        List<File> directories = new ArrayList<File>();
+        if (deploymentEngine.getServicesDir() != null) {
+            directories.add(deploymentEngine.getServicesDir().getAbsoluteFile());
+        }
+        for (String directory : deploymentEngine.getDeployers().keySet()) {
+            File dir = getDeployerDirectory(directory).getAbsoluteFile();
+            if (!directories.contains(dir)) {
+                directories.add(dir);
+            }
+        }
+        return directories;
+    }
+
+    /**
+     * Updates the deployables affected by the given changed files. Only these deployables are
+     * deployed, redeployed or undeployed; the rest of the repository is not scanned. If a change
+     * can't be attributed to individual deployables (e.g. if a directory containing several
+     * services has been copied into the repository), this falls back to {@link #checkServices()}.
+     *
+     * @param changedFiles the files and directories that have been created, modified or deleted
+     */
+    public void checkChangedFiles(Collection<File> changedFiles) {
+        Set<File> updated = new HashSet<File>();
+        for (File file : changedFiles) {
+            if (!checkChangedFile(file.getAbsoluteFile(), updated)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Unable to determine the deployables affected by a change to "
+                            + file + "; scanning the repository");
+                }
+                checkServices();
+                return;
+            }
+        }
+        wsInfoList.deployChanges();
+    }
+
+    /**
+     * Updates the deployable affected by a changed file.
+     *
+     * @return false if a full scan of the repository is required
+     */
+    private boolean checkChangedFile(File file, Set<File> updated) {
+        // The file is a known deployable or belongs to an exploded deployable
+        for (File parent = file; parent != null; parent = parent.getParentFile()) {
+            WSInfo info = wsInfoList.getWSInfo(parent);
+            if (info != null) {
+                if (info.getType() != WSInfo.TYPE_MODULE) {
+                    updateDeployable(parent, info.getDeployer(), info.getType(), updated);
                 }
-                findFileForGivenDirectory(dirToSearch, extension, directory);
+                return true;
+            }
+        }
+        if (!file.exists()) {
+            // If a directory has been deleted, it may have contained deployables
+            return !wsInfoList.containsWSInfoItems(file);
+        }
+        File servicesDir = deploymentEngine.getServicesDir();
+        if (servicesDir != null) {
+            List<File> path = getRelativePath(servicesDir.getAbsoluteFile(), file);
+            if (path != null) {
+                return checkNewService(path, updated);
+            }
+        }
+        for (Map.Entry<String, Map<String, Deployer>> entry :
+                deploymentEngine.getDeployers().entrySet()) {
+            List<File> path = getRelativePath(
+                    getDeployerDirectory(entry.getKey()).getAbsoluteFile(), file);
+            if (path != null) {
+                return checkNewCustomDeployable(entry.getKey(), entry.getValue(), path, updated);
             }
         }
+        return true;
+    }
+
+    /**
+     * Applies the rules of {@link #findServicesInDirectory(File)} to a new file in the services
+     * directory.
+     */
+    private boolean checkNewService(List<File> path, Set<File> updated) {
+        for (int i = 0; i < path.size(); i++) {
+            File file = path.get(i);
+            if (file.isDirectory()) {
+                if (isSourceControlDir(file) || file.getName().startsWith(".")
+                        || (i == 0 && "lib".equalsIgnoreCase(file.getName()))) {
+                    return true;
+                }
+                if (new File(file, DeploymentConstants.SERVICES_XML).exists()
+                        || new File(file, DeploymentConstants.SERVICES_XML.toLowerCase()).exists()) {
+                    updateDeployable(file, deploymentEngine.getServiceDeployer(),
+                                     WSInfo.TYPE_SERVICE, updated);
+                    return true;
+                }
+            } else {
+                if (DeploymentFileData.isServiceArchiveFile(file.getName())) {
+                    updateDeployable(file, deploymentEngine.getServiceDeployer(),
+                                     WSInfo.TYPE_SERVICE, updated);
+                }
+                return true;
+            }
+        }
+        // A new directory that is not a service; it may contain services
+        return isEmptyDirectory(path.get(path.size() - 1));
+    }
+
+    /**
+     * Applies the rules of {@link #findFileForGivenDirectory(File, String, String)} to a new file
+     * in the directory of a custom deployer.
+     */
+    private boolean checkNewCustomDeployable(String directory, Map<String, Deployer> extensionMap,
+                                             List<File> path, Set<File> updated) {
+        for (File file : path) {
+            if (isSourceControlDir(file)) {
+                return true;
+            }
+        }
+        File file = path.get(path.size() - 1);
+        for (String extension : extensionMap.keySet()) {
+            Deployer deployer = deploymentEngine.getDeployer(directory, extension);
+            deployer.setDirectory(directory);
+            if (extension == null) {
+                if (path.get(0).isDirectory()) {
+                    updateDeployable(path.get(0), deployer, WSInfo.TYPE_CUSTOM, updated);
+                }
+            } else if (!file.isDirectory()) {
+                if (extension.equals(DeploymentFileData.getFileExtension(file.getName()))) {
+                    updateDeployable(file, deployer, WSInfo.TYPE_CUSTOM, updated);
+                }
+            } else if (!isEmptyDirectory(file)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void updateDeployable(File file, Deployer deployer, int type, Set<File> updated) {
+        if (updated.add(file)) {
+            wsInfoList.updateWSInfoItem(file, deployer, type);
+        }
+    }
+
+    /**
+     * Gets the files between a directory (exclusive) and one of its descendants (inclusive),
+     * or null if the file is not located in the directory.
+     */
+    private static List<File> getRelativePath(File directory, File file) {
+        LinkedList<File> path = new LinkedList<File>();
+        for (File parent = file; parent != null; parent = parent.getParentFile()) {
+            if (parent.equals(directory)) {
+                return path.isEmpty() ? null : path;
+            }
+            path.addFirst(parent);
+        }
+        return null;
+    }
+
+    private static boolean isEmptyDirectory(File directory) {
+        String[] children = directory.list();
+        return children == null || children.length == 0;
     }
 
     /**
@@ -133,11 +133,25 @@ public class ServiceDeployer extends AbstractDeployer {
             deployFromUrl(deploymentFileData);
             return;
         }
-        boolean isDirectory = deploymentFile.isDirectory();
-        ArchiveReader archiveReader;
-        StringWriter errorWriter = new StringWriter();
-        archiveReader = new ArchiveReader();
-        String serviceStatus = "";
+        addServiceGroup(buildServiceGroup(deploymentFileData));
+    }
+
+    /**
+     * Builds the service group contained in a service archive or exploded directory, without
+     * adding it to the {@link AxisConfiguration}. This includes the creation of the class loader
+     * and the processing of services.xml and the WSDLs. This method may be invoked concurrently
+     * for different deployment files.
+     *
+     * @param deploymentFileData the service archive or exploded directory
+     * @return the service group, to be passed to {@link #addServiceGroup(BuiltServiceGroup)}
+     * @throws DeploymentException if the service group can't be built; the service is then
+     *                             registered as faulty
+     */
+    BuiltServiceGroup buildServiceGroup(DeploymentFileData deploymentFileData)
+            throws DeploymentException {
+        long startTime = System.nanoTime();
+        boolean isDirectory = deploymentFileData.getFile().isDirectory();
+        ArchiveReader archiveReader = new ArchiveReader();
         try {
             deploymentFileData.setClassLoader(isDirectory,
                                               axisConfig.getServiceClassLoader(),
@@ -169,53 +183,61 @@ public class ServiceDeployer extends AbstractDeployer {
                     }
                 }
             }
-            DeploymentEngine.addServiceGroup(serviceGroup,
-                                             serviceList,
-                                             location,
+            return new BuiltServiceGroup(deploymentFileData, serviceGroup, serviceList, location,
+                    System.nanoTime() - startTime);
+        } catch (Throwable t) {
+            throw handleDeploymentError(deploymentFileData, t);
+        }
+    }
+
+    /**
+     * Adds a service group built by {@link #buildServiceGroup(DeploymentFileData)} to the
+     * {@link AxisConfiguration}. This method must not be invoked concurrently.
+     *
+     * @param builtServiceGroup the service group
+     * @throws DeploymentException if the service group can't be added; the service is then
+     *                             registered as faulty
+     */
+    void addServiceGroup(BuiltServiceGroup builtServiceGroup) throws DeploymentException {
+        DeploymentFileData deploymentFileData = builtServiceGroup.deploymentFileData;
+        long startTime = System.nanoTime();
+        try {
+            DeploymentEngine.addServiceGroup(builtServiceGroup.serviceGroup,
+                                             builtServiceGroup.serviceList,
+                                             builtServiceGroup.location,
                                              deploymentFileData,
                                              axisConfig);
 
             super.deploy(deploymentFileData);
-        } catch (DeploymentException de) {
+        } catch (Throwable t) {
+            throw handleDeploymentError(deploymentFileData, t);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Deployed " + deploymentFileData.getName() + " (build: "
+                    + builtServiceGroup.buildTime / 1000000 + " ms, registration: "
+                    + (System.nanoTime() - startTime) / 1000000 + " ms)");
+        }
+    }
+
+    private DeploymentException handleDeploymentError(DeploymentFileData deploymentFileData,
+                                                      Throwable t) {
+        StringWriter errorWriter = new StringWriter();
+        DeploymentException result;
+        if (t instanceof DeploymentException) {
+            DeploymentException de = (DeploymentException)t;
             de.printStackTrace();
             log.error(Messages.getMessage(DeploymentErrorMsgs.INVALID_SERVICE,
                                           deploymentFileData.getName(),
                                           de.getMessage()),
                       de);
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            de.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
-
-            throw de;
-
-        } catch (AxisFault axisFault) {
+            result = de;
+        } else if (t instanceof AxisFault) {
             log.error(Messages.getMessage(DeploymentErrorMsgs.INVALID_SERVICE,
                                           deploymentFileData.getName(),
-                                          axisFault.getMessage()),
-                      axisFault);
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            axisFault.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
-
-            throw new DeploymentException(axisFault);
-
-        } catch (Exception e) {
-            if (log.isInfoEnabled()) {
-                StringWriter sw = new StringWriter();
-                PrintWriter pw = new PrintWriter(sw);
-                e.printStackTrace(pw);
-                log.info(Messages.getMessage(
-                        DeploymentErrorMsgs.INVALID_SERVICE,
-                        deploymentFileData.getName(),
-                        sw.getBuffer().toString()));
-            }
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            e.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
-
-            throw new DeploymentException(e);
-
-        } catch (Throwable t) {
+                                          t.getMessage()),
+                      t);
+            result = new DeploymentException(t);
+        } else {
             if (log.isInfoEnabled()) {
                 StringWriter sw = new StringWriter();
                 PrintWriter pw = new PrintWriter(sw);
@@ -225,17 +247,32 @@ public class ServiceDeployer extends AbstractDeployer {
                         deploymentFileData.getName(),
                         sw.getBuffer().toString()));
             }
-            PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
-            t.printStackTrace(error_ptintWriter);
-            serviceStatus = "Error:\n" + errorWriter.toString();
+            result = new DeploymentException(t instanceof Exception ? t : new Exception(t));
+        }
+        PrintWriter error_ptintWriter = new PrintWriter(errorWriter);
+        t.printStackTrace(error_ptintWriter);
+        axisConfig.getFaultyServices().put(deploymentFileData.getFile().getAbsolutePath(),
+                                           "Error:\n" + errorWriter.toString());
+        return result;
+    }
 
-            throw new DeploymentException(new Exception(t));
+    /**
+     * A service group built by {@link ServiceDeployer#buildServiceGroup(DeploymentFileData)}.
+     */
+    static final class BuiltServiceGroup {
+        final DeploymentFileData deploymentFileData;
+        final AxisServiceGroup serviceGroup;
+        final ArrayList<AxisService> serviceList;
+        final URL location;
+        final long buildTime;
 
-        } finally {
-            if (serviceStatus.startsWith("Error:")) {
-                axisConfig.getFaultyServices().put(deploymentFileData.getFile().getAbsolutePath(),
-                                                   serviceStatus);
-            }
+        BuiltServiceGroup(DeploymentFileData deploymentFileData, AxisServiceGroup serviceGroup,
+                          ArrayList<AxisService> serviceList, URL location, long buildTime) {
+            this.deploymentFileData = deploymentFileData;
+            this.serviceGroup = serviceGroup;
+            this.serviceList = serviceList;
+            this.location = location;
+            this.buildTime = buildTime;
         }
     }
     
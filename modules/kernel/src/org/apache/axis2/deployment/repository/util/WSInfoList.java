@@ -104,6 +104,63 @@ public class WSInfoList implements DeploymentConstants {
         jarList.add(info.getFileName());
     }
 
+    /**
+     * Updates a single deployable that is known to have changed, without affecting any other
+     * deployable. If the file no longer exists, the deployable is undeployed; if it is not known
+     * yet, it is deployed; otherwise it is redeployed if hot update is enabled. The changes are
+     * applied by {@link #deployChanges()}.
+     *
+     * @param file     the deployable (archive or directory)
+     * @param deployer the deployer for the deployable
+     * @param type     the type of the deployable
+     */
+    public synchronized void updateWSInfoItem(File file, Deployer deployer, int type) {
+        String fileName = file.getAbsolutePath();
+        WSInfo info = (WSInfo) currentJars.get(fileName);
+        if (!file.exists()) {
+            if (info != null && info.getType() != WSInfo.TYPE_MODULE) {
+                currentJars.remove(fileName);
+                deploymentEngine.addWSToUndeploy(info);
+            }
+        } else if (info == null) {
+            info = getFileItem(file, deployer, type);
+            setLastModifiedDate(file, info);
+        } else if (deploymentEngine.isHotUpdate()) {
+            // Unlike addWSInfoItem, don't rely on the timestamps: a deleted file in an exploded
+            // deployable doesn't change the newest timestamp
+            WSInfo wsInfo = new WSInfo(info.getFileName(), info.getLastModifiedDate(), deployer, type);
+            setLastModifiedDate(file, info);
+            deploymentEngine.addWSToUndeploy(wsInfo);
+            deploymentEngine.addWSToDeploy(new DeploymentFileData(file, deployer));
+        }
+    }
+
+    /**
+     * Gets the WSInfo object for a deployable, or null if the deployable is not known.
+     *
+     * @param file the deployable (archive or directory)
+     */
+    public synchronized WSInfo getWSInfo(File file) {
+        return (WSInfo) currentJars.get(file.getAbsolutePath());
+    }
+
+    /**
+     * Checks whether any known deployable other than a module is located in the given directory.
+     *
+     * @param directory the directory
+     */
+    public synchronized boolean containsWSInfoItems(File directory) {
+        String prefix = directory.getAbsolutePath() + File.separator;
+        Iterator infoItems = currentJars.values().iterator();
+        while (infoItems.hasNext()) {
+            WSInfo info = (WSInfo) infoItems.next();
+            if (info.getType() != WSInfo.TYPE_MODULE && info.getFileName().startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks undeployed Services. Checks old jars files and current jars.
      * If name of the old jar file does not exist in the current jar
@@ -165,6 +222,18 @@ public class WSInfoList implements DeploymentConstants {
         }
     }
 
+    /**
+     * Applies the changes recorded by {@link #updateWSInfoItem(File, Deployer, int)}. Unlike
+     * {@link #update()}, this doesn't undeploy the deployables that have not been seen since the
+     * last update.
+     */
+    public void deployChanges() {
+        synchronized (deploymentEngine) {
+            deploymentEngine.unDeploy();
+            deploymentEngine.doDeploy();
+        }
+    }
+
     /**
      * Gets the WSInfo object related to a file if it exists, null otherwise.
      *
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment.scheduler;
+
+import org.apache.axis2.deployment.RepositoryListener;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Triggers hot deployment using a {@link WatchService} instead of periodically scanning the
+ * repository. Events are accumulated until no further change has been observed during the
+ * debounce interval, so that a deployable that is being copied into the repository is only
+ * deployed once it is complete. The changed files are then passed to
+ * {@link RepositoryListener#checkChangedFiles(java.util.Collection)}, which only redeploys the
+ * affected deployables.
+ */
+public class RepositoryWatcher {
+    private static final Log log = LogFactory.getLog(RepositoryWatcher.class);
+
+    private final RepositoryListener listener;
+    private final SchedulerTask schedulerTask;
+    private final List<File> directories;
+    private final long debounceInterval;
+    private final Map<WatchKey,Path> keys = new ConcurrentHashMap<WatchKey,Path>();
+    private WatchService watchService;
+
+    /**
+     * Create a new watcher.
+     *
+     * @param listener         the repository listener to notify about changes
+     * @param schedulerTask    the task used to serialize deployment actions
+     * @param directories      the directories to watch (recursively)
+     * @param debounceInterval the time in milliseconds during which no change must be observed
+     *                         before deployment is triggered
+     */
+    public RepositoryWatcher(RepositoryListener listener, SchedulerTask schedulerTask,
+                             List<File> directories, long debounceInterval) {
+        this.listener = listener;
+        this.schedulerTask = schedulerTask;
+        this.directories = directories;
+        this.debounceInterval = debounceInterval;
+    }
+
+    /**
+     * Register the watched directories and start the watcher thread.
+     *
+     * @throws IOException if the directories can't be watched; the caller should fall back to
+     *                     polling in that case
+     */
+    public synchronized void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        try {
+            for (File directory : directories) {
+                if (directory.isDirectory()) {
+                    registerAll(watchService, directory.toPath());
+                }
+            }
+        } catch (IOException ex) {
+            watchService.close();
+            watchService = null;
+            throw ex;
+        }
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                processEvents();
+            }
+        }, "Axis2 repository watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop the watcher thread.
+     */
+    public synchronized void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ex) {
+                log.warn("Failed to close watch service", ex);
+            }
+            watchService = null;
+        }
+        keys.clear();
+    }
+
+    private void registerAll(final WatchService watchService, Path start) throws IOException {
+        Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                    throws IOException {
+                WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                keys.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void processEvents() {
+        WatchService watchService = this.watchService;
+        try {
+            while (true) {
+                Set<File> changedFiles = new LinkedHashSet<File>();
+                boolean overflow = processKey(watchService, watchService.take(), changedFiles);
+                // Debounce: wait until the repository has been quiet for the configured interval
+                WatchKey key;
+                while ((key = watchService.poll(debounceInterval, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= processKey(watchService, key, changedFiles);
+                }
+                deploy(changedFiles, overflow);
+            }
+        } catch (ClosedWatchServiceException ex) {
+            // The watcher has been stopped
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Collect the files affected by the events of a watch key.
+     *
+     * @return <code>true</code> if events have been lost and a full scan is required
+     */
+    private boolean processKey(WatchService watchService, WatchKey key,
+            Set<File> changedFiles) {
+        boolean overflow = false;
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                overflow = true;
+                continue;
+            }
+            Path path = dir.resolve((Path)event.context());
+            changedFiles.add(path.toFile());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(path)) {
+                try {
+                    registerAll(watchService, path);
+                } catch (IOException ex) {
+                    log.warn("Unable to watch directory " + path, ex);
+                    overflow = true;
+                } catch (ClosedWatchServiceException ex) {
+                    // Will be handled by the next call to poll or take
+                }
+            }
+        }
+        if (!key.reset()) {
+            keys.remove(key);
+        }
+        return overflow;
+    }
+
+    private void deploy(final Set<File> changedFiles, final boolean fullScan) {
+        if (log.isDebugEnabled()) {
+            log.debug("Repository changed" + (fullScan ? " (full scan required)" : "") + ": "
+                    + changedFiles);
+        }
+        try {
+            schedulerTask.runExclusively(new Runnable() {
+                public void run() {
+                    if (fullScan) {
+                        listener.startListener();
+                    } else {
+                        listener.checkChangedFiles(changedFiles);
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            log.error("Hot deployment failed", ex);
+        }
+    }
+}
@@ -77,6 +77,21 @@ public class SchedulerTask implements Runnable {
      * The action to be performed by this scheduler task.
      */
     public void run() {
+        runExclusively(new Runnable() {
+            public void run() {
+                checkRepository();
+            }
+        });
+    }
+
+    /**
+     * Runs a deployment action while holding the lock on the {@link AxisConfiguration} and
+     * flagging the deployment task as running. This is used both by the polling scheduler and by
+     * {@link RepositoryWatcher}.
+     *
+     * @param action the deployment action to run
+     */
+    void runExclusively(Runnable action) {
         synchronized (axisConfig) {
             Parameter param =
                     axisConfig.getParameter(DeploymentEngine.DEPLOYMENT_TASK_RUNNING);
@@ -91,7 +106,7 @@ public class SchedulerTask implements Runnable {
 
             try {
                 DEPLOYMENT_TASK_STATUS_PARAM.setValue(Boolean.TRUE);
-                checkRepository();
+                action.run();
             } finally {
                 DEPLOYMENT_TASK_STATUS_PARAM.setValue(Boolean.FALSE);
             }
@@ -52,6 +52,10 @@ public class AxisBinding extends AxisDescription {
 
     private Map<String, AxisBindingMessage> faults;
 
+    /** The matcher built from the HTTP location table, and the table size it was built for */
+    private volatile HTTPLocationMatcher httpLocationMatcher;
+    private volatile int httpLocationMatcherTableSize;
+
     public AxisBindingMessage getFault(String name) {
         return (AxisBindingMessage) faults.get(name);
     }
@@ -68,6 +72,31 @@ public class AxisBinding extends AxisDescription {
 
     public void setProperty(String name, Object value) {
         options.put(name, value);
+        if (WSDL2Constants.HTTP_LOCATION_TABLE.equals(name)) {
+            httpLocationMatcher = null;
+        }
+    }
+
+    /**
+     * Get the matcher used to dispatch requests based on the HTTP location of the operations of
+     * this binding. The matcher is built from the {@link WSDL2Constants#HTTP_LOCATION_TABLE}
+     * property on first use, and rebuilt if the table changes.
+     *
+     * @return the matcher, or null if this binding has no HTTP location table
+     */
+    public HTTPLocationMatcher getHTTPLocationMatcher() {
+        Map<String, AxisOperation> httpLocationTable =
+                (Map<String, AxisOperation>) options.get(WSDL2Constants.HTTP_LOCATION_TABLE);
+        if (httpLocationTable == null) {
+            return null;
+        }
+        HTTPLocationMatcher matcher = httpLocationMatcher;
+        if (matcher == null || httpLocationMatcherTableSize != httpLocationTable.size()) {
+            matcher = HTTPLocationMatcher.create(httpLocationTable, this);
+            httpLocationMatcherTableSize = httpLocationTable.size();
+            httpLocationMatcher = matcher;
+        }
+        return matcher;
     }
 
     /**
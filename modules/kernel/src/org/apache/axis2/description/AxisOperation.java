@@ -37,6 +37,8 @@ import org.apache.axis2.context.OperationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.engine.AxisError;
+import org.apache.axis2.engine.CompiledFlow;
+import org.apache.axis2.engine.Handler;
 import org.apache.axis2.engine.MessageReceiver;
 import org.apache.axis2.i18n.Messages;
 import org.apache.axis2.phaseresolver.PhaseResolver;
@@ -79,6 +81,10 @@ public abstract class AxisOperation extends AxisDescription
 
     private String soapAction;
 
+    // Execution chains compiled from the phases of this operation; see CompiledFlow
+    private volatile CompiledFlow compiledRemainingInFlow;
+    private volatile CompiledFlow compiledOutFlow;
+    private volatile CompiledFlow compiledOutFaultFlow;
 
     /** Default constructor */
     public AxisOperation() {
@@ -363,6 +369,57 @@ public abstract class AxisOperation extends AxisDescription
 
     public abstract ArrayList getRemainingPhasesInFlow();
 
+    /**
+     * Get the execution chain of the phases a message goes through after it has been dispatched
+     * to this operation. The chain is shared by all messages and must not be modified.
+     *
+     * @return the compiled chain
+     * @see CompiledFlow
+     */
+    public ArrayList<Handler> getCompiledRemainingInFlow() {
+        CompiledFlow flow = compiledRemainingInFlow;
+        CompiledFlow compiled = CompiledFlow.compile(flow, getRemainingPhasesInFlow(), null);
+        if (compiled != flow) {
+            compiledRemainingInFlow = compiled;
+        }
+        return compiled.getHandlers();
+    }
+
+    /**
+     * Get the execution chain of the out flow of this operation, i.e. the phases of this
+     * operation followed by the global out phases. The chain is shared by all messages and must
+     * not be modified.
+     *
+     * @param axisConfig the configuration holding the global out phases
+     * @return the compiled chain
+     * @see CompiledFlow
+     */
+    public ArrayList<Handler> getCompiledOutFlow(AxisConfiguration axisConfig) {
+        CompiledFlow flow = compiledOutFlow;
+        CompiledFlow compiled = CompiledFlow.compile(flow, getPhasesOutFlow(),
+                axisConfig.getOutFlowPhases());
+        if (compiled != flow) {
+            compiledOutFlow = compiled;
+        }
+        return compiled.getHandlers();
+    }
+
+    /**
+     * Get the execution chain of the phases of the out fault flow of this operation. The chain is
+     * shared by all messages and must not be modified.
+     *
+     * @return the compiled chain
+     * @see CompiledFlow
+     */
+    public ArrayList<Handler> getCompiledOutFaultFlow() {
+        CompiledFlow flow = compiledOutFaultFlow;
+        CompiledFlow compiled = CompiledFlow.compile(flow, getPhasesOutFaultFlow(), null);
+        if (compiled != flow) {
+            compiledOutFaultFlow = compiled;
+        }
+        return compiled.getHandlers();
+    }
+
     public String getStyle() {
         return style;
     }
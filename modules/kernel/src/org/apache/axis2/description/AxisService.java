@@ -125,6 +125,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Vector;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class AxisService
@@ -185,6 +186,9 @@ public class AxisService extends AxisDescription {
     // duplicated across
     // multiple operations under this service.
     private List<String> invalidOperationsAliases = null;
+
+    // Incremented whenever an operation is added or removed, see getOperationsVersion()
+    private final AtomicLong operationsVersion = new AtomicLong();
     // private HashMap operations = new HashMap();
 
     // to store module ref at deploy time parsing
@@ -740,6 +744,18 @@ public class AxisService extends AxisDescription {
             axisOperation.setMessageReceiver(loadDefaultMessageReceiver(
                     axisOperation.getMessageExchangePattern(), this));
         }
+        operationsVersion.incrementAndGet();
+    }
+
+    /**
+     * Get a number that changes whenever an operation is added to or removed from this service
+     * through {@link #addOperation(AxisOperation)} or {@link #removeOperation(QName)}. Caches of
+     * the results of {@link #getOperation(QName)} use it to detect changes.
+     *
+     * @return the current version of the set of operations
+     */
+    public long getOperationsVersion() {
+        return operationsVersion.get();
     }
 
     private MessageReceiver loadDefaultMessageReceiver(String mepURL,
@@ -2690,6 +2706,7 @@ public class AxisService extends AxisDescription {
             }
             operationsAliasesMap.remove(operation.getName().getLocalPart());
             invalidOperationsAliases.remove(operation.getName().getLocalPart());
+            operationsVersion.incrementAndGet();
         }
     }
 
@@ -0,0 +1,463 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.description;
+
+import org.apache.axis2.wsdl.WSDLUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Matches request paths against the HTTP location templates of the operations of a binding
+ * (e.g. <tt>GET orders/{id}/items</tt>). The templates are compiled into a trie of path
+ * segments per HTTP method, so that the cost of dispatching a request depends on the length of
+ * its path rather than on the number of operations.
+ * <p>
+ * When several templates match a request, the one with the longest literal match wins: at each
+ * level a literal segment is preferred to a segment mixing literal text and template variables,
+ * which is preferred to a segment that only consists of a template variable. Templates match
+ * request paths that have further segments (as with the prefix based dispatching that this
+ * class replaces), but a template that matches the whole path is preferred. The query part of
+ * a template is only used to discriminate templates with the same path, by the literal text
+ * preceding its first template variable.
+ * <p>
+ * Instances are immutable once built and may be shared by concurrent requests.
+ */
+public class HTTPLocationMatcher {
+
+    private static final Pattern VARIABLE = Pattern.compile("\\{([^}]*)\\}");
+
+    /**
+     * The result of a successful match.
+     */
+    public static final class Match {
+        private final AxisOperation operation;
+        private final Map<String, String> variables;
+
+        Match(AxisOperation operation, Map<String, String> variables) {
+            this.operation = operation;
+            this.variables = variables;
+        }
+
+        public AxisOperation getOperation() {
+            return operation;
+        }
+
+        /**
+         * Get the values of the template variables in the path of the request. The values are
+         * not decoded.
+         *
+         * @return the variable values by variable name
+         */
+        public Map<String, String> getVariables() {
+            return variables;
+        }
+    }
+
+    private static final class Candidate {
+        final String queryPrefix;
+        final AxisOperation operation;
+
+        Candidate(String queryPrefix, AxisOperation operation) {
+            this.queryPrefix = queryPrefix;
+            this.operation = operation;
+        }
+    }
+
+    private static final class PatternChild {
+        final Pattern pattern;
+        final List<String> names;
+        final int literalLength;
+        final Node node;
+
+        PatternChild(Pattern pattern, List<String> names, int literalLength, Node node) {
+            this.pattern = pattern;
+            this.names = names;
+            this.literalLength = literalLength;
+            this.node = node;
+        }
+    }
+
+    private static final class Node {
+        Map<String, Node> literalChildren;
+        List<PatternChild> patternChildren;
+        Node variableChild;
+        String variableName;
+        /** The operations whose path ends at this node, by decreasing query prefix length */
+        List<Candidate> candidates;
+
+        Candidate getCandidate(String query) {
+            if (candidates != null) {
+                for (Candidate candidate : candidates) {
+                    if (query.startsWith(candidate.queryPrefix)) {
+                        return candidate;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Result {
+        Candidate candidate;
+        int depth = -1;
+        Map<String, String> variables;
+    }
+
+    private final Map<String, Node> roots = new HashMap<String, Node>();
+    /** Table entries for which no template is known, matched as plain prefixes */
+    private final List<Map.Entry<String, AxisOperation>> prefixes =
+            new ArrayList<Map.Entry<String, AxisOperation>>();
+
+    /**
+     * Build a matcher for the HTTP location table of a binding. The table maps the constant part
+     * of the HTTP location of each operation, prefixed by the HTTP method (see
+     * {@link WSDLUtil#getConstantFromHTTPLocation(String, String)}), to the operation. The full
+     * templates are taken from the {@link WSDL2Constants#ATTR_WHTTP_LOCATION} property of the
+     * binding operations; entries without a template are matched as plain prefixes. The templates
+     * of binding operations that are shadowed in the table by another operation with the same
+     * constant part are also taken into account.
+     *
+     * @param httpLocationTable the HTTP location table
+     * @param binding           the binding, or null if the templates are not known
+     * @return the matcher
+     */
+    public static HTTPLocationMatcher create(Map<String, AxisOperation> httpLocationTable,
+                                             AxisBinding binding) {
+        HTTPLocationMatcher matcher = new HTTPLocationMatcher();
+        Set<AxisOperation> added = new HashSet<AxisOperation>();
+        for (Map.Entry<String, AxisOperation> entry : httpLocationTable.entrySet()) {
+            String key = entry.getKey();
+            AxisOperation operation = entry.getValue();
+            String template = getTemplate(binding, operation);
+            String httpMethod = getHTTPMethod(key);
+            if (template != null && template.length() > 0 && httpMethod != null
+                    && key.equals(WSDLUtil.getConstantFromHTTPLocation(template, httpMethod))) {
+                matcher.addLocation(httpMethod, template, operation);
+                added.add(operation);
+            } else {
+                matcher.prefixes.add(entry);
+            }
+        }
+        if (binding != null) {
+            // Templates sharing the same constant part (e.g. "orders/{id}" and
+            // "orders/{id}/items") share a single table entry; recover the shadowed ones
+            for (Iterator<AxisBindingOperation> it = binding.getChildren(); it.hasNext(); ) {
+                AxisBindingOperation bindingOperation = it.next();
+                AxisOperation operation = bindingOperation.getAxisOperation();
+                if (operation == null || added.contains(operation)) {
+                    continue;
+                }
+                String template = getTemplate(binding, operation);
+                String httpMethod = (String) bindingOperation.getProperty(
+                        WSDL2Constants.ATTR_WHTTP_METHOD);
+                if (httpMethod == null) {
+                    httpMethod = (String) binding.getProperty(WSDL2Constants.ATTR_WHTTP_METHOD);
+                }
+                if (template != null && template.length() > 0 && httpMethod != null
+                        && httpLocationTable.containsKey(
+                                WSDLUtil.getConstantFromHTTPLocation(template, httpMethod))) {
+                    matcher.addLocation(httpMethod, template, operation);
+                }
+            }
+        }
+        // Longer prefixes are more specific
+        Collections.sort(matcher.prefixes, new Comparator<Map.Entry<String, AxisOperation>>() {
+            public int compare(Map.Entry<String, AxisOperation> o1,
+                               Map.Entry<String, AxisOperation> o2) {
+                return o2.getKey().length() - o1.getKey().length();
+            }
+        });
+        return matcher;
+    }
+
+    private static String getTemplate(AxisBinding binding, AxisOperation operation) {
+        if (binding == null || operation == null) {
+            return null;
+        }
+        AxisBindingOperation bindingOperation =
+                (AxisBindingOperation) binding.getChild(operation.getName());
+        return bindingOperation == null ? null
+                : (String) bindingOperation.getProperty(WSDL2Constants.ATTR_WHTTP_LOCATION);
+    }
+
+    private static String getHTTPMethod(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '/' || c == '?') {
+                return i == 0 ? null : key.substring(0, i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add an HTTP location template.
+     *
+     * @param httpMethod the HTTP method
+     * @param template   the HTTP location template, relative to the endpoint address
+     * @param operation  the operation
+     */
+    public void addLocation(String httpMethod, String template, AxisOperation operation) {
+        String path = template;
+        String queryPrefix = "";
+        int queryIndex = template.indexOf('?');
+        if (queryIndex != -1) {
+            path = template.substring(0, queryIndex);
+            queryPrefix = template.substring(queryIndex + 1);
+            int variableIndex = queryPrefix.indexOf('{');
+            if (variableIndex != -1) {
+                queryPrefix = queryPrefix.substring(0, variableIndex);
+            }
+        }
+
+        Node node = roots.get(httpMethod);
+        if (node == null) {
+            node = new Node();
+            roots.put(httpMethod, node);
+        }
+        for (String segment : split(path)) {
+            node = addChild(node, segment);
+        }
+
+        if (node.candidates == null) {
+            node.candidates = new ArrayList<Candidate>(1);
+        }
+        int i = 0;
+        while (i < node.candidates.size()
+                && node.candidates.get(i).queryPrefix.length() >= queryPrefix.length()) {
+            i++;
+        }
+        node.candidates.add(i, new Candidate(queryPrefix, operation));
+    }
+
+    private static Node addChild(Node node, String segment) {
+        Matcher matcher = VARIABLE.matcher(segment);
+        if (!matcher.find()) {
+            if (node.literalChildren == null) {
+                node.literalChildren = new HashMap<String, Node>();
+            }
+            Node child = node.literalChildren.get(segment);
+            if (child == null) {
+                child = new Node();
+                node.literalChildren.put(segment, child);
+            }
+            return child;
+        }
+
+        if (matcher.start() == 0 && matcher.end() == segment.length()) {
+            // The segment only consists of a template variable
+            if (node.variableChild == null) {
+                node.variableChild = new Node();
+                node.variableName = getVariableName(matcher.group(1));
+            }
+            return node.variableChild;
+        }
+
+        // Literal text mixed with template variables
+        StringBuilder regex = new StringBuilder();
+        List<String> names = new ArrayList<String>();
+        int literalLength = 0;
+        int last = 0;
+        do {
+            literalLength += matcher.start() - last;
+            regex.append(Pattern.quote(segment.substring(last, matcher.start())));
+            regex.append("(.*?)");
+            names.add(getVariableName(matcher.group(1)));
+            last = matcher.end();
+        } while (matcher.find());
+        literalLength += segment.length() - last;
+        regex.append(Pattern.quote(segment.substring(last)));
+        String pattern = regex.toString();
+
+        if (node.patternChildren == null) {
+            node.patternChildren = new ArrayList<PatternChild>();
+        }
+        for (PatternChild child : node.patternChildren) {
+            if (child.pattern.pattern().equals(pattern)) {
+                return child.node;
+            }
+        }
+        PatternChild child = new PatternChild(Pattern.compile(pattern), names,
+                literalLength, new Node());
+        // Prefer the patterns with the most literal text
+        int i = 0;
+        while (i < node.patternChildren.size()
+                && node.patternChildren.get(i).literalLength >= literalLength) {
+            i++;
+        }
+        node.patternChildren.add(i, child);
+        return child.node;
+    }
+
+    private static String getVariableName(String name) {
+        // "{{name}}" denotes a raw (unencoded) variable in WSDL 2.0
+        if (name.startsWith("{")) {
+            name = name.substring(1);
+        }
+        return name.startsWith("!") ? name.substring(1) : name;
+    }
+
+    private static List<String> split(String path) {
+        List<String> segments = new ArrayList<String>();
+        int start = 0;
+        int length = path.length();
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end == -1) {
+                end = length;
+            }
+            if (end > start) {
+                segments.add(path.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return segments;
+    }
+
+    /**
+     * Find the operation for a request.
+     *
+     * @param httpMethod  the HTTP method of the request
+     * @param httpLocation the part of the request URI following the endpoint address, including
+     *                     the query string if any
+     * @return the match, or null if no operation matches the request
+     */
+    public Match match(String httpMethod, String httpLocation) {
+        Node root = roots.get(httpMethod);
+        if (root != null) {
+            String path = httpLocation;
+            String query = "";
+            int queryIndex = httpLocation.indexOf('?');
+            if (queryIndex != -1) {
+                path = httpLocation.substring(0, queryIndex);
+                query = httpLocation.substring(queryIndex + 1);
+            }
+            List<String> segments = split(path);
+            Result result = new Result();
+            if (match(root, segments, 0, query, new ArrayList<String>(), result)) {
+                return new Match(result.candidate.operation, result.variables);
+            }
+            if (result.candidate != null) {
+                // No template matches the whole path; use the longest matching prefix
+                return new Match(result.candidate.operation, result.variables);
+            }
+        }
+
+        if (!prefixes.isEmpty()) {
+            String requestPath = httpMethod + httpLocation;
+            if (!requestPath.endsWith("/")) {
+                requestPath = requestPath + "/";
+            }
+            for (Map.Entry<String, AxisOperation> entry : prefixes) {
+                if (requestPath.startsWith(entry.getKey())) {
+                    return new Match(entry.getValue(), Collections.<String, String>emptyMap());
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Match the remaining segments against the subtree rooted at the given node.
+     *
+     * @return true if a template matching all the segments has been found; otherwise the
+     *         deepest template matching a prefix of the segments (if any) is stored in the
+     *         result
+     */
+    private static boolean match(Node node, List<String> segments, int index, String query,
+                                 List<String> variables, Result result) {
+        Candidate candidate = node.getCandidate(query);
+        if (index == segments.size()) {
+            if (candidate != null) {
+                result.candidate = candidate;
+                result.variables = toMap(variables);
+                return true;
+            }
+            return false;
+        }
+        if (candidate != null && index > result.depth) {
+            result.candidate = candidate;
+            result.depth = index;
+            result.variables = toMap(variables);
+        }
+
+        String segment = segments.get(index);
+        if (node.literalChildren != null) {
+            Node child = node.literalChildren.get(segment);
+            if (child != null && match(child, segments, index + 1, query, variables, result)) {
+                return true;
+            }
+        }
+        if (node.patternChildren != null) {
+            for (PatternChild child : node.patternChildren) {
+                Matcher matcher = child.pattern.matcher(segment);
+                if (matcher.matches()) {
+                    int size = variables.size();
+                    for (int i = 0; i < child.names.size(); i++) {
+                        variables.add(child.names.get(i));
+                        variables.add(matcher.group(i + 1));
+                    }
+                    if (match(child.node, segments, index + 1, query, variables, result)) {
+                        return true;
+                    }
+                    truncate(variables, size);
+                }
+            }
+        }
+        if (node.variableChild != null) {
+            int size = variables.size();
+            variables.add(node.variableName);
+            variables.add(segment);
+            if (match(node.variableChild, segments, index + 1, query, variables, result)) {
+                return true;
+            }
+            truncate(variables, size);
+        }
+        return false;
+    }
+
+    private static void truncate(List<String> list, int size) {
+        while (list.size() > size) {
+            list.remove(list.size() - 1);
+        }
+    }
+
+    private static Map<String, String> toMap(List<String> variables) {
+        if (variables.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        for (Iterator<String> it = variables.iterator(); it.hasNext(); ) {
+            map.put(it.next(), it.next());
+        }
+        return map;
+    }
+}
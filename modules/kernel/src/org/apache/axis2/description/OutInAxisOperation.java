@@ -39,10 +39,12 @@ import org.apache.axis2.context.OperationContext;
 import org.apache.axis2.context.ServiceContext;
 import org.apache.axis2.engine.AxisEngine;
 import org.apache.axis2.i18n.Messages;
+import org.apache.axis2.transport.AsyncTransportSender;
 import org.apache.axis2.transport.TransportUtils;
 import org.apache.axis2.transport.http.HTTPConstants;
 import org.apache.axis2.util.CallbackReceiver;
 import org.apache.axis2.util.Utils;
+import org.apache.axis2.util.threadpool.ThreadFactory;
 import org.apache.axis2.wsdl.WSDLConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -225,12 +227,62 @@ class OutInAxisOperationClient extends OperationClient {
                 send(mc);
                 completed = true;
             } else {
-                sc.getConfigurationContext().getThreadPool().execute(
-                        new NonBlockingInvocationWorker(mc, axisCallback));
+                TransportOutDescription transportOut = mc.getTransportOut();
+                if (transportOut != null
+                        && transportOut.getSender() instanceof AsyncTransportSender) {
+                    sendNonBlocking(mc);
+                } else {
+                    sc.getConfigurationContext().getThreadPool().execute(
+                            new NonBlockingInvocationWorker(mc, axisCallback));
+                }
             }
         }
     }
 
+    /**
+     * Send the request using an {@link AsyncTransportSender}, so that no thread is blocked
+     * while waiting for the response. Only the processing of the response is executed by the
+     * thread pool of the configuration context.
+     *
+     * @param mc the request message context
+     */
+    private void sendNonBlocking(final MessageContext mc) {
+        final MessageContext responseMessageContext;
+        try {
+            responseMessageContext = createResponseMessageContext(mc);
+        } catch (AxisFault ex) {
+            new NonBlockingInvocationWorker(mc, axisCallback, null, ex).run();
+            return;
+        }
+        final ThreadFactory threadPool = mc.getConfigurationContext().getThreadPool();
+        mc.setProperty(AsyncTransportSender.RESPONSE_CALLBACK,
+                new AsyncTransportSender.ResponseCallback() {
+            public void onResponse() {
+                dispatch(null);
+            }
+
+            public void onError(Exception ex) {
+                dispatch(ex);
+            }
+
+            private void dispatch(Exception error) {
+                Runnable worker = new NonBlockingInvocationWorker(mc, axisCallback,
+                        responseMessageContext, error);
+                try {
+                    threadPool.execute(worker);
+                } catch (RuntimeException ex) {
+                    log.error("Unable to dispatch the response; processing it on the I/O thread", ex);
+                    worker.run();
+                }
+            }
+        });
+        try {
+            AxisEngine.send(mc);
+        } catch (AxisFault ex) {
+            new NonBlockingInvocationWorker(mc, axisCallback, null, ex).run();
+        }
+    }
+
     private void sendAsync(boolean useAsync, MessageContext mc)
             throws AxisFault {
         if (log.isDebugEnabled()) {
@@ -380,9 +432,24 @@ class OutInAxisOperationClient extends OperationClient {
      * @throws AxisFault Sends the message using a two way transport and waits for a response
      */
     protected MessageContext send(MessageContext msgContext) throws AxisFault {
+        MessageContext responseMessageContext = createResponseMessageContext(msgContext);
 
-        // create the responseMessageContext
+        //sending the message
+        AxisEngine.send(msgContext);
+
+        processResponse(msgContext, responseMessageContext);
+        return responseMessageContext;
+    }
 
+    /**
+     * Create the response message context for a request and add it to the operation context.
+     *
+     * @param msgContext the request MessageContext
+     * @return the response MessageContext
+     * @throws AxisFault if the message context can't be added to the operation context
+     */
+    private MessageContext createResponseMessageContext(MessageContext msgContext)
+            throws AxisFault {
         MessageContext responseMessageContext =
                 msgContext.getConfigurationContext().createMessageContext();
 
@@ -394,10 +461,18 @@ class OutInAxisOperationClient extends OperationClient {
         responseMessageContext.setServiceContext(msgContext.getServiceContext());
         responseMessageContext.setAxisMessage(
                 axisOp.getMessage(WSDLConstants.MESSAGE_LABEL_IN_VALUE));
+        return responseMessageContext;
+    }
 
-        //sending the message
-        AxisEngine.send(msgContext);
-
+    /**
+     * Process the response after the transport has received it.
+     *
+     * @param msgContext the request MessageContext
+     * @param responseMessageContext the response MessageContext
+     * @throws AxisFault if something went wrong
+     */
+    private void processResponse(MessageContext msgContext,
+                                 MessageContext responseMessageContext) throws AxisFault {
         responseMessageContext.setDoingREST(msgContext.isDoingREST());
 
         // Copy RESPONSE properties which the transport set onto the request message context when it processed
@@ -412,7 +487,6 @@ class OutInAxisOperationClient extends OperationClient {
         responseMessageContext.setTransportIn(msgContext.getTransportIn());
         responseMessageContext.setTransportOut(msgContext.getTransportOut());
         handleResponse(responseMessageContext);
-        return responseMessageContext;
     }
 
     /**
@@ -422,6 +496,8 @@ class OutInAxisOperationClient extends OperationClient {
     private class NonBlockingInvocationWorker implements Runnable {
         private MessageContext msgctx;
         private AxisCallback axisCallback;
+        private MessageContext responseMessageContext;
+        private Exception error;
 
         public NonBlockingInvocationWorker(MessageContext msgctx ,
                                            AxisCallback axisCallback) {            
@@ -429,10 +505,30 @@ class OutInAxisOperationClient extends OperationClient {
             this.axisCallback =axisCallback;
         }
 
+        /**
+         * Create a worker that only processes the outcome of a request that has already been
+         * sent by an {@link AsyncTransportSender}.
+         */
+        NonBlockingInvocationWorker(MessageContext msgctx, AxisCallback axisCallback,
+                                    MessageContext responseMessageContext, Exception error) {
+            this(msgctx, axisCallback);
+            this.responseMessageContext = responseMessageContext;
+            this.error = error;
+        }
+
         public void run() {
             try {
-                // send the request and wait for response
-                MessageContext response = send(msgctx);
+                MessageContext response;
+                if (error != null) {
+                    throw error;
+                } else if (responseMessageContext != null) {
+                    // the transport has already received the response
+                    processResponse(msgctx, responseMessageContext);
+                    response = responseMessageContext;
+                } else {
+                    // send the request and wait for response
+                    response = send(msgctx);
+                }
                 // call the callback
                 if (response != null) {
                     SOAPEnvelope resenvelope = response.getEnvelope();
@@ -25,6 +25,7 @@ import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.description.AxisEndpoint;
 import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.HTTPLocationMatcher;
 import org.apache.axis2.description.HandlerDescription;
 import org.apache.axis2.description.WSDL2Constants;
 import org.apache.axis2.engine.AbstractDispatcher;
@@ -32,16 +33,20 @@ import org.apache.axis2.transport.http.HTTPConstants;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.Map;
-
 /**
  * Dispatches the operation based on the information from the target endpoint URL.
  */
 public class HTTPLocationBasedDispatcher extends AbstractDispatcher {
 
     public static final String NAME = "HTTPLocationBasedDispatcher";
+
+    /**
+     * The name of the message context property holding the values of the template variables
+     * of the HTTP location of the dispatched operation, as a {@link java.util.Map} from variable
+     * name to (undecoded) value.
+     */
+    public static final String HTTP_LOCATION_VARIABLES = "HTTP_LOCATION_VARIABLES";
+
     private static final Log log = LogFactory.getLog(HTTPLocationBasedDispatcher.class);
 
     /*
@@ -58,20 +63,21 @@ public class HTTPLocationBasedDispatcher extends AbstractDispatcher {
             String httpMethod = (String) messageContext.getProperty(HTTPConstants.HTTP_METHOD);
 
             if (httpLocation != null) {
-                httpLocation = httpMethod + httpLocation;
-                if(! httpLocation.endsWith("/")){
-                     httpLocation=httpLocation.concat("/");
-                }
                 AxisEndpoint axisEndpoint = (AxisEndpoint) messageContext
                         .getProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME);
                 // Here we check whether the request was dispatched to the correct endpoint. If it
                 // was we can dispatch the operation using the HTTPLocationDispatcher table of that
                 // specific endpoint. 
                 if (axisEndpoint != null) {
-                    Map httpLocationTable = (Map) axisEndpoint.getBinding()
-                            .getProperty(WSDL2Constants.HTTP_LOCATION_TABLE);
-                    if (httpLocationTable != null) {
-                        return getOperationFromHTTPLocation(httpLocation, httpLocationTable);
+                    HTTPLocationMatcher matcher =
+                            axisEndpoint.getBinding().getHTTPLocationMatcher();
+                    if (matcher != null) {
+                        HTTPLocationMatcher.Match match = matcher.match(httpMethod, httpLocation);
+                        if (match != null) {
+                            messageContext.setProperty(HTTP_LOCATION_VARIABLES,
+                                                       match.getVariables());
+                            return match.getOperation();
+                        }
                     }
                 } 
             } else {
@@ -122,26 +128,4 @@ public class HTTPLocationBasedDispatcher extends AbstractDispatcher {
         }
         return httpLocation;
     }
-
-    /**
-     * Given the requestPath that the request came to his method returns the corresponding axisOperation
-     *
-     * @param requestPath - Part of the request url which is the part after the service name
-     * @param httpLocationTable - The httpLocationTable stored in the relavant binding
-     * @return AxisOperation - The corresponding AxisOperation
-     */
-    private AxisOperation getOperationFromHTTPLocation(String requestPath, Map httpLocationTable) {
-
-        Collection httpLocations = httpLocationTable.keySet();
-        Iterator iter = httpLocations.iterator();
-        while (iter.hasNext()) {
-            String location = (String) iter.next();
-            int index = requestPath.indexOf(location);
-            if (index == 0) {
-                return (AxisOperation) httpLocationTable.get(location);
-            }
-
-        }
-        return null;
-    }
 }
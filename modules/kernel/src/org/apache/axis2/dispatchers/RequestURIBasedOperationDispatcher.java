@@ -22,10 +22,12 @@ package org.apache.axis2.dispatchers;
 
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.HandlerDescription;
+import org.apache.axis2.engine.AxisConfiguration;
 import org.apache.axis2.util.Utils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -40,6 +42,8 @@ public class RequestURIBasedOperationDispatcher extends AbstractOperationDispatc
     public static final String NAME = "RequestURIBasedOperationDispatcher";
     private static final Log log = LogFactory.getLog(RequestURIBasedOperationDispatcher.class);
 
+    final RequestURICache<OperationLookup> cache = new RequestURICache<OperationLookup>();
+
     /*
      *  (non-Javadoc)
      * @see org.apache.axis2.engine.AbstractDispatcher#findOperation(org.apache.axis2.description.AxisService, org.apache.axis2.context.MessageContext)
@@ -50,6 +54,24 @@ public class RequestURIBasedOperationDispatcher extends AbstractOperationDispatc
         EndpointReference toEPR = messageContext.getTo();
         if (toEPR != null) {
             String filePart = toEPR.getAddress();
+            AxisConfiguration axisConfig = service.getAxisConfiguration();
+            ConfigurationContext configContext = messageContext.getConfigurationContext();
+            // The result only depends on the service/operation part of the address, not on the
+            // host or the query string
+            String serviceOpPart = axisConfig == null || configContext == null ? null
+                    : Utils.getServiceAndOperationPart(filePart,
+                            configContext.getServiceContextPath());
+            long version = 0;
+            long operationsVersion = 0;
+            if (serviceOpPart != null) {
+                OperationLookup lookup = cache.get(axisConfig, serviceOpPart);
+                if (lookup != null && lookup.service == service
+                        && lookup.operationsVersion == service.getOperationsVersion()) {
+                    return lookup.operation;
+                }
+                version = axisConfig.getServicesVersion();
+                operationsVersion = service.getOperationsVersion();
+            }
             String operation  = Utils.getOperationName(filePart, service.getName());
 
             if (operation != null) {
@@ -57,7 +79,12 @@ public class RequestURIBasedOperationDispatcher extends AbstractOperationDispatc
                 log.debug(messageContext.getLogIDString() +
                         " Checking for Operation using QName(target endpoint URI fragment) : " +
                         operationName);
-                return service.getOperation(operationName);
+                AxisOperation axisOperation = service.getOperation(operationName);
+                if (axisOperation != null && serviceOpPart != null) {
+                    cache.put(axisConfig, version, serviceOpPart,
+                              new OperationLookup(service, operationsVersion, axisOperation));
+                }
+                return axisOperation;
             } else {
                 log.debug(messageContext.getLogIDString() +
                         " Attempted to check for Operation using target endpoint URI, but the operation fragment was missing");
@@ -73,4 +100,21 @@ public class RequestURIBasedOperationDispatcher extends AbstractOperationDispatc
     public void initDispatcher() {
         init(new HandlerDescription(NAME));
     }
+
+    /**
+     * The cached result of an operation lookup for a given request URI, valid as long as the
+     * {@link AxisService#getOperationsVersion() operations version} of the service doesn't
+     * change.
+     */
+    private static final class OperationLookup {
+        final AxisService service;
+        final long operationsVersion;
+        final AxisOperation operation;
+
+        OperationLookup(AxisService service, long operationsVersion, AxisOperation operation) {
+            this.service = service;
+            this.operationsVersion = operationsVersion;
+            this.operation = operation;
+        }
+    }
 }
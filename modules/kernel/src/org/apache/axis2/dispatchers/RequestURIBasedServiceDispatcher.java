@@ -43,6 +43,8 @@ public class RequestURIBasedServiceDispatcher extends AbstractServiceDispatcher
     public static final String NAME = "RequestURIBasedServiceDispatcher";
     private static final Log log = LogFactory.getLog(RequestURIBasedServiceDispatcher.class);
 
+    private final RequestURICache<ServiceLookup> cache = new RequestURICache<ServiceLookup>();
+
     /*
      *  (non-Javadoc)
      * @see org.apache.axis2.engine.AbstractDispatcher#findService(org.apache.axis2.context.MessageContext)
@@ -67,56 +69,43 @@ public class RequestURIBasedServiceDispatcher extends AbstractServiceDispatcher
                 AxisConfiguration registry =
                         configurationContext.getAxisConfiguration();
 
+                ServiceLookup lookup = cache.get(registry, serviceOpPart);
+                if (lookup != null && lookup.service.isActive()) {
+                    lookup.apply(this, messageContext);
+                    return lookup.service;
+                }
+                long version = registry.getServicesVersion();
+
                 /**
-                 * Split the serviceOpPart from '/' and add part by part and check whether we have
-                 * a service. This is because we are supporting hierarchical services. We can't
-                 * decide the service name just by looking at the request URL.
+                 * Add the '/' separated parts of the serviceOpPart one by one and check whether we
+                 * have a service. This is because we are supporting hierarchical services. We
+                 * can't decide the service name just by looking at the request URL.
                  */
                 AxisService axisService = null;
-                String[] parts = serviceOpPart.split("/");
-                String serviceName = "";
+                String serviceName = null;
+                int end = -1;
                 int count = 0;
 
                 /**
                  * To avoid performance issues if an incorrect URL comes in with a long service name
                  * including lots of '/' separated strings, we limit the hierarchical depth to 10
                  */
-                while (axisService == null && count < parts.length &&
-                        count < Constants.MAX_HIERARCHICAL_DEPTH) {
-                    serviceName = count == 0 ? serviceName + parts[count] :
-                            serviceName + "/" + parts[count];
+                while (axisService == null && count < Constants.MAX_HIERARCHICAL_DEPTH) {
+                    end = serviceOpPart.indexOf('/', end + 1);
+                    serviceName = end == -1 ? serviceOpPart : serviceOpPart.substring(0, end);
                     axisService = registry.getService(serviceName);
                     count++;
+                    if (end == -1) {
+                        break;
+                    }
                 }
 
                 // If the axisService is not null we get the binding that the request came to add
                 // add it as a property to the messageContext
                 if (axisService != null) {
-                    Map endpoints = axisService.getEndpoints();
-                    if (endpoints != null) {
-                        if (endpoints.size() == 1) {
-                            messageContext.setProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME,
-                                    endpoints.get(
-            								axisService.getEndpointName()));
-            			} else {
-                            String[] temp = serviceName.split("/");
-                            int periodIndex = temp[temp.length - 1].lastIndexOf('.');
-                            if (periodIndex != -1) {
-                                String endpointName
-                                        = temp[temp.length - 1].substring(periodIndex + 1);
-                                messageContext.setProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME,
-                                        endpoints.get(endpointName));
-                            }
-                            String endpointName = temp[0].substring(temp[0].indexOf(".") + 1);
-                            AxisEndpoint endpoint = (AxisEndpoint) endpoints.get(endpointName);
-                            if (endpoint != null) {
-                                messageContext.setProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME,
-                                                           endpoint);
-                            } else {
-                                inferEndpoint(messageContext, axisService);
-                            }
-                        }
-                    }
+                    lookup = lookupEndpoint(axisService, serviceName);
+                    cache.put(registry, version, serviceOpPart, lookup);
+                    lookup.apply(this, messageContext);
                 }
 
             	return axisService;
@@ -140,6 +129,65 @@ public class RequestURIBasedServiceDispatcher extends AbstractServiceDispatcher
         init(new HandlerDescription(NAME));
     }
 
+    /**
+     * Determine the endpoint targeted by a request from the name under which the service was
+     * found.
+     */
+    private static ServiceLookup lookupEndpoint(AxisService axisService, String serviceName) {
+        Map endpoints = axisService.getEndpoints();
+        if (endpoints == null) {
+            return new ServiceLookup(axisService, false, null, false);
+        }
+        if (endpoints.size() == 1) {
+            return new ServiceLookup(axisService, true,
+                    (AxisEndpoint) endpoints.get(axisService.getEndpointName()), false);
+        }
+        boolean setEndpoint = false;
+        AxisEndpoint endpoint = null;
+        String lastPart = serviceName.substring(serviceName.lastIndexOf('/') + 1);
+        int periodIndex = lastPart.lastIndexOf('.');
+        if (periodIndex != -1) {
+            setEndpoint = true;
+            endpoint = (AxisEndpoint) endpoints.get(lastPart.substring(periodIndex + 1));
+        }
+        int slashIndex = serviceName.indexOf('/');
+        String firstPart = slashIndex == -1 ? serviceName : serviceName.substring(0, slashIndex);
+        AxisEndpoint firstPartEndpoint =
+                (AxisEndpoint) endpoints.get(firstPart.substring(firstPart.indexOf('.') + 1));
+        if (firstPartEndpoint != null) {
+            return new ServiceLookup(axisService, true, firstPartEndpoint, false);
+        }
+        return new ServiceLookup(axisService, setEndpoint, endpoint, true);
+    }
+
+    /**
+     * The cached result of a service lookup for a given request URI.
+     */
+    private static final class ServiceLookup {
+        final AxisService service;
+        final boolean setEndpoint;
+        final AxisEndpoint endpoint;
+        /** Whether the endpoint must be inferred from the incoming message */
+        final boolean inferEndpoint;
+
+        ServiceLookup(AxisService service, boolean setEndpoint, AxisEndpoint endpoint,
+                      boolean inferEndpoint) {
+            this.service = service;
+            this.setEndpoint = setEndpoint;
+            this.endpoint = endpoint;
+            this.inferEndpoint = inferEndpoint;
+        }
+
+        void apply(RequestURIBasedServiceDispatcher dispatcher, MessageContext messageContext) {
+            if (setEndpoint) {
+                messageContext.setProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME, endpoint);
+            }
+            if (inferEndpoint) {
+                dispatcher.inferEndpoint(messageContext, service);
+            }
+        }
+    }
+
     private void inferEndpoint(MessageContext msgCtx, AxisService service) {
         if (!msgCtx.isServerSide()) {
             return;
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.dispatchers;
+
+import org.apache.axis2.engine.AxisConfiguration;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the results of the request URI based dispatchers, keyed by the part of the request
+ * URI that they depend on. Entries are tagged with the {@link AxisConfiguration} and its
+ * {@link AxisConfiguration#getServicesVersion() services version} at the time the result was
+ * computed, so that deploying or undeploying a service invalidates them.
+ * <p>
+ * Since the keys come from the request, the cache is bounded: it is simply cleared when it
+ * is full. This is cheap, and in the common case the set of request URIs is small and stable.
+ *
+ * @param <V> the type of the cached results
+ */
+final class RequestURICache<V> {
+    /**
+     * The maximum number of cached request URIs.
+     */
+    static final int MAX_ENTRIES = 1024;
+
+    private static final class Entry<V> {
+        final AxisConfiguration axisConfig;
+        final long version;
+        final V value;
+
+        Entry(AxisConfiguration axisConfig, long version, V value) {
+            this.axisConfig = axisConfig;
+            this.version = version;
+            this.value = value;
+        }
+    }
+
+    private final Map<String, Entry<V>> entries = new ConcurrentHashMap<String, Entry<V>>();
+
+    /**
+     * Get a cached result.
+     *
+     * @param axisConfig the configuration the request is dispatched against
+     * @param key        the key derived from the request URI
+     * @return the cached result, or <code>null</code> if there is no result or the set of
+     *         services has changed since it was computed
+     */
+    V get(AxisConfiguration axisConfig, String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.axisConfig == axisConfig
+                && entry.version == axisConfig.getServicesVersion()) {
+            return entry.value;
+        }
+        return null;
+    }
+
+    /**
+     * Cache a result.
+     *
+     * @param axisConfig the configuration the request has been dispatched against
+     * @param version    the services version of the configuration, read <em>before</em> the
+     *                   result has been computed
+     * @param key        the key derived from the request URI
+     * @param value      the result
+     */
+    void put(AxisConfiguration axisConfig, long version, String key, V value) {
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.clear();
+        }
+        entries.put(key, new Entry<V>(axisConfig, version, value));
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
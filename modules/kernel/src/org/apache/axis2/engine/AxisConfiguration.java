@@ -34,6 +34,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.namespace.QName;
 
@@ -113,6 +114,12 @@ public class AxisConfiguration extends AxisDescription {
     private Map<String, AxisService> allServices = new ConcurrentHashMap<String, AxisService>();
     private Map<String, AxisService> allEndpoints = new ConcurrentHashMap<String, AxisService>();
 
+    /**
+     * Incremented whenever the set of services or endpoints changes, so that caches of service
+     * lookups can detect that they are stale.
+     */
+    private final AtomicLong servicesVersion = new AtomicLong();
+
     /**
      * Stores the module specified in the server.xml at the document parsing time.
      */
@@ -152,6 +159,11 @@ public class AxisConfiguration extends AxisDescription {
 
     private List<Phase> outPhases;
 
+    // Execution chains compiled from the global phases; see CompiledFlow
+    private volatile CompiledFlow compiledInFlow;
+    private volatile CompiledFlow compiledInFaultFlow;
+    private volatile CompiledFlow compiledOutFaultFlow;
+
     protected PhasesInfo phasesinfo;
 
     private ClassLoader serviceClassLoader;
@@ -384,6 +396,7 @@ public class AxisConfiguration extends AxisDescription {
                 for (AxisService service : servicesIAdded) {
                     allServices.remove(service.getName());
                 }
+                servicesVersion.incrementAndGet();
                 // And toss this in case anyone wants it?
                 throw axisFault;
             }
@@ -412,6 +425,7 @@ public class AxisConfiguration extends AxisDescription {
         // serviceGroups.put(axisServiceGroup.getServiceGroupName(),
         // axisServiceGroup);
         addChild(axisServiceGroup);
+        servicesVersion.incrementAndGet();
     }
 
     /**
@@ -472,6 +486,7 @@ public class AxisConfiguration extends AxisDescription {
         }
         
         serviceGroup.addService(axisService);
+        servicesVersion.incrementAndGet();
 
         if (!axisService.isClientSide()) {
             notifyObservers(new AxisEvent(AxisEvent.SERVICE_DEPLOY, axisService), axisService);
@@ -486,6 +501,7 @@ public class AxisConfiguration extends AxisDescription {
                 log.debug("Adding service to allServices map: [" + serviceName + "] ");
             }
             allServices.put(serviceName, axisService);
+            servicesVersion.incrementAndGet();
             if (log.isTraceEnabled()) {
                 //noinspection ThrowableInstanceNeverThrown
                 log.trace("After adding to allServices map, size is "
@@ -825,6 +841,52 @@ public class AxisConfiguration extends AxisDescription {
         return inPhasesUptoAndIncludingPostDispatch;
     }
 
+    /**
+     * Get the execution chain of the global in flow, shared by all messages.
+     *
+     * @return the compiled chain; must not be modified
+     * @see CompiledFlow
+     */
+    ArrayList<Handler> getCompiledInFlow() {
+        CompiledFlow flow = compiledInFlow;
+        CompiledFlow compiled = CompiledFlow.compile(flow,
+                inPhasesUptoAndIncludingPostDispatch, null);
+        if (compiled != flow) {
+            compiledInFlow = compiled;
+        }
+        return compiled.getHandlers();
+    }
+
+    /**
+     * Get the execution chain of the global in fault flow, shared by all messages.
+     *
+     * @return the compiled chain; must not be modified
+     * @see CompiledFlow
+     */
+    ArrayList<Handler> getCompiledInFaultFlow() {
+        CompiledFlow flow = compiledInFaultFlow;
+        CompiledFlow compiled = CompiledFlow.compile(flow, inFaultPhases, null);
+        if (compiled != flow) {
+            compiledInFaultFlow = compiled;
+        }
+        return compiled.getHandlers();
+    }
+
+    /**
+     * Get the execution chain of the global out fault flow, shared by all messages.
+     *
+     * @return the compiled chain; must not be modified
+     * @see CompiledFlow
+     */
+    ArrayList<Handler> getCompiledOutFaultFlow() {
+        CompiledFlow flow = compiledOutFaultFlow;
+        CompiledFlow compiled = CompiledFlow.compile(flow, outFaultPhases, null);
+        if (compiled != flow) {
+            compiledOutFaultFlow = compiled;
+        }
+        return compiled.getHandlers();
+    }
+
     public MessageReceiver getMessageReceiver(String mepURL) {
         return messageReceivers.get(mepURL);
     }
@@ -993,6 +1055,17 @@ public class AxisConfiguration extends AxisDescription {
         return null;
     }
 
+    /**
+     * Get a number that changes whenever a service or an endpoint is added to or removed from
+     * this configuration. Caches of the results of {@link #getService(String)} use it to detect
+     * deployment changes.
+     *
+     * @return the current version of the set of services
+     */
+    public long getServicesVersion() {
+        return servicesVersion.get();
+    }
+
     /**
      * Service can start and stop, once stopped it cannot be accessed, so we
      * need a way to get the service even if service is not active.
@@ -1383,6 +1456,7 @@ public class AxisConfiguration extends AxisDescription {
         this.allEndpoints.clear();
         this.allModules.clear();
         this.allServices.clear();
+        servicesVersion.incrementAndGet();
         this.outPhases.clear();
         this.messageReceivers.clear();
         this.targetResolvers.clear();
@@ -1528,6 +1602,7 @@ public class AxisConfiguration extends AxisDescription {
                 String key = serviceName + "." + iter.next();
                 this.allEndpoints.remove(key);
             }
+            servicesVersion.incrementAndGet();
         }
         return axisService;
     }
@@ -138,20 +138,18 @@ public class AxisEngine {
             log.trace(msgContext.getLogIDString() + " receive:" + msgContext.getMessageID());
         }
         ConfigurationContext confContext = msgContext.getConfigurationContext();
-        List<Phase> preCalculatedPhases;
+        ArrayList<Handler> preCalculatedPhases;
         if (msgContext.isFault() || msgContext.isProcessingFault()) {
-            preCalculatedPhases = confContext.getAxisConfiguration().getInFaultFlowPhases();
+            preCalculatedPhases = confContext.getAxisConfiguration().getCompiledInFaultFlow();
             msgContext.setFLOW(MessageContext.IN_FAULT_FLOW);
         } else {
-            preCalculatedPhases = confContext.getAxisConfiguration().getInFlowPhases();
+            preCalculatedPhases = confContext.getAxisConfiguration().getCompiledInFlow();
             msgContext.setFLOW(MessageContext.IN_FLOW);
         }
-        // Set the initial execution chain in the MessageContext to a *copy* of what
-        // we got above.  This allows individual message processing to change the chain without
-        // affecting later messages.
-        ArrayList<Handler> executionChain = new ArrayList<Handler>();
-        executionChain.addAll(preCalculatedPhases);
-        msgContext.setExecutionChain(executionChain);
+        // The compiled chain is shared by all messages; the MessageContext copies it if
+        // individual message processing changes the chain, so that later messages are not
+        // affected.
+        msgContext.setSharedExecutionChain(preCalculatedPhases);
         try {
             InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
 
@@ -228,15 +226,21 @@ public class AxisEngine {
     private static InvocationResponse invoke(MessageContext msgContext, boolean resuming)
             throws AxisFault {
 
-        if (msgContext.getCurrentHandlerIndex() == -1) {
+        int currentIndex = msgContext.getCurrentHandlerIndex();
+        if (currentIndex == -1) {
+            currentIndex = 0;
             msgContext.setCurrentHandlerIndex(0);
         }
 
         InvocationResponse pi = InvocationResponse.CONTINUE;
 
-        while (msgContext.getCurrentHandlerIndex() < msgContext.getExecutionChain().size()) {
-            Handler currentHandler = (Handler) msgContext.getExecutionChain().
-                    get(msgContext.getCurrentHandlerIndex());
+        // Handlers (e.g. the dispatch phase) may replace the execution chain and reset the
+        // index, so both are read again after each handler; the cursor is kept in a local
+        // variable in between. The chain may be shared with other messages, so it is read
+        // without taking a copy.
+        List<Handler> executionChain = msgContext.getExecutionChainNoCopy();
+        while (currentIndex < executionChain.size()) {
+            Handler currentHandler = executionChain.get(currentIndex);
 
             try {
                 if (!resuming) {
@@ -269,7 +273,9 @@ public class AxisEngine {
                 break;
             }
 
-            msgContext.setCurrentHandlerIndex(msgContext.getCurrentHandlerIndex() + 1);
+            currentIndex = msgContext.getCurrentHandlerIndex() + 1;
+            msgContext.setCurrentHandlerIndex(currentIndex);
+            executionChain = msgContext.getExecutionChainNoCopy();
         }
 
         return pi;
@@ -404,12 +410,9 @@ public class AxisEngine {
         }
         // find and invoke the Phases
         OperationContext operationContext = msgContext.getOperationContext();
-        ArrayList executionChain = operationContext.getAxisOperation().getPhasesOutFlow();
-        //rather than having two steps added both oparation and global chain together
-        ArrayList outPhases = new ArrayList();
-        outPhases.addAll(executionChain);
-        outPhases.addAll(msgContext.getConfigurationContext().getAxisConfiguration().getOutFlowPhases());
-        msgContext.setExecutionChain(outPhases);
+        // the operation specific phases followed by the global ones, compiled once per operation
+        msgContext.setSharedExecutionChain(operationContext.getAxisOperation().getCompiledOutFlow(
+                msgContext.getConfigurationContext().getAxisConfiguration()));
         msgContext.setFLOW(MessageContext.OUT_FLOW);
         try {
             InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
@@ -465,13 +468,7 @@ public class AxisEngine {
         // find and execute the Fault Out Flow Handlers
         if (opContext != null) {
             AxisOperation axisOperation = opContext.getAxisOperation();
-            ArrayList faultExecutionChain = axisOperation.getPhasesOutFaultFlow();
-
-            //adding both operation specific and global out fault flows.
-
-            ArrayList outFaultPhases = new ArrayList();
-            outFaultPhases.addAll((ArrayList) faultExecutionChain.clone());
-            msgContext.setExecutionChain((ArrayList) outFaultPhases.clone());
+            msgContext.setSharedExecutionChain(axisOperation.getCompiledOutFaultFlow());
             msgContext.setFLOW(MessageContext.OUT_FAULT_FLOW);
             try {
                 InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
@@ -497,9 +494,8 @@ public class AxisEngine {
             }
         }
 
-        ArrayList<Handler> executionChain = new ArrayList<Handler>(msgContext.getConfigurationContext()
-                .getAxisConfiguration().getOutFaultFlowPhases());
-        msgContext.setExecutionChain(executionChain);
+        msgContext.setSharedExecutionChain(msgContext.getConfigurationContext()
+                .getAxisConfiguration().getCompiledOutFaultFlow());
         msgContext.setFLOW(MessageContext.OUT_FAULT_FLOW);
         InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
 
@@ -560,9 +556,8 @@ public class AxisEngine {
             }
         }
 
-        ArrayList<Handler> executionChain = new ArrayList<Handler>(msgContext.getConfigurationContext()
-                .getAxisConfiguration().getOutFaultFlowPhases());
-        msgContext.setExecutionChain(executionChain);
+        msgContext.setSharedExecutionChain(msgContext.getConfigurationContext()
+                .getAxisConfiguration().getCompiledOutFaultFlow());
         msgContext.setFLOW(MessageContext.OUT_FAULT_FLOW);
         InvocationResponse pi = invoke(msgContext, NOT_RESUMING_EXECUTION);
 
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Execution chain compiled from one or two lists of phases, e.g. the operation specific phases
+ * of the out flow followed by the global ones. The chain is built once and shared by all the
+ * messages that follow the flow, instead of being assembled for every message; it must
+ * therefore never be modified. {@link org.apache.axis2.context.MessageContext} takes a private
+ * copy if a handler asks for the execution chain of its message in order to change it.
+ * <p>
+ * The chain refers to the {@link Phase} objects themselves, so handlers added to or removed from
+ * a phase when a module is engaged or disengaged are seen immediately. Deploying a service or
+ * changing the phase configuration replaces the phase lists (or changes their size), which
+ * {@link #compile(CompiledFlow, List, List)} detects; the flow is then compiled again.
+ */
+public final class CompiledFlow {
+    private final List<?> first;
+    private final int firstSize;
+    private final List<?> second;
+    private final int secondSize;
+    private final ArrayList<Handler> handlers;
+
+    private CompiledFlow(List<?> first, List<?> second) {
+        this.first = first;
+        this.second = second;
+        firstSize = size(first);
+        secondSize = size(second);
+        handlers = new ArrayList<Handler>(firstSize + secondSize);
+        add(first);
+        add(second);
+    }
+
+    private static int size(List<?> phases) {
+        return phases == null ? 0 : phases.size();
+    }
+
+    private void add(List<?> phases) {
+        if (phases != null) {
+            for (Object phase : phases) {
+                handlers.add((Handler)phase);
+            }
+        }
+    }
+
+    /**
+     * Get the compiled flow for the given lists of phases.
+     *
+     * @param current the flow compiled previously, or <code>null</code>
+     * @param first the first list of phases; may be <code>null</code>
+     * @param second the list of phases that follow; may be <code>null</code>
+     * @return <code>current</code> if it has been compiled from the same lists and their size
+     *         hasn't changed since, otherwise a newly compiled flow
+     */
+    public static CompiledFlow compile(CompiledFlow current, List<?> first, List<?> second) {
+        if (current != null && current.first == first && current.second == second
+                && current.firstSize == size(first) && current.secondSize == size(second)) {
+            return current;
+        } else {
+            return new CompiledFlow(first, second);
+        }
+    }
+
+    /**
+     * Get the execution chain. The returned list is shared and must not be modified.
+     *
+     * @return the phases of the flow, in execution order
+     */
+    public ArrayList<Handler> getHandlers() {
+        return handlers;
+    }
+}
@@ -45,7 +45,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import javax.xml.namespace.QName;
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -183,8 +182,8 @@ public class DispatchPhase extends Phase {
         }
         
 
-        ArrayList operationChain = msgContext.getAxisOperation().getRemainingPhasesInFlow();
-        msgContext.setExecutionChain((ArrayList) operationChain.clone());
+        msgContext.setSharedExecutionChain(
+                msgContext.getAxisOperation().getCompiledRemainingInFlow());
     }
 
     private void loadContexts(AxisService service, MessageContext msgContext) throws AxisFault {
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport;
+
+import org.apache.axis2.context.MessageContext;
+
+/**
+ * A {@link TransportSender} for a two way transport that is able to wait for the response
+ * without blocking the calling thread.
+ * <p>
+ * For non blocking invocations of out-in operations, the client API sets the
+ * {@link #RESPONSE_CALLBACK} property on the request message context before sending it. If that
+ * property is set, {@link #invoke(MessageContext)} must return as soon as the request has been
+ * handed over to the transport, and the transport must later call exactly one of the methods of
+ * the {@link ResponseCallback}. Before calling {@link ResponseCallback#onResponse()}, the
+ * transport sets the same properties as it would after a blocking invocation, in particular
+ * {@link MessageContext#TRANSPORT_IN} on the operation context. If
+ * {@link #invoke(MessageContext)} throws an exception, the callback must not be called.
+ * <p>
+ * The callback may be called from an I/O thread of the transport; implementations of
+ * {@link ResponseCallback} must therefore not block.
+ */
+public interface AsyncTransportSender extends TransportSender {
+    /**
+     * The name of the message context property that contains the {@link ResponseCallback}.
+     */
+    String RESPONSE_CALLBACK = "AsyncTransportSender.RESPONSE_CALLBACK";
+
+    /**
+     * Receives the outcome of a request sent by an {@link AsyncTransportSender}.
+     */
+    interface ResponseCallback {
+        /**
+         * Called when the response is available.
+         */
+        void onResponse();
+
+        /**
+         * Called if the request failed.
+         *
+         * @param ex the error
+         */
+        void onError(Exception ex);
+    }
+}
@@ -482,6 +482,14 @@ public class HTTPConstants {
      */
     public static final String MC_GZIP_REQUEST = "transport.http.gzipRequest";
 
+    /**
+     * The size in bytes above which a request that is sent without chunking is buffered in a
+     * temporary file instead of memory. May be set as a message context property or as a
+     * parameter. The temporary file is created in the directory specified by
+     * {@link org.apache.axis2.Constants.Configuration#ATTACHMENT_TEMP_DIR}.
+     */
+    public static final String REQUEST_BUFFER_THRESHOLD = "transport.http.requestBufferThreshold";
+
     /* by default the HTTP response body is not compressed. set this message
     * context property to true to have the response body gzip compressed.
     */
@@ -205,31 +205,28 @@ public class Utils {
 
         // TODO. This is kind of brittle. Any service with the name /services would cause fun.
         int index = path.lastIndexOf(servicePath);
-        String service;
-
         if (-1 != index) {
-            int serviceStart = index + servicePath.length();
-
-            if (path.length() > serviceStart + 1) {
-                service = path.substring(serviceStart + 1);
+            int serviceStart = index + servicePath.length() + 1;
 
-                int queryIndex = service.indexOf('?');
-
-                if (queryIndex > 0) {
-                    service = service.substring(0, queryIndex);
+            if (path.length() > serviceStart) {
+                // Locate the parts by index and only create the strings that are returned
+                int end = path.indexOf('?', serviceStart);
+                if (end == -1 || end == serviceStart) {
+                    end = path.length();
                 }
 
-                int operationIndex = service.indexOf('/');
+                int operationIndex = path.indexOf('/', serviceStart);
 
-                if (operationIndex > 0) {
-                    values[0] = service.substring(0, operationIndex);
-                    values[1] = service.substring(operationIndex + 1);
-                    operationIndex = values[1].lastIndexOf('/');
-                    if (operationIndex > 0) {
-                        values[1] = values[1].substring(operationIndex + 1);
+                if (operationIndex > serviceStart && operationIndex < end) {
+                    values[0] = path.substring(serviceStart, operationIndex);
+                    int lastIndex = path.lastIndexOf('/', end - 1);
+                    if (lastIndex > operationIndex + 1) {
+                        values[1] = path.substring(lastIndex + 1, end);
+                    } else {
+                        values[1] = path.substring(operationIndex + 1, end);
                     }
                 } else {
-                    values[0] = service;
+                    values[0] = path.substring(serviceStart, end);
                 }
             }
         } else {
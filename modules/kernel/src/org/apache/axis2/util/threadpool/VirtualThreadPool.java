@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util.threadpool;
+
+import org.apache.axis2.i18n.Messages;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Thread factory that runs every task on its own virtual thread. Unlike {@link ThreadPool},
+ * the number of concurrently executing tasks is not capped by a maximum pool size, which suits
+ * workloads that mostly block on remote calls. Use {@link #newInstance(String)} to create
+ * instances, since virtual threads are only available on Java 21 and later.
+ */
+public class VirtualThreadPool implements ThreadFactory {
+
+    private static final Log log = LogFactory.getLog(VirtualThreadPool.class);
+
+    private final ExecutorService executor;
+    private volatile boolean shutDown;
+
+    private VirtualThreadPool(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Create a new virtual thread pool.
+     *
+     * @param name prefix for the names of the threads
+     * @return the pool, or <code>null</code> if the Java runtime doesn't support virtual threads
+     */
+    public static VirtualThreadPool newInstance(String name) {
+        ExecutorService executor = VirtualThreads.newExecutor(name);
+        return executor == null ? null : new VirtualThreadPool(executor);
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public void execute(Runnable worker) {
+        if (shutDown) {
+            throw new RuntimeException(Messages.getMessage("threadpoolshutdown"));
+        }
+        executor.execute(worker);
+    }
+
+    /**
+     * Interrupt all running tasks and stop accepting new ones.
+     */
+    public void forceShutDown() {
+        if (log.isDebugEnabled()) {
+            log.debug("forceShutDown called. Virtual thread workers will be interrupted");
+        }
+        shutDown = true;
+        executor.shutdownNow();
+    }
+
+    /**
+     * Stop accepting new tasks, letting the tasks already submitted run to completion.
+     */
+    public void safeShutDown() {
+        shutDown = true;
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util.threadpool;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to the virtual threads of Java 21 and later. Axis2 is compiled for older Java
+ * versions, so the relevant APIs are looked up by reflection. On runtimes that don't support
+ * virtual threads {@link #isSupported()} returns <code>false</code> and callers are expected
+ * to fall back to a classic thread pool.
+ */
+public final class VirtualThreads {
+
+    private static final Log log = LogFactory.getLog(VirtualThreads.class);
+
+    /**
+     * System property read by the JDK to print a stack trace when a virtual thread blocks
+     * while pinned to its carrier thread, e.g. because it holds a monitor.
+     */
+    public static final String TRACE_PINNED_THREADS_PROPERTY = "jdk.tracePinnedThreads";
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            builderName = builderClass.getMethod("name", String.class, long.class);
+            builderFactory = builderClass.getMethod("factory");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor",
+                    java.util.concurrent.ThreadFactory.class);
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Virtual threads are not supported by this Java runtime");
+            }
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the Java runtime supports virtual threads
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Create an executor that runs each task on a new virtual thread.
+     *
+     * @param namePrefix prefix of the thread names; a sequence number is appended to it
+     * @return the executor, or <code>null</code> if virtual threads are not supported or the
+     *         executor could not be created
+     */
+    public static ExecutorService newExecutor(String namePrefix) {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix + "-", 0L);
+            Object factory = BUILDER_FACTORY.invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (Exception e) {
+            log.warn("Unable to create a virtual thread executor", e);
+            return null;
+        }
+    }
+
+    /**
+     * Enable the JDK's diagnostics for virtual threads that block while pinned to their
+     * carrier thread. Pinning happens when a virtual thread blocks inside a
+     * <code>synchronized</code> block or method, e.g. a handler doing I/O while holding a
+     * monitor, and reduces the concurrency virtual threads can achieve. The JDK reads the
+     * setting when the first virtual thread is created, so this must be called before that.
+     *
+     * @param mode either <code>short</code> or <code>full</code>
+     */
+    public static void enablePinningDiagnostics(String mode) {
+        if (System.getProperty(TRACE_PINNED_THREADS_PROPERTY) == null) {
+            System.setProperty(TRACE_PINNED_THREADS_PROPERTY, mode);
+            log.info("Tracing of pinned virtual threads enabled (" + mode + ")");
+        }
+    }
+}
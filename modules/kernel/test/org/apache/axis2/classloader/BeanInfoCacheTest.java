@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.classloader;
+
+import java.beans.IntrospectionException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+public class BeanInfoCacheTest extends TestCase {
+    public static class Bean {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    private static class CountingDerived extends BeanInfoCache.Derived<Object> {
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        protected Object compute(Class<?> beanClass) throws IntrospectionException {
+            count.incrementAndGet();
+            return BeanInfoCache.getCachedBeanInfo(beanClass, null).getPropertyDescriptors();
+        }
+    }
+
+    public void testLocalClass() throws Exception {
+        CountingDerived derived = new CountingDerived();
+        Object value = BeanInfoCache.getCachedDerived(derived, Bean.class);
+        assertSame(value, BeanInfoCache.getCachedDerived(derived, Bean.class));
+        assertEquals(1, derived.count.get());
+    }
+
+    /**
+     * Classes loaded by a class loader that has no {@link BeanInfoCache} are not introspected on
+     * every call either.
+     */
+    public void testForeignClassLoader() throws Exception {
+        URL location = Bean.class.getProtectionDomain().getCodeSource().getLocation();
+        URLClassLoader classLoader = new URLClassLoader(new URL[] { location }, null);
+        Class<?> beanClass = classLoader.loadClass(Bean.class.getName());
+        assertNotSame(Bean.class, beanClass);
+        CountingDerived derived = new CountingDerived();
+        Object value = BeanInfoCache.getCachedDerived(derived, beanClass);
+        assertSame(value, BeanInfoCache.getCachedDerived(derived, beanClass));
+        assertEquals(1, derived.count.get());
+    }
+
+    public void testIntrospectionException() throws Exception {
+        BeanInfoCache.Derived<Object> derived = new BeanInfoCache.Derived<Object>() {
+            @Override
+            protected Object compute(Class<?> beanClass) throws IntrospectionException {
+                throw new IntrospectionException("test");
+            }
+        };
+        try {
+            derived.getFallback(Bean.class);
+            fail("Expected IntrospectionException");
+        } catch (IntrospectionException ex) {
+            assertEquals("test", ex.getMessage());
+        }
+    }
+}
@@ -24,7 +24,6 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashMap;
 
 import junit.framework.TestCase;
 
@@ -42,7 +41,7 @@ public class ContextPropertiesExternalizeTest extends TestCase {
         mc.setProperty("key4_nullValue", null);
         mc.setProperty("key5", "value5");
         
-        assertTrue(mc.properties instanceof HashMap);
+        assertTrue(mc.properties instanceof PropertyMap);
         
         try {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -64,7 +63,7 @@ public class ContextPropertiesExternalizeTest extends TestCase {
             assertEquals("value3_nullKey", mcRead.getProperty(null));
             assertNull(mcRead.getProperty("key4_nullValue"));
             assertEquals("value5", mcRead.getProperty("key5"));
-            assertTrue(mcRead.properties instanceof HashMap);
+            assertTrue(mcRead.properties instanceof PropertyMap);
             
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -81,7 +80,7 @@ public class ContextPropertiesExternalizeTest extends TestCase {
         ctx.setProperty("key4_nullValue", null);
         ctx.setProperty("key5", "value5");
         
-        assertTrue(ctx.properties instanceof HashMap);
+        assertTrue(ctx.properties instanceof PropertyMap);
         
         try {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -103,7 +102,7 @@ public class ContextPropertiesExternalizeTest extends TestCase {
             assertEquals("value3_nullKey", ctxRead.getProperty(null));
             assertNull(ctxRead.getProperty("key4_nullValue"));
             assertEquals("value5", ctxRead.getProperty("key5"));
-            assertTrue(ctxRead.properties instanceof HashMap);
+            assertTrue(ctxRead.properties instanceof PropertyMap);
             
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -120,7 +119,7 @@ public class ContextPropertiesExternalizeTest extends TestCase {
         ctx.setProperty("key4_nullValue", null);
         ctx.setProperty("key5", "value5");
         
-        assertTrue(ctx.properties instanceof HashMap);
+        assertTrue(ctx.properties instanceof PropertyMap);
         
         try {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -142,7 +141,7 @@ public class ContextPropertiesExternalizeTest extends TestCase {
             assertEquals("value3_nullKey", ctxRead.getProperty(null));
             assertNull(ctxRead.getProperty("key4_nullValue"));
             assertEquals("value5", ctxRead.getProperty("key5"));
-            assertTrue(ctxRead.properties instanceof HashMap);
+            assertTrue(ctxRead.properties instanceof PropertyMap);
             
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -159,7 +158,7 @@ public class ContextPropertiesExternalizeTest extends TestCase {
         ctx.setProperty("key4_nullValue", null);
         ctx.setProperty("key5", "value5");
         
-        assertTrue(ctx.properties instanceof HashMap);
+        assertTrue(ctx.properties instanceof PropertyMap);
         
         try {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -181,7 +180,7 @@ public class ContextPropertiesExternalizeTest extends TestCase {
             assertEquals("value3_nullKey", ctxRead.getProperty(null));
             assertNull(ctxRead.getProperty("key4_nullValue"));
             assertEquals("value5", ctxRead.getProperty("key5"));
-            assertTrue(ctxRead.properties instanceof HashMap);
+            assertTrue(ctxRead.properties instanceof PropertyMap);
             
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -198,7 +197,7 @@ public class ContextPropertiesExternalizeTest extends TestCase {
         ctx.setProperty("key4_nullValue", null);
         ctx.setProperty("key5", "value5");
         
-        assertTrue(ctx.properties instanceof HashMap);
+        assertTrue(ctx.properties instanceof PropertyMap);
         
         try {
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -220,7 +219,7 @@ public class ContextPropertiesExternalizeTest extends TestCase {
             assertEquals("value3_nullKey", ctxRead.getProperty(null));
             assertNull(ctxRead.getProperty("key4_nullValue"));
             assertEquals("value5", ctxRead.getProperty("key5"));
-            assertTrue(ctxRead.properties instanceof HashMap);
+            assertTrue(ctxRead.properties instanceof PropertyMap);
             
         } catch (Exception ex) {
             ex.printStackTrace();
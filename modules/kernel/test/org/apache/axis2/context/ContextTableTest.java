@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import junit.framework.TestCase;
+import org.apache.axis2.description.AxisServiceGroup;
+import org.apache.axis2.engine.AxisConfiguration;
+
+import java.util.List;
+
+public class ContextTableTest extends TestCase {
+    private static final long TICK = 100;
+    private static final long TIMEOUT = 1000;
+
+    private ConfigurationContext configContext;
+
+    protected void setUp() throws Exception {
+        configContext = new ConfigurationContext(new AxisConfiguration());
+    }
+
+    private ServiceGroupContext createContext() {
+        return new ServiceGroupContext(configContext, new AxisServiceGroup());
+    }
+
+    public void testExpire() {
+        ContextTable<ServiceGroupContext> table = new ContextTable<ServiceGroupContext>(TICK);
+        ServiceGroupContext idle = createContext();
+        ServiceGroupContext active = createContext();
+        long start = System.currentTimeMillis();
+        idle.setLastTouchedTime(start);
+        active.setLastTouchedTime(start);
+        table.put("idle", idle, TIMEOUT);
+        table.put("active", active, TIMEOUT);
+        assertEquals(2, table.size());
+
+        // Nothing has timed out yet
+        assertTrue(table.expire(start + TIMEOUT / 2, TIMEOUT).isEmpty());
+
+        // Touching a context postpones its expiry
+        active.setLastTouchedTime(start + TIMEOUT);
+        List<ServiceGroupContext> expired = table.expire(start + TIMEOUT + 3 * TICK, TIMEOUT);
+        assertEquals(1, expired.size());
+        assertSame(idle, expired.get(0));
+        assertNull(table.get("idle"));
+        assertSame(active, table.get("active"));
+        assertEquals(1, table.getExpiredCount());
+
+        expired = table.expire(start + 2 * TIMEOUT + 3 * TICK, TIMEOUT);
+        assertEquals(1, expired.size());
+        assertSame(active, expired.get(0));
+        assertTrue(table.isEmpty());
+        assertEquals(2, table.getExpiredCount());
+    }
+
+    public void testRemovedContextsDontExpire() {
+        ContextTable<ServiceGroupContext> table = new ContextTable<ServiceGroupContext>(TICK);
+        ServiceGroupContext context = createContext();
+        long start = System.currentTimeMillis();
+        table.put("key", context, TIMEOUT);
+        assertSame(context, table.remove("key"));
+        assertTrue(table.expire(start + 2 * TIMEOUT, TIMEOUT).isEmpty());
+        assertEquals(0, table.getExpiredCount());
+    }
+
+    public void testNoTimeout() {
+        ContextTable<ServiceGroupContext> table = new ContextTable<ServiceGroupContext>(TICK);
+        ServiceGroupContext context = createContext();
+        table.putIfAbsent("key", context, -1);
+        assertTrue(table.expire(System.currentTimeMillis() + 10 * TIMEOUT, TIMEOUT).isEmpty());
+        assertSame(context, table.get("key"));
+    }
+
+    /**
+     * A context with a timeout shorter than the tick must not be scheduled in the bucket of a
+     * tick that has already been visited, or it would only expire a full wheel rotation later.
+     */
+    public void testTimeoutShorterThanTick() {
+        ContextTable<ServiceGroupContext> table = new ContextTable<ServiceGroupContext>(TICK);
+        ServiceGroupContext context = createContext();
+        long start = System.currentTimeMillis();
+        // Advance the wheel to the current tick
+        table.expire(start, 1);
+        table.put("key", context, 1);
+        List<ServiceGroupContext> expired = table.expire(start + 2 * TICK, 1);
+        assertEquals(1, expired.size());
+        assertSame(context, expired.get(0));
+    }
+}
@@ -22,13 +22,18 @@ package org.apache.axis2.context;
 import org.apache.axiom.util.UIDGenerator;
 import org.apache.axis2.AbstractTestCase;
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
 import org.apache.axis2.addressing.RelatesTo;
+import org.apache.axis2.client.async.AxisCallback;
 import org.apache.axis2.description.AxisOperation;
 import org.apache.axis2.description.AxisService;
 import org.apache.axis2.description.InOutAxisOperation;
+import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.TransportInDescription;
 import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.util.CallbackReceiver;
+import org.apache.axis2.wsdl.WSDLConstants;
 
 import javax.xml.namespace.QName;
 
@@ -92,4 +97,47 @@ public class OperationContextTest extends AbstractTestCase {
             fail("Unexpected exception: " + e);
         }
     }
+
+    /**
+     * The callback of an operation context that expires because the response never arrived is
+     * deregistered from the {@link CallbackReceiver}.
+     */
+    public void testCallbackRemovedWhenOperationContextExpires() throws Exception {
+        AxisConfiguration axisConfig = new AxisConfiguration();
+        axisConfig.addParameter(new Parameter(
+                Constants.Configuration.OPERATION_CONTEXT_TIMEOUT_INTERVAL, "100"));
+        ConfigurationContext configContext = new ConfigurationContext(axisConfig);
+        AxisOperation axisOperation = new InOutAxisOperation(new QName("test"));
+        CallbackReceiver callbackReceiver = new CallbackReceiver();
+        axisOperation.setMessageReceiver(callbackReceiver);
+
+        MessageContext messageContext = new MessageContext();
+        messageContext.setMessageID(UIDGenerator.generateURNString());
+        OperationContext operationContext = new OperationContext(axisOperation, null);
+        operationContext.getMessageContexts().put(
+                WSDLConstants.MESSAGE_LABEL_OUT_VALUE, messageContext);
+        callbackReceiver.addCallback(messageContext.getMessageID(), new AxisCallback() {
+            public void onMessage(MessageContext msgContext) {
+            }
+
+            public void onFault(MessageContext msgContext) {
+            }
+
+            public void onError(Exception e) {
+            }
+
+            public void onComplete() {
+            }
+        });
+        configContext.registerOperationContext(messageContext.getMessageID(), operationContext);
+        assertEquals(1, callbackReceiver.getCallbackStore().size());
+
+        // Wait for a few ticks of the timer wheel and let the next registration reap the
+        // expired operation context
+        Thread.sleep(2500);
+        configContext.registerOperationContext(UIDGenerator.generateURNString(),
+                new OperationContext(axisOperation, null));
+        assertEquals(1, configContext.getExpiredOperationContextCount());
+        assertTrue(callbackReceiver.getCallbackStore().isEmpty());
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.context;
+
+import junit.framework.TestCase;
+import org.apache.axis2.engine.AxisConfiguration;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class PropertyMapTest extends TestCase {
+    public void testWellKnownAndCustomKeys() {
+        assertTrue(PropertyMap.slotOf(MessageContext.TRANSPORT_OUT) != PropertyMap.NO_SLOT);
+        assertEquals(PropertyMap.NO_SLOT, PropertyMap.slotOf("custom"));
+
+        PropertyMap map = new PropertyMap();
+        assertTrue(map.isEmpty());
+        map.put(MessageContext.TRANSPORT_OUT, "out");
+        map.put("custom", "value");
+        assertEquals(2, map.size());
+        assertEquals("out", map.get(MessageContext.TRANSPORT_OUT));
+        assertEquals("out", map.get(MessageContext.TRANSPORT_OUT,
+                PropertyMap.slotOf(MessageContext.TRANSPORT_OUT)));
+        assertEquals("value", map.get("custom"));
+
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put(MessageContext.TRANSPORT_OUT, "out");
+        expected.put("custom", "value");
+        assertEquals(expected, new HashMap<String, Object>(map));
+
+        assertEquals("out", map.remove(MessageContext.TRANSPORT_OUT));
+        assertNull(map.get(MessageContext.TRANSPORT_OUT));
+        assertEquals(1, map.size());
+    }
+
+    public void testNullKeysAndValues() {
+        PropertyMap map = new PropertyMap();
+        map.put(null, "nullKey");
+        assertEquals("nullKey", map.get(null));
+        assertEquals("nullKey", map.remove(null));
+        map.put(MessageContext.TRANSPORT_IN, null);
+        map.put("custom", null);
+        assertTrue(map.containsKey(MessageContext.TRANSPORT_IN));
+        assertTrue(map.containsKey("custom"));
+        assertNull(map.get("custom"));
+        assertEquals(2, map.size());
+    }
+
+    public void testIteratorRemove() {
+        PropertyMap map = new PropertyMap();
+        map.put(MessageContext.TRANSPORT_IN, "in");
+        map.put("custom", "value");
+        for (Iterator<String> it = map.keySet().iterator(); it.hasNext(); ) {
+            if (it.next().equals("custom")) {
+                it.remove();
+            }
+        }
+        assertFalse(map.containsKey("custom"));
+        assertEquals(1, map.size());
+    }
+
+    public void testHierarchyLookup() {
+        ConfigurationContext configContext = new ConfigurationContext(new AxisConfiguration());
+        configContext.setProperty(MessageContext.TRANSPORT_OUT, "out");
+        configContext.setProperty("custom", "value");
+        MessageContext msgContext = new MessageContext();
+        msgContext.setConfigurationContext(configContext);
+        assertEquals("out", msgContext.getProperty(MessageContext.TRANSPORT_OUT));
+        assertEquals("value", msgContext.getProperty("custom"));
+        msgContext.setProperty("custom", "local");
+        assertEquals("local", msgContext.getProperty("custom"));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.deployment.deployers.RecordingDeployer;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class HotDeploymentWatchTest extends TestCase {
+    private File repo;
+    private File widgets;
+    private ConfigurationContext configContext;
+
+    protected void setUp() throws Exception {
+        repo = new File(AbstractTestCase.basedir, "target/test-resources/hotDeploymentWatchRepo");
+        FileUtils.deleteDirectory(repo);
+        widgets = new File(repo, "widgets");
+        widgets.mkdirs();
+        new File(repo, "services").mkdirs();
+        String axis2xml = FileUtils.readFileToString(new File(AbstractTestCase.basedir,
+                "test-resources/deployment/CustomDeployerRepo/axis2.xml"), "UTF-8");
+        axis2xml = axis2xml.replace("<parameter name=\"hotupdate\">false</parameter>",
+                "<parameter name=\"hotupdate\">true</parameter>\n"
+                + "<parameter name=\"hotDeploymentMode\">watch</parameter>\n"
+                + "<parameter name=\"hotDeploymentDebounceInterval\">200</parameter>");
+        axis2xml = axis2xml.replace("org.apache.axis2.deployment.deployers.CustomDeployer",
+                RecordingDeployer.class.getName());
+        File axis2xmlFile = new File(repo, "axis2.xml");
+        FileUtils.writeStringToFile(axis2xmlFile, axis2xml, "UTF-8");
+        RecordingDeployer.events.clear();
+        configContext = ConfigurationContextFactory.createConfigurationContextFromFileSystem(
+                repo.getAbsolutePath(), axis2xmlFile.getAbsolutePath());
+    }
+
+    protected void tearDown() throws Exception {
+        configContext.terminate();
+    }
+
+    private static void awaitEvents(String... expected) throws InterruptedException {
+        List<String> expectedEvents = Arrays.asList(expected);
+        long deadline = System.currentTimeMillis() + 30000;
+        synchronized (RecordingDeployer.events) {
+            while (RecordingDeployer.events.size() < expectedEvents.size()) {
+                long timeout = deadline - System.currentTimeMillis();
+                if (timeout <= 0) {
+                    break;
+                }
+                RecordingDeployer.events.wait(timeout);
+            }
+            assertEquals(expectedEvents, new ArrayList<String>(RecordingDeployer.events));
+            RecordingDeployer.events.clear();
+        }
+    }
+
+    public void testOnlyChangedDeployablesAreRedeployed() throws Exception {
+        File a = new File(widgets, "a.svc");
+        FileUtils.writeStringToFile(a, "a", "UTF-8");
+        awaitEvents("deploy:a.svc");
+
+        FileUtils.writeStringToFile(new File(widgets, "b.svc"), "b", "UTF-8");
+        awaitEvents("deploy:b.svc");
+
+        // Files that don't match the deployer are ignored
+        FileUtils.writeStringToFile(new File(widgets, "readme.txt"), "readme", "UTF-8");
+
+        FileUtils.writeStringToFile(a, "a2", "UTF-8");
+        awaitEvents("undeploy:a.svc", "deploy:a.svc");
+
+        assertTrue(new File(widgets, "b.svc").delete());
+        awaitEvents("undeploy:b.svc");
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AbstractTestCase;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+
+public class ParallelDeploymentTest extends TestCase {
+    public void testParallelDeployment() throws Exception {
+        File repo = new File(AbstractTestCase.basedir, "target/test-resources/parallelDeploymentRepo");
+        FileUtils.deleteDirectory(repo);
+        FileUtils.copyDirectory(new File(AbstractTestCase.basedir,
+                "test-resources/deployment/hierarchicalServiceRepo"), repo);
+        // Add a service that can't be deployed
+        File invalidService = new File(repo, "services/invalid/META-INF/services.xml");
+        FileUtils.writeStringToFile(invalidService, "<service name=\"invalid\">", "UTF-8");
+        File axis2xml = new File(repo, "axis2.xml");
+        FileUtils.writeStringToFile(axis2xml, FileUtils.readFileToString(axis2xml, "UTF-8")
+                .replace("<parameter name=\"hotdeployment\">true</parameter>",
+                        "<parameter name=\"hotdeployment\">false</parameter>\n"
+                        + "<parameter name=\"deploymentParallelism\">4</parameter>"), "UTF-8");
+
+        AxisConfiguration axisConfig = ConfigurationContextFactory
+                .createConfigurationContextFromFileSystem(repo.getAbsolutePath(),
+                        axis2xml.getAbsolutePath()).getAxisConfiguration();
+
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.0/testService"));
+        assertNotNull(axisConfig.getService("foo/bar/1.0.0/Hie100Service1"));
+        assertNotNull(axisConfig.getService("foo/bar/1.0.0/Hie100Service2"));
+        assertNotNull(axisConfig.getServiceGroup("foo/bar/1.0.1/testService"));
+        assertNotNull(axisConfig.getService("foo/bar/1.0.1/Hie101Service1"));
+        assertNotNull(axisConfig.getService("foo/bar/1.0.1/Hie101Service2"));
+        assertTrue(axisConfig.getFaultyServices().containsKey(
+                invalidService.getParentFile().getParentFile().getAbsolutePath()));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.deployment.deployers;
+
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.deployment.AbstractDeployer;
+import org.apache.axis2.deployment.DeploymentException;
+import org.apache.axis2.deployment.repository.util.DeploymentFileData;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Deployer that records the deploy and undeploy calls, used by HotDeploymentWatchTest.
+ */
+public class RecordingDeployer extends AbstractDeployer {
+    /** The recorded events, e.g. "deploy:a.svc" or "undeploy:a.svc" */
+    public static final List<String> events = new ArrayList<String>();
+
+    public void init(ConfigurationContext configCtx) {
+    }
+
+    public void deploy(DeploymentFileData deploymentFileData) throws DeploymentException {
+        record("deploy:" + deploymentFileData.getFile().getName());
+        super.deploy(deploymentFileData);
+    }
+
+    public void undeploy(String fileName) throws DeploymentException {
+        record("undeploy:" + new File(fileName).getName());
+        super.undeploy(fileName);
+    }
+
+    public void setDirectory(String directory) {
+    }
+
+    public void setExtension(String extension) {
+    }
+
+    private static void record(String event) {
+        synchronized (events) {
+            events.add(event);
+            events.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.dispatchers;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisBinding;
+import org.apache.axis2.description.AxisBindingOperation;
+import org.apache.axis2.description.AxisEndpoint;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.InOutAxisOperation;
+import org.apache.axis2.description.WSDL2Constants;
+import org.apache.axis2.transport.http.HTTPConstants;
+import org.apache.axis2.wsdl.WSDLUtil;
+
+import javax.xml.namespace.QName;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class HTTPLocationBasedDispatcherTest extends TestCase {
+
+    private ConfigurationContext cc;
+    private AxisService service;
+    private AxisEndpoint endpoint;
+    private AxisBinding binding;
+    private Map<String, AxisOperation> httpLocationTable;
+
+    protected void setUp() throws Exception {
+        cc = ConfigurationContextFactory.createEmptyConfigurationContext();
+        service = new AxisService("OrderService");
+        binding = new AxisBinding();
+        endpoint = new AxisEndpoint();
+        endpoint.setBinding(binding);
+        service.addEndpoint("OrderServiceEndpoint", endpoint);
+        httpLocationTable = new TreeMap<String, AxisOperation>();
+        binding.setProperty(WSDL2Constants.HTTP_LOCATION_TABLE, httpLocationTable);
+        cc.getAxisConfiguration().addService(service);
+    }
+
+    private AxisOperation addOperation(String name, String httpMethod, String httpLocation)
+            throws AxisFault {
+        AxisOperation operation = new InOutAxisOperation(new QName(name));
+        service.addOperation(operation);
+        AxisBindingOperation bindingOperation = new AxisBindingOperation();
+        bindingOperation.setName(operation.getName());
+        bindingOperation.setAxisOperation(operation);
+        bindingOperation.setProperty(WSDL2Constants.ATTR_WHTTP_LOCATION, httpLocation);
+        bindingOperation.setProperty(WSDL2Constants.ATTR_WHTTP_METHOD, httpMethod);
+        binding.addChild(bindingOperation.getName(), bindingOperation);
+        httpLocationTable.put(WSDLUtil.getConstantFromHTTPLocation(httpLocation, httpMethod),
+                              operation);
+        return operation;
+    }
+
+    private MessageContext dispatch(String httpMethod, String path) throws AxisFault {
+        MessageContext messageContext = cc.createMessageContext();
+        messageContext.setTo(new EndpointReference(
+                "http://127.0.0.1:8080/axis2/services/OrderService" + path));
+        messageContext.setAxisService(service);
+        messageContext.setProperty(HTTPConstants.HTTP_METHOD, httpMethod);
+        messageContext.setProperty(WSDL2Constants.ENDPOINT_LOCAL_NAME, endpoint);
+        new HTTPLocationBasedDispatcher().invoke(messageContext);
+        return messageContext;
+    }
+
+    private static Map getVariables(MessageContext messageContext) {
+        return (Map) messageContext.getProperty(
+                HTTPLocationBasedDispatcher.HTTP_LOCATION_VARIABLES);
+    }
+
+    public void testLiteralPreferredToVariable() throws Exception {
+        AxisOperation getOrder = addOperation("getOrder", "GET", "orders/{id}");
+        AxisOperation getRecentOrders = addOperation("getRecentOrders", "GET", "orders/recent");
+
+        MessageContext messageContext = dispatch("GET", "/orders/recent");
+        assertSame(getRecentOrders, messageContext.getAxisOperation());
+
+        messageContext = dispatch("GET", "/orders/42");
+        assertSame(getOrder, messageContext.getAxisOperation());
+        assertEquals("42", getVariables(messageContext).get("id"));
+    }
+
+    public void testFullMatchPreferred() throws Exception {
+        AxisOperation getOrder = addOperation("getOrder", "GET", "orders/{id}");
+        AxisOperation getItem = addOperation("getItem", "GET", "orders/{id}/items/{item}");
+
+        MessageContext messageContext = dispatch("GET", "/orders/42/items/7");
+        assertSame(getItem, messageContext.getAxisOperation());
+        Map variables = getVariables(messageContext);
+        assertEquals("42", variables.get("id"));
+        assertEquals("7", variables.get("item"));
+
+        // No template covers the whole path; the longest matching prefix wins
+        messageContext = dispatch("GET", "/orders/42/history");
+        assertSame(getOrder, messageContext.getAxisOperation());
+    }
+
+    public void testMixedSegment() throws Exception {
+        AxisOperation getInvoice = addOperation("getInvoice", "GET", "invoice-{id}.pdf");
+        AxisOperation getReport = addOperation("getReport", "GET", "{name}.pdf");
+
+        MessageContext messageContext = dispatch("GET", "/invoice-12.pdf");
+        assertSame(getInvoice, messageContext.getAxisOperation());
+        assertEquals("12", getVariables(messageContext).get("id"));
+
+        messageContext = dispatch("GET", "/summary.pdf");
+        assertSame(getReport, messageContext.getAxisOperation());
+        assertEquals("summary", getVariables(messageContext).get("name"));
+    }
+
+    public void testHTTPMethodAndQuery() throws Exception {
+        AxisOperation getOrder = addOperation("getOrder", "GET", "orders/{id}");
+        AxisOperation deleteOrder = addOperation("deleteOrder", "DELETE", "orders/{id}");
+        AxisOperation searchOrders = addOperation("searchOrders", "GET",
+                                                  "orders?customer={customer}");
+
+        assertSame(deleteOrder, dispatch("DELETE", "/orders/42").getAxisOperation());
+        assertSame(getOrder, dispatch("GET", "/orders/42").getAxisOperation());
+        assertSame(searchOrders,
+                   dispatch("GET", "/orders?customer=john").getAxisOperation());
+        assertNull(dispatch("PUT", "/orders/42").getAxisOperation());
+    }
+
+    public void testTableChange() throws Exception {
+        addOperation("getOrder", "GET", "orders/{id}");
+        assertNull(dispatch("GET", "/customers/1").getAxisOperation());
+
+        AxisOperation getCustomer = addOperation("getCustomer", "GET", "customers/{id}");
+        assertSame(getCustomer, dispatch("GET", "/customers/1").getAxisOperation());
+    }
+
+    public void testLocationWithoutTemplate() throws Exception {
+        AxisOperation operation = new InOutAxisOperation(new QName("legacy"));
+        service.addOperation(operation);
+        httpLocationTable.put("GET/legacy/", operation);
+
+        assertSame(operation, dispatch("GET", "/legacy/foo").getAxisOperation());
+    }
+}
@@ -117,4 +117,49 @@ public class RequestURIBasedOperationDispatcherTest extends TestCase {
         assertEquals(operation4, messageContext.getAxisOperation());
     }
 
+    private static AxisOperation dispatch(RequestURIBasedOperationDispatcher ruisd,
+                                          ConfigurationContext cc, AxisService service,
+                                          String address) throws AxisFault {
+        MessageContext messageContext = cc.createMessageContext();
+        messageContext.setTo(new EndpointReference(address));
+        messageContext.setAxisService(service);
+        ruisd.invoke(messageContext);
+        return messageContext.getAxisOperation();
+    }
+
+    public void testCacheKeyIgnoresHostAndQuery() throws AxisFault {
+        ConfigurationContext cc = ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisService echo = new AxisService("Echo");
+        AxisOperation operation = new InOnlyAxisOperation(new QName("echo"));
+        echo.addOperation(operation);
+        cc.getAxisConfiguration().addService(echo);
+
+        RequestURIBasedOperationDispatcher ruisd = new RequestURIBasedOperationDispatcher();
+        assertSame(operation, dispatch(ruisd, cc, echo,
+                "http://127.0.0.1:8080/axis2/services/Echo/echo"));
+        assertSame(operation, dispatch(ruisd, cc, echo,
+                "http://localhost:8080/axis2/services/Echo/echo?id=1"));
+        assertSame(operation, dispatch(ruisd, cc, echo,
+                "http://localhost:8080/axis2/services/Echo/echo?id=2"));
+        assertEquals(1, ruisd.cache.size());
+    }
+
+    public void testCacheInvalidatedOnOperationChange() throws AxisFault {
+        ConfigurationContext cc = ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisService echo = new AxisService("Echo");
+        AxisOperation operation = new InOnlyAxisOperation(new QName("echo"));
+        echo.addOperation(operation);
+        cc.getAxisConfiguration().addService(echo);
+
+        RequestURIBasedOperationDispatcher ruisd = new RequestURIBasedOperationDispatcher();
+        String address = "http://127.0.0.1:8080/axis2/services/Echo/echo";
+        assertSame(operation, dispatch(ruisd, cc, echo, address));
+
+        echo.removeOperation(operation.getName());
+        assertNull(dispatch(ruisd, cc, echo, address));
+
+        AxisOperation newOperation = new InOnlyAxisOperation(new QName("echo"));
+        echo.addOperation(newOperation);
+        assertSame(newOperation, dispatch(ruisd, cc, echo, address));
+    }
 }
@@ -158,4 +158,35 @@ public class RequestURIBasedServiceDispatcherTest extends TestCase {
         assertEquals(as4, messageContext.getAxisService());
     }
 
+    public void testCacheInvalidatedOnDeployment() throws AxisFault {
+        ConfigurationContext cc = ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisConfiguration ac = cc.getAxisConfiguration();
+        AxisService echo = new AxisService("Echo");
+        echo.addEndpoint("EchoEndpoint", new AxisEndpoint());
+        ac.addService(echo);
+
+        RequestURIBasedServiceDispatcher ruisd = new RequestURIBasedServiceDispatcher();
+        String address = "http://127.0.0.1:8080/axis2/services/Echo/echo";
+
+        for (int i = 0; i < 2; i++) {
+            MessageContext messageContext = cc.createMessageContext();
+            messageContext.setTo(new EndpointReference(address));
+            ruisd.invoke(messageContext);
+            assertSame(echo, messageContext.getAxisService());
+        }
+
+        ac.removeService("Echo");
+        MessageContext messageContext = cc.createMessageContext();
+        messageContext.setTo(new EndpointReference(address));
+        ruisd.invoke(messageContext);
+        assertNull(messageContext.getAxisService());
+
+        AxisService newEcho = new AxisService("Echo");
+        newEcho.addEndpoint("EchoEndpoint", new AxisEndpoint());
+        ac.addService(newEcho);
+        messageContext = cc.createMessageContext();
+        messageContext.setTo(new EndpointReference(address));
+        ruisd.invoke(messageContext);
+        assertSame(newEcho, messageContext.getAxisService());
+    }
 }
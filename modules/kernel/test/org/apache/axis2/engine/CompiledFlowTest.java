@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.engine;
+
+import junit.framework.TestCase;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.HandlerDescription;
+import org.apache.axis2.handlers.AbstractHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CompiledFlowTest extends TestCase {
+    private static final String EXTEND = "extend";
+
+    /**
+     * Records its invocations and, if the message has the {@link #EXTEND} property, appends a
+     * phase to the execution chain of the message.
+     */
+    private static class RecordingHandler extends AbstractHandler {
+        private final List<String> invocations;
+        private final Phase extraPhase;
+
+        RecordingHandler(String name, List<String> invocations, Phase extraPhase) {
+            HandlerDescription desc = new HandlerDescription(name);
+            desc.setHandler(this);
+            init(desc);
+            this.invocations = invocations;
+            this.extraPhase = extraPhase;
+        }
+
+        public InvocationResponse invoke(MessageContext msgContext) throws AxisFault {
+            invocations.add(getName());
+            if (extraPhase != null && msgContext.getProperty(EXTEND) != null) {
+                msgContext.getExecutionChain().add(extraPhase);
+            }
+            return InvocationResponse.CONTINUE;
+        }
+    }
+
+    public void testCompile() {
+        Phase p1 = new Phase("p1");
+        Phase p2 = new Phase("p2");
+        Phase p3 = new Phase("p3");
+        List<Phase> first = new ArrayList<Phase>(Arrays.asList(p1, p2));
+        List<Phase> second = new ArrayList<Phase>(Arrays.asList(p3));
+        CompiledFlow flow = CompiledFlow.compile(null, first, second);
+        assertEquals(Arrays.asList(p1, p2, p3), flow.getHandlers());
+        assertSame(flow, CompiledFlow.compile(flow, first, second));
+
+        // Deploying a service replaces the phase lists of its operations
+        List<Phase> replaced = new ArrayList<Phase>(first);
+        CompiledFlow recompiled = CompiledFlow.compile(flow, replaced, second);
+        assertNotSame(flow, recompiled);
+        assertEquals(flow.getHandlers(), recompiled.getHandlers());
+
+        // Phases added to an existing list
+        second.add(new Phase("p4"));
+        recompiled = CompiledFlow.compile(recompiled, replaced, second);
+        assertEquals(4, recompiled.getHandlers().size());
+
+        assertTrue(CompiledFlow.compile(null, null, null).getHandlers().isEmpty());
+    }
+
+    /**
+     * Handlers added to a phase, e.g. when a module is engaged, are visible through the compiled
+     * flow without recompiling it.
+     */
+    public void testHandlersAddedToPhase() throws Exception {
+        List<String> invocations = new ArrayList<String>();
+        Phase phase = new Phase("phase");
+        List<Phase> phases = new ArrayList<Phase>(Arrays.asList(phase));
+        CompiledFlow flow = CompiledFlow.compile(null, phases, null);
+        phase.addHandler(new RecordingHandler("h1", invocations, null));
+        assertSame(flow, CompiledFlow.compile(flow, phases, null));
+        flow.getHandlers().get(0).invoke(new MessageContext());
+        assertEquals(Arrays.asList("h1"), invocations);
+    }
+
+    /**
+     * The in flow is shared by all messages; a handler that changes the execution chain of its
+     * message gets a private copy, so that later messages are not affected.
+     */
+    public void testExecutionChainCopiedOnWrite() throws Exception {
+        ConfigurationContext configContext =
+                ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisConfiguration axisConfig = configContext.getAxisConfiguration();
+        List<String> invocations = new ArrayList<String>();
+        Phase extraPhase = new Phase("extra");
+        extraPhase.addHandler(new RecordingHandler("extra", invocations, null));
+        Phase phase = new Phase("phase");
+        phase.addHandler(new RecordingHandler("h1", invocations, extraPhase));
+        axisConfig.getInFlowPhases().add(phase);
+
+        MessageContext msgContext = createMessageContext(configContext);
+        msgContext.setProperty(EXTEND, Boolean.TRUE);
+        AxisEngine.receive(msgContext);
+        assertEquals(Arrays.asList("h1", "extra"), invocations);
+        assertEquals(2, msgContext.getExecutionChainNoCopy().size());
+        assertEquals(1, axisConfig.getCompiledInFlow().size());
+
+        invocations.clear();
+        msgContext = createMessageContext(configContext);
+        AxisEngine.receive(msgContext);
+        assertEquals(Arrays.asList("h1"), invocations);
+        assertSame(axisConfig.getCompiledInFlow(), msgContext.getExecutionChainNoCopy());
+
+        // A phase added to the configuration is picked up by the next message
+        Phase added = new Phase("added");
+        added.addHandler(new RecordingHandler("h2", invocations, null));
+        axisConfig.getInFlowPhases().add(added);
+        invocations.clear();
+        AxisEngine.receive(createMessageContext(configContext));
+        assertEquals(Arrays.asList("h1", "h2"), invocations);
+    }
+
+    private static MessageContext createMessageContext(ConfigurationContext configContext)
+            throws AxisFault {
+        MessageContext msgContext = configContext.createMessageContext();
+        msgContext.setEnvelope(OMAbstractFactory.getSOAP11Factory().getDefaultEnvelope());
+        return msgContext;
+    }
+}
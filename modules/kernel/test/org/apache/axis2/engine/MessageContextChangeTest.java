@@ -63,6 +63,7 @@ public class MessageContextChangeTest extends TestCase {
             new FieldDescription("boolean", "newThreadRequired"),
             new FieldDescription("boolean", "isSOAP11"),
             new FieldDescription("java.util.ArrayList", "executionChain"),
+            new FieldDescription("boolean", "executionChainShared"),
             new FieldDescription("java.util.LinkedList", "executedPhases"),
             new FieldDescription("boolean", "doingREST"),
             new FieldDescription("boolean", "doingMTOM"),
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.engine;
+
+import junit.framework.TestCase;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.HandlerDescription;
+import org.apache.axis2.engine.Handler.InvocationResponse;
+import org.apache.axis2.handlers.AbstractHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PhaseTest extends TestCase {
+    private static class RecordingHandler extends AbstractHandler {
+        private final List<String> invocations;
+        private final InvocationResponse response;
+
+        RecordingHandler(String name, List<String> invocations, InvocationResponse response) {
+            HandlerDescription desc = new HandlerDescription(name);
+            desc.setHandler(this);
+            init(desc);
+            this.invocations = invocations;
+            this.response = response;
+        }
+
+        public InvocationResponse invoke(MessageContext msgContext) throws AxisFault {
+            invocations.add(getName());
+            return response;
+        }
+
+        public void flowComplete(MessageContext msgContext) {
+            invocations.add("complete:" + getName());
+        }
+    }
+
+    public void testInvokeAndSuspend() throws Exception {
+        List<String> invocations = new ArrayList<String>();
+        Phase phase = new Phase("test");
+        phase.addHandler(new RecordingHandler("h1", invocations, InvocationResponse.CONTINUE));
+        phase.addHandler(new RecordingHandler("h2", invocations, InvocationResponse.SUSPEND));
+        phase.addHandler(new RecordingHandler("h3", invocations, InvocationResponse.CONTINUE));
+        assertEquals(3, phase.getHandlerCount());
+
+        MessageContext msgContext = new MessageContext();
+        assertEquals(InvocationResponse.SUSPEND, phase.invoke(msgContext));
+        assertEquals(1, msgContext.getCurrentPhaseIndex());
+
+        phase.flowComplete(msgContext);
+        assertEquals(0, msgContext.getCurrentPhaseIndex());
+
+        List<String> expected = new ArrayList<String>();
+        expected.add("h1");
+        expected.add("h2");
+        expected.add("complete:h1");
+        assertEquals(expected, invocations);
+    }
+
+    public void testModificationsAreVisible() throws Exception {
+        List<String> invocations = new ArrayList<String>();
+        Phase phase = new Phase("test");
+        RecordingHandler h1 = new RecordingHandler("h1", invocations,
+                InvocationResponse.CONTINUE);
+        RecordingHandler h2 = new RecordingHandler("h2", invocations,
+                InvocationResponse.CONTINUE);
+        phase.addHandler(h1);
+        phase.addHandler(h2, 0);
+        assertSame(h2, phase.getHandlers().get(0));
+
+        phase.removeHandler(h2.getHandlerDesc());
+        assertEquals(InvocationResponse.CONTINUE, phase.invoke(new MessageContext()));
+        assertEquals(1, invocations.size());
+        assertEquals("h1", invocations.get(0));
+        assertEquals(1, phase.getHandlers().size());
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.util.threadpool;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class VirtualThreadsTest extends TestCase {
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    /**
+     * On Java runtimes without virtual threads, no executor is created, so that callers fall
+     * back to a thread pool.
+     */
+    public void testUnsupported() {
+        if (VirtualThreads.isSupported()) {
+            // the fallback can only be tested on Java versions before 21
+            return;
+        }
+        assertNull(VirtualThreads.newExecutor("test"));
+        assertNull(VirtualThreadPool.newInstance("test"));
+    }
+
+    public void testExecutor() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            // virtual threads require Java 21 or later
+            return;
+        }
+        ExecutorService executor = VirtualThreads.newExecutor("test");
+        final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+        try {
+            executor.submit(new Runnable() {
+                public void run() {
+                    thread.set(Thread.currentThread());
+                }
+            }).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(isVirtual(thread.get()));
+        assertEquals("test-0", thread.get().getName());
+    }
+
+    public void testThreadPool() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            // virtual threads require Java 21 or later
+            return;
+        }
+        VirtualThreadPool pool = VirtualThreadPool.newInstance("test");
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+        pool.execute(new Runnable() {
+            public void run() {
+                thread.set(Thread.currentThread());
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.safeShutDown();
+        assertTrue(isVirtual(thread.get()));
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.validation;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
+
+import org.apache.axiom.blob.Blobs;
+import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.blob.MemoryBlobOutputStream;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisService;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.xml.sax.SAXException;
+
+/**
+ * The compiled form of the schemas of a service, together with a pool of {@link Validator}
+ * instances. It is stored as a parameter of the {@link AxisService}, so that it is discarded
+ * when the service is redeployed.
+ */
+final class CompiledSchema {
+    private static final String PARAM_NAME = CompiledSchema.class.getName();
+
+    /**
+     * The maximum number of idle validators kept in the pool.
+     */
+    static final int MAX_IDLE_VALIDATORS = 32;
+
+    private final XmlSchema[] sourceSchemas;
+    private final Schema schema;
+    private final Queue<Validator> validators = new ConcurrentLinkedQueue<Validator>();
+    private final AtomicInteger idleValidators = new AtomicInteger();
+
+    private CompiledSchema(XmlSchema[] sourceSchemas, Schema schema) {
+        this.sourceSchemas = sourceSchemas;
+        this.schema = schema;
+    }
+
+    /**
+     * Get the compiled schema for a service, compiling it if necessary.
+     *
+     * @param service the service
+     * @param schemas the schemas of the service, as returned by {@link AxisService#getSchema()}
+     * @return the compiled schema
+     * @throws AxisFault if the schemas can't be compiled
+     */
+    static CompiledSchema get(AxisService service, List<XmlSchema> schemas) throws AxisFault {
+        Object value = service.getParameterValue(PARAM_NAME);
+        if (value instanceof CompiledSchema && ((CompiledSchema)value).isCompiledFrom(schemas)) {
+            return (CompiledSchema)value;
+        }
+        synchronized (service) {
+            value = service.getParameterValue(PARAM_NAME);
+            if (value instanceof CompiledSchema && ((CompiledSchema)value).isCompiledFrom(schemas)) {
+                return (CompiledSchema)value;
+            }
+            CompiledSchema compiledSchema = compile(schemas);
+            service.addParameter(PARAM_NAME, compiledSchema);
+            return compiledSchema;
+        }
+    }
+
+    private static CompiledSchema compile(List<XmlSchema> schemas) throws AxisFault {
+        SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        schemaFactory.setErrorHandler(new SchemaFactoryErrorHandler());
+        XmlSchema[] sourceSchemas = schemas.toArray(new XmlSchema[schemas.size()]);
+        List<Source> schemaSources = new ArrayList<Source>();
+        for (XmlSchema schema : sourceSchemas) {
+            MemoryBlob blob = Blobs.createMemoryBlob();
+            MemoryBlobOutputStream out = blob.getOutputStream();
+            try {
+                schema.write(out);
+            } catch (UnsupportedEncodingException ex) {
+                throw AxisFault.makeFault(ex);
+            }
+            out.close();
+            schemaSources.add(new StreamSource(blob.getInputStream()));
+        }
+        try {
+            return new CompiledSchema(sourceSchemas,
+                    schemaFactory.newSchema(schemaSources.toArray(new Source[schemaSources.size()])));
+        } catch (SAXException ex) {
+            throw new AxisFault("Failed to compile schemas", ex);
+        }
+    }
+
+    /**
+     * Check if this instance was compiled from the given schemas. Schemas may still be added to
+     * a service after it has been deployed, in which case the schema needs to be recompiled.
+     */
+    private boolean isCompiledFrom(List<XmlSchema> schemas) {
+        if (schemas.size() != sourceSchemas.length) {
+            return false;
+        }
+        for (int i = 0; i < sourceSchemas.length; i++) {
+            if (schemas.get(i) != sourceSchemas[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Borrow a validator from the pool. The validator must be returned using
+     * {@link #release(Validator)}.
+     *
+     * @return the validator
+     */
+    Validator acquire() {
+        Validator validator = validators.poll();
+        if (validator == null) {
+            return schema.newValidator();
+        }
+        idleValidators.decrementAndGet();
+        return validator;
+    }
+
+    /**
+     * Return a validator to the pool.
+     *
+     * @param validator the validator, which must have been obtained from {@link #acquire()}
+     */
+    void release(Validator validator) {
+        if (idleValidators.incrementAndGet() > MAX_IDLE_VALIDATORS) {
+            idleValidators.decrementAndGet();
+            return;
+        }
+        validator.reset();
+        validators.add(validator);
+    }
+
+    int getIdleValidatorCount() {
+        return idleValidators.get();
+    }
+}
@@ -19,19 +19,10 @@
 package org.apache.axis2.validation;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.util.ArrayList;
 import java.util.List;
 
-import javax.xml.XMLConstants;
-import javax.xml.transform.Source;
-import javax.xml.transform.stream.StreamSource;
-import javax.xml.validation.Schema;
-import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
 
-import org.apache.axiom.blob.Blobs;
-import org.apache.axiom.blob.MemoryBlob;
-import org.apache.axiom.blob.MemoryBlobOutputStream;
 import org.apache.axiom.om.OMException;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.MessageContext;
@@ -53,32 +44,16 @@ public class SchemaValidationHandler extends AbstractHandler {
         if (schemas.isEmpty()) {
             return InvocationResponse.CONTINUE;
         }
-        SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-        schemaFactory.setErrorHandler(new SchemaFactoryErrorHandler());
-        List<Source> schemaSources = new ArrayList<Source>();
-        for (XmlSchema schema : schemas) {
-            MemoryBlob blob = Blobs.createMemoryBlob();
-            MemoryBlobOutputStream out = blob.getOutputStream();
-            try {
-                schema.write(out);
-            } catch (UnsupportedEncodingException ex) {
-                throw AxisFault.makeFault(ex);
-            }
-            out.close();
-            schemaSources.add(new StreamSource(blob.getInputStream()));
-        }
-        Schema schema;
-        try {
-            schema = schemaFactory.newSchema(schemaSources.toArray(new Source[schemaSources.size()]));
-        } catch (SAXException ex) {
-            throw new AxisFault("Failed to compile schemas", ex);
-        }
+        CompiledSchema compiledSchema = CompiledSchema.get(service, schemas);
+        Validator validator = compiledSchema.acquire();
         try {
-            schema.newValidator().validate(msgContext.getEnvelope().getBody().getFirstElement().getSAXSource(true));
+            validator.validate(msgContext.getEnvelope().getBody().getFirstElement().getSAXSource(true));
         } catch (SAXException ex) {
             throw new AxisFault("Failed to validate message: " + ex.getMessage(), ex);
         } catch (OMException | IOException ex) {
             throw new AxisFault("Failed to validate message", ex);
+        } finally {
+            compiledSchema.release(validator);
         }
         return InvocationResponse.CONTINUE;
     }
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.validation;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.validation.Validator;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.description.AxisService;
+import org.apache.ws.commons.schema.XmlSchema;
+import org.apache.ws.commons.schema.XmlSchemaCollection;
+
+public class CompiledSchemaTest extends TestCase {
+    static XmlSchema createSchema(String namespace) {
+        return new XmlSchemaCollection().read(new StringReader(
+                "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema' targetNamespace='"
+                + namespace + "' elementFormDefault='qualified'>"
+                + "<xs:element name='echo'><xs:complexType><xs:sequence>"
+                + "<xs:element name='count' type='xs:int'/>"
+                + "</xs:sequence></xs:complexType></xs:element>"
+                + "</xs:schema>"));
+    }
+
+    public void testCompiledSchemaCached() throws Exception {
+        AxisService service = new AxisService("TestService");
+        service.addSchema(createSchema("urn:test"));
+        CompiledSchema compiledSchema = CompiledSchema.get(service, service.getSchema());
+        assertSame(compiledSchema, CompiledSchema.get(service, service.getSchema()));
+    }
+
+    public void testRecompiledWhenSchemasChange() throws Exception {
+        AxisService service = new AxisService("TestService");
+        service.addSchema(createSchema("urn:test"));
+        CompiledSchema compiledSchema = CompiledSchema.get(service, service.getSchema());
+        service.addSchema(createSchema("urn:other"));
+        CompiledSchema recompiledSchema = CompiledSchema.get(service, service.getSchema());
+        assertNotSame(compiledSchema, recompiledSchema);
+        assertSame(recompiledSchema, CompiledSchema.get(service, service.getSchema()));
+    }
+
+    public void testValidatorReused() throws Exception {
+        AxisService service = new AxisService("TestService");
+        service.addSchema(createSchema("urn:test"));
+        CompiledSchema compiledSchema = CompiledSchema.get(service, service.getSchema());
+        Validator validator = compiledSchema.acquire();
+        compiledSchema.release(validator);
+        assertEquals(1, compiledSchema.getIdleValidatorCount());
+        assertSame(validator, compiledSchema.acquire());
+        assertEquals(0, compiledSchema.getIdleValidatorCount());
+    }
+
+    public void testIdleValidatorsBounded() throws Exception {
+        AxisService service = new AxisService("TestService");
+        service.addSchema(createSchema("urn:test"));
+        CompiledSchema compiledSchema = CompiledSchema.get(service, service.getSchema());
+        List<Validator> validators = new ArrayList<Validator>();
+        for (int i = 0; i < CompiledSchema.MAX_IDLE_VALIDATORS + 5; i++) {
+            validators.add(compiledSchema.acquire());
+        }
+        for (Validator validator : validators) {
+            compiledSchema.release(validator);
+        }
+        assertEquals(CompiledSchema.MAX_IDLE_VALIDATORS, compiledSchema.getIdleValidatorCount());
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.validation;
+
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.engine.Handler.InvocationResponse;
+
+public class SchemaValidationHandlerTest extends TestCase {
+    private AxisService service;
+
+    @Override
+    protected void setUp() throws Exception {
+        service = new AxisService("TestService");
+        service.addSchema(CompiledSchemaTest.createSchema("urn:test"));
+    }
+
+    private InvocationResponse validate(String count) throws AxisFault {
+        MessageContext msgContext = new MessageContext();
+        msgContext.setAxisService(service);
+        msgContext.setEnvelope(OMXMLBuilderFactory.createSOAPModelBuilder(new StringReader(
+                "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>"
+                + "<soapenv:Body><echo xmlns='urn:test'><count>" + count + "</count></echo>"
+                + "</soapenv:Body></soapenv:Envelope>")).getSOAPEnvelope());
+        return new SchemaValidationHandler().invoke(msgContext);
+    }
+
+    public void testValidPayload() throws Exception {
+        assertEquals(InvocationResponse.CONTINUE, validate("3"));
+    }
+
+    public void testInvalidPayload() throws Exception {
+        try {
+            validate("three");
+            fail("Expected AxisFault");
+        } catch (AxisFault expected) {
+            // expected
+        }
+        // the validator is returned to the pool and can be used for the next message
+        assertEquals(InvocationResponse.CONTINUE, validate("3"));
+    }
+}
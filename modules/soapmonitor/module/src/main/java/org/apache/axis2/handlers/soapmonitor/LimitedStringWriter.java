@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.handlers.soapmonitor;
+
+import java.io.Writer;
+
+/**
+ * {@link Writer} that collects at most a given number of characters. When the limit is
+ * reached, {@link LimitReachedException} is thrown so that the serialization of the message
+ * stops early.
+ */
+final class LimitedStringWriter extends Writer {
+    static final class LimitReachedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LimitReachedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final StringBuilder buffer = new StringBuilder();
+    private final int limit;
+    private boolean limitReached;
+
+    /**
+     * Constructor.
+     * 
+     * @param limit the maximum number of characters, or 0 for no limit
+     */
+    LimitedStringWriter(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        if (limit > 0 && buffer.length() + len > limit) {
+            buffer.append(cbuf, off, limit - buffer.length());
+            limitReached = true;
+            throw new LimitReachedException();
+        }
+        buffer.append(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        if (limit > 0 && buffer.length() + len > limit) {
+            buffer.append(str, off, off + limit - buffer.length());
+            limitReached = true;
+            throw new LimitReachedException();
+        }
+        buffer.append(str, off, off + len);
+    }
+
+    boolean isLimitReached() {
+        return limitReached;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString();
+    }
+}
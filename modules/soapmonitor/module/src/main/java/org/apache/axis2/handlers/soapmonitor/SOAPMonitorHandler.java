@@ -19,18 +19,25 @@
 
 package org.apache.axis2.handlers.soapmonitor;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.handlers.AbstractHandler;
 import org.apache.axis2.soapmonitor.servlet.SOAPMonitorConstants;
 import org.apache.axis2.soapmonitor.servlet.SOAPMonitorService;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 public class SOAPMonitorHandler extends AbstractHandler {
 
+    private static final Log log = LogFactory.getLog(SOAPMonitorHandler.class);
+
     private String name;
 
-    private static long next_message_id = 1;
+    private static final AtomicLong next_message_id = new AtomicLong(1);
 
     /**
      * Constructor
@@ -56,6 +63,14 @@ public class SOAPMonitorHandler extends AbstractHandler {
      */
     public InvocationResponse invoke(MessageContext messageContext) throws AxisFault {
 
+        // Don't capture anything if no applet is connected
+        if (!SOAPMonitorService.hasListeners()) {
+            return InvocationResponse.CONTINUE;
+        }
+
+        SOAPMonitorSettings settings =
+                SOAPMonitorSettings.get(messageContext.getConfigurationContext());
+
         EndpointReference ref = null;
 
         // Get id, type and content
@@ -64,6 +79,10 @@ public class SOAPMonitorHandler extends AbstractHandler {
         // 'soap request' must be called first
         if (messageContext.getFLOW() == MessageContext.IN_FLOW) {
             // show soap message inside the 'soap request' pane in the applet
+            // The response is only captured if the request was captured
+            if (!settings.isMonitored(messageContext.getAxisService()) || !settings.sample()) {
+                return InvocationResponse.CONTINUE;
+            }
             id = assignMessageId(messageContext);
             type = new Integer(SOAPMonitorConstants.SOAP_MONITOR_REQUEST);
             ref = messageContext.getTo();
@@ -86,6 +105,10 @@ public class SOAPMonitorHandler extends AbstractHandler {
             throw new IllegalStateException("unknown FLOW detected in messageContext: " + messageContext.getFLOW());
         }
 
+        if (id == null) {
+            return InvocationResponse.CONTINUE;
+        }
+
         String target = null;
         if (ref != null) {
             target = ref.getAddress();
@@ -97,26 +120,40 @@ public class SOAPMonitorHandler extends AbstractHandler {
 
         // Get the SOAP portion of the message
         String soap = null;
-        if (messageContext.getEnvelope() != null) {
-            soap = messageContext.getEnvelope().toString();
+        SOAPEnvelope envelope = messageContext.getEnvelope();
+        if (envelope != null) {
+            soap = serialize(envelope, settings.getMaxMessageSize());
         }
-        // If we have an id and a SOAP portion, then send the
+        // If we have a SOAP portion, then send the
         // message to the SOAP monitor service
-        if ((id != null) && (soap != null)) {
+        if (soap != null) {
             SOAPMonitorService.publishMessage(id, type, target, soap);
         }
         return InvocationResponse.CONTINUE;
     }
 
+    /**
+     * Serialize the envelope, stopping as soon as the given number of characters is reached.
+     */
+    static String serialize(SOAPEnvelope envelope, int maxMessageSize) {
+        LimitedStringWriter writer = new LimitedStringWriter(maxMessageSize);
+        try {
+            envelope.serialize(writer);
+        } catch (Exception ex) {
+            // The exception thrown by the writer may have been wrapped
+            if (!writer.isLimitReached()) {
+                log.debug("Unable to serialize message for the SOAP monitor", ex);
+                return null;
+            }
+        }
+        return writer.isLimitReached() ? writer + "..." : writer.toString();
+    }
+
     /**
      * Assign a new message id
      */
     private Long assignMessageId(MessageContext messageContext) {
-        Long id;
-        synchronized (SOAPMonitorConstants.SOAP_MONITOR_ID) {
-            id = new Long(next_message_id);
-            next_message_id++;
-        }
+        Long id = Long.valueOf(next_message_id.getAndIncrement());
         messageContext.getOperationContext().setProperty(
                 SOAPMonitorConstants.SOAP_MONITOR_ID, id);
         return id;
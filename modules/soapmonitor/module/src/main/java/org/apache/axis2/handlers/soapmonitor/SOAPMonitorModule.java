@@ -33,6 +33,7 @@ public class SOAPMonitorModule implements Module {
 
      // initialize the module
     public void init(ConfigurationContext configContext, AxisModule module) throws AxisFault {
+        SOAPMonitorSettings.create(module).set(configContext);
     }
 
     public void engageNotify(AxisDescription axisDescription) throws AxisFault {
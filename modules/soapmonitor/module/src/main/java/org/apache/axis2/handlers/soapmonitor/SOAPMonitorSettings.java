@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.handlers.soapmonitor;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.AxisModule;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+
+/**
+ * Settings of the SOAP monitor module, configured with parameters in module.xml.
+ */
+final class SOAPMonitorSettings {
+    /**
+     * The fraction of requests (between 0 and 1) that are captured. The response is captured
+     * if and only if the request was captured.
+     */
+    static final String SAMPLE_RATE = "sampleRate";
+
+    /**
+     * The maximum number of characters of a message that are captured, or 0 for no limit.
+     */
+    static final String MAX_MESSAGE_SIZE = "maxMessageSize";
+
+    /**
+     * Comma separated list of the names of the services that are monitored. If not set, all
+     * services are monitored.
+     */
+    static final String SERVICES = "services";
+
+    static final SOAPMonitorSettings DEFAULT = new SOAPMonitorSettings(1, 0, null);
+
+    private static final String PROPERTY = SOAPMonitorSettings.class.getName();
+
+    private final double sampleRate;
+    private final int maxMessageSize;
+    private final Set<String> services;
+
+    SOAPMonitorSettings(double sampleRate, int maxMessageSize, Set<String> services) {
+        this.sampleRate = sampleRate;
+        this.maxMessageSize = maxMessageSize;
+        this.services = services;
+    }
+
+    static SOAPMonitorSettings create(AxisModule module) throws AxisFault {
+        double sampleRate = 1;
+        String value = getParameter(module, SAMPLE_RATE);
+        if (value != null) {
+            try {
+                sampleRate = Double.parseDouble(value);
+            } catch (NumberFormatException ex) {
+                throw new AxisFault("Invalid value for parameter " + SAMPLE_RATE + ": " + value);
+            }
+            if (sampleRate < 0 || sampleRate > 1) {
+                throw new AxisFault("Parameter " + SAMPLE_RATE + " must be between 0 and 1");
+            }
+        }
+        int maxMessageSize = 0;
+        value = getParameter(module, MAX_MESSAGE_SIZE);
+        if (value != null) {
+            try {
+                maxMessageSize = Integer.parseInt(value);
+            } catch (NumberFormatException ex) {
+                throw new AxisFault("Invalid value for parameter " + MAX_MESSAGE_SIZE + ": "
+                        + value);
+            }
+        }
+        Set<String> services = null;
+        value = getParameter(module, SERVICES);
+        if (value != null && value.length() > 0) {
+            services = new HashSet<String>();
+            for (String service : value.split(",")) {
+                service = service.trim();
+                if (service.length() > 0) {
+                    services.add(service);
+                }
+            }
+        }
+        return new SOAPMonitorSettings(sampleRate, maxMessageSize, services);
+    }
+
+    private static String getParameter(AxisModule module, String name) {
+        Parameter param = module == null ? null : module.getParameter(name);
+        if (param == null || param.getValue() == null) {
+            return null;
+        }
+        return param.getValue().toString().trim();
+    }
+
+    static SOAPMonitorSettings get(ConfigurationContext configContext) {
+        SOAPMonitorSettings settings = configContext == null ? null
+                : (SOAPMonitorSettings)configContext.getProperty(PROPERTY);
+        return settings == null ? DEFAULT : settings;
+    }
+
+    void set(ConfigurationContext configContext) {
+        configContext.setProperty(PROPERTY, this);
+    }
+
+    /**
+     * Determine if messages for the given service are monitored.
+     */
+    boolean isMonitored(AxisService service) {
+        return services == null || (service != null && services.contains(service.getName()));
+    }
+
+    /**
+     * Determine if the current request should be captured.
+     */
+    boolean sample() {
+        return sampleRate >= 1
+                || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    int getMaxMessageSize() {
+        return maxMessageSize;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.handlers.soapmonitor;
+
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+
+import org.apache.axiom.om.OMXMLBuilderFactory;
+import org.apache.axiom.soap.SOAPEnvelope;
+
+public class LimitedStringWriterTest extends TestCase {
+    public void testNoLimit() {
+        LimitedStringWriter writer = new LimitedStringWriter(0);
+        writer.write("abc", 0, 3);
+        writer.write("defgh".toCharArray(), 1, 3);
+        assertEquals("abcefg", writer.toString());
+        assertFalse(writer.isLimitReached());
+    }
+
+    public void testStringTruncated() {
+        LimitedStringWriter writer = new LimitedStringWriter(5);
+        writer.write("abc", 0, 3);
+        try {
+            writer.write("xdefg", 1, 4);
+            fail("Expected LimitReachedException");
+        } catch (LimitedStringWriter.LimitReachedException expected) {
+            // expected
+        }
+        assertEquals("abcde", writer.toString());
+        assertTrue(writer.isLimitReached());
+    }
+
+    public void testCharArrayTruncated() {
+        LimitedStringWriter writer = new LimitedStringWriter(4);
+        try {
+            writer.write("xabcdef".toCharArray(), 1, 6);
+            fail("Expected LimitReachedException");
+        } catch (LimitedStringWriter.LimitReachedException expected) {
+            // expected
+        }
+        assertEquals("abcd", writer.toString());
+        assertTrue(writer.isLimitReached());
+    }
+
+    public void testMessageTruncated() {
+        SOAPEnvelope envelope = OMXMLBuilderFactory.createSOAPModelBuilder(new StringReader(
+                "<soapenv:Envelope xmlns:soapenv='http://schemas.xmlsoap.org/soap/envelope/'>"
+                + "<soapenv:Body><echo xmlns='urn:test'>0123456789012345678901234567890123456789"
+                + "</echo></soapenv:Body></soapenv:Envelope>")).getSOAPEnvelope();
+        String message = SOAPMonitorHandler.serialize(envelope, 0);
+        assertTrue(message.contains("0123456789012345678901234567890123456789"));
+
+        String truncated = SOAPMonitorHandler.serialize(envelope, 40);
+        assertEquals(message.substring(0, 40) + "...", truncated);
+    }
+}
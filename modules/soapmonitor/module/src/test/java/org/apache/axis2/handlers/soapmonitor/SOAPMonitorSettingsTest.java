@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.handlers.soapmonitor;
+
+import junit.framework.TestCase;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisModule;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+
+public class SOAPMonitorSettingsTest extends TestCase {
+    private static SOAPMonitorSettings create(String name, String value) throws AxisFault {
+        AxisModule module = new AxisModule("soapmonitor");
+        module.addParameter(new Parameter(name, value));
+        return SOAPMonitorSettings.create(module);
+    }
+
+    private static int countSamples(SOAPMonitorSettings settings, int requests) {
+        int samples = 0;
+        for (int i = 0; i < requests; i++) {
+            if (settings.sample()) {
+                samples++;
+            }
+        }
+        return samples;
+    }
+
+    public void testDefaults() throws Exception {
+        SOAPMonitorSettings settings = SOAPMonitorSettings.create(new AxisModule("soapmonitor"));
+        assertEquals(100, countSamples(settings, 100));
+        assertTrue(settings.isMonitored(new AxisService("AnyService")));
+        assertEquals(0, settings.getMaxMessageSize());
+    }
+
+    public void testSampleRate() throws Exception {
+        assertEquals(0, countSamples(create(SOAPMonitorSettings.SAMPLE_RATE, "0"), 1000));
+        int samples = countSamples(create(SOAPMonitorSettings.SAMPLE_RATE, "0.5"), 10000);
+        assertTrue("Unexpected number of samples: " + samples, samples > 4000 && samples < 6000);
+    }
+
+    public void testInvalidSampleRate() throws Exception {
+        for (String value : new String[] { "1.5", "-0.1", "half" }) {
+            try {
+                create(SOAPMonitorSettings.SAMPLE_RATE, value);
+                fail("Expected AxisFault for " + value);
+            } catch (AxisFault expected) {
+                // expected
+            }
+        }
+    }
+
+    public void testServiceFilter() throws Exception {
+        SOAPMonitorSettings settings = create(SOAPMonitorSettings.SERVICES, " Orders, Customers,");
+        assertTrue(settings.isMonitored(new AxisService("Orders")));
+        assertTrue(settings.isMonitored(new AxisService("Customers")));
+        assertFalse(settings.isMonitored(new AxisService("Version")));
+        assertFalse(settings.isMonitored(null));
+    }
+
+    public void testMaxMessageSize() throws Exception {
+        assertEquals(1024, create(SOAPMonitorSettings.MAX_MESSAGE_SIZE, "1024").getMaxMessageSize());
+        try {
+            create(SOAPMonitorSettings.MAX_MESSAGE_SIZE, "1k");
+            fail("Expected AxisFault");
+        } catch (AxisFault expected) {
+            // expected
+        }
+    }
+}
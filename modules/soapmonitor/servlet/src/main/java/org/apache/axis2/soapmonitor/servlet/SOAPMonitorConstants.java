@@ -41,6 +41,12 @@ public class SOAPMonitorConstants {
      */
     public static final String SOAP_MONITOR_HOST_NAME = "SOAPMonitorHostName";
 
+    /**
+     * Queue size Servlet initialization parameter. Messages published while the queue is full
+     * are dropped.
+     */
+    public static final String SOAP_MONITOR_QUEUE_SIZE = "SOAPMonitorQueueSize";
+
     /**
      * Unique SOAP monitor id tag
      */
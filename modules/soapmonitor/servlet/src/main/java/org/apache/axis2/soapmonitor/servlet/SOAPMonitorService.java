@@ -33,8 +33,14 @@ import java.io.ObjectOutputStream;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.Enumeration;
-import java.util.Vector;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * This is a SOAP Monitor Service class.
@@ -57,8 +63,10 @@ import java.util.Vector;
  * The publishMethod routine is invoked by the SOAP monitor
  * handler when a SOAP message request or response is
  * detected.  The information about the SOAP message is
- * then forwared to all current socket connections for
- * display by the applet.
+ * queued and then forwarded by a background thread to all
+ * current socket connections for display by the applet.
+ * Publishing never blocks the caller: if the queue is full,
+ * the message is dropped.
  */
 
 public class SOAPMonitorService extends HttpServlet {
@@ -67,7 +75,11 @@ public class SOAPMonitorService extends HttpServlet {
      * Private data
      */
     private static ServerSocket serverSocket = null;
-    private static Vector connections = null;
+    private static final List<ConnectionThread> connections =
+            new CopyOnWriteArrayList<ConnectionThread>();
+    private static volatile MessagePublisher publisher = null;
+
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
 
     private static final Log log = LogFactory.getLog(SOAPMonitorService.class);
 
@@ -78,6 +90,14 @@ public class SOAPMonitorService extends HttpServlet {
     }
 
 
+    /**
+     * Check if there are listeners for SOAP messages. The SOAP monitor
+     * handler uses this to avoid capturing messages that nobody will see.
+     */
+    public static boolean hasListeners() {
+        return publisher != null && !connections.isEmpty();
+    }
+
     /**
      * Publish a SOAP message to listeners
      */
@@ -85,12 +105,9 @@ public class SOAPMonitorService extends HttpServlet {
                                       Integer type,
                                       String target,
                                       String soap) {
-        if (connections != null) {
-            Enumeration e = connections.elements();
-            while (e.hasMoreElements()) {
-                ConnectionThread ct = (ConnectionThread) e.nextElement();
-                ct.publishMessage(id, type, target, soap);
-            }
+        MessagePublisher publisher = SOAPMonitorService.publisher;
+        if (publisher != null && !connections.isEmpty()) {
+            publisher.publish(new Message(id, type, target, soap));
         }
     }
 
@@ -98,13 +115,24 @@ public class SOAPMonitorService extends HttpServlet {
      * Servlet initialiation
      */
     public void init() throws ServletException {
-        if (connections == null) {
-            // Create vector to hold connection information
-            connections = new Vector();
+        ServletConfig config = super.getServletConfig();
+        if (publisher == null) {
+            int queueSize = DEFAULT_QUEUE_SIZE;
+            String queueSizeParam = config.getInitParameter(SOAPMonitorConstants.SOAP_MONITOR_QUEUE_SIZE);
+            if (queueSizeParam != null) {
+                try {
+                    queueSize = Integer.parseInt(queueSizeParam.trim());
+                } catch (NumberFormatException ex) {
+                    log.error("Invalid value for ServletConfig init parameter '"
+                            + SOAPMonitorConstants.SOAP_MONITOR_QUEUE_SIZE + "': " + queueSizeParam);
+                }
+            }
+            MessagePublisher newPublisher = new MessagePublisher(queueSize);
+            newPublisher.start();
+            publisher = newPublisher;
         }
         if (serverSocket == null) {
             // Get the server socket port from the init params
-            ServletConfig config = super.getServletConfig();
             String hostName = config.getInitParameter(SOAPMonitorConstants.SOAP_MONITOR_HOST_NAME);
             String port = config.getInitParameter(SOAPMonitorConstants.SOAP_MONITOR_PORT);
             if (port == null) {
@@ -139,10 +167,14 @@ public class SOAPMonitorService extends HttpServlet {
      * Servlet termination
      */
     public void destroy() {
+        // Stop the publisher thread
+        MessagePublisher publisher = SOAPMonitorService.publisher;
+        if (publisher != null) {
+            SOAPMonitorService.publisher = null;
+            publisher.stop();
+        }
         // End all connection threads
-        Enumeration e = connections.elements();
-        while (e.hasMoreElements()) {
-            ConnectionThread ct = (ConnectionThread) e.nextElement();
+        for (ConnectionThread ct : connections) {
             ct.close();
         }
         // End main server socket thread
@@ -188,6 +220,96 @@ public class SOAPMonitorService extends HttpServlet {
         response.getWriter().println("</html>");
     }
 
+    /**
+     * SOAP message information waiting to be sent to the applets
+     */
+    static final class Message {
+        final Long id;
+        final Integer type;
+        final String target;
+        final String soap;
+
+        Message(Long id, Integer type, String target, String soap) {
+            this.id = id;
+            this.type = type;
+            this.target = target;
+            this.soap = soap;
+        }
+    }
+
+    /**
+     * Bounded queue of messages drained by a single background thread
+     * that sends them to the connected applets. Publishing is lock free.
+     */
+    static final class MessagePublisher implements Runnable {
+        private final Queue<Message> queue = new ConcurrentLinkedQueue<Message>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicLong dropped = new AtomicLong();
+        private final int capacity;
+        private volatile Thread thread;
+        private volatile boolean waiting;
+        private volatile boolean stopped;
+
+        MessagePublisher(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void start() {
+            Thread thread = new Thread(this, "SOAPMonitorPublisher");
+            thread.setDaemon(true);
+            this.thread = thread;
+            thread.start();
+        }
+
+        void stop() {
+            stopped = true;
+            LockSupport.unpark(thread);
+        }
+
+        void publish(Message message) {
+            if (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                long count = dropped.incrementAndGet();
+                if (log.isDebugEnabled() && (count & (count - 1)) == 0) {
+                    log.debug("SOAP monitor queue full; " + count + " message(s) dropped");
+                }
+                return;
+            }
+            queue.offer(message);
+            if (waiting) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        public void run() {
+            while (!stopped) {
+                Message message = queue.poll();
+                if (message == null) {
+                    waiting = true;
+                    // Check again to avoid missing a wakeup; the timeout is only a safety net
+                    if (queue.isEmpty() && !stopped) {
+                        LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(1));
+                    }
+                    waiting = false;
+                    continue;
+                }
+                size.decrementAndGet();
+                for (ConnectionThread ct : connections) {
+                    ct.publishMessage(message.id, message.type, message.target, message.soap);
+                }
+            }
+            queue.clear();
+        }
+
+        int getQueueSize() {
+            return size.get();
+        }
+
+        long getDroppedCount() {
+            return dropped.get();
+        }
+    }
+
     /**
      * Thread class for handling the server socket
      */
@@ -236,9 +358,7 @@ public class SOAPMonitorService extends HttpServlet {
             } catch (Exception e) {
             }
             // Add the connection to our list
-            synchronized (connections) {
-                connections.addElement(this);
-            }
+            connections.add(this);
         }
 
         /**
@@ -263,9 +383,7 @@ public class SOAPMonitorService extends HttpServlet {
             } catch (Exception e) {
             }
             // Cleanup connection list
-            synchronized (connections) {
-                connections.removeElement(this);
-            }
+            connections.remove(this);
             // Cleanup I/O streams
             if (out != null) {
                 try {
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.soapmonitor.servlet;
+
+import junit.framework.TestCase;
+
+public class MessagePublisherTest extends TestCase {
+    private static SOAPMonitorService.Message createMessage(long id) {
+        return new SOAPMonitorService.Message(Long.valueOf(id),
+                Integer.valueOf(SOAPMonitorConstants.SOAP_MONITOR_REQUEST), "", "<message/>");
+    }
+
+    public void testMessagesDroppedWhenQueueFull() throws Exception {
+        SOAPMonitorService.MessagePublisher publisher = new SOAPMonitorService.MessagePublisher(2);
+        for (int i = 1; i <= 5; i++) {
+            publisher.publish(createMessage(i));
+        }
+        assertEquals(2, publisher.getQueueSize());
+        assertEquals(3, publisher.getDroppedCount());
+
+        // once the queue has been drained, messages are accepted again
+        publisher.start();
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (publisher.getQueueSize() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, publisher.getQueueSize());
+            publisher.publish(createMessage(6));
+            assertEquals(3, publisher.getDroppedCount());
+        } finally {
+            publisher.stop();
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.axis2.context.SessionContext;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.description.*;
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
 import org.apache.axis2.util.MessageContextBuilder;
 import org.apache.axis2.transport.base.threads.WorkerPool;
 import org.apache.axis2.transport.base.threads.WorkerPoolFactory;
@@ -100,6 +101,17 @@ public abstract class AbstractTransportListener implements TransportListener {
             //this.workerPool = cfgCtx.getThreadPool(); not yet implemented
             throw new AxisFault("Unsupported thread pool for task execution - Axis2 thread pool");
         } else {
+            if (this.workerPool == null && useVirtualThreads()) {
+                this.workerPool = WorkerPoolFactory.getVirtualThreadWorkerPool(
+                        getTransportName() + "-Worker");
+                if (this.workerPool != null) {
+                    log.info("Using virtual threads for the " + getTransportName() +
+                            " transport");
+                } else {
+                    log.warn("Virtual threads are not supported by this Java runtime; using " +
+                            "a thread pool for the " + getTransportName() + " transport");
+                }
+            }
             if (this.workerPool == null) { // FIXME <-- workaround for AXIS2-4552
                 this.workerPool = WorkerPoolFactory.getWorkerPool(
                         config.getServerCoreThreads(),
@@ -139,6 +151,23 @@ public abstract class AbstractTransportListener implements TransportListener {
 
     }
 
+    /**
+     * Whether the worker pool should run tasks on virtual threads. The
+     * {@link Constants.Configuration#THREAD_POOL_TYPE} parameter of the transport receiver takes
+     * precedence over the one of the axis configuration.
+     *
+     * @return true if virtual threads have been requested
+     */
+    private boolean useVirtualThreads() {
+        Parameter param = transportIn.getParameter(Constants.Configuration.THREAD_POOL_TYPE);
+        if (param == null) {
+            param = cfgCtx.getAxisConfiguration().getParameter(
+                    Constants.Configuration.THREAD_POOL_TYPE);
+        }
+        return param != null && Constants.Configuration.THREAD_POOL_TYPE_VIRTUAL.equals(
+                org.apache.axis2.util.Utils.getParameterValue(param));
+    }
+
     public void destroy() {
         try {
             if (state == BaseConstants.STARTED) {
@@ -499,6 +528,27 @@ public abstract class AbstractTransportListener implements TransportListener {
         return -1;
     }
 
+    public double getAvgProcessingTime() {
+        if (metrics != null) {
+            return metrics.getAvgProcessingTime();
+        }
+        return -1;
+    }
+
+    public double getMaxProcessingTime() {
+        if (metrics != null) {
+            return metrics.getMaxProcessingTime();
+        }
+        return -1;
+    }
+
+    public double getProcessingTimePercentile(double percentile) {
+        if (metrics != null) {
+            return metrics.getProcessingTimePercentile(percentile);
+        }
+        return -1;
+    }
+
     public Map getResponseCodeTable() {
         if (metrics != null) {
             return metrics.getResponseCodeTable();
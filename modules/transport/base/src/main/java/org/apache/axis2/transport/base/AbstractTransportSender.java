@@ -104,25 +104,37 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
             Constants.Configuration.TRANSPORT_URL);
 
         if (targetAddress != null) {
-            sendMessage(msgContext, targetAddress, null);
+            timedSendMessage(msgContext, targetAddress, null);
         } else if (msgContext.getTo() != null && !msgContext.getTo().hasAnonymousAddress()) {
             targetAddress = msgContext.getTo().getAddress();
 
             if (!msgContext.getTo().hasNoneAddress()) {
-                sendMessage(msgContext, targetAddress, null);
+                timedSendMessage(msgContext, targetAddress, null);
             } else {
                 //Don't send the message.
                 return InvocationResponse.CONTINUE;
             }
         } else if (msgContext.isServerSide()) {
             // get the out transport info for server side when target EPR is unknown
-            sendMessage(msgContext, null,
+            timedSendMessage(msgContext, null,
                 (OutTransportInfo) msgContext.getProperty(Constants.OUT_TRANSPORT_INFO));
         }
 
         return InvocationResponse.CONTINUE;
     }
 
+    private void timedSendMessage(MessageContext msgContext, String targetEPR,
+        OutTransportInfo outTransportInfo) throws AxisFault {
+        long start = System.nanoTime();
+        try {
+            sendMessage(msgContext, targetEPR, outTransportInfo);
+        } finally {
+            if (metrics != null) {
+                metrics.notifyProcessingTime(System.nanoTime() - start);
+            }
+        }
+    }
+
     /**
      * Process a new incoming message (Response) through the axis engine
      * @param msgCtx the axis MessageContext
@@ -371,6 +383,27 @@ public abstract class AbstractTransportSender extends AbstractHandler implements
         return -1;
     }
 
+    public double getAvgProcessingTime() {
+        if (metrics != null) {
+            return metrics.getAvgProcessingTime();
+        }
+        return -1;
+    }
+
+    public double getMaxProcessingTime() {
+        if (metrics != null) {
+            return metrics.getMaxProcessingTime();
+        }
+        return -1;
+    }
+
+    public double getProcessingTimePercentile(double percentile) {
+        if (metrics != null) {
+            return metrics.getProcessingTimePercentile(percentile);
+        }
+        return -1;
+    }
+
     public Map getResponseCodeTable() {
         if (metrics != null) {
             return metrics.getResponseCodeTable();
@@ -43,6 +43,9 @@ public interface ManagementSupport {
     public long getMaxSizeSent();
     public double getAvgSizeSent();
     public Map getResponseCodeTable();
+    public double getAvgProcessingTime();
+    public double getMaxProcessingTime();
+    public double getProcessingTimePercentile(double percentile);
 
     public void resetStatistics();
     public long getLastResetTime();
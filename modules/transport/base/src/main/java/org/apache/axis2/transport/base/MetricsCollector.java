@@ -20,61 +20,69 @@
 package org.apache.axis2.transport.base;
 import org.apache.axis2.context.MessageContext;
 
-import java.util.Map;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Collects metrics related to a transport that has metrics support enabled
+ * Collects metrics related to a transport that has metrics support enabled. All update methods
+ * are lock free, so that concurrent messages don't contend on a single monitor.
  */
 public class MetricsCollector {
 
     public static final int LEVEL_NONE = 0;
     public static final int LEVEL_TRANSPORT = 1;
     public static final int LEVEL_FULL = 2;
-    private static final Long ONE = (long) 1;
 
     /** By default, full metrics collection is enabled */
     private int level = LEVEL_FULL;
 
-    private long messagesReceived;
-    private long faultsReceiving;
-    private long timeoutsReceiving;
-    private long bytesReceived;
-    private long minSizeReceived;
-    private long maxSizeReceived;
-    private double avgSizeReceived;
+    private final StripedCounter messagesReceived = new StripedCounter();
+    private final StripedCounter faultsReceiving = new StripedCounter();
+    private final StripedCounter timeoutsReceiving = new StripedCounter();
+    private final StripedCounter bytesReceived = new StripedCounter();
+    private final AtomicLong minSizeReceived = new AtomicLong();
+    private final AtomicLong maxSizeReceived = new AtomicLong();
+    /** The bits of the (double) average size of received messages. */
+    private final AtomicLong avgSizeReceived = new AtomicLong();
 
-    private long messagesSent;
-    private long faultsSending;
-    private long timeoutsSending;
-    private long bytesSent;
-    private long minSizeSent;
-    private long maxSizeSent;
-    private double avgSizeSent;
+    private final StripedCounter messagesSent = new StripedCounter();
+    private final StripedCounter faultsSending = new StripedCounter();
+    private final StripedCounter timeoutsSending = new StripedCounter();
+    private final StripedCounter bytesSent = new StripedCounter();
+    private final AtomicLong minSizeSent = new AtomicLong();
+    private final AtomicLong maxSizeSent = new AtomicLong();
+    /** The bits of the (double) average size of sent messages. */
+    private final AtomicLong avgSizeSent = new AtomicLong();
 
-    private final Map<Integer, Long> responseCodeTable =
-        Collections.synchronizedMap(new HashMap<Integer, Long>());
+    /** Message processing times in microseconds. */
+    private final LatencyHistogram processingTime = new LatencyHistogram();
 
-    private long lastResetTime = System.currentTimeMillis();
+    private final ConcurrentMap<Integer, AtomicLong> responseCodeTable =
+        new ConcurrentHashMap<Integer, AtomicLong>();
 
-    public void reset() {
-        messagesReceived  = 0;
-        faultsReceiving   = 0;
-        timeoutsReceiving = 0;
-        bytesReceived     = 0;
-        minSizeReceived   = 0;
-        maxSizeReceived   = 0;
-        avgSizeReceived   = 0;
-
-        messagesSent      = 0;
-        faultsSending     = 0;
-        timeoutsSending   = 0;
-        bytesSent         = 0;
-        minSizeSent       = 0;
-        maxSizeSent       = 0;
-        avgSizeSent       = 0;
+    private volatile long lastResetTime = System.currentTimeMillis();
 
+    public void reset() {
+        messagesReceived.reset();
+        faultsReceiving.reset();
+        timeoutsReceiving.reset();
+        bytesReceived.reset();
+        minSizeReceived.set(0);
+        maxSizeReceived.set(0);
+        avgSizeReceived.set(0);
+
+        messagesSent.reset();
+        faultsSending.reset();
+        timeoutsSending.reset();
+        bytesSent.reset();
+        minSizeSent.set(0);
+        maxSizeSent.set(0);
+        avgSizeSent.set(0);
+
+        processingTime.reset();
         responseCodeTable.clear();
         lastResetTime = System.currentTimeMillis();
     }
@@ -92,19 +100,19 @@ public class MetricsCollector {
     }
 
     public long getMessagesReceived() {
-        return messagesReceived;
+        return messagesReceived.sum();
     }
 
     public long getFaultsReceiving() {
-        return faultsReceiving;
+        return faultsReceiving.sum();
     }
 
     public long getTimeoutsReceiving() {
-        return timeoutsReceiving;
+        return timeoutsReceiving.sum();
     }
 
     public long getBytesReceived() {
-        return bytesReceived;
+        return bytesReceived.sum();
     }
 
     /**
@@ -114,110 +122,157 @@ public class MetricsCollector {
      * @return the number of messages sent
      */
     public long getMessagesSent() {
-        return messagesSent;
+        return messagesSent.sum();
     }
 
     public long getFaultsSending() {
-        return faultsSending;
+        return faultsSending.sum();
     }
 
     public long getTimeoutsSending() {
-        return timeoutsSending;
+        return timeoutsSending.sum();
     }
 
     public long getBytesSent() {
-        return bytesSent;
+        return bytesSent.sum();
     }
 
     public long getMinSizeReceived() {
-        return minSizeReceived;
+        return minSizeReceived.get();
     }
 
     public long getMaxSizeReceived() {
-        return maxSizeReceived;
+        return maxSizeReceived.get();
     }
 
     public long getMinSizeSent() {
-        return minSizeSent;
+        return minSizeSent.get();
     }
 
     public long getMaxSizeSent() {
-        return maxSizeSent;
+        return maxSizeSent.get();
     }
 
     public double getAvgSizeReceived() {
-        return avgSizeReceived;
+        return Double.longBitsToDouble(avgSizeReceived.get());
     }
 
     public double getAvgSizeSent() {
-        return avgSizeSent;
+        return Double.longBitsToDouble(avgSizeSent.get());
+    }
+
+    /**
+     * Get the average time in milliseconds taken to process a message. For a listener, this is
+     * the time taken to process an incoming message; for a sender, this is the time taken to
+     * send a message (including waiting for the response, if any).
+     */
+    public double getAvgProcessingTime() {
+        return processingTime.getMean() / 1000;
+    }
+
+    public double getMaxProcessingTime() {
+        return processingTime.getMax() / 1000.0;
     }
 
+    /**
+     * Get the given percentile of the message processing time.
+     * 
+     * @param percentile the percentile, between 0 and 100
+     * @return the percentile in milliseconds
+     */
+    public double getProcessingTimePercentile(double percentile) {
+        return processingTime.getPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Get a snapshot of the number of responses received or sent per response code.
+     */
     public Map<Integer, Long> getResponseCodeTable() {
-        return responseCodeTable;
+        Map<Integer, Long> table = new HashMap<Integer, Long>();
+        for (Map.Entry<Integer, AtomicLong> entry : responseCodeTable.entrySet()) {
+            table.put(entry.getKey(), entry.getValue().get());
+        }
+        return table;
     }
 
-    public synchronized void incrementMessagesReceived() {
-        messagesReceived++;
+    public void incrementMessagesReceived() {
+        messagesReceived.increment();
     }
 
-    public synchronized void incrementFaultsReceiving() {
-        faultsReceiving++;
+    public void incrementFaultsReceiving() {
+        faultsReceiving.increment();
     }
 
-    public synchronized void incrementTimeoutsReceiving() {
-        timeoutsReceiving++;
+    public void incrementTimeoutsReceiving() {
+        timeoutsReceiving.increment();
     }
 
-    public synchronized void incrementBytesReceived(long size) {
-        bytesReceived += size;
+    public void incrementBytesReceived(long size) {
+        bytesReceived.add(size);
     }
 
-    public synchronized void incrementMessagesSent() {
-        messagesSent++;
+    public void incrementMessagesSent() {
+        messagesSent.increment();
     }
 
-    public synchronized void incrementFaultsSending() {
-        faultsSending++;
+    public void incrementFaultsSending() {
+        faultsSending.increment();
     }
 
-    public synchronized void incrementTimeoutsSending() {
-        timeoutsSending++;
+    public void incrementTimeoutsSending() {
+        timeoutsSending.increment();
     }
 
-    public synchronized void incrementBytesSent(long size) {
-        bytesSent += size;
+    public void incrementBytesSent(long size) {
+        bytesSent.add(size);
     }
     
-    public synchronized void notifyReceivedMessageSize(long size) {
-        if (minSizeReceived == 0 || size < minSizeReceived) {
-            minSizeReceived = size;
-        }
-        if (size > maxSizeReceived) {
-            maxSizeReceived = size;
-        }
-        avgSizeReceived = (avgSizeReceived == 0 ? size : (avgSizeReceived + size) / 2);
+    public void notifyReceivedMessageSize(long size) {
+        updateSizeStatistics(size, minSizeReceived, maxSizeReceived, avgSizeReceived);
     }
 
-    public synchronized void notifySentMessageSize(long size) {
-        if (minSizeSent == 0 || size < minSizeSent) {
-            minSizeSent = size;
+    public void notifySentMessageSize(long size) {
+        updateSizeStatistics(size, minSizeSent, maxSizeSent, avgSizeSent);
+    }
+
+    private static void updateSizeStatistics(long size, AtomicLong min, AtomicLong max,
+                                             AtomicLong avgBits) {
+        long current;
+        while (((current = min.get()) == 0 || size < current)
+                && !min.compareAndSet(current, size)) {
+            // Retry
         }
-        if (size > maxSizeSent) {
-            maxSizeSent = size;
+        while (size > (current = max.get()) && !max.compareAndSet(current, size)) {
+            // Retry
         }
-        avgSizeSent = (avgSizeSent == 0 ? size : (avgSizeSent + size) / 2);
+        long bits;
+        double avg;
+        do {
+            bits = avgBits.get();
+            avg = Double.longBitsToDouble(bits);
+        } while (!avgBits.compareAndSet(bits,
+                Double.doubleToLongBits(avg == 0 ? size : (avg + size) / 2)));
+    }
+
+    /**
+     * Record the time taken to process a message.
+     * 
+     * @param nanos the processing time in nanoseconds (as measured by {@link System#nanoTime()})
+     */
+    public void notifyProcessingTime(long nanos) {
+        processingTime.record(nanos / 1000);
     }
 
     public void reportResponseCode(int respCode) {
-        synchronized(responseCodeTable) {
-            Object o = responseCodeTable.get(respCode);
-            if (o == null) {
-                responseCodeTable.put(respCode, ONE);
-            } else {
-                responseCodeTable.put(respCode, (Long) o + 1);
+        AtomicLong count = responseCodeTable.get(respCode);
+        if (count == null) {
+            count = new AtomicLong();
+            AtomicLong existing = responseCodeTable.putIfAbsent(respCode, count);
+            if (existing != null) {
+                count = existing;
             }
         }
+        count.incrementAndGet();
     }
 
     // --- enhanced methods ---
@@ -71,7 +71,7 @@ public class TransportView implements TransportViewMBean {
 
     public long getTimeoutsSending() {
         if (managementSupport != null) {
-            managementSupport.getTimeoutsSending();
+            return managementSupport.getTimeoutsSending();
         }
         return -1;
     }
@@ -153,6 +153,39 @@ public class TransportView implements TransportViewMBean {
         return null;
     }    
 
+    public double getAvgProcessingTime() {
+        if (managementSupport != null) {
+            return managementSupport.getAvgProcessingTime();
+        }
+        return -1;
+    }
+
+    public double getMaxProcessingTime() {
+        if (managementSupport != null) {
+            return managementSupport.getMaxProcessingTime();
+        }
+        return -1;
+    }
+
+    public double getProcessingTime50thPercentile() {
+        return getProcessingTimePercentile(50);
+    }
+
+    public double getProcessingTime95thPercentile() {
+        return getProcessingTimePercentile(95);
+    }
+
+    public double getProcessingTime99thPercentile() {
+        return getProcessingTimePercentile(99);
+    }
+
+    private double getProcessingTimePercentile(double percentile) {
+        if (managementSupport != null) {
+            return managementSupport.getProcessingTimePercentile(percentile);
+        }
+        return -1;
+    }
+
     public int getActiveThreadCount() {
         if (managementSupport != null) {
             return managementSupport.getActiveThreadCount();
@@ -40,6 +40,11 @@ public interface TransportViewMBean {
     public int  getActiveThreadCount();
     public int getQueueSize();
     public Map getResponseCodeTable();
+    public double getAvgProcessingTime();
+    public double getMaxProcessingTime();
+    public double getProcessingTime50thPercentile();
+    public double getProcessingTime95thPercentile();
+    public double getProcessingTime99thPercentile();
 
     // JMX Operations
     public void start() throws Exception;
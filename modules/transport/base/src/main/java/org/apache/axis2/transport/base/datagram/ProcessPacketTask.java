@@ -57,6 +57,7 @@ public class ProcessPacketTask implements Runnable {
     
     public void run() {
         MetricsCollector metrics = endpoint.getMetrics();
+        long start = System.nanoTime();
         try {
             InputStream inputStream = new ByteArrayInputStream(data, 0, length);
             MessageContext msgContext = endpoint.createMessageContext();
@@ -78,6 +79,8 @@ public class ProcessPacketTask implements Runnable {
             StringBuilder buffer = new StringBuilder("Error during processing of datagram:\n");
             Utils.hexDump(buffer, data, length);
             log.error(buffer.toString(), ex);
+        } finally {
+            metrics.notifyProcessingTime(System.nanoTime() - start);
         }
     }
 }
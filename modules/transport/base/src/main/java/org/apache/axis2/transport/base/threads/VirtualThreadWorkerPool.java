@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.base.threads;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker pool that runs every task on its own virtual thread. Tasks are never queued, so
+ * {@link #getQueueSize()} always returns 0.
+ *
+ * @see org.apache.axis2.util.threadpool.VirtualThreads
+ */
+public class VirtualThreadWorkerPool implements WorkerPool {
+
+    private static final Log log = LogFactory.getLog(VirtualThreadWorkerPool.class);
+
+    private final ExecutorService executor;
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    public VirtualThreadWorkerPool(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public void execute(final Runnable task) {
+        executor.execute(new Runnable() {
+            public void run() {
+                activeCount.incrementAndGet();
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    log.error("Uncaught exception", t);
+                } finally {
+                    activeCount.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public int getQueueSize() {
+        return 0;
+    }
+
+    public void shutdown(int timeout) throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+    }
+}
@@ -19,15 +19,31 @@
 
 package org.apache.axis2.transport.base.threads;
 
+import org.apache.axis2.util.threadpool.VirtualThreads;
+
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Worker pool factory.
  * For the moment this always creates {@link NativeWorkerPool} instances since
- * we assume that we are running on Java 1.5 or above.
+ * we assume that we are running on Java 1.5 or above, unless virtual threads are
+ * requested explicitly.
  */
 public class WorkerPoolFactory {
 
+    /**
+     * Create a worker pool that runs every task on a new virtual thread.
+     *
+     * @param threadGroupId prefix for the names of the threads
+     * @return the worker pool, or <code>null</code> if the Java runtime doesn't support
+     *         virtual threads
+     */
+    public static WorkerPool getVirtualThreadWorkerPool(String threadGroupId) {
+        ExecutorService executor = VirtualThreads.newExecutor(threadGroupId);
+        return executor == null ? null : new VirtualThreadWorkerPool(executor);
+    }
+
     public static WorkerPool getWorkerPool(int core, int max, int keepAlive,
                                            int queueLength, String threadGroupName,
                                            String threadGroupId) {
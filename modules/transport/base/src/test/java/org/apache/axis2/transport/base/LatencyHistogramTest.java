@@ -0,0 +1,87 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.axis2.transport.base;
+
+import junit.framework.TestCase;
+
+public class LatencyHistogramTest extends TestCase {
+    public void testBuckets() {
+        for (long value = 0; value < 1000000; value++) {
+            int index = LatencyHistogram.getBucketIndex(value);
+            long upperBound = LatencyHistogram.getBucketUpperBound(index);
+            assertTrue(upperBound >= value);
+            // The relative error is bounded
+            assertTrue(upperBound - value <= value / 16);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.getBucketUpperBound(index - 1) < value);
+            }
+        }
+    }
+
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 0.001);
+        assertEquals(500, histogram.getPercentile(50), 500 / 16);
+        assertEquals(990, histogram.getPercentile(99), 990 / 16);
+        assertEquals(1000, histogram.getPercentile(100));
+        assertEquals(1, histogram.getPercentile(0));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+    public void testMetricsCollector() throws Exception {
+        final MetricsCollector metrics = new MetricsCollector();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 1; j <= 1000; j++) {
+                        metrics.incrementMessagesReceived();
+                        metrics.incrementBytesReceived(10);
+                        metrics.notifyReceivedMessageSize(j);
+                        metrics.notifyProcessingTime(j * 1000000L);
+                        metrics.reportResponseCode(200);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(4000, metrics.getMessagesReceived());
+        assertEquals(40000, metrics.getBytesReceived());
+        assertEquals(1, metrics.getMinSizeReceived());
+        assertEquals(1000, metrics.getMaxSizeReceived());
+        assertEquals(Long.valueOf(4000), metrics.getResponseCodeTable().get(200));
+        assertEquals(1000.0, metrics.getMaxProcessingTime(), 0.001);
+        assertEquals(990.0, metrics.getProcessingTimePercentile(99), 990.0 / 16);
+        metrics.reset();
+        assertEquals(0, metrics.getMessagesReceived());
+        assertTrue(metrics.getResponseCodeTable().isEmpty());
+    }
+}
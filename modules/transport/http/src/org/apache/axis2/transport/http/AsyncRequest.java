@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.http;
+
+import java.io.IOException;
+
+import org.apache.axis2.transport.AsyncTransportSender;
+
+/**
+ * A {@link Request} that can be executed without blocking the calling thread.
+ */
+public interface AsyncRequest extends Request {
+    /**
+     * Execute the request without waiting for the response. When the response has been
+     * received, the methods of {@link Request} that give access to the response may be used.
+     *
+     * @param callback the callback to notify when the response has been received or when the
+     *                 request has failed; it may be called by an I/O thread
+     * @throws IOException if the request could not be started; in that case, the callback is
+     *                     not called
+     */
+    void executeAsync(AsyncTransportSender.ResponseCallback callback) throws IOException;
+}
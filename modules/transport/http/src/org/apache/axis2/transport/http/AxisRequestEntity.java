@@ -20,12 +20,17 @@
 package org.apache.axis2.transport.http;
 
 import org.apache.axiom.blob.Blobs;
-import org.apache.axiom.blob.MemoryBlob;
+import org.apache.axiom.blob.WritableBlob;
 import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.Parameter;
 import org.apache.axis2.transport.MessageFormatter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.zip.GZIPOutputStream;
@@ -35,6 +40,12 @@ import java.util.zip.GZIPOutputStream;
  * Axis2 message formatter object.
  */
 public final class AxisRequestEntity  {
+    private static final Log log = LogFactory.getLog(AxisRequestEntity.class);
+
+    /**
+     * The default value for {@link HTTPConstants#REQUEST_BUFFER_THRESHOLD}.
+     */
+    private static final int DEFAULT_BUFFER_THRESHOLD = 1024 * 1024;
 
     private MessageFormatter messageFormatter;
 
@@ -44,7 +55,9 @@ public final class AxisRequestEntity  {
 
     private MessageContext messageContext;
 
-    private final MemoryBlob content;
+    private WritableBlob content;
+
+    private final long contentLength;
 
     private final boolean preserve;
 
@@ -71,22 +84,54 @@ public final class AxisRequestEntity  {
         this.contentType = contentType;
         if (chunked) {
             content = null;
+            contentLength = -1;
         } else {
-            content = Blobs.createMemoryBlob();
-            OutputStream out = content.getOutputStream();
+            // Messages larger than the threshold are buffered in a temporary file so that the
+            // heap used by a request is bounded even if its size must be known in advance.
+            content = Blobs.createOverflowableBlob(getBufferThreshold(msgContext), "axis2",
+                    ".tmp", getTempDirectory(msgContext));
             try {
+                OutputStream out = content.getOutputStream();
                 internalWriteRequest(out);
                 out.close();
             } catch (IOException ex) {
+                release();
                 throw AxisFault.makeFault(ex);
             }
+            contentLength = content.getSize();
+        }
+    }
+
+    private static int getBufferThreshold(MessageContext msgContext) {
+        Object value = msgContext.getProperty(HTTPConstants.REQUEST_BUFFER_THRESHOLD);
+        if (value == null) {
+            Parameter param = msgContext.getParameter(HTTPConstants.REQUEST_BUFFER_THRESHOLD);
+            value = param == null ? null : param.getValue();
+        }
+        if (value == null) {
+            return DEFAULT_BUFFER_THRESHOLD;
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException ex) {
+            log.warn("Invalid value for " + HTTPConstants.REQUEST_BUFFER_THRESHOLD + ": " + value);
+            return DEFAULT_BUFFER_THRESHOLD;
+        }
+    }
+
+    private static File getTempDirectory(MessageContext msgContext) {
+        Object value = msgContext.getProperty(Constants.Configuration.ATTACHMENT_TEMP_DIR);
+        if (value == null) {
+            Parameter param = msgContext.getParameter(Constants.Configuration.ATTACHMENT_TEMP_DIR);
+            value = param == null ? null : param.getValue();
         }
+        return value == null ? null : new File(value.toString());
     }
 
     public boolean isRepeatable() {
         // If chunking is disabled, we don't preserve the original SOAPEnvelope, but we store the
-        // serialized SOAPEnvelope in a byte array, which means that the entity can be written
-        // repeatedly.
+        // serialized SOAPEnvelope in a buffer (in memory or in a temporary file), which means
+        // that the entity can be written repeatedly until it is released.
         return preserve || !chunked;
     }
 
@@ -94,6 +139,9 @@ public final class AxisRequestEntity  {
         if (chunked) {
             internalWriteRequest(outStream);
         } else {
+            if (content == null) {
+                throw new IOException("Request entity has already been released");
+            }
             content.writeTo(outStream);
         }
     }
@@ -114,14 +162,25 @@ public final class AxisRequestEntity  {
 
     }
 
-    public long getContentLength() {
-        if (chunked) {
-            return -1;
-        } else {
-            return content.getSize();
+    /**
+     * Release the buffer holding the serialized message (if any). This should be called as soon
+     * as the request has been executed: after that the request will no longer be retried.
+     */
+    public void release() {
+        if (content != null) {
+            try {
+                content.release();
+            } catch (IOException ex) {
+                log.warn("Failed to release request buffer", ex);
+            }
+            content = null;
         }
     }
 
+    public long getContentLength() {
+        return contentLength;
+    }
+
     public String getContentType() {
         return contentType;
     }
@@ -32,6 +32,7 @@ import org.apache.axis2.context.NamedValue;
 import org.apache.axis2.context.OperationContext;
 import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.i18n.Messages;
+import org.apache.axis2.transport.AsyncTransportSender;
 import org.apache.axis2.transport.MessageFormatter;
 import org.apache.axis2.util.MessageProcessorSelector;
 import org.apache.axis2.util.Utils;
@@ -189,82 +190,163 @@ public abstract class HTTPSender {
 
         setTimeouts(msgContext, request);
 
+        final AsyncTransportSender.ResponseCallback callback =
+                (AsyncTransportSender.ResponseCallback)msgContext.getProperty(
+                        AsyncTransportSender.RESPONSE_CALLBACK);
+        if (callback != null) {
+            executeAsync(msgContext, url, request, requestEntity, callback);
+            return;
+        }
+
         try {
-            request.execute();
-            boolean cleanup = true;
             try {
-                int statusCode = request.getStatusCode();
-                log.trace("Handling response - " + statusCode);
-                boolean processResponse;
-                boolean fault;
-                if (statusCode == HttpStatus.SC_ACCEPTED) {
-                    processResponse = false;
-                    fault = false;
-                } else if (statusCode >= 200 && statusCode < 300) {
-                    processResponse = true;
-                    fault = false;
-                } else if (statusCode == HttpStatus.SC_INTERNAL_SERVER_ERROR
-                           || statusCode == HttpStatus.SC_BAD_REQUEST) {
-                    processResponse = true;
-                    fault = true;
-                } else {
-                    throw new AxisFault(Messages.getMessage("transportError", String.valueOf(statusCode),
-                                                            request.getStatusText()));
-                }
-                obtainHTTPHeaderInformation(request, msgContext);
-                if (processResponse) {
-                    OperationContext opContext = msgContext.getOperationContext();
-                    MessageContext inMessageContext = opContext == null ? null
-                            : opContext.getMessageContext(WSDLConstants.MESSAGE_LABEL_IN_VALUE);
-                    if (opContext != null) {
-                        InputStream in = request.getResponseContent();
-                        if (in != null) {
-                            String contentEncoding = request.getResponseHeader(HTTPConstants.HEADER_CONTENT_ENCODING);
-                            if (contentEncoding != null) {
-                                if (contentEncoding.equalsIgnoreCase(HTTPConstants.COMPRESSION_GZIP)) {
-                                    in = new GZIPInputStream(in);
-                                    // If the content-encoding is identity we can basically ignore
-                                    // it.
-                                } else if (!"identity".equalsIgnoreCase(contentEncoding)) {
-                                    throw new AxisFault("HTTP :" + "unsupported content-encoding of '"
-                                                        + contentEncoding + "' found");
-                                }
-                            }
-                            opContext.setProperty(MessageContext.TRANSPORT_IN, in);
-                            // This implements the behavior of the HTTPClient 3.x based transport in
-                            // Axis2 1.7: if AUTO_RELEASE_CONNECTION is enabled, we set the input stream
-                            // in the message context, but we nevertheless release the connection.
-                            // It is unclear in which situation this would actually be the right thing
-                            // to do.
-                            if (msgContext.isPropertyTrue(HTTPConstants.AUTO_RELEASE_CONNECTION)) {
-                                log.debug("AUTO_RELEASE_CONNECTION enabled; are you sure that you really want that?");
-                            } else {
-                                cleanup = false;
-                            }
+                request.execute();
+            } finally {
+                // The response has arrived (or the request failed), so the request will no longer
+                // be retried
+                releaseRequestEntity(requestEntity);
+            }
+            processResponse(msgContext, request);
+        } catch (IOException e) {
+            log.info("Unable to send to url[" + url + "]", e);
+            throw AxisFault.makeFault(e);
+        }
+    }
+
+    /**
+     * Execute a request on behalf of an {@link AsyncTransportSender}. If the request supports
+     * it, no thread is blocked while waiting for the response. Otherwise the request is executed
+     * by the thread pool of the configuration context.
+     */
+    private void executeAsync(final MessageContext msgContext, final URL url,
+            final Request request, final AxisRequestEntity requestEntity,
+            final AsyncTransportSender.ResponseCallback callback) throws IOException {
+        if (request instanceof AsyncRequest) {
+            try {
+                ((AsyncRequest)request).executeAsync(new AsyncTransportSender.ResponseCallback() {
+                    public void onResponse() {
+                        releaseRequestEntity(requestEntity);
+                        try {
+                            processResponse(msgContext, request);
+                        } catch (IOException ex) {
+                            onError(ex);
+                            return;
+                        }
+                        callback.onResponse();
+                    }
+
+                    public void onError(Exception ex) {
+                        releaseRequestEntity(requestEntity);
+                        log.info("Unable to send to url[" + url + "]", ex);
+                        callback.onError(ex);
+                    }
+                });
+            } catch (IOException e) {
+                releaseRequestEntity(requestEntity);
+                log.info("Unable to send to url[" + url + "]", e);
+                throw AxisFault.makeFault(e);
+            }
+        } else {
+            msgContext.getConfigurationContext().getThreadPool().execute(new Runnable() {
+                public void run() {
+                    try {
+                        try {
+                            request.execute();
+                        } finally {
+                            releaseRequestEntity(requestEntity);
                         }
+                        processResponse(msgContext, request);
+                    } catch (IOException ex) {
+                        log.info("Unable to send to url[" + url + "]", ex);
+                        callback.onError(ex);
+                        return;
                     }
-                    if (fault) {
-                        if (inMessageContext != null) {
-                            inMessageContext.setProcessingFault(true);
+                    callback.onResponse();
+                }
+            });
+        }
+    }
+
+    private static void releaseRequestEntity(AxisRequestEntity requestEntity) {
+        if (requestEntity != null) {
+            requestEntity.release();
+        }
+    }
+
+    /**
+     * Process the response of a request that has been executed.
+     */
+    private void processResponse(MessageContext msgContext, Request request) throws IOException {
+        boolean cleanup = true;
+        try {
+            int statusCode = request.getStatusCode();
+            log.trace("Handling response - " + statusCode);
+            boolean processResponse;
+            boolean fault;
+            if (statusCode == HttpStatus.SC_ACCEPTED) {
+                processResponse = false;
+                fault = false;
+            } else if (statusCode >= 200 && statusCode < 300) {
+                processResponse = true;
+                fault = false;
+            } else if (statusCode == HttpStatus.SC_INTERNAL_SERVER_ERROR
+                       || statusCode == HttpStatus.SC_BAD_REQUEST) {
+                processResponse = true;
+                fault = true;
+            } else {
+                throw new AxisFault(Messages.getMessage("transportError", String.valueOf(statusCode),
+                                                        request.getStatusText()));
+            }
+            obtainHTTPHeaderInformation(request, msgContext);
+            if (processResponse) {
+                OperationContext opContext = msgContext.getOperationContext();
+                MessageContext inMessageContext = opContext == null ? null
+                        : opContext.getMessageContext(WSDLConstants.MESSAGE_LABEL_IN_VALUE);
+                if (opContext != null) {
+                    InputStream in = request.getResponseContent();
+                    if (in != null) {
+                        String contentEncoding = request.getResponseHeader(HTTPConstants.HEADER_CONTENT_ENCODING);
+                        if (contentEncoding != null) {
+                            if (contentEncoding.equalsIgnoreCase(HTTPConstants.COMPRESSION_GZIP)) {
+                                in = new GZIPInputStream(in);
+                                // If the content-encoding is identity we can basically ignore
+                                // it.
+                            } else if (!"identity".equalsIgnoreCase(contentEncoding)) {
+                                throw new AxisFault("HTTP :" + "unsupported content-encoding of '"
+                                                    + contentEncoding + "' found");
+                            }
                         }
-                        if (Utils.isClientThreadNonBlockingPropertySet(msgContext)) {
-                            throw new AxisFault(Messages.
-                                    getMessage("transportError",
-                                               String.valueOf(statusCode),
-                                               request.getStatusText()));
+                        opContext.setProperty(MessageContext.TRANSPORT_IN, in);
+                        // This implements the behavior of the HTTPClient 3.x based transport in
+                        // Axis2 1.7: if AUTO_RELEASE_CONNECTION is enabled, we set the input stream
+                        // in the message context, but we nevertheless release the connection.
+                        // It is unclear in which situation this would actually be the right thing
+                        // to do.
+                        if (msgContext.isPropertyTrue(HTTPConstants.AUTO_RELEASE_CONNECTION)) {
+                            log.debug("AUTO_RELEASE_CONNECTION enabled; are you sure that you really want that?");
+                        } else {
+                            cleanup = false;
                         }
                     }
                 }
-            } finally {
-                if (cleanup) {
-                    request.releaseConnection();
+                if (fault) {
+                    if (inMessageContext != null) {
+                        inMessageContext.setProcessingFault(true);
+                    }
+                    if (Utils.isClientThreadNonBlockingPropertySet(msgContext)) {
+                        throw new AxisFault(Messages.
+                                getMessage("transportError",
+                                           String.valueOf(statusCode),
+                                           request.getStatusText()));
+                    }
                 }
             }
-        } catch (IOException e) {
-            log.info("Unable to send to url[" + url + "]", e);
-            throw AxisFault.makeFault(e);
+        } finally {
+            if (cleanup) {
+                request.releaseConnection();
+            }
         }
-    }   
+    }
 
     private void addCustomHeaders(MessageContext msgContext, Request request) {
     
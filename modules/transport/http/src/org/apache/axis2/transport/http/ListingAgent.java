@@ -277,61 +277,126 @@ public class ListingAgent extends AbstractAgent {
     }
 
     private void handleXSDRequest(HttpServletRequest req, HttpServletResponse res,
-                                  AxisService axisService) throws IOException {
+                                  final AxisService axisService) throws IOException {
         if (!canExposeServiceMetadata(axisService)){
             res.sendError(HttpServletResponse.SC_FORBIDDEN);
             return;
         }
-        res.setContentType("text/xml");
-        int ret = axisService.printXSD(res.getOutputStream(), getParamtereIgnoreCase(req ,"xsd"));
-        if (ret == 0) {
-            //multiple schemas are present and the user specified
-            //no name - in this case we cannot possibly pump a schema
-            //so redirect to the service root
-            res.sendRedirect("");
-        } else if (ret == -1) {
-            res.sendError(HttpServletResponse.SC_NOT_FOUND);
-        }
+        final String xsd = getParamtereIgnoreCase(req ,"xsd");
+        sendDocument(req, res, axisService, "xsd|" + xsd, new ServiceMetadataCache.Renderer() {
+            public int render(OutputStream out) throws IOException {
+                return axisService.printXSD(out, xsd);
+            }
+        });
     }
 
     private void handleWSDLRequest(HttpServletRequest req,
                                    HttpServletResponse res,
                                    String url,
-                                   AxisService axisService) throws IOException {
+                                   final AxisService axisService) throws IOException {
         if (!canExposeServiceMetadata(axisService)){
             res.sendError(HttpServletResponse.SC_FORBIDDEN);
             return;
         }
-        OutputStream out = res.getOutputStream();
-        res.setContentType("text/xml");
-        String ip = extractHost(url);
-        String wsdlName = getParamtereIgnoreCase(req , "wsdl");
-
-        if (wsdlName != null && wsdlName.length()>0) {
-            axisService.printUserWSDL(out, wsdlName, ip);
-        } else {
-            axisService.printWSDL(out, ip);
-        }
+        final String ip = extractHost(url);
+        final String wsdlName = getParamtereIgnoreCase(req , "wsdl");
+
+        sendDocument(req, res, axisService, "wsdl|" + wsdlName + "|" + ip,
+                new ServiceMetadataCache.Renderer() {
+            public int render(OutputStream out) throws IOException {
+                if (wsdlName != null && wsdlName.length()>0) {
+                    axisService.printUserWSDL(out, wsdlName, ip);
+                } else {
+                    axisService.printWSDL(out, ip);
+                }
+                return 1;
+            }
+        });
     }
 
     private void handleWSDL2Request(HttpServletRequest req,
                                     HttpServletResponse res,
                                     String url,
-                                    AxisService axisService) throws IOException {
+                                    final AxisService axisService) throws IOException {
         if (!canExposeServiceMetadata(axisService)){
             res.sendError(HttpServletResponse.SC_FORBIDDEN);
             return;
         }
-        res.setContentType("text/xml");
-        String ip = extractHost(url);
-        String wsdlName = getParamtereIgnoreCase(req , "wsdl2");
+        final String ip = extractHost(url);
+        final String wsdlName = getParamtereIgnoreCase(req , "wsdl2");
 
-        int ret = axisService.printWSDL2(res.getOutputStream(), ip, wsdlName);
-        if (ret == 0) {
+        sendDocument(req, res, axisService, "wsdl2|" + wsdlName + "|" + ip,
+                new ServiceMetadataCache.Renderer() {
+            public int render(OutputStream out) throws IOException {
+                return axisService.printWSDL2(out, ip, wsdlName);
+            }
+        });
+    }
+
+    /**
+     * Send a WSDL or XSD document, using the copy cached on the service if it is still valid.
+     * The response supports conditional requests (<code>If-None-Match</code>) and gzip
+     * compression.
+     *
+     * @param key the cache key; it must include all request dependent information used by the
+     *            renderer
+     */
+    private void sendDocument(HttpServletRequest req,
+                              HttpServletResponse res,
+                              AxisService axisService,
+                              String key,
+                              ServiceMetadataCache.Renderer renderer) throws IOException {
+        ServiceMetadataCache.Document document = ServiceMetadataCache.getDocument(axisService,
+                ServiceMetadataCache.getInstance(axisService), key, renderer);
+        if (document.getStatus() == 0) {
+            //multiple schemas are present and the user specified
+            //no name - in this case we cannot possibly pump a schema
+            //so redirect to the service root
             res.sendRedirect("");
-        } else if (ret == -1) {
+            return;
+        } else if (document.getStatus() == -1) {
             res.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String acceptEncoding = req.getHeader(HTTPConstants.HEADER_ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null
+                && HttpUtils.indexOfIngnoreCase(acceptEncoding, HTTPConstants.COMPRESSION_GZIP) >= 0;
+        String etag = gzip ? document.getGzippedETag() : document.getETag();
+        res.setContentType("text/xml");
+        res.setHeader("Vary", HTTPConstants.HEADER_ACCEPT_ENCODING);
+        res.setHeader("ETag", etag);
+        if (matchesETag(req.getHeader("If-None-Match"), etag)) {
+            res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        byte[] content;
+        if (gzip) {
+            res.setHeader(HTTPConstants.HEADER_CONTENT_ENCODING, HTTPConstants.COMPRESSION_GZIP);
+            content = document.getGzippedContent();
+        } else {
+            content = document.getContent();
+        }
+        res.setContentLength(content.length);
+        OutputStream out = res.getOutputStream();
+        out.write(content);
+        out.flush();
+    }
+
+    private static boolean matchesETag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String[] candidates = ifNoneMatch.split(",");
+        for (int i = 0; i < candidates.length; i++) {
+            String candidate = candidates[i].trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
         }
+        return false;
     }
 
     public String getParamtereIgnoreCase(HttpServletRequest req ,String paraName){
@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.description.AxisDescription;
+import org.apache.axis2.description.AxisEndpoint;
+import org.apache.axis2.description.AxisModule;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.PolicySubject;
+import org.apache.axis2.util.JavaUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the metadata documents (WSDL, XSD) rendered for a service. Generating these
+ * documents is expensive, and they are requested frequently by load balancers and tools.
+ * <p>
+ * The cache is attached to the {@link AxisService}, so that it is discarded when the service is
+ * redeployed. In addition, each cached document records a stamp computed from the modules
+ * engaged on and the policies attached to the service and its ancestors, operations, messages
+ * and bindings. A cached document is rendered again if that stamp changes. Caching can be
+ * disabled by setting the <code>cacheServiceMetadata</code> service parameter to
+ * <code>false</code>.
+ */
+final class ServiceMetadataCache {
+    private static final String PARAM_NAME = ServiceMetadataCache.class.getName();
+
+    private static final String CACHE_SERVICE_METADATA = "cacheServiceMetadata";
+
+    /**
+     * The maximum number of documents cached per service. Since the key includes the host name
+     * from the request, the cache must be bounded.
+     */
+    private static final int MAX_ENTRIES = 32;
+
+    /**
+     * Renders a document.
+     */
+    interface Renderer {
+        /**
+         * Render the document.
+         *
+         * @param out the stream to write the document to
+         * @return <code>1</code> if the document was rendered, <code>0</code> if the client should
+         *         be redirected to the service root, <code>-1</code> if the document was not
+         *         found
+         * @throws IOException if the document can't be rendered
+         */
+        int render(OutputStream out) throws IOException;
+    }
+
+    /**
+     * A rendered document.
+     */
+    static final class Document {
+        private final long stamp;
+        private final int status;
+        private final byte[] content;
+        private final String etag;
+        private volatile byte[] gzippedContent;
+
+        Document(long stamp, int status, byte[] content) {
+            this.stamp = stamp;
+            this.status = status;
+            this.content = content;
+            etag = "\"" + digest(content) + "\"";
+        }
+
+        /**
+         * Get the status returned by the {@link Renderer}.
+         *
+         * @return the status
+         */
+        int getStatus() {
+            return status;
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+
+        String getETag() {
+            return etag;
+        }
+
+        /**
+         * Get the gzip compressed content. It is computed on first use.
+         *
+         * @return the compressed content
+         * @throws IOException never
+         */
+        byte[] getGzippedContent() throws IOException {
+            byte[] result = gzippedContent;
+            if (result == null) {
+                ByteArrayOutputStream baos = new ByteArrayOutputStream(content.length / 4 + 64);
+                GZIPOutputStream out = new GZIPOutputStream(baos);
+                out.write(content);
+                out.close();
+                gzippedContent = result = baos.toByteArray();
+            }
+            return result;
+        }
+
+        String getGzippedETag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+
+    private final Map<String, Document> documents =
+            new LinkedHashMap<String, Document>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Document> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Get the cache attached to a service, creating it if necessary.
+     *
+     * @param service the service
+     * @return the cache, or <code>null</code> if caching is disabled for the service
+     */
+    static ServiceMetadataCache getInstance(AxisService service) {
+        Parameter parameter = service.getParameter(CACHE_SERVICE_METADATA);
+        if (parameter != null && JavaUtils.isFalseExplicitly(parameter.getValue())) {
+            return null;
+        }
+        Object cache = service.getParameterValue(PARAM_NAME);
+        if (cache instanceof ServiceMetadataCache) {
+            return (ServiceMetadataCache)cache;
+        }
+        synchronized (service) {
+            cache = service.getParameterValue(PARAM_NAME);
+            if (!(cache instanceof ServiceMetadataCache)) {
+                cache = new ServiceMetadataCache();
+                try {
+                    service.addParameter(PARAM_NAME, cache);
+                } catch (AxisFault ex) {
+                    // The parameter is locked; don't cache anything
+                    return null;
+                }
+            }
+            return (ServiceMetadataCache)cache;
+        }
+    }
+
+    /**
+     * Get a document, rendering it if it is not cached or if the service has changed since it
+     * was rendered.
+     *
+     * @param service the service
+     * @param cache the cache attached to the service, or <code>null</code> if caching is disabled
+     * @param key the key identifying the document and all request dependent information used
+     *            to render it
+     * @param renderer the renderer for the document
+     * @return the document
+     * @throws IOException if the document can't be rendered
+     */
+    static Document getDocument(AxisService service, ServiceMetadataCache cache, String key,
+            Renderer renderer) throws IOException {
+        long stamp = computeStamp(service);
+        if (cache != null) {
+            Document document;
+            synchronized (cache.documents) {
+                document = cache.documents.get(key);
+            }
+            if (document != null && document.stamp == stamp) {
+                return document;
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int status = renderer.render(out);
+        Document document = new Document(stamp, status, out.toByteArray());
+        if (cache != null) {
+            synchronized (cache.documents) {
+                cache.documents.put(key, document);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Compute a stamp that changes when modules are engaged or disengaged or when policies
+     * are attached or detached anywhere in the description hierarchy of the service.
+     */
+    static long computeStamp(AxisService service) {
+        long stamp = 1;
+        for (AxisDescription parent = service.getParent(); parent != null;
+                parent = parent.getParent()) {
+            stamp = update(stamp, parent);
+        }
+        stamp = updateTree(stamp, service);
+        for (Iterator<AxisEndpoint> it = service.getEndpoints().values().iterator(); it.hasNext(); ) {
+            AxisEndpoint endpoint = it.next();
+            stamp = update(stamp, endpoint);
+            if (endpoint.getBinding() != null) {
+                stamp = updateTree(stamp, endpoint.getBinding());
+            }
+        }
+        return stamp;
+    }
+
+    private static long updateTree(long stamp, AxisDescription description) {
+        stamp = update(stamp, description);
+        for (Iterator<? extends AxisDescription> it = description.getChildren(); it.hasNext(); ) {
+            stamp = updateTree(stamp, it.next());
+        }
+        return stamp;
+    }
+
+    private static long update(long stamp, AxisDescription description) {
+        PolicySubject policySubject = description.getPolicySubject();
+        stamp = 31 * stamp + policySubject.getLastUpdatedTime().getTime();
+        stamp = 31 * stamp + policySubject.getAttachedPolicyComponents().size();
+        // Engaged modules are stored in a hash map; make the result independent of the order
+        int modules = 0;
+        for (AxisModule module : description.getEngagedModules()) {
+            modules += module.getArchiveName().hashCode();
+        }
+        return 31 * stamp + modules;
+    }
+
+    static String digest(byte[] content) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException ex) {
+            // MD5 is always available
+            throw new Error(ex);
+        }
+        byte[] hash = md.digest(content);
+        StringBuilder buffer = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            buffer.append(Character.forDigit((b >> 4) & 0xF, 16));
+            buffer.append(Character.forDigit(b & 0xF, 16));
+        }
+        return buffer.toString();
+    }
+}
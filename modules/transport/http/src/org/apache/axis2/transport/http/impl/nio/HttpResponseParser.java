@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.nio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.axiom.mime.Header;
+import org.apache.axis2.transport.http.HTTPConstants;
+
+/**
+ * Incremental parser for HTTP/1.x responses. Data is fed to the parser as it is read from the
+ * connection; the complete body is buffered in memory.
+ */
+final class HttpResponseParser {
+    private static final int MAX_LINE_LENGTH = 8192;
+    private static final int MAX_HEADER_COUNT = 256;
+
+    private enum State {
+        STATUS_LINE, HEADERS, BODY, CHUNK_SIZE, CHUNK_DATA, CHUNK_END, TRAILERS, BODY_UNTIL_CLOSE,
+        DONE
+    }
+
+    private State state = State.STATUS_LINE;
+    private final StringBuilder line = new StringBuilder();
+    private boolean lineHasCR;
+    private boolean receivedData;
+    private boolean http10;
+    private int statusCode;
+    private String statusText;
+    private List<Header> headers = new ArrayList<Header>();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private long remaining;
+    private boolean keepAlive;
+
+    /**
+     * Feed data to the parser.
+     *
+     * @param buffer the data read from the connection
+     * @return <code>true</code> if the response is complete
+     * @throws IOException if the response is malformed
+     */
+    boolean parse(ByteBuffer buffer) throws IOException {
+        if (buffer.hasRemaining()) {
+            receivedData = true;
+        }
+        while (buffer.hasRemaining() && state != State.DONE) {
+            switch (state) {
+                case STATUS_LINE:
+                    if (readLine(buffer)) {
+                        parseStatusLine(takeLine());
+                        state = State.HEADERS;
+                    }
+                    break;
+                case HEADERS:
+                    if (readLine(buffer)) {
+                        String header = takeLine();
+                        if (header.length() == 0) {
+                            endOfHeaders();
+                        } else {
+                            addHeader(header);
+                        }
+                    }
+                    break;
+                case BODY:
+                case CHUNK_DATA:
+                    int count = (int)Math.min(remaining, buffer.remaining());
+                    body.write(buffer.array(), buffer.arrayOffset() + buffer.position(), count);
+                    buffer.position(buffer.position() + count);
+                    remaining -= count;
+                    if (remaining == 0) {
+                        state = state == State.BODY ? State.DONE : State.CHUNK_END;
+                    }
+                    break;
+                case CHUNK_SIZE:
+                    if (readLine(buffer)) {
+                        String size = takeLine();
+                        int idx = size.indexOf(';');
+                        if (idx != -1) {
+                            size = size.substring(0, idx);
+                        }
+                        try {
+                            remaining = Long.parseLong(size.trim(), 16);
+                        } catch (NumberFormatException ex) {
+                            throw new IOException("Invalid chunk size: " + size);
+                        }
+                        state = remaining == 0 ? State.TRAILERS : State.CHUNK_DATA;
+                    }
+                    break;
+                case CHUNK_END:
+                    if (readLine(buffer)) {
+                        if (takeLine().length() != 0) {
+                            throw new IOException("Missing CRLF after chunk data");
+                        }
+                        state = State.CHUNK_SIZE;
+                    }
+                    break;
+                case TRAILERS:
+                    if (readLine(buffer) && takeLine().length() == 0) {
+                        state = State.DONE;
+                    }
+                    break;
+                case BODY_UNTIL_CLOSE:
+                    body.write(buffer.array(), buffer.arrayOffset() + buffer.position(),
+                            buffer.remaining());
+                    buffer.position(buffer.limit());
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+        return state == State.DONE;
+    }
+
+    /**
+     * Notify the parser that the server closed the connection.
+     *
+     * @throws IOException if the response is incomplete
+     */
+    void endOfStream() throws IOException {
+        if (state == State.BODY_UNTIL_CLOSE) {
+            state = State.DONE;
+        } else if (state != State.DONE) {
+            throw new IOException(receivedData ? "Premature end of HTTP response"
+                    : "The target server failed to respond");
+        }
+    }
+
+    private boolean readLine(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            char c = (char)(buffer.get() & 0xFF);
+            if (c == '\n') {
+                return true;
+            } else if (lineHasCR) {
+                line.append('\r');
+                lineHasCR = false;
+            }
+            if (c == '\r') {
+                lineHasCR = true;
+            } else {
+                line.append(c);
+            }
+            if (line.length() > MAX_LINE_LENGTH) {
+                throw new IOException("HTTP response line too long");
+            }
+        }
+        return false;
+    }
+
+    private String takeLine() {
+        String result = line.toString();
+        line.setLength(0);
+        lineHasCR = false;
+        return result;
+    }
+
+    private void parseStatusLine(String statusLine) throws IOException {
+        // HTTP/1.1 200 OK
+        if (!statusLine.startsWith("HTTP/")) {
+            throw new IOException("Invalid HTTP status line: " + statusLine);
+        }
+        int idx1 = statusLine.indexOf(' ');
+        if (idx1 == -1) {
+            throw new IOException("Invalid HTTP status line: " + statusLine);
+        }
+        int idx2 = statusLine.indexOf(' ', idx1 + 1);
+        try {
+            statusCode = Integer.parseInt(
+                    idx2 == -1 ? statusLine.substring(idx1 + 1) : statusLine.substring(idx1 + 1, idx2));
+        } catch (NumberFormatException ex) {
+            throw new IOException("Invalid HTTP status line: " + statusLine);
+        }
+        statusText = idx2 == -1 ? "" : statusLine.substring(idx2 + 1);
+        http10 = statusLine.startsWith("HTTP/1.0");
+    }
+
+    private void addHeader(String header) throws IOException {
+        if (header.charAt(0) == ' ' || header.charAt(0) == '\t') {
+            // Obsolete line folding
+            if (headers.isEmpty()) {
+                throw new IOException("Invalid HTTP header: " + header);
+            }
+            Header last = headers.remove(headers.size() - 1);
+            headers.add(new Header(last.getName(), last.getValue() + " " + header.trim()));
+            return;
+        }
+        int idx = header.indexOf(':');
+        if (idx <= 0) {
+            throw new IOException("Invalid HTTP header: " + header);
+        }
+        if (headers.size() == MAX_HEADER_COUNT) {
+            throw new IOException("Too many HTTP headers");
+        }
+        headers.add(new Header(header.substring(0, idx).trim(), header.substring(idx + 1).trim()));
+    }
+
+    private void endOfHeaders() throws IOException {
+        if (statusCode >= 100 && statusCode < 200) {
+            // Interim response (e.g. 100 Continue); the final response follows
+            headers = new ArrayList<Header>();
+            state = State.STATUS_LINE;
+            return;
+        }
+        String connection = getHeader(HTTPConstants.HEADER_CONNECTION);
+        if (http10) {
+            keepAlive = connection != null && connection.equalsIgnoreCase("keep-alive");
+        } else {
+            keepAlive = connection == null || !connection.equalsIgnoreCase("close");
+        }
+        String transferEncoding = getHeader(HTTPConstants.HEADER_TRANSFER_ENCODING);
+        String contentLength = getHeader(HTTPConstants.HEADER_CONTENT_LENGTH);
+        if (statusCode == 204 || statusCode == 304) {
+            state = State.DONE;
+        } else if (transferEncoding != null
+                && transferEncoding.toLowerCase().indexOf(
+                        HTTPConstants.HEADER_TRANSFER_ENCODING_CHUNKED) != -1) {
+            state = State.CHUNK_SIZE;
+        } else if (contentLength != null) {
+            try {
+                remaining = Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException ex) {
+                throw new IOException("Invalid Content-Length: " + contentLength);
+            }
+            if (remaining < 0) {
+                throw new IOException("Invalid Content-Length: " + contentLength);
+            }
+            state = remaining == 0 ? State.DONE : State.BODY;
+        } else {
+            keepAlive = false;
+            state = State.BODY_UNTIL_CLOSE;
+        }
+    }
+
+    /**
+     * Check if any data has been received. If a reused connection was closed before any data
+     * was received, the request may safely be retried on a new connection.
+     */
+    boolean hasReceivedData() {
+        return receivedData;
+    }
+
+    boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    String getStatusText() {
+        return statusText;
+    }
+
+    List<Header> getHeaders() {
+        return headers;
+    }
+
+    String getHeader(String name) {
+        for (Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    byte[] getContent() {
+        return body.toByteArray();
+    }
+}
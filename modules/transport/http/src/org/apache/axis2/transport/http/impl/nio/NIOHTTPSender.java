@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.nio;
+
+import java.net.URL;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.transport.http.AxisRequestEntity;
+import org.apache.axis2.transport.http.HTTPConstants;
+import org.apache.axis2.transport.http.HTTPTransportConstants;
+import org.apache.axis2.transport.http.Request;
+import org.apache.axis2.transport.http.impl.httpclient4.HTTPProxyConfigurator;
+import org.apache.axis2.transport.http.impl.httpclient4.HTTPSenderImpl;
+
+/**
+ * HTTP sender that executes plain HTTP requests with {@link NIOHttpClient}. Requests that
+ * require TLS, a proxy or authentication are executed with HttpClient 4.
+ */
+final class NIOHTTPSender extends HTTPSenderImpl {
+    private final NIOHttpClient client;
+
+    NIOHTTPSender(NIOHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    protected Request createRequest(MessageContext msgContext, String methodName, URL url,
+            AxisRequestEntity requestEntity) throws AxisFault {
+        if (HTTPTransportConstants.PROTOCOL_HTTP.equals(url.getProtocol())
+                && msgContext.getProperty(HTTPConstants.AUTHENTICATE) == null
+                && !HTTPProxyConfigurator.isProxyEnabled(msgContext, url)) {
+            return new NIORequest(client, msgContext, methodName, url, requestEntity);
+        } else {
+            return super.createRequest(msgContext, methodName, url, requestEntity);
+        }
+    }
+}
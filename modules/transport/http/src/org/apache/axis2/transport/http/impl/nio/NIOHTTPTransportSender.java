@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.nio;
+
+import java.io.IOException;
+
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.transport.AsyncTransportSender;
+import org.apache.axis2.transport.http.HTTPSender;
+import org.apache.axis2.transport.http.impl.httpclient4.HTTPClient4TransportSender;
+
+/**
+ * HTTP transport sender that waits for responses without blocking a thread per request. Plain
+ * HTTP requests are executed on a small number of I/O threads; non blocking invocations of
+ * out-in operations (e.g. {@link org.apache.axis2.client.ServiceClient#sendReceiveNonBlocking})
+ * then only use a thread of the configuration context's thread pool to process the response.
+ * Requests that require TLS, a proxy or authentication are executed with HttpClient 4.
+ * <p>
+ * The sender supports the following parameters in addition to the ones supported by
+ * {@link HTTPClient4TransportSender}:
+ * <dl>
+ * <dt><tt>ioThreadCount</tt></dt>
+ * <dd>The number of I/O threads. Defaults to the number of processors.</dd>
+ * <dt><tt>maxIdleConnectionsPerHost</tt></dt>
+ * <dd>The maximum number of idle connections kept per host and port. Defaults to 20.</dd>
+ * <dt><tt>idleConnectionTimeout</tt></dt>
+ * <dd>The time in milliseconds after which idle connections are closed. Defaults to 30000.</dd>
+ * </dl>
+ */
+public class NIOHTTPTransportSender extends HTTPClient4TransportSender
+        implements AsyncTransportSender {
+    private NIOHttpClient client;
+
+    @Override
+    public void init(ConfigurationContext confContext, TransportOutDescription transportOut)
+            throws AxisFault {
+        super.init(confContext, transportOut);
+        int ioThreadCount = getIntParameter(transportOut, "ioThreadCount",
+                Runtime.getRuntime().availableProcessors());
+        int maxIdleConnectionsPerHost = getIntParameter(transportOut,
+                "maxIdleConnectionsPerHost", 20);
+        int idleConnectionTimeout = getIntParameter(transportOut, "idleConnectionTimeout",
+                30000);
+        try {
+            client = new NIOHttpClient(ioThreadCount, maxIdleConnectionsPerHost,
+                    idleConnectionTimeout);
+        } catch (IOException ex) {
+            throw AxisFault.makeFault(ex);
+        }
+    }
+
+    private static int getIntParameter(TransportOutDescription transportOut, String name,
+            int defaultValue) throws AxisFault {
+        Parameter param = transportOut.getParameter(name);
+        if (param == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(((String)param.getValue()).trim());
+        } catch (NumberFormatException ex) {
+            throw new AxisFault("Invalid value for parameter " + name + ": " + param.getValue());
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (client != null) {
+            client.shutdown();
+            client = null;
+        }
+        super.stop();
+    }
+
+    @Override
+    protected HTTPSender createHTTPSender() {
+        return new NIOHTTPSender(client);
+    }
+}
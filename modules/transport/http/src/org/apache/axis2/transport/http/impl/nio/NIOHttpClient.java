@@ -0,0 +1,390 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.InterruptedByTimeoutException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Minimal HTTP/1.1 client built on {@link AsynchronousSocketChannel}. All connections are
+ * handled by a small, fixed number of I/O threads, so that outstanding requests don't tie up a
+ * thread each. Connections are kept alive and reused per host and port.
+ * <p>
+ * Request and response bodies are buffered in memory. TLS, proxies and authentication are not
+ * supported; {@link NIOHTTPSender} uses the HttpClient 4 based implementation for these.
+ */
+final class NIOHttpClient {
+    private static final Log log = LogFactory.getLog(NIOHttpClient.class);
+
+    /**
+     * Receives the outcome of an exchange. The methods are called by an I/O thread.
+     */
+    interface ExchangeCallback {
+        void completed(HttpResponseParser response);
+
+        void failed(Exception ex);
+    }
+
+    private static final class IdleConnection {
+        final AsynchronousSocketChannel channel;
+        final long idleSince;
+
+        IdleConnection(AsynchronousSocketChannel channel) {
+            this.channel = channel;
+            idleSince = System.currentTimeMillis();
+        }
+    }
+
+    private final AsynchronousChannelGroup group;
+    private final ScheduledExecutorService timer;
+    private final ConcurrentMap<String, Queue<IdleConnection>> idleConnections =
+            new ConcurrentHashMap<String, Queue<IdleConnection>>();
+    private final int maxIdleConnectionsPerRoute;
+    private final long idleTimeout;
+
+    /**
+     * Constructor.
+     *
+     * @param ioThreadCount the number of I/O threads
+     * @param maxIdleConnectionsPerRoute the maximum number of idle connections kept per host
+     *                                   and port
+     * @param idleTimeout the time in milliseconds after which idle connections are discarded
+     * @throws IOException if the channel group can't be created
+     */
+    NIOHttpClient(int ioThreadCount, int maxIdleConnectionsPerRoute, long idleTimeout)
+            throws IOException {
+        group = AsynchronousChannelGroup.withFixedThreadPool(ioThreadCount,
+                new DaemonThreadFactory("axis2-nio-http-"));
+        timer = Executors.newSingleThreadScheduledExecutor(
+                new DaemonThreadFactory("axis2-nio-http-timer-"));
+        this.maxIdleConnectionsPerRoute = maxIdleConnectionsPerRoute;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Execute an HTTP exchange.
+     *
+     * @param host the target host
+     * @param port the target port
+     * @param request the serialized request (request line, headers and body)
+     * @param connectionTimeout the connection timeout in milliseconds, or 0 for no timeout
+     * @param socketTimeout the timeout in milliseconds for each read or write, or 0 for no
+     *                      timeout
+     * @param callback the callback to notify when the exchange completes
+     */
+    void execute(String host, int port, byte[] request, int connectionTimeout,
+            int socketTimeout, ExchangeCallback callback) {
+        new Exchange(host, port, request, connectionTimeout, socketTimeout, callback).start();
+    }
+
+    /**
+     * Shut down the client, closing all connections.
+     */
+    void shutdown() {
+        timer.shutdownNow();
+        try {
+            group.shutdownNow();
+        } catch (IOException ex) {
+            log.debug("Error while shutting down channel group", ex);
+        }
+        idleConnections.clear();
+    }
+
+    private AsynchronousSocketChannel pollIdleConnection(String route) {
+        Queue<IdleConnection> queue = idleConnections.get(route);
+        if (queue == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        IdleConnection connection;
+        while ((connection = queue.poll()) != null) {
+            if (now - connection.idleSince < idleTimeout && connection.channel.isOpen()) {
+                return connection.channel;
+            }
+            closeQuietly(connection.channel);
+        }
+        return null;
+    }
+
+    private void releaseConnection(String route, AsynchronousSocketChannel channel) {
+        if (group.isShutdown()) {
+            closeQuietly(channel);
+            return;
+        }
+        Queue<IdleConnection> queue = idleConnections.get(route);
+        if (queue == null) {
+            queue = new ConcurrentLinkedQueue<IdleConnection>();
+            Queue<IdleConnection> existing = idleConnections.putIfAbsent(route, queue);
+            if (existing != null) {
+                queue = existing;
+            }
+        }
+        // The size check is not atomic, but the limit doesn't need to be exact
+        if (queue.size() < maxIdleConnectionsPerRoute) {
+            queue.add(new IdleConnection(channel));
+        } else {
+            closeQuietly(channel);
+        }
+    }
+
+    static void closeQuietly(AsynchronousSocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            // Ignore
+        }
+    }
+
+    private static Exception toException(Throwable exc) {
+        if (exc instanceof InterruptedByTimeoutException) {
+            return new SocketTimeoutException("Read timed out");
+        } else if (exc instanceof Exception) {
+            return (Exception)exc;
+        } else {
+            return new IOException(exc);
+        }
+    }
+
+    /**
+     * The state of a single request/response exchange.
+     */
+    private final class Exchange {
+        private final String host;
+        private final int port;
+        private final String route;
+        private final ByteBuffer request;
+        private final int connectionTimeout;
+        private final int socketTimeout;
+        private final ExchangeCallback callback;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+        private AsynchronousSocketChannel channel;
+        private boolean reused;
+        private HttpResponseParser parser;
+
+        Exchange(String host, int port, byte[] request, int connectionTimeout,
+                int socketTimeout, ExchangeCallback callback) {
+            this.host = host;
+            this.port = port;
+            route = host + ":" + port;
+            this.request = ByteBuffer.wrap(request);
+            this.connectionTimeout = connectionTimeout;
+            this.socketTimeout = socketTimeout;
+            this.callback = callback;
+        }
+
+        void start() {
+            parser = new HttpResponseParser();
+            request.rewind();
+            channel = pollIdleConnection(route);
+            if (channel != null) {
+                reused = true;
+                write();
+            } else {
+                reused = false;
+                connect();
+            }
+        }
+
+        private void connect() {
+            InetSocketAddress address = new InetSocketAddress(host, port);
+            if (address.isUnresolved()) {
+                fail(new UnknownHostException(host));
+                return;
+            }
+            try {
+                channel = AsynchronousSocketChannel.open(group);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+            } catch (IOException ex) {
+                fail(ex);
+                return;
+            }
+            final AtomicBoolean timedOut = new AtomicBoolean();
+            final ScheduledFuture<?> timeout;
+            if (connectionTimeout > 0) {
+                final AsynchronousSocketChannel channel = this.channel;
+                timeout = timer.schedule(new Runnable() {
+                    public void run() {
+                        timedOut.set(true);
+                        closeQuietly(channel);
+                    }
+                }, connectionTimeout, TimeUnit.MILLISECONDS);
+            } else {
+                timeout = null;
+            }
+            channel.connect(address, null, new CompletionHandler<Void,Void>() {
+                public void completed(Void result, Void attachment) {
+                    if (timeout != null) {
+                        timeout.cancel(false);
+                    }
+                    write();
+                }
+
+                public void failed(Throwable exc, Void attachment) {
+                    if (timeout != null) {
+                        timeout.cancel(false);
+                    }
+                    closeQuietly(channel);
+                    fail(timedOut.get() ? new SocketTimeoutException("Connect timed out")
+                            : toException(exc));
+                }
+            });
+        }
+
+        private void write() {
+            channel.write(request, socketTimeout, TimeUnit.MILLISECONDS, null,
+                    new CompletionHandler<Integer,Void>() {
+                public void completed(Integer result, Void attachment) {
+                    if (request.hasRemaining()) {
+                        channel.write(request, socketTimeout, TimeUnit.MILLISECONDS, null, this);
+                    } else {
+                        read();
+                    }
+                }
+
+                public void failed(Throwable exc, Void attachment) {
+                    closeQuietly(channel);
+                    if (!retry(exc)) {
+                        fail(toException(exc));
+                    }
+                }
+            });
+        }
+
+        private void read() {
+            readBuffer.clear();
+            channel.read(readBuffer, socketTimeout, TimeUnit.MILLISECONDS, null,
+                    new CompletionHandler<Integer,Void>() {
+                public void completed(Integer result, Void attachment) {
+                    if (result.intValue() < 0) {
+                        closeQuietly(channel);
+                        if (retry(null)) {
+                            return;
+                        }
+                        try {
+                            parser.endOfStream();
+                        } catch (IOException ex) {
+                            fail(ex);
+                            return;
+                        }
+                        complete(false);
+                        return;
+                    }
+                    readBuffer.flip();
+                    boolean complete;
+                    try {
+                        complete = parser.parse(readBuffer);
+                    } catch (IOException ex) {
+                        closeQuietly(channel);
+                        fail(ex);
+                        return;
+                    }
+                    if (complete) {
+                        complete(parser.isKeepAlive());
+                    } else {
+                        read();
+                    }
+                }
+
+                public void failed(Throwable exc, Void attachment) {
+                    closeQuietly(channel);
+                    if (!retry(exc)) {
+                        fail(toException(exc));
+                    }
+                }
+            });
+        }
+
+        /**
+         * Retry the request on a new connection if it failed on a reused connection before any
+         * part of the response was received. This happens if the server closed the connection
+         * while it was idle.
+         */
+        private boolean retry(Throwable exc) {
+            if (reused && !parser.hasReceivedData()
+                    && !(exc instanceof InterruptedByTimeoutException)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Connection to " + route + " was closed; retrying");
+                }
+                reused = false;
+                parser = new HttpResponseParser();
+                request.rewind();
+                connect();
+                return true;
+            } else {
+                return false;
+            }
+        }
+
+        private void complete(boolean keepAlive) {
+            if (keepAlive) {
+                releaseConnection(route, channel);
+            } else {
+                closeQuietly(channel);
+            }
+            if (done.compareAndSet(false, true)) {
+                callback.completed(parser);
+            }
+        }
+
+        private void fail(Exception ex) {
+            if (done.compareAndSet(false, true)) {
+                callback.failed(ex);
+            }
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
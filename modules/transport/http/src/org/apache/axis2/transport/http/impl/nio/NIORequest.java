@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.nio;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.axiom.mime.Header;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.transport.AsyncTransportSender;
+import org.apache.axis2.transport.http.AsyncRequest;
+import org.apache.axis2.transport.http.AxisRequestEntity;
+import org.apache.axis2.transport.http.HTTPAuthenticator;
+import org.apache.axis2.transport.http.HTTPConstants;
+
+/**
+ * {@link AsyncRequest} implementation executed by {@link NIOHttpClient}.
+ */
+final class NIORequest implements AsyncRequest {
+    private static final String[] COOKIE_HEADER_NAMES = {
+            HTTPConstants.HEADER_SET_COOKIE, HTTPConstants.HEADER_SET_COOKIE2 };
+
+    private final NIOHttpClient client;
+    private final MessageContext msgContext;
+    private final String methodName;
+    private final URL url;
+    private final AxisRequestEntity requestEntity;
+    private final List<Header> requestHeaders = new ArrayList<Header>();
+    private boolean http10;
+    private int connectionTimeout;
+    private int socketTimeout;
+    private volatile HttpResponseParser response;
+
+    NIORequest(NIOHttpClient client, MessageContext msgContext, String methodName, URL url,
+            AxisRequestEntity requestEntity) {
+        this.client = client;
+        this.msgContext = msgContext;
+        this.methodName = methodName;
+        this.url = url;
+        this.requestEntity = requestEntity;
+    }
+
+    public void enableHTTP10() {
+        http10 = true;
+    }
+
+    public void setHeader(String name, String value) {
+        for (Iterator<Header> it = requestHeaders.iterator(); it.hasNext(); ) {
+            if (it.next().getName().equalsIgnoreCase(name)) {
+                it.remove();
+            }
+        }
+        requestHeaders.add(new Header(name, value));
+    }
+
+    public void addHeader(String name, String value) {
+        requestHeaders.add(new Header(name, value));
+    }
+
+    public Header[] getRequestHeaders() {
+        return requestHeaders.toArray(new Header[requestHeaders.size()]);
+    }
+
+    public void enableAuthentication(HTTPAuthenticator authenticator) {
+        // NIOHTTPSender doesn't use this class if authentication is required
+        throw new IllegalStateException("Authentication is not supported by non blocking HTTP "
+                + "requests; requests that require authentication must be sent with the "
+                + "blocking HttpClient 4 sender");
+    }
+
+    public void setConnectionTimeout(int timeout) {
+        connectionTimeout = timeout;
+    }
+
+    public void setSocketTimeout(int timeout) {
+        socketTimeout = timeout;
+    }
+
+    public void execute() throws IOException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Exception[] error = new Exception[1];
+        executeAsync(new AsyncTransportSender.ResponseCallback() {
+            public void onResponse() {
+                latch.countDown();
+            }
+
+            public void onError(Exception ex) {
+                error[0] = ex;
+                latch.countDown();
+            }
+        });
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the response", ex);
+        }
+        if (error[0] instanceof IOException) {
+            throw (IOException)error[0];
+        } else if (error[0] != null) {
+            throw new IOException(error[0]);
+        }
+    }
+
+    public void executeAsync(final AsyncTransportSender.ResponseCallback callback)
+            throws IOException {
+        int port = url.getPort();
+        if (port == -1) {
+            port = url.getDefaultPort();
+        }
+        client.execute(url.getHost(), port, createRequestMessage(port), connectionTimeout,
+                socketTimeout, new NIOHttpClient.ExchangeCallback() {
+            public void completed(HttpResponseParser response) {
+                NIORequest.this.response = response;
+                callback.onResponse();
+            }
+
+            public void failed(Exception ex) {
+                callback.onError(ex);
+            }
+        });
+    }
+
+    private byte[] createRequestMessage(int port) throws IOException {
+        byte[] content;
+        if (requestEntity == null) {
+            content = null;
+        } else {
+            // The entity is always buffered, so that a Content-Length header can be sent
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            requestEntity.writeRequest(baos);
+            content = baos.toByteArray();
+        }
+        StringBuilder head = new StringBuilder();
+        String file = url.getFile();
+        head.append(methodName).append(' ').append(file.length() == 0 ? "/" : file)
+                .append(http10 ? " HTTP/1.0\r\n" : " HTTP/1.1\r\n");
+        head.append(HTTPConstants.HEADER_HOST).append(": ").append(url.getHost());
+        if (port != url.getDefaultPort()) {
+            head.append(':').append(port);
+        }
+        head.append("\r\n");
+        if (content != null) {
+            head.append(HTTPConstants.HEADER_CONTENT_LENGTH).append(": ").append(content.length)
+                    .append("\r\n");
+        }
+        if (msgContext.isPropertyTrue(HTTPConstants.MC_ACCEPT_GZIP)) {
+            head.append(HTTPConstants.HEADER_ACCEPT_ENCODING).append(": ")
+                    .append(HTTPConstants.COMPRESSION_GZIP).append("\r\n");
+        }
+        for (Header header : requestHeaders) {
+            String name = header.getName();
+            // These headers are managed by this class
+            if (name.equalsIgnoreCase(HTTPConstants.HEADER_HOST)
+                    || name.equalsIgnoreCase(HTTPConstants.HEADER_CONTENT_LENGTH)
+                    || name.equalsIgnoreCase(HTTPConstants.HEADER_TRANSFER_ENCODING)) {
+                continue;
+            }
+            head.append(name).append(": ").append(header.getValue()).append("\r\n");
+        }
+        head.append("\r\n");
+        byte[] headBytes = head.toString().getBytes("ISO-8859-1");
+        if (content == null) {
+            return headBytes;
+        }
+        byte[] message = new byte[headBytes.length + content.length];
+        System.arraycopy(headBytes, 0, message, 0, headBytes.length);
+        System.arraycopy(content, 0, message, headBytes.length, content.length);
+        return message;
+    }
+
+    public int getStatusCode() {
+        return response.getStatusCode();
+    }
+
+    public String getStatusText() {
+        return response.getStatusText();
+    }
+
+    public String getResponseHeader(String name) {
+        return response.getHeader(name);
+    }
+
+    public Header[] getResponseHeaders() {
+        List<Header> headers = response.getHeaders();
+        return headers.toArray(new Header[headers.size()]);
+    }
+
+    public Map<String,String> getCookies() {
+        Map<String,String> cookies = null;
+        for (Header header : response.getHeaders()) {
+            for (String name : COOKIE_HEADER_NAMES) {
+                if (header.getName().equalsIgnoreCase(name)) {
+                    // Only the name and value of the cookie are needed; ignore the attributes
+                    String cookie = header.getValue();
+                    int idx = cookie.indexOf(';');
+                    if (idx != -1) {
+                        cookie = cookie.substring(0, idx);
+                    }
+                    idx = cookie.indexOf('=');
+                    if (idx > 0) {
+                        if (cookies == null) {
+                            cookies = new HashMap<String,String>();
+                        }
+                        cookies.put(cookie.substring(0, idx).trim(), cookie.substring(idx + 1).trim());
+                    }
+                }
+            }
+        }
+        return cookies;
+    }
+
+    public InputStream getResponseContent() throws IOException {
+        byte[] content = response.getContent();
+        return content.length == 0 ? null : new ByteArrayInputStream(content);
+    }
+
+    public void releaseConnection() {
+        // The response has been read entirely and the connection has already been released
+    }
+}
@@ -32,6 +32,7 @@ import org.apache.http.HttpVersion;
 import org.apache.http.ProtocolVersion;
 import org.apache.http.entity.ContentLengthStrategy;
 import org.apache.http.impl.DefaultHttpRequestFactory;
+import org.apache.http.impl.HttpConnectionMetricsImpl;
 import org.apache.http.impl.entity.StrictContentLengthStrategy;
 import org.apache.http.impl.io.ChunkedInputStream;
 import org.apache.http.impl.io.ChunkedOutputStream;
@@ -68,6 +69,13 @@ public class AxisHttpConnectionImpl implements AxisHttpConnection {
     private final HttpMessageParser requestParser;
     private final HttpMessageWriter responseWriter;
     private final ContentLengthStrategy contentLenStrategy;
+    private final HttpConnectionMetricsImpl metrics;
+
+    /** The time at which the connection last became idle. */
+    private volatile long idleSince;
+
+    /** Whether a request is currently being processed on this connection. */
+    private volatile boolean active;
 
     private OutputStream out = null;
     private InputStream in = null;
@@ -98,6 +106,9 @@ public class AxisHttpConnectionImpl implements AxisHttpConnection {
                 this.inbuffer, null, new DefaultHttpRequestFactory(), params);
         this.responseWriter = new HttpResponseWriter(
                 this.outbuffer, null, params);
+        this.metrics = new HttpConnectionMetricsImpl(
+                this.inbuffer.getMetrics(), this.outbuffer.getMetrics());
+        this.idleSince = System.currentTimeMillis();
     }
 
     public void close() throws IOException {
@@ -135,6 +146,8 @@ public class AxisHttpConnectionImpl implements AxisHttpConnection {
 
     public HttpRequest receiveRequest() throws HttpException, IOException {
         HttpRequest request = (HttpRequest) this.requestParser.parse();
+        this.active = true;
+        this.metrics.incrementRequestCount();
         if (HEADERLOG.isDebugEnabled()) {
             HEADERLOG.debug(">> " + request.getRequestLine().toString());
             for (HeaderIterator it = request.headerIterator(); it.hasNext(); ) {
@@ -171,6 +184,10 @@ public class AxisHttpConnectionImpl implements AxisHttpConnection {
         }
         
         this.responseWriter.write(response);
+        if (response.getStatusLine().getStatusCode() >= 200) {
+            // Don't count interim responses (100 Continue)
+            this.metrics.incrementResponseCount();
+        }
 
         // Prepare output stream
         this.out = null;
@@ -216,6 +233,10 @@ public class AxisHttpConnectionImpl implements AxisHttpConnection {
             this.out.close();
             this.out = null;
         }
+        if (this.active) {
+            this.active = false;
+            this.idleSince = System.currentTimeMillis();
+        }
     }
     
     public int getSocketTimeout() {
@@ -265,8 +286,20 @@ public class AxisHttpConnectionImpl implements AxisHttpConnection {
         }
     }
 
+    /**
+     * Get the metrics of this connection, i.e. the number of requests received, responses sent,
+     * and bytes transferred.
+     */
     public HttpConnectionMetrics getMetrics() {
-        return null;
+        return this.metrics;
+    }
+
+    /**
+     * Get the time in milliseconds since this connection last completed a request (or since it
+     * was opened), or 0 if a request is currently being processed.
+     */
+    public long getIdleTime() {
+        return this.active ? 0 : System.currentTimeMillis() - this.idleSince;
     }
 
     public String toString() {
@@ -93,8 +93,15 @@ public class DefaultConnectionListener implements IOProcessor {
                     try {
                         this.connmanager.process(conn);
                     } catch (RejectedExecutionException e) {
-                        conn.sendResponse(new DefaultHttpResponseFactory().newHttpResponse(
-                                HttpVersion.HTTP_1_0, HttpStatus.SC_SERVICE_UNAVAILABLE, new BasicHttpContext(null)));
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("Rejecting HTTP connection: " + e.getMessage());
+                        }
+                        try {
+                            conn.sendResponse(new DefaultHttpResponseFactory().newHttpResponse(
+                                    HttpVersion.HTTP_1_0, HttpStatus.SC_SERVICE_UNAVAILABLE, new BasicHttpContext(null)));
+                        } finally {
+                            conn.close();
+                        }
                     }
                 } catch(java.io.InterruptedIOException ie) {
                     break;
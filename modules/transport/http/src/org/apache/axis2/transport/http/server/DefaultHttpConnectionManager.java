@@ -23,6 +23,7 @@ import org.apache.axis2.context.ConfigurationContext;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.ConnectionReuseStrategy;
+import org.apache.http.HttpConnectionMetrics;
 import org.apache.http.HttpResponseFactory;
 import org.apache.http.impl.DefaultConnectionReuseStrategy;
 import org.apache.http.impl.DefaultHttpResponseFactory;
@@ -34,10 +35,14 @@ import org.apache.http.protocol.ResponseContent;
 import org.apache.http.protocol.ResponseDate;
 import org.apache.http.protocol.ResponseServer;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DefaultHttpConnectionManager implements HttpConnectionManager {
 
@@ -52,9 +57,18 @@ public class DefaultHttpConnectionManager implements HttpConnectionManager {
 
     private final HttpParams params;
 
-    /** The list of processors. */
-    // XXX: is this list really needed?
-    private final List processors;
+    /**
+     * The processors in progress. Processors remove themselves when they complete, so that
+     * adding and removing a processor doesn't depend on the number of open connections.
+     */
+    private final Set<IOProcessor> processors =
+            Collections.newSetFromMap(new ConcurrentHashMap<IOProcessor,Boolean>());
+
+    /** The number of connections currently being processed. */
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    /** The maximum number of open connections, or 0 if there is no limit. */
+    private volatile int maxOpenConnections;
 
     private HttpFactory httpFactory = null;
 
@@ -79,7 +93,6 @@ public class DefaultHttpConnectionManager implements HttpConnectionManager {
         this.executor = executor;
         this.workerfactory = workerfactory;
         this.params = params;
-        this.processors = new LinkedList();
     }
 
 	public DefaultHttpConnectionManager(
@@ -94,29 +107,74 @@ public class DefaultHttpConnectionManager implements HttpConnectionManager {
 
 
     /**
-     * Removes the destroyed processors.
+     * Sets the maximum number of connections processed concurrently. Connections accepted
+     * beyond that limit are rejected with a {@link RejectedExecutionException}.
+     * 
+     * @param maxOpenConnections The maximum number of open connections, or 0 for no limit.
+     */
+    public void setMaxOpenConnections(int maxOpenConnections) {
+        this.maxOpenConnections = maxOpenConnections;
+    }
+
+
+    public int getMaxOpenConnections() {
+        return this.maxOpenConnections;
+    }
+
+
+    /**
+     * Returns the number of connections currently being processed.
+     */
+    public int getOpenConnectionCount() {
+        return this.openConnections.get();
+    }
+
+
+    /**
+     * Returns the connections currently being processed. Use
+     * {@link AxisHttpConnection#getMetrics()} and {@link AxisHttpConnectionImpl#getIdleTime()}
+     * to get the number of requests served, the bytes transferred and the idle time of each
+     * connection.
+     */
+    public List<AxisHttpConnection> getOpenConnections() {
+        List<AxisHttpConnection> connections = new ArrayList<AxisHttpConnection>();
+        for (IOProcessor processor : this.processors) {
+            if (processor instanceof HttpServiceProcessor) {
+                connections.add(((HttpServiceProcessor) processor).getConnection());
+            }
+        }
+        return connections;
+    }
+
+
+    /**
+     * Reserves a slot for a new connection.
      * 
-     * @see IOProcessor#destroy()
+     * @throws RejectedExecutionException If the maximum number of open connections is reached.
      */
-    //XXX: is this method really needed? Processors are removed as soon as they complete
-    private synchronized void cleanup() {
-        for (Iterator i = this.processors.iterator(); i.hasNext();) {
-            IOProcessor processor = (IOProcessor) i.next();
-            if (processor.isDestroyed()) {
-                i.remove();
+    private void acquireConnectionSlot() {
+        while (true) {
+            int count = this.openConnections.get();
+            int max = this.maxOpenConnections;
+            if (max > 0 && count >= max) {
+                throw new RejectedExecutionException(
+                        "Maximum number of open connections (" + max + ") reached");
+            }
+            if (this.openConnections.compareAndSet(count, count + 1)) {
+                return;
             }
         }
     }
 
 
     /**
-     * Adds the specified {@linkplain IOProcessor} to the list of processors in 
+     * Adds the specified {@linkplain IOProcessor} to the set of processors in 
      * progress.
      * 
      * @param processor The processor to add.
      * @throws NullPointerException If processor is <code>null</code>.
      */
-    private synchronized void addProcessor(final IOProcessor processor) {
+    private void addProcessor(final IOProcessor processor) {
         if (processor == null) {
             throw new NullPointerException("The processor can't be null");
         }
@@ -125,18 +183,20 @@ public class DefaultHttpConnectionManager implements HttpConnectionManager {
 
 
     /**
-     * Removes the specified {@linkplain IOProcessor} from the list of
+     * Removes the specified {@linkplain IOProcessor} from the set of
      * processors.
      * 
      * @param processor The processor to remove.
      * @throws NullPointerException If processor is <code>null</code>.
      */
-    synchronized void removeProcessor(final IOProcessor processor)
+    void removeProcessor(final IOProcessor processor)
         throws NullPointerException {
         if (processor == null) {
             throw new NullPointerException("The processor can't be null");
         }
-        this.processors.remove(processor);
+        if (this.processors.remove(processor)) {
+            this.openConnections.decrementAndGet();
+        }
     }
 
 
@@ -144,9 +204,25 @@ public class DefaultHttpConnectionManager implements HttpConnectionManager {
         if (conn == null) {
             throw new IllegalArgumentException("HTTP connection may not be null");
         }
-        // Evict destroyed processors
-        cleanup();
+        acquireConnectionSlot();
+        IOProcessor processor;
+        try {
+            processor = createProcessor(conn);
+        } catch (RuntimeException ex) {
+            this.openConnections.decrementAndGet();
+            throw ex;
+        }
+        addProcessor(processor);
+        try {
+            this.executor.execute(processor);
+        } catch (RejectedExecutionException ex) {
+            removeProcessor(processor);
+            throw ex;
+        }
+    }
+
 
+    private IOProcessor createProcessor(final AxisHttpConnection conn) {
         // Assemble new Axis HTTP service
         HttpProcessor httpProcessor;
         ConnectionReuseStrategy connStrategy;
@@ -179,24 +255,29 @@ public class DefaultHttpConnectionManager implements HttpConnectionManager {
             public void completed(final IOProcessor processor) {
                 removeProcessor(processor);
                 if (LOG.isDebugEnabled()) {
-                    LOG.debug(processor + " terminated");
+                    HttpConnectionMetrics metrics = conn.getMetrics();
+                    if (metrics != null) {
+                        LOG.debug(processor + " terminated after serving "
+                                + metrics.getRequestCount() + " request(s); "
+                                + metrics.getReceivedBytesCount() + " bytes received, "
+                                + metrics.getSentBytesCount() + " bytes sent");
+                    } else {
+                        LOG.debug(processor + " terminated");
+                    }
                 }
             }
 
         };
-        IOProcessor processor = new HttpServiceProcessor(httpService, conn, callback);
-
-        addProcessor(processor);
-        this.executor.execute(processor);
+        return new HttpServiceProcessor(httpService, conn, callback);
     }
 
 
     public synchronized void shutdown() {
-        for (int i = 0; i < this.processors.size(); i++) {
-            IOProcessor processor = (IOProcessor) this.processors.get(i);
+        for (IOProcessor processor : this.processors) {
             processor.destroy();
         }
         this.processors.clear();
+        this.openConnections.set(0);
     }
 
 }
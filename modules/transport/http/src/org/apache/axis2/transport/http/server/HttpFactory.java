@@ -26,6 +26,10 @@ import org.apache.axis2.description.Parameter;
 import org.apache.axis2.description.TransportInDescription;
 import org.apache.axis2.engine.ListenerManager;
 import org.apache.axis2.transport.http.HTTPWorkerFactory;
+import org.apache.axis2.util.Utils;
+import org.apache.axis2.util.threadpool.VirtualThreads;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.http.ConnectionReuseStrategy;
 import org.apache.http.HttpResponseFactory;
 import org.apache.http.impl.DefaultConnectionReuseStrategy;
@@ -54,6 +58,8 @@ import java.util.concurrent.TimeUnit;
  */
 public class HttpFactory {
 
+    private static final Log log = LogFactory.getLog(HttpFactory.class);
+
     /**
      * Name of axis2.xml port parameter for SimpleHTTPServer configuration
      */
@@ -90,6 +96,13 @@ public class HttpFactory {
      */
     public static final String PARAMETER_REQUEST_MAX_THREAD_POOL_SIZE = "requestMaxThreadPoolSize";
 
+    /**
+     * Name of axis2.xml maxOpenConnections parameter for SimpleHTTPServer configuration. Connections
+     * accepted beyond that limit are answered with a 503 response and closed. The default (0)
+     * doesn't limit the number of open connections.
+     */
+    public static final String PARAMETER_MAX_OPEN_CONNECTIONS = "maxOpenConnections";
+
     /**
      * Name of axis2.xml threadKeepAliveTime parameter for SimpleHTTPServer configuration
      */
@@ -109,8 +122,10 @@ public class HttpFactory {
     private boolean requestTcpNoDelay;
     private int requestCoreThreadPoolSize;
     private int requestMaxThreadPoolSize;
+    private int maxOpenConnections;
     private long threadKeepAliveTime;
     private TimeUnit threadKeepAliveTimeUnit;
+    private boolean useVirtualThreads;
 
     private WorkerFactory requestWorkerFactory = null;
 
@@ -127,9 +142,14 @@ public class HttpFactory {
         requestTcpNoDelay = getBooleanParam(PARAMETER_REQUEST_TCP_NO_DELAY, true);
         requestCoreThreadPoolSize = getIntParam(PARAMETER_REQUEST_CORE_THREAD_POOL_SIZE, 100);
         requestMaxThreadPoolSize = getIntParam(PARAMETER_REQUEST_MAX_THREAD_POOL_SIZE, 150);
+        maxOpenConnections = getIntParam(PARAMETER_MAX_OPEN_CONNECTIONS, 0);
         threadKeepAliveTime = getLongParam(PARAMETER_THREAD_KEEP_ALIVE_TIME, 180L);
         threadKeepAliveTimeUnit =
                 getTimeUnitParam(PARAMETER_THREAD_KEEP_ALIVE_TIME_UNIT, TimeUnit.SECONDS);
+        String threadPoolType = getStringParam(Constants.Configuration.THREAD_POOL_TYPE,
+                Utils.getParameterValue(configurationContext.getAxisConfiguration().getParameter(
+                        Constants.Configuration.THREAD_POOL_TYPE)));
+        useVirtualThreads = Constants.Configuration.THREAD_POOL_TYPE_VIRTUAL.equals(threadPoolType);
     }
 
     /**
@@ -264,14 +284,25 @@ public class HttpFactory {
     public HttpConnectionManager newRequestConnectionManager(ExecutorService requestExecutor,
                                                              WorkerFactory workerFactory,
                                                              HttpParams params) {
-        return new DefaultHttpConnectionManager(configurationContext, requestExecutor,
-                                                workerFactory, params);
+        DefaultHttpConnectionManager manager = new DefaultHttpConnectionManager(
+                configurationContext, requestExecutor, workerFactory, params);
+        manager.setMaxOpenConnections(maxOpenConnections);
+        return manager;
     }
 
     /**
      * Create the executor use the manage request processing threads
      */
     public ExecutorService newRequestExecutor(int port) {
+        if (useVirtualThreads) {
+            ExecutorService executor = VirtualThreads.newExecutor("HttpConnection-" + port);
+            if (executor != null) {
+                log.info("Using virtual threads for the HTTP requests on port " + port);
+                return executor;
+            }
+            log.warn("Virtual threads are not supported by this Java runtime; using a thread " +
+                    "pool for the HTTP requests on port " + port);
+        }
         return new ThreadPoolExecutor(requestCoreThreadPoolSize, requestMaxThreadPoolSize,
                                       threadKeepAliveTime, threadKeepAliveTimeUnit,
                                       newRequestBlockingQueue(),
@@ -432,6 +463,20 @@ public class HttpFactory {
         this.requestCoreThreadPoolSize = requestCoreThreadPoolSize;
     }
 
+    /**
+     * Getter for maxOpenConnections
+     */
+    public int getMaxOpenConnections() {
+        return maxOpenConnections;
+    }
+
+    /**
+     * Setter for maxOpenConnections
+     */
+    public void setMaxOpenConnections(int maxOpenConnections) {
+        this.maxOpenConnections = maxOpenConnections;
+    }
+
     /**
      * Getter for requestMaxThreadPoolSize
      *
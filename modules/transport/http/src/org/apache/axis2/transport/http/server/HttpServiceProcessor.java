@@ -127,6 +127,16 @@ public class HttpServiceProcessor implements IOProcessor {
     }
 
 
+    /**
+     * Returns the connection processed by this HttpServiceProcessor.
+     * 
+     * @return The connection.
+     */
+    AxisHttpConnection getConnection() {
+        return this.conn;
+    }
+
+
     // -------------------------------------------------- Methods from Object
 
     /**
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import junit.framework.TestCase;
+import org.apache.axiom.om.OMOutputFormat;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.transport.MessageFormatter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.Arrays;
+
+public class AxisRequestEntityTest extends TestCase {
+    private static class FixedContentFormatter implements MessageFormatter {
+        private final byte[] content;
+
+        FixedContentFormatter(byte[] content) {
+            this.content = content;
+        }
+
+        public void writeTo(MessageContext messageContext, OMOutputFormat format,
+                OutputStream outputStream, boolean preserve) throws AxisFault {
+            try {
+                outputStream.write(content);
+            } catch (IOException ex) {
+                throw AxisFault.makeFault(ex);
+            }
+        }
+
+        public String getContentType(MessageContext messageContext, OMOutputFormat format,
+                String soapAction) {
+            return "application/octet-stream";
+        }
+
+        public URL getTargetAddress(MessageContext messageContext, OMOutputFormat format,
+                URL targetURL) throws AxisFault {
+            return targetURL;
+        }
+
+        public String formatSOAPAction(MessageContext messageContext, OMOutputFormat format,
+                String soapAction) {
+            return soapAction;
+        }
+    }
+
+    private File tempDir;
+
+    @Override
+    protected void setUp() throws Exception {
+        tempDir = File.createTempFile("axis2", "test");
+        tempDir.delete();
+        tempDir.mkdir();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        for (File file : tempDir.listFiles()) {
+            file.delete();
+        }
+        tempDir.delete();
+    }
+
+    private AxisRequestEntity createEntity(byte[] content) throws AxisFault {
+        MessageContext msgContext = new MessageContext();
+        msgContext.setProperty(HTTPConstants.REQUEST_BUFFER_THRESHOLD, "1024");
+        msgContext.setProperty(Constants.Configuration.ATTACHMENT_TEMP_DIR,
+                tempDir.getAbsolutePath());
+        return new AxisRequestEntity(new FixedContentFormatter(content), msgContext,
+                new OMOutputFormat(), "application/octet-stream", false, false, false);
+    }
+
+    public void testSmallRequestIsBufferedInMemory() throws Exception {
+        byte[] content = new byte[100];
+        Arrays.fill(content, (byte)'a');
+        AxisRequestEntity entity = createEntity(content);
+        assertEquals(0, tempDir.listFiles().length);
+        assertEquals(100, entity.getContentLength());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        entity.writeRequest(out);
+        assertTrue(Arrays.equals(content, out.toByteArray()));
+        entity.release();
+    }
+
+    public void testLargeRequestOverflowsToTemporaryFile() throws Exception {
+        byte[] content = new byte[100000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte)i;
+        }
+        AxisRequestEntity entity = createEntity(content);
+        assertEquals(1, tempDir.listFiles().length);
+        assertEquals(content.length, entity.getContentLength());
+        assertTrue(entity.isRepeatable());
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            entity.writeRequest(out);
+            assertTrue(Arrays.equals(content, out.toByteArray()));
+        }
+        entity.release();
+        assertEquals(0, tempDir.listFiles().length);
+        assertEquals(content.length, entity.getContentLength());
+        try {
+            entity.writeRequest(new ByteArrayOutputStream());
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // Expected
+        }
+    }
+}
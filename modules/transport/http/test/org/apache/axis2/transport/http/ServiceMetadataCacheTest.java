@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http;
+
+import junit.framework.TestCase;
+import org.apache.axis2.description.AxisService;
+import org.apache.neethi.Policy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+
+public class ServiceMetadataCacheTest extends TestCase {
+    private static class CountingRenderer implements ServiceMetadataCache.Renderer {
+        int count;
+
+        public int render(OutputStream out) throws IOException {
+            count++;
+            out.write(("<doc count='" + count + "'/>").getBytes("UTF-8"));
+            return 1;
+        }
+    }
+
+    public void testDocumentIsCached() throws Exception {
+        AxisService service = new AxisService("test");
+        ServiceMetadataCache cache = ServiceMetadataCache.getInstance(service);
+        assertSame(cache, ServiceMetadataCache.getInstance(service));
+        CountingRenderer renderer = new CountingRenderer();
+        ServiceMetadataCache.Document document =
+                ServiceMetadataCache.getDocument(service, cache, "wsdl|null|localhost", renderer);
+        assertSame(document,
+                ServiceMetadataCache.getDocument(service, cache, "wsdl|null|localhost", renderer));
+        assertEquals(1, renderer.count);
+        ServiceMetadataCache.getDocument(service, cache, "wsdl|null|otherhost", renderer);
+        assertEquals(2, renderer.count);
+    }
+
+    public void testPolicyChangeInvalidatesDocument() throws Exception {
+        AxisService service = new AxisService("test");
+        ServiceMetadataCache cache = ServiceMetadataCache.getInstance(service);
+        CountingRenderer renderer = new CountingRenderer();
+        ServiceMetadataCache.Document document =
+                ServiceMetadataCache.getDocument(service, cache, "xsd|null", renderer);
+        Policy policy = new Policy();
+        policy.setId("test-policy");
+        service.getPolicySubject().attachPolicy(policy);
+        ServiceMetadataCache.Document newDocument =
+                ServiceMetadataCache.getDocument(service, cache, "xsd|null", renderer);
+        assertEquals(2, renderer.count);
+        assertFalse(document.getETag().equals(newDocument.getETag()));
+    }
+
+    public void testCachingDisabled() throws Exception {
+        AxisService service = new AxisService("test");
+        service.addParameter("cacheServiceMetadata", "false");
+        assertNull(ServiceMetadataCache.getInstance(service));
+    }
+
+    public void testGzippedContent() throws Exception {
+        ServiceMetadataCache.Document document = ServiceMetadataCache.getDocument(
+                new AxisService("test"), null, "xsd|null", new CountingRenderer());
+        GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(document.getGzippedContent()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[256];
+        int c;
+        while ((c = in.read(buffer)) != -1) {
+            out.write(buffer, 0, c);
+        }
+        assertEquals("<doc count='1'/>", out.toString("UTF-8"));
+        assertFalse(document.getETag().equals(document.getGzippedETag()));
+    }
+}
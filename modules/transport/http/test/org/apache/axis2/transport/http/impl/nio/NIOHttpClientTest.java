@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.impl.nio;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NIOHttpClientTest extends TestCase {
+    private static byte[] bytes(String s) throws IOException {
+        return s.getBytes("ISO-8859-1");
+    }
+
+    public void testParseContentLength() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser();
+        assertFalse(parser.parse(ByteBuffer.wrap(bytes("HTTP/1.1 200 OK\r\nContent-Le"))));
+        assertTrue(parser.parse(ByteBuffer.wrap(bytes("ngth: 5\r\n\r\nhello"))));
+        assertEquals(200, parser.getStatusCode());
+        assertEquals("OK", parser.getStatusText());
+        assertEquals("5", parser.getHeader("content-length"));
+        assertEquals("hello", new String(parser.getContent(), "ISO-8859-1"));
+        assertTrue(parser.isKeepAlive());
+    }
+
+    public void testParseChunked() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser();
+        String response = "HTTP/1.1 100 Continue\r\n\r\n"
+                + "HTTP/1.1 500 Internal Server Error\r\nTransfer-Encoding: chunked\r\n"
+                + "Connection: close\r\n\r\n3\r\nabc\r\n4;ext=1\r\ndefg\r\n0\r\n\r\n";
+        byte[] data = bytes(response);
+        // Feed the response one byte at a time
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(i == data.length - 1, parser.parse(ByteBuffer.wrap(data, i, 1)));
+        }
+        assertEquals(500, parser.getStatusCode());
+        assertEquals("abcdefg", new String(parser.getContent(), "ISO-8859-1"));
+        assertFalse(parser.isKeepAlive());
+    }
+
+    public void testParseBodyUntilClose() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser();
+        assertFalse(parser.parse(ByteBuffer.wrap(bytes("HTTP/1.0 200 OK\r\n\r\nbody"))));
+        parser.endOfStream();
+        assertEquals("body", new String(parser.getContent(), "ISO-8859-1"));
+        assertFalse(parser.isKeepAlive());
+    }
+
+    public void testPrematureEndOfStream() throws Exception {
+        HttpResponseParser parser = new HttpResponseParser();
+        parser.parse(ByteBuffer.wrap(bytes("HTTP/1.1 200 OK\r\nContent-Length: 10\r\n\r\nabc")));
+        try {
+            parser.endOfStream();
+            fail("Expected IOException");
+        } catch (IOException ex) {
+            // Expected
+        }
+    }
+
+    public void testAuthenticationNotSupported() throws Exception {
+        NIORequest request = new NIORequest(null, null, "POST",
+                new URL("http://localhost/axis2/services/Echo"), null);
+        try {
+            request.enableAuthentication(null);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("blocking"));
+        }
+    }
+
+    public void testConnectionReuse() throws Exception {
+        final ServerSocket serverSocket = new ServerSocket(0);
+        final AtomicInteger connections = new AtomicInteger();
+        Thread server = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    InputStream in = socket.getInputStream();
+                    OutputStream out = socket.getOutputStream();
+                    for (int i = 0; i < 2; i++) {
+                        // Read the request head; the test requests have no body
+                        int state = 0;
+                        while (state < 4) {
+                            int c = in.read();
+                            if (c == -1) {
+                                return;
+                            }
+                            state = (c == '\r' || c == '\n') ? state + 1 : 0;
+                        }
+                        out.write(bytes("HTTP/1.1 200 OK\r\nContent-Length: 2\r\n\r\nok"));
+                        out.flush();
+                    }
+                    socket.close();
+                } catch (IOException ex) {
+                    // Ignore; the test will fail
+                }
+            }
+        };
+        server.start();
+        NIOHttpClient client = new NIOHttpClient(1, 5, 30000);
+        try {
+            for (int i = 0; i < 2; i++) {
+                final CountDownLatch latch = new CountDownLatch(1);
+                final HttpResponseParser[] response = new HttpResponseParser[1];
+                client.execute("localhost", serverSocket.getLocalPort(),
+                        bytes("GET / HTTP/1.1\r\nHost: localhost\r\n\r\n"), 5000, 5000,
+                        new NIOHttpClient.ExchangeCallback() {
+                    public void completed(HttpResponseParser r) {
+                        response[0] = r;
+                        latch.countDown();
+                    }
+
+                    public void failed(Exception ex) {
+                        latch.countDown();
+                    }
+                });
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+                assertNotNull(response[0]);
+                assertEquals("ok", new String(response[0].getContent(), "ISO-8859-1"));
+            }
+            assertEquals(1, connections.get());
+        } finally {
+            client.shutdown();
+            serverSocket.close();
+        }
+    }
+}
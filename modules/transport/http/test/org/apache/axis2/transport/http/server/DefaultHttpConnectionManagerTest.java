@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.server;
+
+import junit.framework.TestCase;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.transport.http.HTTPWorkerFactory;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpParams;
+
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+public class DefaultHttpConnectionManagerTest extends TestCase {
+    /**
+     * Executor that collects the tasks so that the test can decide when to run them.
+     */
+    private static class CollectingExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+    }
+
+    private ServerSocket serverSocket;
+    private final List<Socket> sockets = new ArrayList<Socket>();
+    private HttpParams params;
+
+    @Override
+    protected void setUp() throws Exception {
+        serverSocket = new ServerSocket(0);
+        params = new BasicHttpParams();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        serverSocket.close();
+    }
+
+    private AxisHttpConnectionImpl openConnection() throws Exception {
+        Socket client = new Socket("localhost", serverSocket.getLocalPort());
+        sockets.add(client);
+        Socket server = serverSocket.accept();
+        sockets.add(server);
+        return new AxisHttpConnectionImpl(server, params);
+    }
+
+    public void testMaxOpenConnections() throws Exception {
+        CollectingExecutor executor = new CollectingExecutor();
+        DefaultHttpConnectionManager manager = new DefaultHttpConnectionManager(
+                new ConfigurationContext(new AxisConfiguration()), executor,
+                new HTTPWorkerFactory(), params);
+        manager.setMaxOpenConnections(2);
+        AxisHttpConnectionImpl conn1 = openConnection();
+        manager.process(conn1);
+        manager.process(openConnection());
+        assertEquals(2, manager.getOpenConnectionCount());
+        assertEquals(2, manager.getOpenConnections().size());
+        try {
+            manager.process(openConnection());
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+            // Expected
+        }
+        assertEquals(2, manager.getOpenConnectionCount());
+
+        // Let the first connection terminate; this frees a slot
+        conn1.close();
+        executor.tasks.get(0).run();
+        assertEquals(1, manager.getOpenConnectionCount());
+        assertFalse(manager.getOpenConnections().contains(conn1));
+        manager.process(openConnection());
+        assertEquals(2, manager.getOpenConnectionCount());
+
+        manager.shutdown();
+        assertEquals(0, manager.getOpenConnectionCount());
+    }
+
+    public void testRejectedByExecutor() throws Exception {
+        DefaultHttpConnectionManager manager = new DefaultHttpConnectionManager(
+                new ConfigurationContext(new AxisConfiguration()), new Executor() {
+                    public void execute(Runnable command) {
+                        throw new RejectedExecutionException();
+                    }
+                }, new HTTPWorkerFactory(), params);
+        try {
+            manager.process(openConnection());
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+            // Expected
+        }
+        assertEquals(0, manager.getOpenConnectionCount());
+        assertTrue(manager.getOpenConnections().isEmpty());
+    }
+
+    public void testConnectionMetrics() throws Exception {
+        AxisHttpConnectionImpl conn = openConnection();
+        assertNotNull(conn.getMetrics());
+        assertEquals(0, conn.getMetrics().getRequestCount());
+        Thread.sleep(20);
+        assertTrue(conn.getIdleTime() >= 20);
+        conn.close();
+    }
+}
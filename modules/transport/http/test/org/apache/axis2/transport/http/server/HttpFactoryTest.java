@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.http.server;
+
+import junit.framework.TestCase;
+import org.apache.axis2.Constants;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.TransportInDescription;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.transport.http.SimpleHTTPServer;
+import org.apache.axis2.util.threadpool.VirtualThreads;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class HttpFactoryTest extends TestCase {
+
+    private static HttpFactory createFactory(String threadPoolType) throws Exception {
+        AxisConfiguration axisConfig = new AxisConfiguration();
+        TransportInDescription transportIn =
+                new TransportInDescription(Constants.TRANSPORT_HTTP);
+        transportIn.setReceiver(new SimpleHTTPServer());
+        if (threadPoolType != null) {
+            transportIn.addParameter(
+                    new Parameter(Constants.Configuration.THREAD_POOL_TYPE, threadPoolType));
+        }
+        axisConfig.addTransportIn(transportIn);
+        return new HttpFactory(new ConfigurationContext(axisConfig));
+    }
+
+    private static Thread runTask(ExecutorService executor) throws Exception {
+        final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+        try {
+            Future<?> future = executor.submit(new Runnable() {
+                public void run() {
+                    thread.set(Thread.currentThread());
+                }
+            });
+            future.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+        return thread.get();
+    }
+
+    private static boolean isVirtual(Thread thread) throws Exception {
+        return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    }
+
+    public void testPlatformThreadsByDefault() throws Exception {
+        ExecutorService executor = createFactory(null).newRequestExecutor(6060);
+        assertTrue(executor instanceof ThreadPoolExecutor);
+        assertTrue(runTask(executor).getName().startsWith("HttpConnection-6060"));
+    }
+
+    /**
+     * On Java runtimes without virtual threads, requesting them falls back to the thread pool.
+     */
+    public void testVirtualThreadsFallback() throws Exception {
+        if (VirtualThreads.isSupported()) {
+            // the fallback can only be tested on Java versions before 21
+            return;
+        }
+        ExecutorService executor = createFactory(
+                Constants.Configuration.THREAD_POOL_TYPE_VIRTUAL).newRequestExecutor(6060);
+        assertTrue(executor instanceof ThreadPoolExecutor);
+        assertTrue(runTask(executor).getName().startsWith("HttpConnection-6060"));
+    }
+
+    public void testVirtualThreads() throws Exception {
+        if (!VirtualThreads.isSupported()) {
+            // virtual threads require Java 21 or later
+            return;
+        }
+        ExecutorService executor = createFactory(
+                Constants.Configuration.THREAD_POOL_TYPE_VIRTUAL).newRequestExecutor(6060);
+        assertFalse(executor instanceof ThreadPoolExecutor);
+        Thread thread = runTask(executor);
+        assertTrue(isVirtual(thread));
+        assertTrue(thread.getName().startsWith("HttpConnection-6060-"));
+    }
+}
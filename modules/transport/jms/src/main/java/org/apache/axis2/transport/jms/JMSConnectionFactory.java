@@ -30,7 +30,11 @@ import javax.jms.Session;
 import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Encapsulate a JMS Connection factory definition within an Axis2.xml
@@ -64,6 +68,11 @@ public class JMSConnectionFactory {
     private Destination sharedDestination = null;
     /** The shared JMS connection for this JMS connection factory */
     private int cacheLevel = JMSConstants.CACHE_CONNECTION;
+    /** The shared reply listeners by reply Destination (null for a temporary destination) */
+    private final Map<Destination, JMSReplyListener> replyListeners =
+        new HashMap<Destination, JMSReplyListener>();
+    /** The scheduler expiring the requests waiting on the shared reply listeners */
+    private ScheduledThreadPoolExecutor replyTimer = null;
 
     /**
      * Digest a JMS CF definition from an axis2.xml 'Parameter' and construct
@@ -133,6 +142,14 @@ public class JMSConnectionFactory {
      * Close all connections, sessions etc.. and stop this connection factory
      */
     public synchronized void stop() {
+        for (JMSReplyListener replyListener : replyListeners.values()) {
+            replyListener.close();
+        }
+        replyListeners.clear();
+        if (replyTimer != null) {
+            replyTimer.shutdownNow();
+            replyTimer = null;
+        }
         if (sharedConnection != null) {
             try {
             	sharedConnection.close();
@@ -218,6 +235,54 @@ public class JMSConnectionFactory {
                 JMSConstants.DESTINATION_TYPE_GENERIC;
     }
 
+    /**
+     * Should synchronous request/reply invocations share a reply listener per reply destination?
+     * @return true if the PARAM_SHARED_REPLY_LISTENER parameter is set to true
+     */
+    public boolean isSharedReplyListener() {
+        return Boolean.valueOf(parameters.get(JMSConstants.PARAM_SHARED_REPLY_LISTENER));
+    }
+
+    /**
+     * Get the shared reply listener for the given reply destination, starting it if required.
+     * A listener whose connection failed is replaced by a new one.
+     * @param replyDestination the reply destination, or null to listen on a temporary destination
+     * @return the shared reply listener
+     */
+    public synchronized JMSReplyListener getReplyListener(Destination replyDestination) {
+        JMSReplyListener replyListener = replyListeners.get(replyDestination);
+        if (replyListener != null && replyListener.isActive()) {
+            return replyListener;
+        }
+
+        if (replyTimer == null) {
+            replyTimer = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "JMS reply timer - " + name);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            replyTimer.setRemoveOnCancelPolicy(true);
+        }
+
+        Connection connection = createConnection();
+        try {
+            Session session = JMSUtils.createSession(
+                connection, false, Session.AUTO_ACKNOWLEDGE, isJmsSpec11(), isQueue());
+            replyListener = new JMSReplyListener(
+                name, connection, session, replyDestination, replyTimer);
+        } catch (JMSException e) {
+            try {
+                connection.close();
+            } catch (JMSException ignore) {}
+            handleException("Error starting the shared reply listener on destination : " +
+                replyDestination + " for JMS CF : " + name, e);
+        }
+        replyListeners.put(replyDestination, replyListener);
+        return replyListener;
+    }
+
     private void handleException(String msg, Exception e) {
         log.error(msg, e);
         throw new AxisJMSException(msg, e);
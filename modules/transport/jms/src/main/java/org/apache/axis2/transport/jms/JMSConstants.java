@@ -92,6 +92,13 @@ public class JMSConstants {
      * also see {@link DESTINATION_TYPE_QUEUE}, {@link DESTINATION_TYPE_TOPIC}
      */
     public static final String PARAM_REPLY_DEST_TYPE = "transport.jms.ReplyDestinationType";
+    /**
+     * The connection factory Parameter name indicating whether synchronous request/reply
+     * invocations should share a single long lived consumer per reply destination ("true"),
+     * instead of creating a consumer with a message selector for every request (the default).
+     * See {@link JMSReplyListener}
+     */
+    public static final String PARAM_SHARED_REPLY_LISTENER = "transport.jms.SharedReplyListener";
     /**
      * The Parameter name of an Axis2 service, indicating the JMS connection
      * factory which should be used to listen for messages for it. This is
@@ -176,6 +183,18 @@ public class JMSConstants {
      * prevent many longer running threads - default is unlimited (i.e. a worker task will live forever)
      */
     public static final String PARAM_MAX_MSGS_PER_TASK = "transport.jms.MaxMessagesPerTask";
+    /**
+     * The maximum number of messages a polling worker task receives and processes before
+     * committing the local or JTA transaction, or acknowledging the messages, once for all of
+     * them - default is 1 (i.e. commit or acknowledge every message)
+     */
+    public static final String PARAM_BATCH_SIZE = "transport.jms.BatchSize";
+    /**
+     * The number of milliseconds a polling worker task waits for further messages to complete a
+     * batch after receiving its first message - see {@link PARAM_BATCH_SIZE}. Default is 0, i.e.
+     * a batch only contains the messages that are immediately available
+     */
+    public static final String PARAM_BATCH_TIMEOUT = "transport.jms.BatchTimeout";
     /**
      * Number of milliseconds before the first reconnection attempt is tried, on detection of an
      * error. Subsequent retries follow a geometric series, where the
@@ -269,5 +288,7 @@ public class JMSConstants {
     public static final String JMSX_GROUP_ID = "JMSXGroupID";
     /** The JMSXGroupSeq property */
     public static final String JMSX_GROUP_SEQ = "JMSXGroupSeq";
+    /** The JMSXDeliveryCount property */
+    public static final String JMSX_DELIVERY_COUNT = "JMSXDeliveryCount";
 
 }
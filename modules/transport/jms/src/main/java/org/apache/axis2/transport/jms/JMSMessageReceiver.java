@@ -118,6 +118,7 @@ public class JMSMessageReceiver {
 
 
         boolean successful = false;
+        long start = System.nanoTime();
         try {
             successful = processThoughEngine(message, ut);
 
@@ -129,6 +130,7 @@ public class JMSMessageReceiver {
             log.error("Unknown error processing message", e);
 
         } finally {
+            metrics.notifyProcessingTime(System.nanoTime() - start);
             if (successful) {
                 metrics.incrementMessagesReceived();
             } else {
@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.jms;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A long lived consumer on a reply destination, shared by all synchronous request/reply
+ * invocations that use this destination. Instead of creating a consumer with a
+ * <code>JMSCorrelationID</code> selector for every request, callers register the correlation ID
+ * of their request before sending it, and the replies are dispatched to them by JMS correlation
+ * ID as they arrive.
+ * <p/>
+ * Callers either block in {@link PendingReply#await(long)}, or register a {@link ReplyHandler}
+ * that is invoked on the JMS delivery thread; the timeouts of such handlers are managed by a
+ * scheduler shared by the listeners of a JMS connection factory. Replies with an unknown
+ * correlation ID (e.g. replies that arrive after the caller gave up) are discarded.
+ * <p/>
+ * The listener uses its own connection. If that connection fails, all pending invocations fail
+ * and the listener is replaced by the connection factory on the next request.
+ */
+public class JMSReplyListener implements MessageListener, ExceptionListener {
+
+    private static final Log log = LogFactory.getLog(JMSReplyListener.class);
+
+    /**
+     * Receives the outcome of a request registered with
+     * {@link JMSReplyListener#expectReply(String, long, ReplyHandler)}. Exactly one of the methods
+     * is called; implementations must not block as they are invoked on the JMS delivery thread
+     * or on the timeout scheduler.
+     */
+    public interface ReplyHandler {
+        /**
+         * Called when the reply has been received
+         * @param reply the JMS reply message
+         */
+        void onReply(Message reply);
+
+        /**
+         * Called if no reply has been received within the timeout
+         */
+        void onTimeout();
+
+        /**
+         * Called if the listener failed before the reply has been received
+         * @param e the error
+         */
+        void onError(Exception e);
+    }
+
+    /** The name of the JMS CF this listener belongs to, used for logging */
+    private final String name;
+    private final Connection connection;
+    private final MessageConsumer consumer;
+    private final Destination destination;
+    /** The scheduler used to expire the requests of asynchronous callers */
+    private final ScheduledExecutorService timer;
+    /** The registered requests by JMS correlation ID */
+    private final ConcurrentMap<String, Registration> registrations =
+        new ConcurrentHashMap<String, Registration>();
+    private volatile boolean active = true;
+
+    /**
+     * Start listening for replies
+     * @param name the name of the JMS CF, used for logging
+     * @param connection a dedicated (not yet started) Connection that will be owned by this listener
+     * @param session a Session of the connection that will be owned by this listener
+     * @param destination the reply destination, or null to use a temporary destination
+     * @param timer the scheduler used to expire requests
+     * @throws JMSException on error
+     */
+    public JMSReplyListener(String name, Connection connection, Session session,
+        Destination destination, ScheduledExecutorService timer) throws JMSException {
+
+        this.name = name;
+        this.connection = connection;
+        this.destination = destination != null ?
+            destination : JMSUtils.createTemporaryDestination(session);
+        this.timer = timer;
+
+        consumer = JMSUtils.createConsumer(session, this.destination, null);
+        consumer.setMessageListener(this);
+        connection.setExceptionListener(this);
+        connection.start();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Started shared reply listener on destination : " + this.destination +
+                " for JMS CF : " + name);
+        }
+    }
+
+    /**
+     * The destination to which replies must be sent
+     * @return the reply destination
+     */
+    public Destination getDestination() {
+        return destination;
+    }
+
+    /**
+     * Is this listener still able to receive replies?
+     * @return false if the listener has been closed or its connection failed
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * The number of requests waiting for a reply
+     * @return the number of pending requests
+     */
+    public int getPendingCount() {
+        return registrations.size();
+    }
+
+    /**
+     * Register a request whose caller will block until the reply is received. This must be
+     * called before the request is sent.
+     * @param correlationId the JMS correlation ID of the expected reply
+     * @return the pending reply to wait on
+     */
+    public PendingReply expectReply(String correlationId) {
+        PendingReply pendingReply = new PendingReply(correlationId);
+        pendingReply.registration = new Registration(pendingReply);
+        register(correlationId, pendingReply.registration);
+        return pendingReply;
+    }
+
+    /**
+     * Register a request whose outcome will be passed to the given handler. This must be called
+     * before the request is sent.
+     * @param correlationId the JMS correlation ID of the expected reply
+     * @param timeout the number of milliseconds to wait for the reply, or 0 to wait forever
+     * @param handler the handler to notify
+     */
+    public void expectReply(final String correlationId, long timeout, ReplyHandler handler) {
+        final Registration registration = new Registration(handler);
+        register(correlationId, registration);
+        if (timeout > 0) {
+            registration.timeoutTask = timer.schedule(new Runnable() {
+                public void run() {
+                    if (registrations.remove(correlationId, registration)) {
+                        registration.handler.onTimeout();
+                    }
+                }
+            }, timeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void register(String correlationId, Registration registration) {
+        if (!active) {
+            throw new AxisJMSException("Shared reply listener on destination : " + destination +
+                " for JMS CF : " + name + " is not active");
+        }
+        if (registrations.putIfAbsent(correlationId, registration) != null) {
+            throw new AxisJMSException("A request with JMS correlation ID : " + correlationId +
+                " is already waiting for a reply on destination : " + destination);
+        }
+    }
+
+    /**
+     * Forget a registered request, e.g. because it could not be sent
+     * @param correlationId the JMS correlation ID of the request
+     */
+    public void cancel(String correlationId) {
+        Registration registration = registrations.remove(correlationId);
+        if (registration != null) {
+            registration.cancelTimeout();
+        }
+    }
+
+    public void onMessage(Message message) {
+        String correlationId;
+        try {
+            correlationId = message.getJMSCorrelationID();
+        } catch (JMSException e) {
+            log.warn("Error reading the JMS correlation ID of a reply on destination : " +
+                destination, e);
+            return;
+        }
+
+        Registration registration =
+            correlationId == null ? null : registrations.remove(correlationId);
+        if (registration == null) {
+            log.warn("Discarding a reply with unknown or expired JMS correlation ID : " +
+                correlationId + " received on destination : " + destination);
+            return;
+        }
+
+        registration.cancelTimeout();
+        try {
+            registration.handler.onReply(message);
+        } catch (RuntimeException e) {
+            log.error("Error processing the reply with JMS correlation ID : " + correlationId, e);
+        }
+    }
+
+    public void onException(JMSException e) {
+        log.error("Shared reply listener on destination : " + destination + " for JMS CF : " +
+            name + " failed", e);
+        close(e);
+    }
+
+    /**
+     * Close the connection of this listener, and fail the requests still waiting for a reply
+     */
+    public void close() {
+        close(new AxisJMSException("Shared reply listener on destination : " + destination +
+            " for JMS CF : " + name + " has been closed"));
+    }
+
+    private void close(Exception cause) {
+        active = false;
+        try {
+            connection.close();
+        } catch (JMSException e) {
+            log.warn("Error closing the shared reply listener for JMS CF : " + name, e);
+        }
+
+        for (Iterator<Registration> it = registrations.values().iterator(); it.hasNext(); ) {
+            Registration registration = it.next();
+            it.remove();
+            registration.cancelTimeout();
+            registration.handler.onError(cause);
+        }
+    }
+
+    /**
+     * A request that has been registered with this listener
+     */
+    private static final class Registration {
+        final ReplyHandler handler;
+        volatile ScheduledFuture<?> timeoutTask;
+
+        Registration(ReplyHandler handler) {
+            this.handler = handler;
+        }
+
+        void cancelTimeout() {
+            ScheduledFuture<?> task = timeoutTask;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * A reply that a caller waits for synchronously
+     */
+    public final class PendingReply implements ReplyHandler {
+        private final String correlationId;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private Registration registration;
+        private volatile Message reply;
+        private volatile Exception error;
+
+        PendingReply(String correlationId) {
+            this.correlationId = correlationId;
+        }
+
+        /**
+         * The JMS correlation ID of the expected reply
+         * @return the correlation ID
+         */
+        public String getCorrelationId() {
+            return correlationId;
+        }
+
+        /**
+         * Wait for the reply
+         * @param timeout the number of milliseconds to wait, or 0 to wait forever
+         * @return the reply or null if it was not received within the timeout
+         * @throws JMSException if the listener failed while waiting
+         * @throws InterruptedException if the calling thread was interrupted
+         */
+        public Message await(long timeout) throws JMSException, InterruptedException {
+            try {
+                if (timeout > 0) {
+                    latch.await(timeout, TimeUnit.MILLISECONDS);
+                } else {
+                    latch.await();
+                }
+            } finally {
+                // Nothing if the reply was received; otherwise late replies will be discarded
+                registrations.remove(correlationId, registration);
+            }
+
+            if (error != null) {
+                JMSException e = new JMSException("Error waiting for the reply with JMS " +
+                    "correlation ID : " + correlationId);
+                e.setLinkedException(error);
+                throw e;
+            }
+            return reply;
+        }
+
+        public void onReply(Message reply) {
+            this.reply = reply;
+            latch.countDown();
+        }
+
+        public void onTimeout() {
+            latch.countDown();
+        }
+
+        public void onError(Exception e) {
+            this.error = e;
+            latch.countDown();
+        }
+    }
+}
@@ -19,12 +19,14 @@ import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axiom.om.OMElement;
 import org.apache.axiom.om.OMText;
 import org.apache.axiom.om.OMNode;
+import org.apache.axiom.util.UIDGenerator;
 import org.apache.axis2.util.MessageProcessorSelector;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.Constants;
 import org.apache.axis2.context.MessageContext;
 import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.transport.AsyncTransportSender;
 import org.apache.axis2.transport.MessageFormatter;
 import org.apache.axis2.transport.OutTransportInfo;
 import org.apache.axis2.transport.base.*;
@@ -42,8 +44,16 @@ import java.util.*;
 
 /**
  * The TransportSender for JMS
+ *
+ * If the JMS connection factory used to send a request enables a shared reply listener (see
+ * {@link JMSConstants#PARAM_SHARED_REPLY_LISTENER}), synchronous request/reply invocations wait
+ * for the response on a {@link JMSReplyListener}, and non blocking invocations don't block any
+ * thread while waiting for the response. Otherwise a consumer is created for each request, and
+ * non blocking invocations wait for the response on a thread of the configuration context's
+ * thread pool.
  */
-public class JMSSender extends AbstractTransportSender implements ManagementSupport {
+public class JMSSender extends AbstractTransportSender
+        implements ManagementSupport, AsyncTransportSender {
 
     public static final String TRANSPORT_NAME = Constants.TRANSPORT_JMS;
 
@@ -148,22 +158,74 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
             contentTypeProperty = jmsOut.getContentTypeProperty();
         }
 
+        // is the caller waiting for the response without blocking?
+        final AsyncTransportSender.ResponseCallback callback = waitForSynchronousResponse(msgCtx) ?
+            (AsyncTransportSender.ResponseCallback) msgCtx.getProperty(RESPONSE_CALLBACK) : null;
+
+        if (callback != null && !isSharedReplyListener(jmsConnectionFactory)) {
+            // without a shared reply listener, waiting for the response blocks a thread
+            final MessageContext requestMsgCtx = msgCtx;
+            final JMSMessageSender requestSender = messageSender;
+            final String requestContentTypeProperty = contentTypeProperty;
+            final JMSConnectionFactory requestConnectionFactory = jmsConnectionFactory;
+            final JMSOutTransportInfo requestJmsOut = jmsOut;
+            msgCtx.getConfigurationContext().getThreadPool().execute(new Runnable() {
+                public void run() {
+                    try {
+                        send(requestMsgCtx, requestSender, requestContentTypeProperty,
+                            requestConnectionFactory, requestJmsOut, null);
+                    } catch (Exception e) {
+                        callback.onError(e);
+                        return;
+                    }
+                    callback.onResponse();
+                }
+            });
+        } else {
+            send(msgCtx, messageSender, contentTypeProperty, jmsConnectionFactory, jmsOut, callback);
+        }
+    }
+
+    /**
+     * Send the message and, unless a callback is given, wait for the synchronous response if
+     * one is expected
+     */
+    private void send(MessageContext msgCtx, JMSMessageSender messageSender,
+        String contentTypeProperty, JMSConnectionFactory jmsConnectionFactory,
+        JMSOutTransportInfo jmsOut, AsyncTransportSender.ResponseCallback callback)
+        throws AxisFault {
+
+        JMSReplyListener.PendingReply pendingReply;
         // need to synchronize as Sessions are not thread safe
         synchronized (messageSender.getSession()) {
             try {
-                sendOverJMS(msgCtx, messageSender, contentTypeProperty, jmsConnectionFactory, jmsOut);
+                pendingReply = sendOverJMS(msgCtx, messageSender, contentTypeProperty,
+                    jmsConnectionFactory, jmsOut, callback);
             } finally {
                 messageSender.close();
             }
         }
+
+        // a response expected on a shared reply listener is awaited without holding the session
+        if (pendingReply != null) {
+            waitForSharedResponseAndProcess(pendingReply, msgCtx, contentTypeProperty);
+        }
+    }
+
+    private static boolean isSharedReplyListener(JMSConnectionFactory jmsConnectionFactory) {
+        return jmsConnectionFactory != null && jmsConnectionFactory.isSharedReplyListener();
     }
 
     /**
      * Perform actual sending of the JMS message
+     *
+     * @return the reply to wait for if the response is expected synchronously on a shared reply
+     *         listener, or null
      */
-    private void sendOverJMS(MessageContext msgCtx, JMSMessageSender messageSender,
-        String contentTypeProperty, JMSConnectionFactory jmsConnectionFactory,
-        JMSOutTransportInfo jmsOut) throws AxisFault {
+    private JMSReplyListener.PendingReply sendOverJMS(MessageContext msgCtx,
+        JMSMessageSender messageSender, String contentTypeProperty,
+        JMSConnectionFactory jmsConnectionFactory, JMSOutTransportInfo jmsOut,
+        AsyncTransportSender.ResponseCallback callback) throws AxisFault {
         
         // convert the axis message context into a JMS Message that we can send over JMS
         Message message = null;
@@ -177,6 +239,7 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         // should we wait for a synchronous response on this same thread?
         boolean waitForResponse = waitForSynchronousResponse(msgCtx);
         Destination replyDestination = jmsOut.getReplyDestination();
+        JMSReplyListener replyListener = null;
 
         // if this is a synchronous out-in, prepare to listen on the response destination
         if (waitForResponse) {
@@ -199,16 +262,46 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                     replyDestination = jmsOut.getReplyDestination(replyDestName);
                 }
             }
+
+            if (isSharedReplyListener(jmsConnectionFactory)) {
+                replyListener = jmsConnectionFactory.getReplyListener(replyDestination);
+                replyDestination = replyListener.getDestination();
+                try {
+                    // the correlation ID must be known before sending, so that the request can
+                    // be registered before its reply arrives
+                    correlationId = message.getJMSCorrelationID();
+                    if (correlationId == null || correlationId.length() == 0) {
+                        correlationId = UIDGenerator.generateUID();
+                        message.setJMSCorrelationID(correlationId);
+                    }
+                } catch (JMSException e) {
+                    handleException("Error setting the JMS correlation ID of the request", e);
+                }
+            }
+
             replyDestination = JMSUtils.setReplyDestination(
                 replyDestination, messageSender.getSession(), message);
         }
 
+        JMSReplyListener.PendingReply pendingReply = null;
+        if (replyListener != null) {
+            if (callback != null) {
+                expectAsyncResponse(replyListener, msgCtx, correlationId, contentTypeProperty,
+                    callback);
+            } else {
+                pendingReply = replyListener.expectReply(correlationId);
+            }
+        }
+
         try {
             messageSender.send(message, msgCtx);
             metrics.incrementMessagesSent(msgCtx);
 
         } catch (AxisJMSException e) {
             metrics.incrementFaultsSending();
+            if (replyListener != null) {
+                replyListener.cancel(correlationId);
+            }
             handleException("Error sending JMS message", e);
         }
 
@@ -219,7 +312,7 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         }
 
         // if we are expecting a synchronous response back for the message sent out
-        if (waitForResponse) {
+        if (waitForResponse && replyListener == null) {
             // TODO ********************************************************************************
             // TODO **** replace with asynchronous polling via a poller task to process this *******
             // information would be given. Then it should poll (until timeout) the
@@ -244,6 +337,7 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                 msgCtx, correlationId, contentTypeProperty);
             // TODO ********************************************************************************
         }
+        return pendingReply;
     }
 
     /**
@@ -267,11 +361,7 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
                 "JMSCorrelationID = '" + correlationId + "'");
 
             // how long are we willing to wait for the sync response
-            long timeout = JMSConstants.DEFAULT_JMS_TIMEOUT;
-            String waitReply = (String) msgCtx.getProperty(JMSConstants.JMS_WAIT_REPLY);
-            if (waitReply != null) {
-                timeout = Long.valueOf(waitReply).longValue();
-            }
+            long timeout = getResponseTimeout(msgCtx);
 
             if (log.isDebugEnabled()) {
                 log.debug("Waiting for a maximum of " + timeout +
@@ -282,23 +372,7 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
             Message reply = consumer.receive(timeout);
 
             if (reply != null) {
-
-                // update transport level metrics
-                metrics.incrementMessagesReceived();                
-                try {
-                    metrics.incrementBytesReceived(JMSUtils.getMessageSize(reply));
-                } catch (JMSException e) {
-                    log.warn("Error reading JMS message size to update transport metrics", e);
-                }
-
-                try {
-                    processSyncResponse(msgCtx, reply, contentTypeProperty);
-                    metrics.incrementMessagesReceived();
-                } catch (AxisFault e) {
-                    metrics.incrementFaultsReceiving();
-                    throw e;
-                }
-
+                processResponse(msgCtx, reply, contentTypeProperty);
             } else {
                 log.warn("Did not receive a JMS response within " +
                     timeout + " ms to destination : " + replyDestination +
@@ -314,6 +388,116 @@ public class JMSSender extends AbstractTransportSender implements ManagementSupp
         }
     }
 
+    /**
+     * Wait for a response message that is expected on a shared reply listener. If it arrives
+     * within the specified time interval, process it through Axis2
+     * @param pendingReply the reply registered with the shared reply listener
+     * @param msgCtx the outgoing message for which we are expecting the response
+     * @param contentTypeProperty the message property used to determine the content type
+     *                            of the response message
+     * @throws AxisFault on error
+     */
+    private void waitForSharedResponseAndProcess(JMSReplyListener.PendingReply pendingReply,
+            MessageContext msgCtx, String contentTypeProperty) throws AxisFault {
+
+        long timeout = getResponseTimeout(msgCtx);
+        String correlationId = pendingReply.getCorrelationId();
+        if (log.isDebugEnabled()) {
+            log.debug("Waiting for a maximum of " + timeout +
+                "ms for a response message with JMS correlation ID : " + correlationId);
+        }
+
+        Message reply = null;
+        try {
+            reply = pendingReply.await(timeout);
+        } catch (JMSException e) {
+            metrics.incrementFaultsReceiving();
+            handleException("Error receiving a synchronous reply for outgoing MessageContext ID : " +
+                msgCtx.getMessageID() + " with JMS correlation ID : " + correlationId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handleException("Interrupted while waiting for a synchronous reply with " +
+                "JMS correlation ID : " + correlationId, e);
+        }
+
+        if (reply != null) {
+            processResponse(msgCtx, reply, contentTypeProperty);
+        } else {
+            log.warn("Did not receive a JMS response within " +
+                timeout + " ms with JMS correlation ID : " + correlationId);
+            metrics.incrementTimeoutsReceiving();
+        }
+    }
+
+    /**
+     * Register a non blocking invocation with a shared reply listener. The response is processed
+     * on the JMS delivery thread and the outcome is passed to the callback.
+     */
+    private void expectAsyncResponse(JMSReplyListener replyListener, final MessageContext msgCtx,
+            final String correlationId, final String contentTypeProperty,
+            final AsyncTransportSender.ResponseCallback callback) {
+
+        final long timeout = getResponseTimeout(msgCtx);
+        replyListener.expectReply(correlationId, timeout, new JMSReplyListener.ReplyHandler() {
+            public void onReply(Message reply) {
+                try {
+                    processResponse(msgCtx, reply, contentTypeProperty);
+                } catch (AxisFault e) {
+                    callback.onError(e);
+                    return;
+                }
+                callback.onResponse();
+            }
+
+            public void onTimeout() {
+                log.warn("Did not receive a JMS response within " +
+                    timeout + " ms with JMS correlation ID : " + correlationId);
+                metrics.incrementTimeoutsReceiving();
+                callback.onError(new AxisFault("Did not receive a JMS response within " +
+                    timeout + " ms with JMS correlation ID : " + correlationId));
+            }
+
+            public void onError(Exception e) {
+                metrics.incrementFaultsReceiving();
+                callback.onError(e);
+            }
+        });
+    }
+
+    /**
+     * How long are we willing to wait for the response to the given message?
+     * @param msgCtx the outgoing message
+     * @return the timeout in milliseconds
+     */
+    private static long getResponseTimeout(MessageContext msgCtx) {
+        String waitReply = (String) msgCtx.getProperty(JMSConstants.JMS_WAIT_REPLY);
+        return waitReply == null ? JMSConstants.DEFAULT_JMS_TIMEOUT : Long.valueOf(waitReply);
+    }
+
+    /**
+     * Update the transport metrics for a received response message, and process it
+     * through Axis2
+     */
+    private void processResponse(MessageContext msgCtx, Message reply,
+            String contentTypeProperty) throws AxisFault {
+
+        // update transport level metrics
+        metrics.incrementMessagesReceived();
+        try {
+            metrics.incrementBytesReceived(JMSUtils.getMessageSize(reply));
+        } catch (JMSException e) {
+            log.warn("Error reading JMS message size to update transport metrics", e);
+        }
+
+        try {
+            processSyncResponse(msgCtx, reply, contentTypeProperty);
+            metrics.incrementMessagesReceived();
+        } catch (AxisFault e) {
+            metrics.incrementFaultsReceiving();
+            throw e;
+        }
+    }
+
     /**
      * Create a JMS Message from the given MessageContext and using the given
      * session
@@ -99,6 +99,10 @@ public class ServiceTaskManager {
     private int idleTaskExecutionLimit = 10;
     /** The maximum number of successful message receipts for a task - to limit thread life span */
     private int maxMessagesPerTask = -1;    // default is unlimited
+    /** The maximum number of messages processed before a single commit or acknowledgement */
+    private int batchSize = 1;
+    /** The time to wait for further messages to complete a batch - zero means dont wait at all */
+    private int batchTimeout = 0;
     /** The default receive timeout - a negative value means wait forever, zero dont wait at all */
     private int receiveTimeout = 1000;
     /** JMS Resource cache level - Connection, Session, Consumer. Auto will select safe default */
@@ -285,7 +289,9 @@ public class ServiceTaskManager {
 
     /**
      * Start a new MessageListenerTask if we are still active, the threshold is not reached, and w
-     * e do not have any idle tasks - i.e. scale up listening
+     * e do not have any idle tasks - i.e. scale up listening. When messages are received in
+     * batches, this is only called when a task received a full batch, i.e. when messages are
+     * queued up faster than the existing tasks process them
      */
     private void scheduleNewTaskIfAppropriate() {
         if (serviceTaskManagerState == STATE_STARTED &&
@@ -430,10 +436,22 @@ public class ServiceTaskManager {
                     if (message != null) {
                         idle = false;
                         idleExecutionCount = 0;
-                        messageCount++;
-                        // I will be busy now while processing this message, so start another if needed
-                        scheduleNewTaskIfAppropriate();
-                        handleMessage(message, ut);
+                        // a redelivered message may be the one that made its batch fail, so
+                        // it is processed on its own
+                        int maxBatchSize =
+                            isRedelivered(message) ? 1 : getMaxBatchSize(messageCount);
+                        List<Message> messages = maxBatchSize > 1 ? receiveBatch(message,
+                            maxBatchSize, ut) : Collections.singletonList(message);
+                        if (!messages.isEmpty()) {
+                            messageCount += messages.size();
+                            // I will be busy now while processing these messages, so start
+                            // another if needed. A partial batch shows that the messages are
+                            // not queuing up
+                            if (getBatchSize() == 1 || messages.size() == getBatchSize()) {
+                                scheduleNewTaskIfAppropriate();
+                            }
+                            handleMessages(messages, ut);
+                        }
 
                     } else {
                         idle = true;
@@ -516,82 +534,215 @@ public class ServiceTaskManager {
         }
 
         /**
-         * Invoke ultimate message handler/listener and ack message and/or
-         * commit/rollback transactions
-         * @param message the JMS message received
-         * @param ut the UserTransaction used to receive this message, or null
+         * Get the maximum number of messages that may be received in the next batch
+         * @param messageCount the number of messages processed by this task so far
+         * @return the maximum batch size, which is 1 if messages should be processed one by one
          */
-        private void handleMessage(Message message, UserTransaction ut) {
+        private int getMaxBatchSize(int messageCount) {
+            int maxBatchSize = getBatchSize();
+            if (getMaxMessagesPerTask() > 0) {
+                maxBatchSize = Math.min(maxBatchSize, getMaxMessagesPerTask() - messageCount);
+            }
+            return maxBatchSize;
+        }
 
-            String messageId = null;
+        /**
+         * Has the given message been delivered before, e.g. as part of a batch that failed?
+         * @param message the message received
+         * @return true if the message is redelivered, or if this cannot be determined
+         */
+        private boolean isRedelivered(Message message) {
             try {
-                messageId = message.getJMSMessageID();
-            } catch (JMSException ignore) {}
+                return message.getJMSRedelivered() ||
+                    (message.propertyExists(JMSConstants.JMSX_DELIVERY_COUNT) &&
+                        message.getIntProperty(JMSConstants.JMSX_DELIVERY_COUNT) > 1);
+            } catch (JMSException e) {
+                return true;
+            }
+        }
+
+        /**
+         * Can messages received but not yet processed be given back to the provider, so that
+         * they are redelivered?
+         * @param ut the UserTransaction used to receive the messages, or null
+         * @return true if the messages are received within a transaction or with client
+         *         acknowledgement
+         */
+        private boolean canGiveBack(UserTransaction ut) {
+            return ut != null || isSessionTransacted() ||
+                getSessionAckMode() == Session.CLIENT_ACKNOWLEDGE;
+        }
+
+        /**
+         * Receive further messages to complete a batch, until the batch is full, the batch
+         * timeout expires or no more messages are available.
+         * <p>
+         * If a redelivered message is received, the messages received so far are given back
+         * to the provider without being processed, so that they are all redelivered and
+         * processed one by one. This is not possible with automatic acknowledgement, where
+         * the redelivered message is simply kept in the batch.
+         *
+         * @param firstMessage the message already received
+         * @param maxBatchSize the maximum number of messages in the batch
+         * @param ut the UserTransaction used to receive these messages, or null
+         * @return the messages of the batch, or an empty list if they have been given back
+         */
+        private List<Message> receiveBatch(Message firstMessage, int maxBatchSize,
+                                           UserTransaction ut) {
+            List<Message> messages = new ArrayList<Message>(maxBatchSize);
+            messages.add(firstMessage);
+            long deadline = System.currentTimeMillis() + getBatchTimeout();
+            try {
+                while (messages.size() < maxBatchSize) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    Message message =
+                        remaining > 0 ? consumer.receive(remaining) : consumer.receiveNoWait();
+                    if (message == null) {
+                        break;
+                    }
+                    messages.add(message);
+                    if (isRedelivered(message) && canGiveBack(ut)) {
+                        if (log.isDebugEnabled()) {
+                            log.debug("Received a redelivered message for service : " +
+                                serviceName + " - giving back the " + messages.size() +
+                                " messages of the batch to process them one by one");
+                        }
+                        completeMessages(messages, ut, false);
+                        return Collections.emptyList();
+                    }
+                }
+            } catch (IllegalStateException ignore) {
+                // probably the consumer (shared) was closed.. process what we have read
+            } catch (JMSException e) {
+                logError("Error receiving message for service : " + serviceName, e);
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Received a batch of " + messages.size() + " messages for service : " +
+                    serviceName);
+            }
+            return messages;
+        }
+
+        /**
+         * Invoke ultimate message handler/listener for each message and ack messages and/or
+         * commit/rollback transactions once for all of them. Processing stops at the first
+         * message that fails; the whole batch is then rolled back (or recovered when using
+         * client acknowledgement), and its messages will be processed one by one by the
+         * tasks that receive them again, since they are then flagged as redelivered
+         * @param messages the JMS messages received
+         * @param ut the UserTransaction used to receive these messages, or null
+         */
+        private void handleMessages(List<Message> messages, UserTransaction ut) {
 
             boolean commitOrAck = true;
             try {
-                commitOrAck = jmsMessageReceiver.onMessage(message, ut);
+                for (Message message : messages) {
+                    commitOrAck = jmsMessageReceiver.onMessage(message, ut);
+                    if (!commitOrAck) {
+                        break;
+                    }
+                }
 
             } finally {
+                completeMessages(messages, ut, commitOrAck);
+            }
+        }
 
-                // if client acknowledgement is selected, and processing requested ACK
-                if (commitOrAck && getSessionAckMode() == Session.CLIENT_ACKNOWLEDGE) {
-                    try {
-                        message.acknowledge();
-                        if (log.isDebugEnabled()) {
-                            log.debug("Message : " + messageId + " acknowledged");
-                        }
-                    } catch (JMSException e) {
-                        logError("Error acknowledging message : " + messageId, e);
+        /**
+         * Ack messages and/or commit/rollback transactions once for all the given messages,
+         * and release the consumer, session and connection unless they are cached
+         * @param messages the JMS messages received
+         * @param ut the UserTransaction used to receive these messages, or null
+         * @param commitOrAck true to acknowledge or commit the messages, false to have them
+         *        redelivered where possible
+         */
+        private void completeMessages(List<Message> messages, UserTransaction ut,
+                                      boolean commitOrAck) {
+
+            Message lastMessage = messages.get(messages.size() - 1);
+            String messageId = null;
+            try {
+                messageId = messages.get(0).getJMSMessageID();
+            } catch (JMSException ignore) {}
+            if (messages.size() > 1) {
+                messageId = messageId + " (and " + (messages.size() - 1) + " more)";
+            }
+
+            boolean batchFailed = !commitOrAck && messages.size() > 1;
+
+            // if client acknowledgement is selected, and processing requested ACK
+            if (commitOrAck && getSessionAckMode() == Session.CLIENT_ACKNOWLEDGE) {
+                try {
+                    // acknowledges all the messages received by the session so far
+                    lastMessage.acknowledge();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Message : " + messageId + " acknowledged");
                     }
+                } catch (JMSException e) {
+                    logError("Error acknowledging message : " + messageId, e);
                 }
+            }
 
-                // if session was transacted, commit it or rollback
+            // if a batch failed with client acknowledgement, have its messages redelivered
+            if (batchFailed && getSessionAckMode() == Session.CLIENT_ACKNOWLEDGE) {
                 try {
-                    if (session.getTransacted()) {
-                        if (commitOrAck) {
-                            session.commit();
-                            if (log.isDebugEnabled()) {
-                                log.debug("Session for message : " + messageId + " committed");
-                            }
-                        } else {
-                            session.rollback();
-                            if (log.isDebugEnabled()) {
-                                log.debug("Session for message : " + messageId + " rolled back");
-                            }
+                    if (!session.getTransacted()) {
+                        session.recover();
+                        if (log.isDebugEnabled()) {
+                            log.debug("Session for message : " + messageId + " recovered");
                         }
                     }
                 } catch (JMSException e) {
-                    logError("Error " + (commitOrAck ? "committing" : "rolling back") +
-                        " local session txn for message : " + messageId, e);
+                    logError("Error recovering session for message : " + messageId, e);
                 }
+            }
 
-                // if a JTA transaction was being used, commit it or rollback
-                try {
-                    if (ut != null) {
-                        if (commitOrAck) {
-                            ut.commit();
-                            if (log.isDebugEnabled()) {
-                                log.debug("JTA txn for message : " + messageId + " committed");
-                            }
-                        } else {
-                            ut.rollback();
-                            if (log.isDebugEnabled()) {
-                                log.debug("JTA txn for message : " + messageId + " rolled back");
-                            }
+            // if session was transacted, commit it or rollback
+            try {
+                if (session.getTransacted()) {
+                    if (commitOrAck) {
+                        session.commit();
+                        if (log.isDebugEnabled()) {
+                            log.debug("Session for message : " + messageId + " committed");
+                        }
+                    } else {
+                        session.rollback();
+                        if (log.isDebugEnabled()) {
+                            log.debug("Session for message : " + messageId + " rolled back");
                         }
                     }
-                } catch (Exception e) {
-                    logError("Error " + (commitOrAck ? "committing" : "rolling back") +
-                        " JTA txn for message : " + messageId + " from the session", e);
                 }
+            } catch (JMSException e) {
+                logError("Error " + (commitOrAck ? "committing" : "rolling back") +
+                    " local session txn for message : " + messageId, e);
+            }
 
-                // close the consumer
-                closeConsumer(false);
-
-                closeSession(false);
-                closeConnection();
+            // if a JTA transaction was being used, commit it or rollback
+            try {
+                if (ut != null) {
+                    if (commitOrAck) {
+                        ut.commit();
+                        if (log.isDebugEnabled()) {
+                            log.debug("JTA txn for message : " + messageId + " committed");
+                        }
+                    } else {
+                        ut.rollback();
+                        if (log.isDebugEnabled()) {
+                            log.debug("JTA txn for message : " + messageId + " rolled back");
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                logError("Error " + (commitOrAck ? "committing" : "rolling back") +
+                    " JTA txn for message : " + messageId + " from the session", e);
             }
+
+            // close the consumer
+            closeConsumer(false);
+
+            closeSession(false);
+            closeConnection();
         }
 
         /** Handle JMS Connection exceptions by re-initializing. A single connection failure could
@@ -1123,6 +1274,22 @@ public class ServiceTaskManager {
         this.idleTaskExecutionLimit = idleTaskExecutionLimit;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchTimeout() {
+        return batchTimeout;
+    }
+
+    public void setBatchTimeout(int batchTimeout) {
+        this.batchTimeout = batchTimeout;
+    }
+
     public int getReceiveTimeout() {
         return receiveTimeout;
     }
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Queue;
+import javax.jms.Session;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JMSReplyListenerTest {
+    private ScheduledExecutorService timer;
+    private Connection connection;
+    private MessageConsumer consumer;
+    private JMSReplyListener listener;
+
+    private static class RecordingHandler implements JMSReplyListener.ReplyHandler {
+        final CountDownLatch latch = new CountDownLatch(1);
+        volatile Message reply;
+        volatile boolean timedOut;
+        volatile Exception error;
+
+        public void onReply(Message reply) {
+            this.reply = reply;
+            latch.countDown();
+        }
+
+        public void onTimeout() {
+            timedOut = true;
+            latch.countDown();
+        }
+
+        public void onError(Exception e) {
+            error = e;
+            latch.countDown();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        timer = Executors.newSingleThreadScheduledExecutor();
+        Queue queue = mock(Queue.class);
+        Session session = mock(Session.class);
+        connection = mock(Connection.class);
+        consumer = mock(MessageConsumer.class);
+        when(session.createConsumer(queue, null)).thenReturn(consumer);
+        listener = new JMSReplyListener("test", connection, session, queue, timer);
+        verify(consumer).setMessageListener(listener);
+        verify(connection).start();
+    }
+
+    @After
+    public void tearDown() {
+        timer.shutdownNow();
+    }
+
+    private static Message createReply(String correlationId) throws JMSException {
+        Message message = mock(Message.class);
+        when(message.getJMSCorrelationID()).thenReturn(correlationId);
+        return message;
+    }
+
+    @Test
+    public void testBlockingReply() throws Exception {
+        JMSReplyListener.PendingReply pendingReply1 = listener.expectReply("id1");
+        JMSReplyListener.PendingReply pendingReply2 = listener.expectReply("id2");
+        Message reply = createReply("id2");
+        listener.onMessage(reply);
+        assertThat(pendingReply2.await(1000)).isSameAs(reply);
+        assertThat(pendingReply1.await(10)).isNull();
+        assertThat(listener.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testAsyncReply() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        listener.expectReply("id", 60000, handler);
+        Message reply = createReply("id");
+        listener.onMessage(reply);
+        assertThat(handler.reply).isSameAs(reply);
+        assertThat(listener.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testAsyncTimeout() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        listener.expectReply("id", 50, handler);
+        assertThat(handler.latch.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(handler.timedOut).isTrue();
+        // a late reply is discarded
+        listener.onMessage(createReply("id"));
+        assertThat(handler.reply).isNull();
+    }
+
+    @Test
+    public void testDuplicateCorrelationId() throws Exception {
+        listener.expectReply("id");
+        try {
+            listener.expectReply("id", 0, new RecordingHandler());
+            fail("Expected AxisJMSException");
+        } catch (AxisJMSException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testConnectionFailure() throws Exception {
+        JMSReplyListener.PendingReply pendingReply = listener.expectReply("id1");
+        RecordingHandler handler = new RecordingHandler();
+        listener.expectReply("id2", 60000, handler);
+        listener.onException(new JMSException("connection lost"));
+        assertThat(listener.isActive()).isFalse();
+        verify(connection).close();
+        assertThat(handler.error).isNotNull();
+        try {
+            pendingReply.await(1000);
+            fail("Expected JMSException");
+        } catch (JMSException ex) {
+            // Expected
+        }
+    }
+}
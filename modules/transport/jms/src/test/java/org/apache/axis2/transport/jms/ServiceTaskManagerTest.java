@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.axis2.transport.jms;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.Session;
+import javax.naming.Context;
+import javax.naming.spi.InitialContextFactory;
+import javax.transaction.UserTransaction;
+
+import org.apache.axis2.transport.base.BaseConstants;
+import org.apache.axis2.transport.base.threads.WorkerPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests the batch processing of the polling tasks of {@link ServiceTaskManager} against a
+ * mock provider that redelivers the messages of a rolled back or recovered session.
+ */
+public class ServiceTaskManagerTest {
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * Supplies the mocked connection factory and destination to the task manager.
+     */
+    public static class MockInitialContextFactory implements InitialContextFactory {
+        static volatile Context context;
+
+        public Context getInitialContext(Hashtable<?,?> environment) {
+            return context;
+        }
+    }
+
+    private final LinkedBlockingDeque<Message> queue = new LinkedBlockingDeque<Message>();
+    /** The messages received by the session since the last commit, rollback or recovery */
+    private final List<Message> unacknowledged =
+            Collections.synchronizedList(new ArrayList<Message>());
+    private final Set<Message> redelivered =
+            Collections.newSetFromMap(new ConcurrentHashMap<Message,Boolean>());
+    private final Set<Message> failOnce =
+            Collections.newSetFromMap(new ConcurrentHashMap<Message,Boolean>());
+    /** The processed messages and the completions of the session, in order */
+    private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+    private final Map<Message,String> names = new ConcurrentHashMap<Message,String>();
+
+    private Session session;
+    private ServiceTaskManager stm;
+
+    @Before
+    public void setUp() throws Exception {
+        Destination destination = mock(Destination.class);
+        ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+        Connection connection = mock(Connection.class);
+        session = mock(Session.class);
+        MessageConsumer consumer = mock(MessageConsumer.class);
+        Context context = mock(Context.class);
+        when(context.lookup("ConnectionFactory")).thenReturn(connectionFactory);
+        when(context.lookup("TestQueue")).thenReturn(destination);
+        when(connectionFactory.createConnection()).thenReturn(connection);
+        when(connection.createSession(anyBoolean(), anyInt())).thenReturn(session);
+        when(session.createConsumer(any(Destination.class), anyString(), anyBoolean()))
+                .thenReturn(consumer);
+        when(consumer.receive(anyLong())).thenAnswer(new Answer<Message>() {
+            public Message answer(InvocationOnMock invocation) throws Throwable {
+                return received(queue.poll(
+                        (Long) invocation.getArguments()[0], TimeUnit.MILLISECONDS));
+            }
+        });
+        when(consumer.receiveNoWait()).thenAnswer(new Answer<Message>() {
+            public Message answer(InvocationOnMock invocation) throws Throwable {
+                return received(queue.poll());
+            }
+        });
+        doAnswer(new Complete("commit", false)).when(session).commit();
+        doAnswer(new Complete("rollback", true)).when(session).rollback();
+        doAnswer(new Complete("recover", true)).when(session).recover();
+        MockInitialContextFactory.context = context;
+
+        JMSMessageReceiver receiver = mock(JMSMessageReceiver.class);
+        when(receiver.onMessage(any(Message.class), any(UserTransaction.class))).thenAnswer(
+                new Answer<Boolean>() {
+                    public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                        Message message = (Message) invocation.getArguments()[0];
+                        events.add(names.get(message));
+                        return !failOnce.remove(message);
+                    }
+                });
+
+        stm = new ServiceTaskManager();
+        stm.setServiceName("TestService");
+        stm.setConnFactoryJNDIName("ConnectionFactory");
+        stm.setDestinationJNDIName("TestQueue");
+        stm.setCacheLevel(JMSConstants.CACHE_CONSUMER);
+        stm.setReceiveTimeout(100);
+        stm.setBatchTimeout(200);
+        stm.setJmsMessageReceiver(receiver);
+        stm.setWorkerPool(new WorkerPool() {
+            public void execute(Runnable task) {
+                new Thread(task).start();
+            }
+
+            public int getActiveCount() {
+                return 0;
+            }
+
+            public int getQueueSize() {
+                return 0;
+            }
+
+            public void shutdown(int timeout) {
+            }
+        });
+        Map<String,String> jmsProperties = new HashMap<String,String>();
+        jmsProperties.put(Context.INITIAL_CONTEXT_FACTORY,
+                MockInitialContextFactory.class.getName());
+        stm.addJmsProperties(jmsProperties);
+    }
+
+    @After
+    public void tearDown() {
+        stm.stop();
+        MockInitialContextFactory.context = null;
+    }
+
+    /**
+     * Completes the session, removing the messages received so far from the queue, or putting
+     * them back at its head to be redelivered.
+     */
+    private class Complete implements Answer<Object> {
+        private final String event;
+        private final boolean redeliver;
+
+        Complete(String event, boolean redeliver) {
+            this.event = event;
+            this.redeliver = redeliver;
+        }
+
+        public Object answer(InvocationOnMock invocation) {
+            synchronized (unacknowledged) {
+                if (redeliver) {
+                    for (int i = unacknowledged.size() - 1; i >= 0; i--) {
+                        Message message = unacknowledged.get(i);
+                        redelivered.add(message);
+                        queue.addFirst(message);
+                    }
+                }
+                unacknowledged.clear();
+            }
+            events.add(event);
+            return null;
+        }
+    }
+
+    private Message received(Message message) {
+        if (message != null) {
+            unacknowledged.add(message);
+        }
+        return message;
+    }
+
+    private Message createMessage(String name) throws Exception {
+        final Message message = mock(Message.class);
+        when(message.getJMSMessageID()).thenReturn("ID:" + name);
+        when(message.getJMSRedelivered()).thenAnswer(new Answer<Boolean>() {
+            public Boolean answer(InvocationOnMock invocation) {
+                return redelivered.contains(message);
+            }
+        });
+        doAnswer(new Complete("ack", false)).when(message).acknowledge();
+        names.put(message, name);
+        return message;
+    }
+
+    private Message send(String name) throws Exception {
+        Message message = createMessage(name);
+        queue.add(message);
+        return message;
+    }
+
+    private void useTransactedSession() throws JMSException {
+        stm.setTransactionality(BaseConstants.TRANSACTION_LOCAL);
+        stm.setSessionTransacted(true);
+        when(session.getTransacted()).thenReturn(true);
+    }
+
+    private void useClientAcknowledgement() throws JMSException {
+        stm.setTransactionality(BaseConstants.TRANSACTION_NONE);
+        stm.setSessionTransacted(false);
+        stm.setSessionAckMode(Session.CLIENT_ACKNOWLEDGE);
+        when(session.getTransacted()).thenReturn(false);
+    }
+
+    private List<String> awaitEvents(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (events.size() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Expected " + count + " events, got " + events);
+            }
+            Thread.sleep(10);
+        }
+        // give the task a chance to produce unexpected events
+        Thread.sleep(300);
+        synchronized (events) {
+            return new ArrayList<String>(events);
+        }
+    }
+
+    @Test
+    public void testFullBatch() throws Exception {
+        useTransactedSession();
+        stm.setBatchSize(3);
+        stm.setBatchTimeout(2000);
+        for (int i = 1; i <= 3; i++) {
+            send("m" + i);
+        }
+        stm.start();
+        assertThat(awaitEvents(4)).containsExactly("m1", "m2", "m3", "commit").inOrder();
+    }
+
+    @Test
+    public void testPartialBatchOnTimeout() throws Exception {
+        useTransactedSession();
+        stm.setBatchSize(3);
+        send("m1");
+        send("m2");
+        stm.start();
+        assertThat(awaitEvents(3)).containsExactly("m1", "m2", "commit").inOrder();
+    }
+
+    /**
+     * A failed batch is rolled back, and its messages are then processed one by one, so that
+     * only the failing message is rolled back again.
+     */
+    @Test
+    public void testFailedBatchRolledBackAndRedeliveredOneByOne() throws Exception {
+        useTransactedSession();
+        stm.setBatchSize(3);
+        send("m1");
+        failOnce.add(send("m2"));
+        send("m3");
+        stm.start();
+        assertThat(awaitEvents(9)).containsExactly(
+                "m1", "m2", "rollback",
+                "m1", "commit", "m2", "commit", "m3", "commit").inOrder();
+    }
+
+    /**
+     * A redelivered message received in the middle of a batch is not processed with the
+     * other messages: the messages received so far are given back and processed one by one.
+     */
+    @Test
+    public void testRedeliveredMessageEndsBatch() throws Exception {
+        useTransactedSession();
+        stm.setBatchSize(3);
+        send("n1");
+        redelivered.add(send("r1"));
+        send("n2");
+        stm.start();
+        assertThat(awaitEvents(7)).containsExactly(
+                "rollback", "n1", "commit", "r1", "commit", "n2", "commit").inOrder();
+    }
+
+    @Test
+    public void testDeliveryCountStartsNewBatch() throws Exception {
+        useTransactedSession();
+        stm.setBatchSize(3);
+        Message message = send("d1");
+        when(message.propertyExists(JMSConstants.JMSX_DELIVERY_COUNT)).thenReturn(true);
+        when(message.getIntProperty(JMSConstants.JMSX_DELIVERY_COUNT)).thenReturn(2);
+        send("m1");
+        send("m2");
+        stm.start();
+        assertThat(awaitEvents(5)).containsExactly(
+                "d1", "commit", "m1", "m2", "commit").inOrder();
+    }
+
+    @Test
+    public void testFailedBatchRecoveredWithClientAcknowledgement() throws Exception {
+        useClientAcknowledgement();
+        stm.setBatchSize(3);
+        send("m1");
+        failOnce.add(send("m2"));
+        send("m3");
+        stm.start();
+        assertThat(awaitEvents(9)).containsExactly(
+                "m1", "m2", "recover",
+                "m1", "ack", "m2", "ack", "m3", "ack").inOrder();
+    }
+}
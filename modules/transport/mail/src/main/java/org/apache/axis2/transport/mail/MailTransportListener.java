@@ -327,6 +327,7 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
         public void run() {
 
             entry.setLastPollState(PollTableEntry.NONE);
+            long start = System.nanoTime();
             try {
                 processMail(message, entry);
                 entry.setLastPollState(PollTableEntry.SUCCSESSFUL);
@@ -339,6 +340,7 @@ public class MailTransportListener extends AbstractPollingTransportListener<Poll
                 tess.error(entry.getService(), e);
 
             } finally {
+                metrics.notifyProcessingTime(System.nanoTime() - start);
                 if (uid != null) {
                     entry.removeUID(uid);
                 }
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pool of keep-alive connections used by the {@link TCPTransportSender}. Idle connections are
+ * kept per remote endpoint and handed out most recently used first, so that connections which
+ * are not needed any more age out and get closed once they exceed the idle timeout.
+ * <p>
+ * Before an idle connection is handed out, it is checked without blocking for data or an end
+ * of stream sent by the peer while it was idle. This detects most connections the peer has
+ * closed, e.g. because of its own idle timeout, before a request is written to them.
+ */
+public class TCPConnectionPool {
+
+    private static final Log log = LogFactory.getLog(TCPConnectionPool.class);
+
+    private final ConcurrentMap<String,Deque<PooledConnection>> idleConnections =
+            new ConcurrentHashMap<String,Deque<PooledConnection>>();
+
+    private final int idleTimeout;
+    private final int maxRequestsPerConnection;
+    private final int maxIdleConnectionsPerHost;
+
+    /**
+     * @param idleTimeout time in milliseconds after which an unused connection is discarded
+     * @param maxRequestsPerConnection number of requests after which a connection is closed
+     *        instead of being returned to the pool, or -1 for no limit
+     * @param maxIdleConnectionsPerHost maximum number of idle connections kept per endpoint
+     */
+    public TCPConnectionPool(int idleTimeout, int maxRequestsPerConnection,
+                             int maxIdleConnectionsPerHost) {
+        this.idleTimeout = idleTimeout;
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+        this.maxIdleConnectionsPerHost = maxIdleConnectionsPerHost;
+    }
+
+    /**
+     * Get a connection to the given endpoint, reusing an idle one if available.
+     *
+     * @param host the remote host
+     * @param port the remote port
+     * @param timeout the socket read timeout to use, or -1 to block indefinitely
+     * @return a connected socket wrapped as a pooled connection
+     * @throws IOException if a new connection could not be opened
+     */
+    public PooledConnection acquire(String host, int port, int timeout) throws IOException {
+        String key = host + ":" + port;
+        Deque<PooledConnection> idle = idleConnections.get(key);
+        if (idle != null) {
+            long now = System.currentTimeMillis();
+            PooledConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (connection.isUsable(now) && !connection.isStale()) {
+                    connection.getSocket().setSoTimeout(timeout == -1 ? 0 : timeout);
+                    connection.reused = true;
+                    return connection;
+                }
+                close(connection);
+            }
+        }
+        return connect(host, port, timeout);
+    }
+
+    /**
+     * Open a new connection to the given endpoint, bypassing the idle connections. The
+     * connection can be returned to the pool with {@link #release(PooledConnection)}.
+     *
+     * @param host the remote host
+     * @param port the remote port
+     * @param timeout the socket read timeout to use, or -1 to block indefinitely
+     * @return a connected socket wrapped as a pooled connection
+     * @throws IOException if the connection could not be opened
+     */
+    public PooledConnection connect(String host, int port, int timeout) throws IOException {
+        // open the socket through a channel so that it can be checked without blocking
+        // when it is reused
+        SocketChannel channel = SocketChannel.open();
+        Socket socket = channel.socket();
+        try {
+            if (timeout != -1) {
+                socket.setSoTimeout(timeout);
+            }
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.connect(new InetSocketAddress(host, port));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new PooledConnection(host + ":" + port, socket);
+    }
+
+    /**
+     * Return a connection to the pool after a complete request/response exchange. The
+     * connection is closed instead if it has served the maximum number of requests or
+     * the pool for its endpoint is full.
+     *
+     * @param connection the connection to return
+     */
+    public void release(PooledConnection connection) {
+        connection.requests++;
+        connection.lastUsed = System.currentTimeMillis();
+        if (maxRequestsPerConnection >= 0 && connection.requests >= maxRequestsPerConnection) {
+            close(connection);
+            return;
+        }
+
+        Deque<PooledConnection> idle = idleConnections.get(connection.key);
+        if (idle == null) {
+            Deque<PooledConnection> newDeque = new ConcurrentLinkedDeque<PooledConnection>();
+            idle = idleConnections.putIfAbsent(connection.key, newDeque);
+            if (idle == null) {
+                idle = newDeque;
+            }
+        }
+        // the size() of a concurrent deque is not exact, but an approximate limit is enough
+        if (idle.size() >= maxIdleConnectionsPerHost) {
+            close(connection);
+        } else {
+            idle.offerFirst(connection);
+        }
+    }
+
+    /**
+     * Close a connection that is in an unknown state, e.g. after an I/O error.
+     *
+     * @param connection the connection to discard
+     */
+    public void discard(PooledConnection connection) {
+        close(connection);
+    }
+
+    /**
+     * Close all idle connections.
+     */
+    public void shutdown() {
+        for (Deque<PooledConnection> idle : idleConnections.values()) {
+            PooledConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                close(connection);
+            }
+        }
+        idleConnections.clear();
+    }
+
+    private void close(PooledConnection connection) {
+        try {
+            connection.getSocket().close();
+        } catch (IOException e) {
+            log.debug("Error while closing a pooled TCP connection", e);
+        }
+    }
+
+    /**
+     * A connection managed by the pool.
+     */
+    public final class PooledConnection {
+
+        private final String key;
+        private final Socket socket;
+        private int requests;
+        private long lastUsed;
+        private boolean reused;
+
+        PooledConnection(String key, Socket socket) {
+            this.key = key;
+            this.socket = socket;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        public Socket getSocket() {
+            return socket;
+        }
+
+        /**
+         * @return true if this connection was taken from the pool rather than freshly opened,
+         *         in which case the peer may already have closed it
+         */
+        public boolean isReused() {
+            return reused;
+        }
+
+        boolean isUsable(long now) {
+            return now - lastUsed < idleTimeout && !socket.isClosed() &&
+                    !socket.isInputShutdown() && !socket.isOutputShutdown();
+        }
+
+        /**
+         * Check whether the peer closed or reset the connection while it was idle. Nothing
+         * is expected to arrive on an idle connection, so any data is treated the same way.
+         *
+         * @return true if the connection must not be used any more
+         */
+        boolean isStale() {
+            SocketChannel channel = socket.getChannel();
+            try {
+                synchronized (channel.blockingLock()) {
+                    channel.configureBlocking(false);
+                    try {
+                        return channel.read(ByteBuffer.allocate(1)) != 0;
+                    } finally {
+                        channel.configureBlocking(true);
+                    }
+                }
+            } catch (IOException e) {
+                return true;
+            }
+        }
+    }
+}
@@ -25,9 +25,29 @@ public class TCPConstants {
     public static final String PARAM_HOST = "transport.tcp.hostname";
     public static final String PARAM_BACKLOG = "transport.tcp.backlog";
     public static final String PARAM_CONTENT_TYPE = "transport.tcp.contentType";
+    public static final String PARAM_KEEP_ALIVE = "transport.tcp.keepAlive";
+    public static final String PARAM_IDLE_TIMEOUT = "transport.tcp.idleTimeout";
+    public static final String PARAM_MAX_REQUESTS_PER_CONNECTION =
+            "transport.tcp.maxRequestsPerConnection";
+    public static final String PARAM_MAX_CONNECTIONS_PER_HOST = "transport.tcp.maxConnectionsPerHost";
+    public static final String PARAM_MAX_FRAME_SIZE = "transport.tcp.maxFrameSize";
+    /** serve the endpoint from selector threads; implies the framed keep-alive mode */
+    public static final String PARAM_NON_BLOCKING = "transport.tcp.nonBlocking";
+    public static final String PARAM_IO_THREAD_COUNT = "transport.tcp.ioThreadCount";
 
     public static final int TCP_DEFAULT_BACKLOG = 50;
     public static final String TCP_DEFAULT_CONTENT_TYPE = "text/xml";
+    /** idle connections are closed after 60 seconds by default */
+    public static final int TCP_DEFAULT_IDLE_TIMEOUT = 60000;
+    /** a value of -1 allows an unlimited number of requests on a connection */
+    public static final int TCP_DEFAULT_MAX_REQUESTS_PER_CONNECTION = -1;
+    public static final int TCP_DEFAULT_MAX_CONNECTIONS_PER_HOST = 10;
+    /** frames larger than 10 MB are rejected by default */
+    public static final int TCP_DEFAULT_MAX_FRAME_SIZE = 10 * 1024 * 1024;
+    public static final int TCP_DEFAULT_IO_THREAD_COUNT = 2;
+
+    /** name of the URL query parameter that enables the framed keep-alive mode */
+    public static final String KEEP_ALIVE_URL_PARAM = "keepAlive";
 
     public static final String TCP_OUTPUT_SOCKET = "transport.tcp.outputSocket";
 }
@@ -36,6 +36,11 @@ public class TCPEndpoint extends ProtocolEndpoint {
     private int port = -1;
     private int backlog = TCPConstants.TCP_DEFAULT_BACKLOG;
     private String contentType;
+    private boolean keepAlive = false;
+    private boolean nonBlocking = false;
+    private int idleTimeout = TCPConstants.TCP_DEFAULT_IDLE_TIMEOUT;
+    private int maxRequestsPerConnection = TCPConstants.TCP_DEFAULT_MAX_REQUESTS_PER_CONNECTION;
+    private int maxFrameSize = TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE;
 
     public TCPEndpoint() {
 
@@ -63,6 +68,50 @@ public class TCPEndpoint extends ProtocolEndpoint {
         return contentType;
     }
 
+    /**
+     * Whether connections accepted by this endpoint use the framed keep-alive mode, in which
+     * a single connection carries any number of length prefixed messages.
+     *
+     * @return true if keep-alive is enabled
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    /**
+     * Whether this endpoint is served by the selector based I/O dispatchers of the listener
+     * instead of a thread per connection. Non blocking endpoints always use the framed
+     * keep-alive mode, since a message can only be dispatched once it is fully buffered.
+     *
+     * @return true if the endpoint is non blocking
+     */
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    /**
+     * @return the time in milliseconds an idle keep-alive connection is kept open
+     */
+    public int getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    /**
+     * @return the maximum number of requests served on a keep-alive connection, or -1
+     *         if there is no limit
+     */
+    public int getMaxRequestsPerConnection() {
+        return maxRequestsPerConnection;
+    }
+
+    /**
+     * @return the maximum size in bytes of a request received on a keep-alive connection;
+     *         connections announcing a larger frame are closed
+     */
+    public int getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
     public boolean loadConfiguration(ParameterInclude params) throws AxisFault {
         port = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_PORT, -1);
         if (port == -1) {
@@ -77,6 +126,17 @@ public class TCPEndpoint extends ProtocolEndpoint {
         host = ParamUtils.getOptionalParam(params, TCPConstants.PARAM_HOST);
         backlog = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_BACKLOG,
                 TCPConstants.TCP_DEFAULT_BACKLOG);
+        nonBlocking = ParamUtils.getOptionalParamBoolean(params,
+                TCPConstants.PARAM_NON_BLOCKING, false);
+        keepAlive = nonBlocking ||
+                ParamUtils.getOptionalParamBoolean(params, TCPConstants.PARAM_KEEP_ALIVE, false);
+        idleTimeout = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_IDLE_TIMEOUT,
+                TCPConstants.TCP_DEFAULT_IDLE_TIMEOUT);
+        maxRequestsPerConnection = ParamUtils.getOptionalParamInt(params,
+                TCPConstants.PARAM_MAX_REQUESTS_PER_CONNECTION,
+                TCPConstants.TCP_DEFAULT_MAX_REQUESTS_PER_CONNECTION);
+        maxFrameSize = ParamUtils.getOptionalParamInt(params, TCPConstants.PARAM_MAX_FRAME_SIZE,
+                TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE);
         return true;
     }
 
@@ -97,8 +157,16 @@ public class TCPEndpoint extends ProtocolEndpoint {
                 (context.endsWith("/") ? "" : "/") +
                 (getService() == null ? service.getName() : getServiceName());
 
+        String query = null;
         if (!contentType.equals(TCPConstants.TCP_DEFAULT_CONTENT_TYPE)) {
-            url += "?contentType=" + contentType;
+            query = "contentType=" + contentType;
+        }
+        if (keepAlive) {
+            String keepAliveParam = TCPConstants.KEEP_ALIVE_URL_PARAM + "=true";
+            query = query == null ? keepAliveParam : query + "&" + keepAliveParam;
+        }
+        if (query != null) {
+            url += "?" + query;
         }
 
         return new EndpointReference[] { new EndpointReference(url) };
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Utility methods implementing the framing used by the keep-alive mode of the TCP transport.
+ * Each message on a keep-alive connection is preceded by its length, encoded as a 4 byte
+ * big endian integer. This allows a single connection to carry any number of messages in
+ * either direction, since the end of a message no longer has to be signalled by closing
+ * the socket.
+ * <p>
+ * The server answers every request with exactly one frame: the response, a fault, or an
+ * empty frame if the request has no response, e.g. because it is a one-way message.
+ */
+public final class TCPFrameUtils {
+
+    /**
+     * Size of the buffer initially allocated for a frame. The buffer grows as the payload
+     * arrives, so that a corrupt or hostile length header doesn't cause the allocation of
+     * a large buffer.
+     */
+    static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private TCPFrameUtils() {
+    }
+
+    /**
+     * Read the next frame from the given stream.
+     *
+     * @param in the stream to read from
+     * @param maxFrameSize the maximum length of the payload
+     * @return the payload of the frame, or null if the peer closed the connection cleanly
+     *         before sending a new frame
+     * @throws IOException if the stream ends in the middle of a frame or the frame is invalid
+     */
+    public static byte[] readFrame(InputStream in, int maxFrameSize) throws IOException {
+        int b0 = in.read();
+        if (b0 == -1) {
+            return null;
+        }
+        int length = (b0 << 24) | (readByte(in) << 16) | (readByte(in) << 8) | readByte(in);
+        checkFrameLength(length, maxFrameSize);
+
+        byte[] payload = new byte[Math.min(length, INITIAL_BUFFER_SIZE)];
+        int offset = 0;
+        while (offset < length) {
+            if (offset == payload.length) {
+                payload = growBuffer(payload, length);
+            }
+            int read = in.read(payload, offset, payload.length - offset);
+            if (read == -1) {
+                throw new EOFException("Connection closed after " + offset + " of " +
+                        length + " bytes of a TCP frame");
+            }
+            offset += read;
+        }
+        return payload;
+    }
+
+    /**
+     * Check the length announced in a frame header.
+     *
+     * @param length the length of the payload
+     * @param maxFrameSize the maximum length of the payload
+     * @throws IOException if the length is negative or exceeds the limit
+     */
+    static void checkFrameLength(int length, int maxFrameSize) throws IOException {
+        if (length < 0 || length > maxFrameSize) {
+            throw new IOException("Invalid TCP frame length : " + length +
+                    " (maximum frame size : " + maxFrameSize + ")");
+        }
+    }
+
+    /**
+     * Double the size of a full frame buffer, without exceeding the length of the frame.
+     *
+     * @param buffer the buffer
+     * @param length the length of the frame
+     * @return the new buffer, holding the content of the old one
+     */
+    static byte[] growBuffer(byte[] buffer, int length) {
+        return Arrays.copyOf(buffer, (int) Math.min((long) buffer.length * 2, length));
+    }
+
+    /**
+     * Write the content of the given buffer as a single frame and flush the stream.
+     *
+     * @param out the stream to write to
+     * @param payload buffer holding the serialized message
+     * @throws IOException on error
+     */
+    public static void writeFrame(OutputStream out, FrameBuffer payload) throws IOException {
+        payload.writeFrameTo(out);
+        out.flush();
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            throw new EOFException("Connection closed while reading a TCP frame header");
+        }
+        return b;
+    }
+
+    /**
+     * Buffer used to serialize an outgoing message. Space for the frame header is reserved
+     * at the start of the buffer so that the header and the payload go out in a single write,
+     * which avoids small header packets being delayed by Nagle's algorithm. The header is never
+     * exposed as part of the content: {@link #size()} only counts the bytes of the payload.
+     */
+    public static class FrameBuffer extends OutputStream {
+
+        private static final int HEADER_LENGTH = 4;
+
+        private byte[] buf = new byte[4096];
+        private int count = HEADER_LENGTH;
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(count + 1);
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (off < 0 || len < 0 || off > b.length - len) {
+                throw new IndexOutOfBoundsException();
+            }
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity < 0) {
+                throw new OutOfMemoryError("TCP frame too large");
+            }
+            if (capacity > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(capacity, buf.length * 2));
+            }
+        }
+
+        /**
+         * Get the length of the payload written so far.
+         *
+         * @return the number of bytes written, excluding the frame header
+         */
+        public int size() {
+            return count - HEADER_LENGTH;
+        }
+
+        /**
+         * Discard the payload written so far.
+         */
+        public void reset() {
+            count = HEADER_LENGTH;
+        }
+
+        /**
+         * Wrap the frame, including its header, without copying it. The buffer must not be
+         * written to afterwards.
+         *
+         * @return the complete frame
+         */
+        public ByteBuffer toFrame() {
+            writeHeader();
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+
+        void writeFrameTo(OutputStream out) throws IOException {
+            writeHeader();
+            out.write(buf, 0, count);
+        }
+
+        private void writeHeader() {
+            int length = count - HEADER_LENGTH;
+            buf[0] = (byte) (length >>> 24);
+            buf[1] = (byte) (length >>> 16);
+            buf[2] = (byte) (length >>> 8);
+            buf[3] = (byte) length;
+        }
+    }
+}
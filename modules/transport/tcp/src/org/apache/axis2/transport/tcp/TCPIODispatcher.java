@@ -0,0 +1,351 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.axis2.transport.base.threads.WorkerPool;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * I/O dispatcher for the non blocking mode of the TCP transport. Each dispatcher owns a
+ * {@link Selector} and the thread executing the {@link #run()} method. It reads the frames
+ * arriving on its connections and hands every complete request to a {@link WorkerPool}, so
+ * that idle connections don't hold a thread.
+ * <p>
+ * As in the UDP transport, all operations on the selector are executed by the thread running
+ * the event loop. Other threads submit them through a queue and wake up the selector.
+ *
+ * @see TCPIOReactor
+ */
+class TCPIODispatcher implements Runnable {
+
+    private static abstract class SelectorOperation {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private IOException exception;
+
+        public void waitForCompletion() throws IOException, InterruptedException {
+            done.await();
+            if (exception != null) {
+                throw exception;
+            }
+        }
+
+        public void execute(Selector selector) {
+            try {
+                doExecute(selector);
+            } catch (IOException ex) {
+                exception = ex;
+            } catch (Throwable ex) {
+                exception = new IOException("Unexpected exception");
+                exception.initCause(ex);
+            }
+            done.countDown();
+        }
+
+        public abstract void doExecute(Selector selector) throws IOException;
+    }
+
+    private static final Log log = LogFactory.getLog(TCPIODispatcher.class);
+
+    /** interval at which the connections are checked for the idle timeout */
+    private static final long IDLE_CHECK_INTERVAL = 1000;
+
+    private final TCPIOReactor reactor;
+    private final WorkerPool workerPool;
+    private final Selector selector;
+    private final Queue<SelectorOperation> selectorOperationQueue =
+            new ConcurrentLinkedQueue<SelectorOperation>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(16 * 1024);
+
+    TCPIODispatcher(TCPIOReactor reactor, WorkerPool workerPool) throws IOException {
+        this.reactor = reactor;
+        this.workerPool = workerPool;
+        selector = Selector.open();
+    }
+
+    /**
+     * Start accepting connections for the given endpoint.
+     *
+     * @param endpoint the endpoint
+     * @throws IOException if the server socket could not be bound or registered
+     */
+    void listen(final TCPEndpoint endpoint) throws IOException {
+        final ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            InetSocketAddress address;
+            if (endpoint.getHost() != null) {
+                address = new InetSocketAddress(InetAddress.getByName(endpoint.getHost()),
+                        endpoint.getPort());
+            } else {
+                address = new InetSocketAddress(endpoint.getPort());
+            }
+            channel.socket().bind(address, endpoint.getBacklog());
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        execute(new SelectorOperation() {
+            @Override
+            public void doExecute(Selector selector) throws IOException {
+                channel.register(selector, SelectionKey.OP_ACCEPT, endpoint);
+            }
+        });
+    }
+
+    /**
+     * Stop accepting connections for the given endpoint. Connections that are already open
+     * are closed when they become idle.
+     *
+     * @param endpoint the endpoint
+     * @throws IOException if an error occurred when closing the server socket
+     */
+    void unlisten(final TCPEndpoint endpoint) throws IOException {
+        execute(new SelectorOperation() {
+            @Override
+            public void doExecute(Selector selector) throws IOException {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.channel() instanceof ServerSocketChannel &&
+                            key.attachment() == endpoint) {
+                        key.cancel();
+                        key.channel().close();
+                        break;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Take over a newly accepted connection. This method doesn't wait for the registration
+     * to complete.
+     *
+     * @param endpoint the endpoint that accepted the connection
+     * @param channel the connection
+     */
+    void register(final TCPEndpoint endpoint, final SocketChannel channel) {
+        submit(new SelectorOperation() {
+            @Override
+            public void doExecute(Selector selector) throws IOException {
+                TCPNIOConnection connection =
+                        new TCPNIOConnection(endpoint, channel, TCPIODispatcher.this, workerPool);
+                try {
+                    connection.setKey(
+                            channel.register(selector, SelectionKey.OP_READ, connection));
+                } catch (IOException ex) {
+                    log.error("Unable to register TCP connection with the I/O dispatcher", ex);
+                    connection.close();
+                }
+            }
+        });
+    }
+
+    void requestWrite(final TCPNIOConnection connection) {
+        submit(new SelectorOperation() {
+            @Override
+            public void doExecute(Selector selector) throws IOException {
+                connection.enableWrite();
+            }
+        });
+    }
+
+    void requestRead(final TCPNIOConnection connection) {
+        submit(new SelectorOperation() {
+            @Override
+            public void doExecute(Selector selector) throws IOException {
+                connection.enableRead();
+            }
+        });
+    }
+
+    void requestCloseCheck(final TCPNIOConnection connection) {
+        submit(new SelectorOperation() {
+            @Override
+            public void doExecute(Selector selector) throws IOException {
+                connection.closeIfDone();
+            }
+        });
+    }
+
+    void requestClose(final TCPNIOConnection connection) {
+        submit(new SelectorOperation() {
+            @Override
+            public void doExecute(Selector selector) throws IOException {
+                connection.close();
+            }
+        });
+    }
+
+    /**
+     * Stop the dispatcher. This method closes all sockets and causes the execution of the
+     * {@link #run()} method to stop.
+     *
+     * @throws IOException
+     */
+    void stop() throws IOException {
+        execute(new SelectorOperation() {
+            @Override
+            public void doExecute(Selector selector) throws IOException {
+                IOException exception = null;
+                for (SelectionKey key : selector.keys()) {
+                    try {
+                        key.channel().close();
+                    } catch (IOException ex) {
+                        if (exception == null) {
+                            exception = ex;
+                        }
+                    }
+                }
+                try {
+                    selector.close();
+                } catch (IOException ex) {
+                    if (exception == null) {
+                        exception = ex;
+                    }
+                }
+                if (exception != null) {
+                    throw exception;
+                }
+            }
+        });
+    }
+
+    /**
+     * Run the event loop. It only returns when {@link #stop()} is called.
+     */
+    public void run() {
+        long lastIdleCheck = System.currentTimeMillis();
+        while (true) {
+            try {
+                selector.select(IDLE_CHECK_INTERVAL);
+            } catch (IOException ex) {
+                log.error("Exception in select; I/O dispatcher will be shut down", ex);
+                return;
+            }
+            // Execute pending selector operations
+            while (true) {
+                SelectorOperation request = selectorOperationQueue.poll();
+                if (request == null) {
+                    break;
+                }
+                request.execute(selector);
+                if (!selector.isOpen()) {
+                    return;
+                }
+            }
+            for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+                SelectionKey key = it.next();
+                it.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept((TCPEndpoint) key.attachment(), (ServerSocketChannel) key.channel());
+                    continue;
+                }
+                TCPNIOConnection connection = (TCPNIOConnection) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        connection.read(readBuffer);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.write();
+                    }
+                } catch (IOException ex) {
+                    log.error("I/O error on TCP connection; closing it", ex);
+                    connection.close();
+                }
+            }
+
+            long now = System.currentTimeMillis();
+            if (now - lastIdleCheck >= IDLE_CHECK_INTERVAL) {
+                lastIdleCheck = now;
+                closeIdleConnections(now);
+            }
+        }
+    }
+
+    private void accept(TCPEndpoint endpoint, ServerSocketChannel serverChannel) {
+        SocketChannel channel;
+        try {
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                reactor.nextDispatcher().register(endpoint, channel);
+            }
+        } catch (IOException ex) {
+            log.error("Error accepting TCP connection on port " + endpoint.getPort(), ex);
+        }
+    }
+
+    private void closeIdleConnections(long now) {
+        for (SelectionKey key : selector.keys()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof TCPNIOConnection &&
+                    ((TCPNIOConnection) attachment).isIdle(now)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Closing idle TCP connection from " +
+                            ((SocketChannel) key.channel()).socket().getRemoteSocketAddress());
+                }
+                ((TCPNIOConnection) attachment).close();
+            }
+        }
+    }
+
+    private void submit(SelectorOperation operation) {
+        selectorOperationQueue.add(operation);
+        selector.wakeup();
+    }
+
+    private void execute(SelectorOperation operation) throws IOException {
+        submit(operation);
+        // Waiting for the execution of the selector operation will never take a long time.
+        // As in the UDP transport, interruptions are remembered and restored afterwards
+        // instead of being propagated.
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    operation.waitForCompletion();
+                    return;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.axis2.transport.base.threads.WorkerPool;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Set of {@link TCPIODispatcher}s serving the non blocking endpoints of a
+ * {@link TCPTransportListener}. Server sockets are registered with the first dispatcher,
+ * which distributes the accepted connections over all dispatchers in a round robin fashion.
+ * Requests are only handed to the worker pool once they have been completely received, so
+ * thousands of mostly idle clients can be served by a handful of I/O threads.
+ */
+public class TCPIOReactor {
+
+    private static final Log log = LogFactory.getLog(TCPIOReactor.class);
+
+    private final TCPIODispatcher[] dispatchers;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Create the dispatchers and start their threads.
+     *
+     * @param name prefix for the names of the I/O threads
+     * @param ioThreadCount number of I/O threads
+     * @param workerPool the pool processing the requests
+     * @throws IOException if a selector could not be opened
+     */
+    public TCPIOReactor(String name, int ioThreadCount, WorkerPool workerPool)
+            throws IOException {
+        dispatchers = new TCPIODispatcher[Math.max(1, ioThreadCount)];
+        for (int i = 0; i < dispatchers.length; i++) {
+            dispatchers[i] = new TCPIODispatcher(this, workerPool);
+        }
+        for (int i = 0; i < dispatchers.length; i++) {
+            new Thread(dispatchers[i], name + "-dispatcher-" + i).start();
+        }
+    }
+
+    public void addEndpoint(TCPEndpoint endpoint) throws IOException {
+        dispatchers[0].listen(endpoint);
+        log.info("TCP server started on port : " + endpoint.getPort() + " (non blocking)");
+    }
+
+    public void removeEndpoint(TCPEndpoint endpoint) throws IOException {
+        dispatchers[0].unlisten(endpoint);
+        log.info("TCP server stopped on port : " + endpoint.getPort());
+    }
+
+    /**
+     * Stop all dispatchers, closing all server sockets and connections.
+     *
+     * @throws IOException if an error occurred when closing the sockets
+     */
+    public void stop() throws IOException {
+        IOException exception = null;
+        for (TCPIODispatcher dispatcher : dispatchers) {
+            try {
+                dispatcher.stop();
+            } catch (IOException ex) {
+                if (exception == null) {
+                    exception = ex;
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    TCPIODispatcher nextDispatcher() {
+        return dispatchers[(next.getAndIncrement() & Integer.MAX_VALUE) % dispatchers.length];
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import org.apache.axis2.transport.base.threads.WorkerPool;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * State of a connection served by a {@link TCPIODispatcher}. Incoming data is reassembled
+ * into frames on the I/O thread and complete frames are handed to the worker pool as
+ * {@link TCPWorker}s. Responses produced by the workers are queued and written out by the
+ * I/O thread when the channel becomes writable.
+ * <p>
+ * Since responses carry no correlation information, the requests of a connection are
+ * processed one at a time, in the order they were received: a frame pipelined by the client
+ * is only handed to the worker pool once the frame answering the previous one (a response, a
+ * fault or an empty acknowledgement) has been queued by {@link #send(ByteBuffer)}. This also
+ * holds for operations whose response is sent asynchronously, after the worker has returned.
+ * Reading from the connection is suspended while {@link #MAX_PENDING_FRAMES} frames are
+ * waiting, so that a client can't make the server buffer an unlimited number of requests.
+ * <p>
+ * All methods except {@link #send(ByteBuffer)} and {@link #abort()} must only be called by the
+ * thread running the dispatcher that owns the connection.
+ */
+public class TCPNIOConnection {
+
+    private static final Log log = LogFactory.getLog(TCPNIOConnection.class);
+
+    /** the number of received frames waiting for the current request to complete */
+    static final int MAX_PENDING_FRAMES = 16;
+
+    private final TCPEndpoint endpoint;
+    private final SocketChannel channel;
+    private final TCPIODispatcher dispatcher;
+    private final WorkerPool workerPool;
+    private SelectionKey key;
+
+    private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<ByteBuffer>();
+    /** the number of received requests that have not been completed */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // guarded by this
+    private final Queue<byte[]> pendingFrames = new LinkedList<byte[]>();
+    private boolean processing;
+    private boolean suspended;
+
+    private int headerBytes;
+    private int frameLength;
+    private byte[] payload;
+    private int payloadOffset;
+
+    private int requests;
+    private volatile boolean reading = true;
+    private long lastActivity = System.currentTimeMillis();
+
+    TCPNIOConnection(TCPEndpoint endpoint, SocketChannel channel, TCPIODispatcher dispatcher,
+                     WorkerPool workerPool) {
+        this.endpoint = endpoint;
+        this.channel = channel;
+        this.dispatcher = dispatcher;
+        this.workerPool = workerPool;
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Queue the frame answering the current request for writing, and hand the next pending
+     * request, if any, to the worker pool. Every request must be answered by exactly one frame.
+     * May be called from any thread.
+     *
+     * @param frame the frame, including its header
+     */
+    public void send(ByteBuffer frame) {
+        writeQueue.add(frame);
+        dispatcher.requestWrite(this);
+        requestCompleted();
+    }
+
+    /**
+     * Close the connection because the current request can't be answered, e.g. because its
+     * response could not be serialized. Without an answer, the frames of the connection would
+     * no longer match the requests. May be called from any thread.
+     */
+    public void abort() {
+        dispatcher.requestClose(this);
+    }
+
+    private void requestCompleted() {
+        byte[] frame;
+        boolean resume = false;
+        synchronized (this) {
+            frame = pendingFrames.poll();
+            if (frame == null) {
+                processing = false;
+            }
+            if (suspended && pendingFrames.size() < MAX_PENDING_FRAMES) {
+                suspended = false;
+                resume = true;
+            }
+        }
+        if (frame != null && !execute(frame)) {
+            dispatcher.requestClose(this);
+            return;
+        }
+        if (resume) {
+            dispatcher.requestRead(this);
+        }
+        if (inFlight.decrementAndGet() == 0 && !reading) {
+            dispatcher.requestCloseCheck(this);
+        }
+    }
+
+    /**
+     * Read all the available data and dispatch every frame that has been completely received.
+     *
+     * @param readBuffer a buffer shared by all connections of the dispatcher
+     * @throws IOException on error
+     */
+    void read(ByteBuffer readBuffer) throws IOException {
+        readBuffer.clear();
+        int read = channel.read(readBuffer);
+        if (read == -1) {
+            reading = false;
+            key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+            closeIfDone();
+            return;
+        }
+        lastActivity = System.currentTimeMillis();
+        readBuffer.flip();
+
+        while (reading && readBuffer.hasRemaining()) {
+            if (payload == null) {
+                while (headerBytes < 4 && readBuffer.hasRemaining()) {
+                    frameLength = (frameLength << 8) | (readBuffer.get() & 0xff);
+                    headerBytes++;
+                }
+                if (headerBytes < 4) {
+                    break;
+                }
+                TCPFrameUtils.checkFrameLength(frameLength, endpoint.getMaxFrameSize());
+                payload = new byte[Math.min(frameLength, TCPFrameUtils.INITIAL_BUFFER_SIZE)];
+                payloadOffset = 0;
+            }
+
+            if (payloadOffset == payload.length && payloadOffset < frameLength) {
+                payload = TCPFrameUtils.growBuffer(payload, frameLength);
+            }
+            int count = Math.min(readBuffer.remaining(), payload.length - payloadOffset);
+            readBuffer.get(payload, payloadOffset, count);
+            payloadOffset += count;
+
+            if (payloadOffset == frameLength) {
+                byte[] frame = payload;
+                payload = null;
+                headerBytes = 0;
+                frameLength = 0;
+                requests++;
+
+                int maxRequests = endpoint.getMaxRequestsPerConnection();
+                if (maxRequests >= 0 && requests >= maxRequests) {
+                    reading = false;
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                }
+                inFlight.incrementAndGet();
+                if (!dispatch(frame)) {
+                    reading = false;
+                    close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Hand a frame to the worker pool, or queue it if a request of the connection is being
+     * processed.
+     *
+     * @return false if the worker pool rejected the request
+     */
+    private boolean dispatch(byte[] frame) {
+        synchronized (this) {
+            if (processing) {
+                pendingFrames.add(frame);
+                if (pendingFrames.size() >= MAX_PENDING_FRAMES && !suspended) {
+                    suspended = true;
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_READ);
+                }
+                return true;
+            }
+            processing = true;
+        }
+        return execute(frame);
+    }
+
+    /**
+     * Hand a request to the worker pool. If the pool rejects it, e.g. because it is saturated
+     * or has been shut down, the connection can't be served any longer and must be closed;
+     * this must not affect the other connections of the dispatcher.
+     *
+     * @return false if the worker pool rejected the request
+     */
+    private boolean execute(byte[] frame) {
+        try {
+            workerPool.execute(new TCPWorker(endpoint, this, frame));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.error("The worker pool rejected a request received on a non blocking TCP " +
+                    "connection; closing the connection", e);
+            return false;
+        }
+    }
+
+    /**
+     * Resume reading once the number of pending frames has dropped below the limit.
+     */
+    void enableRead() {
+        if (key.isValid() && reading) {
+            synchronized (this) {
+                if (suspended) {
+                    return;
+                }
+            }
+            key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Write as much of the queued data as the channel accepts.
+     *
+     * @throws IOException on error
+     */
+    void write() throws IOException {
+        ByteBuffer buffer;
+        while ((buffer = writeQueue.peek()) != null) {
+            channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                return;
+            }
+            writeQueue.poll();
+        }
+        lastActivity = System.currentTimeMillis();
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        closeIfDone();
+    }
+
+    void enableWrite() {
+        if (key.isValid() && !writeQueue.isEmpty()) {
+            key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Close the connection if it doesn't accept new requests and all responses have been sent.
+     */
+    void closeIfDone() {
+        if (!reading && inFlight.get() == 0 && writeQueue.isEmpty()) {
+            close();
+        }
+    }
+
+    /**
+     * @param now the current time
+     * @return true if the connection has neither pending work nor seen any traffic for longer
+     *         than the idle timeout of its endpoint
+     */
+    boolean isIdle(long now) {
+        return inFlight.get() == 0 && writeQueue.isEmpty() &&
+                now - lastActivity > endpoint.getIdleTimeout();
+    }
+
+    void close() {
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Error while closing a TCP connection", e);
+        }
+    }
+}
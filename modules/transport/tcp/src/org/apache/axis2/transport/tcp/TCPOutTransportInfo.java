@@ -23,11 +23,15 @@ import org.apache.axis2.transport.OutTransportInfo;
 
 import java.io.OutputStream;
 import java.net.Socket;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class TCPOutTransportInfo implements OutTransportInfo {
 
     private Socket socket;
     private String contentType;
+    private boolean keepAlive;
+    private TCPNIOConnection connection;
+    private final AtomicBoolean responseSent = new AtomicBoolean();
 
     public Socket getSocket() {
         return socket;
@@ -44,4 +48,39 @@ public class TCPOutTransportInfo implements OutTransportInfo {
     public String getContentType() {
         return contentType;
     }
+
+    /**
+     * @return true if the response must be written as a frame on a keep-alive connection,
+     *         which is then left open for further requests
+     */
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * @return the connection the response must be queued on if the request was received
+     *         by a non blocking endpoint, or null otherwise
+     */
+    public TCPNIOConnection getConnection() {
+        return connection;
+    }
+
+    public void setConnection(TCPNIOConnection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Record that the frame answering the request is being sent. A request received on a
+     * keep-alive connection must be answered by exactly one frame: a response, a fault or
+     * an empty acknowledgement.
+     *
+     * @return false if the request has already been answered
+     */
+    public boolean markResponseSent() {
+        return responseSent.compareAndSet(false, true);
+    }
 }
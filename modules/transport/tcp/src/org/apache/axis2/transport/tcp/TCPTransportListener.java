@@ -20,6 +20,7 @@
 package org.apache.axis2.transport.tcp;
 
 import org.apache.axis2.transport.base.AbstractTransportListenerEx;
+import org.apache.axis2.transport.base.ParamUtils;
 import org.apache.axis2.AxisFault;
 
 import java.io.IOException;
@@ -30,8 +31,13 @@ public class TCPTransportListener extends AbstractTransportListenerEx<TCPEndpoin
 
     private Map<TCPEndpoint, TCPServer> serverTable = new ConcurrentHashMap<TCPEndpoint, TCPServer>();
 
-    protected void doInit() throws AxisFault {
+    /** selector threads shared by the non blocking endpoints; created on first use */
+    private TCPIOReactor ioReactor;
+    private int ioThreadCount;
 
+    protected void doInit() throws AxisFault {
+        ioThreadCount = ParamUtils.getOptionalParamInt(getTransportInDescription(),
+                TCPConstants.PARAM_IO_THREAD_COUNT, TCPConstants.TCP_DEFAULT_IO_THREAD_COUNT);
     }
 
     protected TCPEndpoint createEndpoint() {
@@ -39,6 +45,14 @@ public class TCPTransportListener extends AbstractTransportListenerEx<TCPEndpoin
     }
 
     protected void startEndpoint(TCPEndpoint endpoint) throws AxisFault {
+        if (endpoint.isNonBlocking()) {
+            try {
+                getIOReactor().addEndpoint(endpoint);
+            } catch (IOException e) {
+                handleException("Error while starting the non blocking TCP endpoint", e);
+            }
+            return;
+        }
         try {
             TCPServer server = new TCPServer(endpoint, workerPool);
             server.startServer();
@@ -49,6 +63,16 @@ public class TCPTransportListener extends AbstractTransportListenerEx<TCPEndpoin
     }
 
     protected void stopEndpoint(TCPEndpoint endpoint) {
+        if (endpoint.isNonBlocking()) {
+            try {
+                if (ioReactor != null) {
+                    ioReactor.removeEndpoint(endpoint);
+                }
+            } catch (IOException e) {
+                log.error("Error while stopping the non blocking TCP endpoint", e);
+            }
+            return;
+        }
         try {
             TCPServer server = serverTable.get(endpoint);
             if (server != null) {
@@ -60,4 +84,26 @@ public class TCPTransportListener extends AbstractTransportListenerEx<TCPEndpoin
             serverTable.remove(endpoint);
         }
     }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        synchronized (this) {
+            if (ioReactor != null) {
+                try {
+                    ioReactor.stop();
+                } catch (IOException e) {
+                    log.error("Error while stopping the TCP I/O dispatchers", e);
+                }
+                ioReactor = null;
+            }
+        }
+    }
+
+    private synchronized TCPIOReactor getIOReactor() throws IOException {
+        if (ioReactor == null) {
+            ioReactor = new TCPIOReactor(getTransportName(), ioThreadCount, workerPool);
+        }
+        return ioReactor;
+    }
 }
@@ -23,21 +23,27 @@ package org.apache.axis2.transport.tcp;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.description.OutInAxisOperation;
 import org.apache.axis2.engine.AxisEngine;
+import org.apache.axis2.context.ConfigurationContext;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.TransportOutDescription;
 import org.apache.axis2.transport.OutTransportInfo;
 import org.apache.axis2.transport.TransportUtils;
 import org.apache.axis2.transport.MessageFormatter;
 import org.apache.axis2.transport.base.AbstractTransportSender;
 import org.apache.axis2.transport.base.BaseUtils;
+import org.apache.axis2.transport.base.ParamUtils;
 import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axiom.om.OMOutputFormat;
 import org.apache.axis2.util.MessageProcessorSelector;
 
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Map;
@@ -45,6 +51,40 @@ import java.util.HashMap;
 
 public class TCPTransportSender extends AbstractTransportSender {
 
+    /** whether targets without an explicit keepAlive URL parameter use keep-alive connections */
+    private boolean keepAliveByDefault = false;
+    /** keep-alive connections to remote endpoints */
+    private TCPConnectionPool connectionPool;
+    /** the maximum size of a response received on a keep-alive connection */
+    private int maxFrameSize = TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE;
+
+    @Override
+    public void init(ConfigurationContext cfgCtx, TransportOutDescription transportOut)
+            throws AxisFault {
+        super.init(cfgCtx, transportOut);
+        keepAliveByDefault = ParamUtils.getOptionalParamBoolean(transportOut,
+                TCPConstants.PARAM_KEEP_ALIVE, false);
+        maxFrameSize = ParamUtils.getOptionalParamInt(transportOut,
+                TCPConstants.PARAM_MAX_FRAME_SIZE, TCPConstants.TCP_DEFAULT_MAX_FRAME_SIZE);
+        connectionPool = new TCPConnectionPool(
+                ParamUtils.getOptionalParamInt(transportOut, TCPConstants.PARAM_IDLE_TIMEOUT,
+                        TCPConstants.TCP_DEFAULT_IDLE_TIMEOUT),
+                ParamUtils.getOptionalParamInt(transportOut,
+                        TCPConstants.PARAM_MAX_REQUESTS_PER_CONNECTION,
+                        TCPConstants.TCP_DEFAULT_MAX_REQUESTS_PER_CONNECTION),
+                ParamUtils.getOptionalParamInt(transportOut,
+                        TCPConstants.PARAM_MAX_CONNECTIONS_PER_HOST,
+                        TCPConstants.TCP_DEFAULT_MAX_CONNECTIONS_PER_HOST));
+    }
+
+    @Override
+    public void stop() {
+        if (connectionPool != null) {
+            connectionPool.shutdown();
+        }
+        super.stop();
+    }
+
     public void sendMessage(MessageContext msgContext, String targetEPR,
                             OutTransportInfo outTransportInfo) throws AxisFault {
 
@@ -54,6 +94,16 @@ public class TCPTransportSender extends AbstractTransportSender {
             if (params.containsKey("timeout")) {
                 timeout = Integer.parseInt(params.get("timeout"));
             }
+
+            boolean keepAlive = keepAliveByDefault;
+            if (params.containsKey(TCPConstants.KEEP_ALIVE_URL_PARAM)) {
+                keepAlive = Boolean.parseBoolean(params.get(TCPConstants.KEEP_ALIVE_URL_PARAM));
+            }
+            if (keepAlive) {
+                sendOnKeepAliveConnection(msgContext, targetEPR, params, timeout);
+                return;
+            }
+
             Socket socket = openTCPConnection(targetEPR, timeout);
             msgContext.setProperty(TCPConstants.TCP_OUTPUT_SOCKET, socket);
 
@@ -73,6 +123,37 @@ public class TCPTransportSender extends AbstractTransportSender {
 
         } else if (outTransportInfo != null && (outTransportInfo instanceof TCPOutTransportInfo)) {
             TCPOutTransportInfo outInfo = (TCPOutTransportInfo) outTransportInfo;
+            if ((outInfo.getConnection() != null || outInfo.isKeepAlive()) &&
+                    !outInfo.markResponseSent()) {
+                // another frame would be taken as the answer to the next request
+                log.warn("Discarding a second response to a request received on a " +
+                        "keep-alive TCP connection");
+                return;
+            }
+            if (outInfo.getConnection() != null) {
+                try {
+                    outInfo.getConnection().send(
+                            serializeFrame(msgContext, outInfo.getContentType()).toFrame());
+                } catch (IOException e) {
+                    // the request can no longer be answered
+                    outInfo.getConnection().abort();
+                    handleException("Error while sending a TCP response", e);
+                }
+                return;
+            }
+            if (outInfo.isKeepAlive()) {
+                Socket socket = outInfo.getSocket();
+                try {
+                    // a late asynchronous response must not interleave with another one
+                    synchronized (socket) {
+                        writeFrame(msgContext, socket, outInfo.getContentType());
+                    }
+                } catch (IOException e) {
+                    closeConnection(socket);
+                    handleException("Error while sending a TCP response", e);
+                }
+                return;
+            }
             try {
                 writeOut(msgContext, outInfo.getSocket(), outInfo.getContentType());
             } catch (IOException e) {
@@ -83,6 +164,123 @@ public class TCPTransportSender extends AbstractTransportSender {
         }
     }
 
+    /**
+     * Send a request as a frame on a pooled keep-alive connection. The server answers every
+     * request with exactly one frame, which is empty if the request has no response, e.g.
+     * because it is a one-way message. The whole frame is read before the connection goes
+     * back to the pool, so the connection can be reused while the response is still being
+     * processed.
+     */
+    private void sendOnKeepAliveConnection(MessageContext msgContext, String targetEPR,
+                                           Map<String,String> params, int timeout)
+            throws AxisFault {
+
+        String contentType = params.get("contentType");
+        if (contentType == null) {
+            contentType = TCPConstants.TCP_DEFAULT_CONTENT_TYPE;
+        }
+        boolean expectReply = !msgContext.getOptions().isUseSeparateListener() &&
+                !msgContext.isServerSide() && isReplyExpected(msgContext);
+
+        TCPConnectionPool.PooledConnection connection = null;
+        byte[] response = null;
+        try {
+            URI tcpUrl = new URI(targetEPR);
+            if (!tcpUrl.getScheme().equals("tcp")) {
+                handleException("Invalid protocol prefix : " + tcpUrl.getScheme());
+            }
+            connection = connectionPool.acquire(tcpUrl.getHost(), tcpUrl.getPort(), timeout);
+            try {
+                response = exchangeFrames(msgContext, connection, contentType);
+            } catch (StaleConnectionException e) {
+                // the pooled connection failed before the request frame was completely
+                // written, so the peer can't have processed it; retry once on a new one
+                if (log.isDebugEnabled()) {
+                    log.debug("Keep-alive connection to " + tcpUrl.getHost() + ":" +
+                            tcpUrl.getPort() + " was closed; retrying", e.getCause());
+                }
+                connectionPool.discard(connection);
+                connection = connectionPool.connect(tcpUrl.getHost(), tcpUrl.getPort(), timeout);
+                response = exchangeFrames(msgContext, connection, contentType);
+            }
+            connectionPool.release(connection);
+            connection = null;
+        } catch (URISyntaxException e) {
+            handleException("Malformed tcp url", e);
+        } catch (IOException e) {
+            handleException("Error while sending a TCP request on a keep-alive connection", e);
+        } finally {
+            if (connection != null) {
+                connectionPool.discard(connection);
+            }
+        }
+
+        if (!expectReply) {
+            if (response != null && response.length > 0) {
+                log.warn("Discarding the response to a one-way request sent to " + targetEPR);
+            }
+        } else if (response != null && response.length > 0) {
+            try {
+                MessageContext responseMsgCtx = createResponseMessageContext(msgContext);
+                SOAPEnvelope envelope = TransportUtils.createSOAPMessage(msgContext,
+                        new ByteArrayInputStream(response), contentType);
+                responseMsgCtx.setEnvelope(envelope);
+                AxisEngine.receive(responseMsgCtx);
+            } catch (Exception e) {
+                handleException("Error while processing response", e);
+            }
+        }
+    }
+
+    /**
+     * Write the request frame and read the frame answering it.
+     * <p>
+     * A request may only be sent again if it is certain that the peer has not processed it.
+     * Since the peer only processes complete frames, this is the case if writing the frame
+     * fails. Once the frame has been written, the request may be in progress, so a read
+     * timeout or a connection closed before the response must not cause a retry.
+     *
+     * @return the response, which is empty if the request has no response
+     * @throws StaleConnectionException if writing the request to a reused connection failed,
+     *         in which case it is safe to send it again on a new connection
+     */
+    private byte[] exchangeFrames(MessageContext msgContext,
+                                  TCPConnectionPool.PooledConnection connection,
+                                  String contentType) throws IOException {
+        Socket socket = connection.getSocket();
+        try {
+            writeFrame(msgContext, socket, contentType);
+        } catch (SocketTimeoutException e) {
+            throw e;
+        } catch (IOException e) {
+            if (connection.isReused()) {
+                throw new StaleConnectionException(e);
+            }
+            throw e;
+        }
+        byte[] response = TCPFrameUtils.readFrame(socket.getInputStream(), maxFrameSize);
+        if (response == null) {
+            throw new EOFException("Connection closed before a response was received");
+        }
+        return response;
+    }
+
+    private void writeFrame(MessageContext msgContext, Socket socket,
+                            String contentType) throws IOException {
+        TCPFrameUtils.writeFrame(socket.getOutputStream(),
+                serializeFrame(msgContext, contentType));
+    }
+
+    private TCPFrameUtils.FrameBuffer serializeFrame(MessageContext msgContext,
+                                                     String contentType) throws IOException {
+        MessageFormatter messageFormatter = MessageProcessorSelector.getMessageFormatter(msgContext);
+        OMOutputFormat format = BaseUtils.getOMOutputFormat(msgContext);
+        format.setContentType(contentType);
+        TCPFrameUtils.FrameBuffer buffer = new TCPFrameUtils.FrameBuffer();
+        messageFormatter.writeTo(msgContext, format, buffer, false);
+        return buffer;
+    }
+
     private void writeOut(MessageContext msgContext, Socket socket,
                           String contentType) throws IOException {
         MessageFormatter messageFormatter = MessageProcessorSelector.getMessageFormatter(msgContext);
@@ -101,11 +299,15 @@ public class TCPTransportSender extends AbstractTransportSender {
         }
     }
 
+    private boolean isReplyExpected(MessageContext msgContext) {
+        return msgContext.getAxisOperation() instanceof OutInAxisOperation ||
+                msgContext.getProperty(org.apache.axis2.Constants.PIGGYBACK_MESSAGE) != null;
+    }
+
     private void waitForReply(MessageContext msgContext, Socket socket,
                               String contentType) throws AxisFault {
 
-        if (!(msgContext.getAxisOperation() instanceof OutInAxisOperation) &&
-                msgContext.getProperty(org.apache.axis2.Constants.PIGGYBACK_MESSAGE) == null) {
+        if (!isReplyExpected(msgContext)) {
             return;
         }
 
@@ -165,4 +367,10 @@ public class TCPTransportSender extends AbstractTransportSender {
             log.error("Error while closing a TCP socket", e);
         }
     }
+
+    private static class StaleConnectionException extends IOException {
+        StaleConnectionException(IOException cause) {
+            super("Stale keep-alive connection", cause);
+        }
+    }
 }
@@ -21,15 +21,22 @@ package org.apache.axis2.transport.tcp;
 
 import org.apache.axiom.soap.SOAPEnvelope;
 import org.apache.axis2.Constants;
+import org.apache.axis2.addressing.EndpointReference;
 import org.apache.axis2.transport.TransportUtils;
 import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.WSDL2Constants;
 import org.apache.axis2.engine.AxisEngine;
 import org.apache.axis2.util.MessageContextBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 
 /**
  * This Class is the work hoarse of the TCP request, this process the incomming SOAP Message.
@@ -40,42 +47,150 @@ public class TCPWorker implements Runnable {
 
     private TCPEndpoint endpoint;
     private Socket socket;
+    private TCPNIOConnection connection;
+    private byte[] frame;
 
     public TCPWorker(TCPEndpoint endpoint, Socket socket) {
         this.endpoint = endpoint;
         this.socket = socket;
     }
 
+    /**
+     * Create a worker processing a request that has been received by a non blocking endpoint.
+     *
+     * @param endpoint the endpoint
+     * @param connection the connection the request was received on
+     * @param frame the complete request
+     */
+    public TCPWorker(TCPEndpoint endpoint, TCPNIOConnection connection, byte[] frame) {
+        this.endpoint = endpoint;
+        this.socket = connection.getChannel().socket();
+        this.connection = connection;
+        this.frame = frame;
+    }
+
     public void run() {
+        if (connection != null) {
+            // the connection moves on to the next request once this one has been answered,
+            // which may happen after this method returns if the response is sent asynchronously
+            processMessage(new ByteArrayInputStream(frame));
+        } else if (endpoint.isKeepAlive()) {
+            processKeepAliveConnection();
+        } else {
+            try {
+                processMessage(socket.getInputStream());
+            } catch (IOException e) {
+                log.error("Error while reading from a TCP socket", e);
+            } finally {
+                closeSocket();
+            }
+        }
+    }
+
+    /**
+     * Serve framed requests off the socket until the peer closes the connection, the
+     * connection stays idle for longer than the configured idle timeout or the maximum
+     * number of requests per connection has been reached. Requests that the client
+     * pipelines on the connection are processed in the order they were sent.
+     */
+    private void processKeepAliveConnection() {
+        int maxRequests = endpoint.getMaxRequestsPerConnection();
+        int served = 0;
+        try {
+            socket.setSoTimeout(endpoint.getIdleTimeout());
+            socket.setTcpNoDelay(true);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            while (maxRequests < 0 || served < maxRequests) {
+                byte[] frame;
+                try {
+                    frame = TCPFrameUtils.readFrame(in, endpoint.getMaxFrameSize());
+                } catch (SocketTimeoutException e) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Closing idle TCP connection from " +
+                                socket.getRemoteSocketAddress());
+                    }
+                    break;
+                }
+                if (frame == null) {
+                    break;
+                }
+                served++;
+                processMessage(new ByteArrayInputStream(frame));
+            }
+        } catch (IOException e) {
+            log.error("Error while reading from a keep-alive TCP connection", e);
+        } finally {
+            closeSocket();
+        }
+    }
+
+    private void processMessage(InputStream in) {
 
         MessageContext msgContext = null;
+        TCPOutTransportInfo outInfo = new TCPOutTransportInfo();
+        boolean responsePending = false;
 
         try {
             msgContext = endpoint.createMessageContext();
             msgContext.setIncomingTransportName(Constants.TRANSPORT_TCP);
             //msgContext.setTransportIn(endpoint.getListener().getTransportInDescription());
 
-            TCPOutTransportInfo outInfo = new TCPOutTransportInfo();
             outInfo.setSocket(socket);
             outInfo.setContentType(endpoint.getContentType());
+            outInfo.setKeepAlive(endpoint.isKeepAlive());
+            outInfo.setConnection(connection);
             msgContext.setProperty(Constants.OUT_TRANSPORT_INFO, outInfo);
 
             // create the SOAP Envelope
             SOAPEnvelope envelope = TransportUtils.createSOAPMessage(msgContext,
-                    socket.getInputStream(), endpoint.getContentType());
+                    in, endpoint.getContentType());
             msgContext.setEnvelope(envelope);
 
             AxisEngine.receive(msgContext);
 
+            // the response of an in-out operation may still be sent asynchronously, unless
+            // it goes to a separate reply address
+            AxisOperation axisOperation = msgContext.getAxisOperation();
+            EndpointReference replyTo = msgContext.getReplyTo();
+            responsePending = axisOperation != null && WSDL2Constants.MEP_URI_IN_OUT.equals(
+                    axisOperation.getMessageExchangePattern()) &&
+                    (replyTo == null || replyTo.hasAnonymousAddress());
+
         } catch (Exception e) {
             sendFault(msgContext, e);
+        }
 
-        } finally {
-            try {
-                socket.close();
-            } catch (IOException e) {
-                log.error("Error while closing a TCP socket", e);
+        if (endpoint.isKeepAlive() && !responsePending && outInfo.markResponseSent()) {
+            sendAcknowledgement();
+        }
+    }
+
+    /**
+     * Answer a request received on a keep-alive connection that produced neither a response
+     * nor a fault, e.g. a one-way message, with an empty frame. The client reads exactly one
+     * frame per request, so this keeps the frames on the connection in step with the requests.
+     */
+    private void sendAcknowledgement() {
+        TCPFrameUtils.FrameBuffer ack = new TCPFrameUtils.FrameBuffer();
+        if (connection != null) {
+            connection.send(ack.toFrame());
+            return;
+        }
+        try {
+            synchronized (socket) {
+                TCPFrameUtils.writeFrame(socket.getOutputStream(), ack);
             }
+        } catch (IOException e) {
+            log.error("Error while acknowledging a request on a keep-alive TCP connection", e);
+            closeSocket();
+        }
+    }
+
+    private void closeSocket() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            log.error("Error while closing a TCP socket", e);
         }
     }
 
@@ -83,7 +198,9 @@ public class TCPWorker implements Runnable {
         log.error("Error while processing TCP request through the Axis2 engine", fault);
         try {
             if (msgContext != null) {
-                msgContext.setProperty(MessageContext.TRANSPORT_OUT, socket.getOutputStream());
+                if (connection == null) {
+                    msgContext.setProperty(MessageContext.TRANSPORT_OUT, socket.getOutputStream());
+                }
 
                 MessageContext faultContext =
                         MessageContextBuilder.createFaultMessageContext(msgContext, fault);
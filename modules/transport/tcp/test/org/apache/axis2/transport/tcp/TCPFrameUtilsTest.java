@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+public class TCPFrameUtilsTest extends TestCase {
+
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+
+    public void testRoundTripOfSeveralFrames() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String[] messages = { "<a/>", "", "<b>second message</b>" };
+        for (String message : messages) {
+            TCPFrameUtils.FrameBuffer buffer = new TCPFrameUtils.FrameBuffer();
+            buffer.write(message.getBytes("UTF-8"));
+            assertEquals(message.length(), buffer.size());
+            TCPFrameUtils.writeFrame(out, buffer);
+        }
+
+        InputStream in = new ByteArrayInputStream(out.toByteArray());
+        for (String message : messages) {
+            assertEquals(message, new String(TCPFrameUtils.readFrame(in, MAX_FRAME_SIZE), "UTF-8"));
+        }
+        assertNull(TCPFrameUtils.readFrame(in, MAX_FRAME_SIZE));
+    }
+
+    /**
+     * The reserved header space is not part of the content of the buffer.
+     */
+    public void testFrameBufferExcludesHeader() throws Exception {
+        TCPFrameUtils.FrameBuffer buffer = new TCPFrameUtils.FrameBuffer();
+        assertEquals(0, buffer.size());
+        buffer.write("<a/>".getBytes("UTF-8"));
+        assertEquals(4, buffer.size());
+        buffer.reset();
+        assertEquals(0, buffer.size());
+        buffer.write('x');
+        ByteBuffer frame = buffer.toFrame();
+        assertEquals(5, frame.remaining());
+        assertEquals(1, frame.getInt());
+        assertEquals('x', frame.get());
+    }
+
+    public void testTruncatedFrame() throws Exception {
+        InputStream in = new ByteArrayInputStream(new byte[] { 0, 0, 0, 10, 1, 2, 3 });
+        try {
+            TCPFrameUtils.readFrame(in, MAX_FRAME_SIZE);
+            fail("Expected EOFException");
+        } catch (EOFException expected) {
+            // expected
+        }
+    }
+
+    public void testFrameTooLarge() throws Exception {
+        InputStream in = new ByteArrayInputStream(new byte[] { 0, 0, 4, 1, 1, 2, 3 });
+        try {
+            TCPFrameUtils.readFrame(in, 1024);
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    /**
+     * A frame larger than the initial buffer is received in small chunks, as it would be from
+     * a socket.
+     */
+    public void testLargeFrameReadInChunks() throws Exception {
+        byte[] message = new byte[TCPFrameUtils.INITIAL_BUFFER_SIZE * 3 + 17];
+        for (int i = 0; i < message.length; i++) {
+            message[i] = (byte) i;
+        }
+        TCPFrameUtils.FrameBuffer buffer = new TCPFrameUtils.FrameBuffer();
+        buffer.write(message);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TCPFrameUtils.writeFrame(out, buffer);
+
+        InputStream in = new FilterInputStream(new ByteArrayInputStream(out.toByteArray())) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 1000));
+            }
+        };
+        byte[] frame = TCPFrameUtils.readFrame(in, MAX_FRAME_SIZE);
+        assertEquals(message.length, frame.length);
+        for (int i = 0; i < message.length; i++) {
+            assertEquals(message[i], frame[i]);
+        }
+    }
+
+    public void testGrowBuffer() {
+        byte[] buffer = { 1, 2, 3 };
+        byte[] grown = TCPFrameUtils.growBuffer(buffer, 5);
+        assertEquals(5, grown.length);
+        assertEquals(3, grown[2]);
+        assertEquals(8, TCPFrameUtils.growBuffer(new byte[4], 100).length);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import junit.framework.TestCase;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.transport.base.threads.WorkerPool;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the connection handling of the {@link TCPIOReactor} and its {@link TCPIODispatcher}s
+ * independently of the Axis2 engine.
+ */
+public class TCPIOReactorTest extends TestCase {
+
+    private static final int IDLE_TIMEOUT = 500;
+
+    private final AtomicInteger executedTasks = new AtomicInteger();
+    private volatile boolean rejectTasks;
+    private TCPIOReactor reactor;
+    private TCPEndpoint endpoint;
+
+    protected void setUp() throws Exception {
+        reactor = new TCPIOReactor("test", 2, new WorkerPool() {
+            public void execute(Runnable task) {
+                if (rejectTasks) {
+                    throw new RejectedExecutionException("Worker pool saturated");
+                }
+                // the requests are not processed
+                executedTasks.incrementAndGet();
+            }
+
+            public int getActiveCount() {
+                return 0;
+            }
+
+            public int getQueueSize() {
+                return 0;
+            }
+
+            public void shutdown(int timeout) {
+            }
+        });
+
+        int port;
+        ServerSocket serverSocket = new ServerSocket(0);
+        try {
+            port = serverSocket.getLocalPort();
+        } finally {
+            serverSocket.close();
+        }
+        AxisService service = new AxisService("ReactorService");
+        service.addParameter(TCPConstants.PARAM_PORT, String.valueOf(port));
+        service.addParameter(TCPConstants.PARAM_HOST, "127.0.0.1");
+        service.addParameter(TCPConstants.PARAM_NON_BLOCKING, "true");
+        service.addParameter(TCPConstants.PARAM_IDLE_TIMEOUT, String.valueOf(IDLE_TIMEOUT));
+        endpoint = new TCPEndpoint();
+        assertTrue(endpoint.loadConfiguration(service));
+    }
+
+    protected void tearDown() throws Exception {
+        if (reactor != null) {
+            reactor.stop();
+        }
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("127.0.0.1", endpoint.getPort());
+        socket.setSoTimeout(10000);
+        return socket;
+    }
+
+    public void testAddAndRemoveEndpoint() throws Exception {
+        reactor.addEndpoint(endpoint);
+        connect().close();
+
+        reactor.removeEndpoint(endpoint);
+        try {
+            connect().close();
+            fail("Expected ConnectException");
+        } catch (ConnectException expected) {
+            // expected
+        }
+    }
+
+    public void testConnectionsDistributedOverDispatchers() {
+        Set<TCPIODispatcher> dispatchers = new HashSet<TCPIODispatcher>();
+        for (int i = 0; i < 4; i++) {
+            dispatchers.add(reactor.nextDispatcher());
+        }
+        assertEquals(2, dispatchers.size());
+    }
+
+    /**
+     * Complete frames are handed to the worker pool; the next frame on the connection waits
+     * until the current request is completed.
+     */
+    public void testFramesDispatched() throws Exception {
+        reactor.addEndpoint(endpoint);
+        Socket socket = connect();
+        try {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(3);
+            out.write(new byte[] { 1, 2 });
+            out.flush();
+            Thread.sleep(200);
+            assertEquals(0, executedTasks.get());
+
+            out.write(3);
+            out.writeInt(0);
+            out.flush();
+            Thread.sleep(200);
+            assertEquals(1, executedTasks.get());
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * A request rejected by the worker pool closes its connection, but the dispatcher keeps
+     * serving the other connections.
+     */
+    public void testRejectedRequestClosesConnection() throws Exception {
+        reactor.addEndpoint(endpoint);
+        rejectTasks = true;
+        Socket socket = connect();
+        try {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(0);
+            out.flush();
+            assertEquals(-1, socket.getInputStream().read());
+        } finally {
+            socket.close();
+        }
+
+        rejectTasks = false;
+        for (int i = 0; i < 4; i++) {
+            socket = connect();
+            try {
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeInt(0);
+                out.flush();
+                Thread.sleep(100);
+                assertEquals(i + 1, executedTasks.get());
+            } finally {
+                socket.close();
+            }
+        }
+    }
+
+    public void testIdleConnectionClosed() throws Exception {
+        reactor.addEndpoint(endpoint);
+        Socket socket = connect();
+        try {
+            long start = System.currentTimeMillis();
+            assertEquals(-1, socket.getInputStream().read());
+            assertTrue(System.currentTimeMillis() - start >= IDLE_TIMEOUT - 100);
+        } finally {
+            socket.close();
+        }
+    }
+
+    public void testStopClosesConnections() throws Exception {
+        reactor.addEndpoint(endpoint);
+        Socket socket = connect();
+        try {
+            // make sure the connection has been registered
+            Thread.sleep(100);
+            reactor.stop();
+            reactor = null;
+            assertEquals(-1, socket.getInputStream().read());
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import junit.framework.TestCase;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMFactory;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.client.Options;
+import org.apache.axis2.client.ServiceClient;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.InOnlyAxisOperation;
+import org.apache.axis2.description.InOutAxisOperation;
+import org.apache.axis2.description.TransportInDescription;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.dispatchers.SOAPMessageBodyBasedDispatcher;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.engine.DispatchPhase;
+import org.apache.axis2.engine.MessageReceiver;
+import org.apache.axis2.receivers.AbstractInOutMessageReceiver;
+
+import javax.xml.namespace.QName;
+import java.io.BufferedInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exchanges messages between a {@link TCPTransportListener} and a {@link TCPTransportSender}
+ * over pooled keep-alive connections.
+ */
+public class TCPKeepAliveTest extends TestCase {
+
+    private static final String NS = "urn:test";
+    private static final int IDLE_TIMEOUT = 1000;
+
+    private final AtomicInteger slowInvocations = new AtomicInteger();
+    private final AtomicInteger notifications = new AtomicInteger();
+
+    private ConfigurationContext serverContext;
+    private TCPTransportListener listener;
+    private ConfigurationContext clientContext;
+    private TCPTransportSender sender;
+    private String url;
+
+    protected void setUp() throws Exception {
+        startServer(false);
+    }
+
+    protected void tearDown() throws Exception {
+        sender.stop();
+        listener.stop();
+        listener.destroy();
+        serverContext.terminate();
+    }
+
+    /**
+     * Replace the blocking server started by {@link #setUp()} with a non blocking one.
+     */
+    private void restartNonBlocking() throws Exception {
+        tearDown();
+        startServer(true);
+    }
+
+    private void startServer(boolean nonBlocking) throws Exception {
+        int port;
+        ServerSocket serverSocket = new ServerSocket(0);
+        try {
+            port = serverSocket.getLocalPort();
+        } finally {
+            serverSocket.close();
+        }
+
+        serverContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisConfiguration axisConfig = serverContext.getAxisConfiguration();
+        DispatchPhase dispatchPhase = new DispatchPhase("Dispatch");
+        dispatchPhase.addHandler(new SOAPMessageBodyBasedDispatcher());
+        axisConfig.getInFlowPhases().add(dispatchPhase);
+
+        AxisService service = new AxisService("KeepAliveService");
+        service.addParameter(TCPConstants.PARAM_PORT, String.valueOf(port));
+        service.addParameter(TCPConstants.PARAM_HOST, "127.0.0.1");
+        service.addParameter(TCPConstants.PARAM_KEEP_ALIVE, "true");
+        service.addParameter(TCPConstants.PARAM_IDLE_TIMEOUT, String.valueOf(IDLE_TIMEOUT));
+        service.addParameter(TCPConstants.PARAM_NON_BLOCKING, String.valueOf(nonBlocking));
+        addOperation(service, new InOutAxisOperation(new QName("echo")), new EchoReceiver(null));
+        addOperation(service, new InOutAxisOperation(new QName("slow")),
+                new EchoReceiver(slowInvocations));
+        addOperation(service, new InOnlyAxisOperation(new QName("notify")),
+                new MessageReceiver() {
+                    public void receive(MessageContext msgContext) throws AxisFault {
+                        notifications.incrementAndGet();
+                    }
+                });
+        addOperation(service, new InOnlyAxisOperation(new QName("fail")),
+                new MessageReceiver() {
+                    public void receive(MessageContext msgContext) throws AxisFault {
+                        throw new AxisFault("Intentional failure");
+                    }
+                });
+        axisConfig.addService(service);
+
+        TransportInDescription transportIn = new TransportInDescription(Constants.TRANSPORT_TCP);
+        listener = new TCPTransportListener();
+        transportIn.setReceiver(listener);
+        axisConfig.addTransportIn(transportIn);
+        addTransportSender(serverContext);
+        listener.init(serverContext, transportIn);
+        listener.start();
+
+        clientContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+        sender = addTransportSender(clientContext);
+
+        url = "tcp://127.0.0.1:" + port + "/axis2/services/KeepAliveService?"
+                + TCPConstants.KEEP_ALIVE_URL_PARAM + "=true";
+    }
+
+    private static TCPTransportSender addTransportSender(ConfigurationContext cfgCtx)
+            throws AxisFault {
+        TransportOutDescription transportOut =
+                new TransportOutDescription(Constants.TRANSPORT_TCP);
+        TCPTransportSender sender = new TCPTransportSender();
+        transportOut.setSender(sender);
+        cfgCtx.getAxisConfiguration().addTransportOut(transportOut);
+        sender.init(cfgCtx, transportOut);
+        return sender;
+    }
+
+    private static void addOperation(AxisService service, AxisOperation operation,
+                                     MessageReceiver receiver) {
+        operation.setMessageReceiver(receiver);
+        service.addOperation(operation);
+    }
+
+    private ServiceClient createClient(String query) throws AxisFault {
+        Options options = new Options();
+        options.setTo(new EndpointReference(query == null ? url : url + "&" + query));
+        options.setTransportInProtocol(Constants.TRANSPORT_TCP);
+        options.setCallTransportCleanup(true);
+        ServiceClient client = new ServiceClient(clientContext, null);
+        client.setOptions(options);
+        return client;
+    }
+
+    private static OMElement createPayload(String operation, String text) {
+        OMFactory factory = OMAbstractFactory.getOMFactory();
+        OMNamespace ns = factory.createOMNamespace(NS, "t");
+        OMElement payload = factory.createOMElement(operation, ns);
+        payload.setText(text);
+        return payload;
+    }
+
+    private String echo(ServiceClient client, String text) throws AxisFault {
+        OMElement response = client.sendReceive(createPayload("echo", text));
+        return response.getText();
+    }
+
+    public void testRequestsShareConnection() throws Exception {
+        ServiceClient client = createClient(null);
+        assertEquals("first", echo(client, "first"));
+        assertEquals("second", echo(client, "second"));
+    }
+
+    /**
+     * One-way requests are acknowledged, so that the next request on the same connection
+     * gets its own response.
+     */
+    public void testOneWayThenRequest() throws Exception {
+        ServiceClient client = createClient(null);
+        assertEquals("first", echo(client, "first"));
+        client.fireAndForget(createPayload("notify", "event"));
+        assertEquals(1, notifications.get());
+        assertEquals("second", echo(client, "second"));
+    }
+
+    /**
+     * The fault for a failed one-way request must not be taken as the response to the next
+     * request on the same connection.
+     */
+    public void testFailedOneWayThenRequest() throws Exception {
+        ServiceClient client = createClient(null);
+        assertEquals("first", echo(client, "first"));
+        client.fireAndForget(createPayload("fail", "event"));
+        assertEquals("second", echo(client, "second"));
+    }
+
+    /**
+     * A pooled connection that the server closed because of its idle timeout is detected
+     * before it is used.
+     */
+    public void testConnectionClosedByServer() throws Exception {
+        ServiceClient client = createClient(null);
+        assertEquals("first", echo(client, "first"));
+        Thread.sleep(IDLE_TIMEOUT + 500);
+        assertEquals("second", echo(client, "second"));
+    }
+
+    /**
+     * A request that times out on a reused connection may still be processed by the server,
+     * so it must not be sent again.
+     */
+    public void testSlowResponseNotRetried() throws Exception {
+        ServiceClient client = createClient("timeout=500");
+        // make sure the next request is sent on a reused connection
+        assertEquals("warm up", echo(client, "warm up"));
+        try {
+            client.sendReceive(createPayload("slow", "slow"));
+            fail("Expected the request to time out");
+        } catch (AxisFault expected) {
+            // expected
+        }
+        Thread.sleep(EchoReceiver.DELAY + 500);
+        assertEquals(1, slowInvocations.get());
+    }
+
+    public void testRequestsShareConnectionNonBlocking() throws Exception {
+        restartNonBlocking();
+        ServiceClient client = createClient(null);
+        assertEquals("first", echo(client, "first"));
+        assertEquals("second", echo(client, "second"));
+    }
+
+    public void testOneWayThenRequestNonBlocking() throws Exception {
+        restartNonBlocking();
+        ServiceClient client = createClient(null);
+        assertEquals("first", echo(client, "first"));
+        client.fireAndForget(createPayload("notify", "event"));
+        assertEquals(1, notifications.get());
+        client.fireAndForget(createPayload("fail", "event"));
+        assertEquals("second", echo(client, "second"));
+    }
+
+    public void testConnectionClosedByServerNonBlocking() throws Exception {
+        restartNonBlocking();
+        ServiceClient client = createClient(null);
+        assertEquals("first", echo(client, "first"));
+        Thread.sleep(IDLE_TIMEOUT + 500);
+        assertEquals("second", echo(client, "second"));
+    }
+
+    /**
+     * Requests pipelined on a single connection, mixing one-way and request-response
+     * operations, are answered by one frame each, in order.
+     */
+    public void testPipelinedRequestsNonBlocking() throws Exception {
+        restartNonBlocking();
+        Socket socket = new Socket("127.0.0.1", new URI(url).getPort());
+        try {
+            socket.setSoTimeout(10000);
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            String[] operations = { "slow", "notify", "echo", "fail", "echo" };
+            for (int i = 0; i < operations.length; i++) {
+                SOAPEnvelope envelope = OMAbstractFactory.getSOAP11Factory().getDefaultEnvelope();
+                envelope.getBody().addChild(createPayload(operations[i], "request-" + i));
+                byte[] frame = envelope.toString().getBytes("UTF-8");
+                out.writeInt(frame.length);
+                out.write(frame);
+            }
+            out.flush();
+
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            assertTrue(readFrame(in).contains("request-0"));
+            assertEquals("", readFrame(in));
+            assertTrue(readFrame(in).contains("request-2"));
+            assertTrue(readFrame(in).contains("Intentional failure"));
+            assertTrue(readFrame(in).contains("request-4"));
+            assertEquals(1, notifications.get());
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static String readFrame(InputStream in) throws IOException {
+        byte[] frame = TCPFrameUtils.readFrame(in, Integer.MAX_VALUE);
+        assertNotNull("Connection closed by the server", frame);
+        return new String(frame, "UTF-8");
+    }
+
+    private static class EchoReceiver extends AbstractInOutMessageReceiver {
+        static final long DELAY = 1500;
+
+        private final AtomicInteger invocations;
+
+        EchoReceiver(AtomicInteger invocations) {
+            this.invocations = invocations;
+        }
+
+        public void invokeBusinessLogic(MessageContext inMessage, MessageContext outMessage)
+                throws AxisFault {
+            if (invocations != null) {
+                invocations.incrementAndGet();
+                try {
+                    Thread.sleep(DELAY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            SOAPFactory factory = OMAbstractFactory.getSOAP11Factory();
+            SOAPEnvelope envelope = factory.getDefaultEnvelope();
+            envelope.getBody().addChild(
+                    createPayload("echoResponse",
+                            inMessage.getEnvelope().getBody().getFirstElement().getText()));
+            outMessage.setEnvelope(envelope);
+        }
+    }
+}
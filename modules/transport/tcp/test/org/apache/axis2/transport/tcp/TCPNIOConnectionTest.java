@@ -0,0 +1,266 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.axis2.transport.tcp;
+
+import junit.framework.TestCase;
+import org.apache.axiom.om.OMAbstractFactory;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.OMNamespace;
+import org.apache.axiom.soap.SOAPEnvelope;
+import org.apache.axiom.soap.SOAPFactory;
+import org.apache.axis2.AxisFault;
+import org.apache.axis2.Constants;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.context.MessageContext;
+import org.apache.axis2.description.AxisOperation;
+import org.apache.axis2.description.AxisService;
+import org.apache.axis2.description.InOutAxisOperation;
+import org.apache.axis2.description.TransportInDescription;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.dispatchers.SOAPMessageBodyBasedDispatcher;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.engine.AxisEngine;
+import org.apache.axis2.engine.DispatchPhase;
+import org.apache.axis2.engine.MessageReceiver;
+import org.apache.axis2.receivers.AbstractInOutMessageReceiver;
+import org.apache.axis2.util.MessageContextBuilder;
+
+import javax.xml.namespace.QName;
+import java.io.BufferedInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Sends frames over raw sockets to a non blocking endpoint of a {@link TCPTransportListener}
+ * and checks how they are processed by the {@link TCPNIOConnection}.
+ */
+public class TCPNIOConnectionTest extends TestCase {
+
+    private static final String NS = "urn:test";
+    private static final int MAX_FRAME_SIZE = 1024 * 1024;
+    /** requests whose text starts with this prefix are processed slowly */
+    private static final String SLOW = "slow";
+    private static final long DELAY = 500;
+
+    private ConfigurationContext serverContext;
+    private TCPTransportListener listener;
+    private int port;
+    private Socket socket;
+
+    protected void setUp() throws Exception {
+        ServerSocket serverSocket = new ServerSocket(0);
+        try {
+            port = serverSocket.getLocalPort();
+        } finally {
+            serverSocket.close();
+        }
+
+        serverContext = ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisConfiguration axisConfig = serverContext.getAxisConfiguration();
+        DispatchPhase dispatchPhase = new DispatchPhase("Dispatch");
+        dispatchPhase.addHandler(new SOAPMessageBodyBasedDispatcher());
+        axisConfig.getInFlowPhases().add(dispatchPhase);
+
+        AxisService service = new AxisService("NIOService");
+        service.addParameter(TCPConstants.PARAM_PORT, String.valueOf(port));
+        service.addParameter(TCPConstants.PARAM_HOST, "127.0.0.1");
+        service.addParameter(TCPConstants.PARAM_NON_BLOCKING, "true");
+        service.addParameter(TCPConstants.PARAM_MAX_FRAME_SIZE, String.valueOf(MAX_FRAME_SIZE));
+        AxisOperation operation = new InOutAxisOperation(new QName("echo"));
+        operation.setMessageReceiver(new EchoReceiver());
+        service.addOperation(operation);
+        AxisOperation asyncOperation = new InOutAxisOperation(new QName("asyncEcho"));
+        asyncOperation.setMessageReceiver(new AsyncEchoReceiver());
+        service.addOperation(asyncOperation);
+        axisConfig.addService(service);
+
+        TransportInDescription transportIn = new TransportInDescription(Constants.TRANSPORT_TCP);
+        listener = new TCPTransportListener();
+        transportIn.setReceiver(listener);
+        axisConfig.addTransportIn(transportIn);
+        TransportOutDescription transportOut =
+                new TransportOutDescription(Constants.TRANSPORT_TCP);
+        TCPTransportSender sender = new TCPTransportSender();
+        transportOut.setSender(sender);
+        axisConfig.addTransportOut(transportOut);
+        sender.init(serverContext, transportOut);
+        listener.init(serverContext, transportIn);
+        listener.start();
+
+        socket = new Socket("127.0.0.1", port);
+        socket.setSoTimeout(10000);
+    }
+
+    protected void tearDown() throws Exception {
+        socket.close();
+        listener.stop();
+        listener.destroy();
+        serverContext.terminate();
+    }
+
+    private static byte[] createRequest(String text) throws IOException {
+        return createRequest("echo", text);
+    }
+
+    private static byte[] createRequest(String operation, String text) throws IOException {
+        SOAPFactory factory = OMAbstractFactory.getSOAP11Factory();
+        SOAPEnvelope envelope = factory.getDefaultEnvelope();
+        OMNamespace ns = factory.createOMNamespace(NS, "t");
+        OMElement payload = factory.createOMElement(operation, ns);
+        payload.setText(text);
+        envelope.getBody().addChild(payload);
+        return envelope.toString().getBytes("UTF-8");
+    }
+
+    private static SOAPEnvelope createResponse(String text) {
+        SOAPFactory factory = OMAbstractFactory.getSOAP11Factory();
+        SOAPEnvelope envelope = factory.getDefaultEnvelope();
+        OMElement payload = factory.createOMElement("echoResponse",
+                factory.createOMNamespace(NS, "t"));
+        payload.setText(text);
+        envelope.getBody().addChild(payload);
+        return envelope;
+    }
+
+    private void send(byte[]... frames) throws IOException {
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        for (byte[] frame : frames) {
+            out.writeInt(frame.length);
+            out.write(frame);
+        }
+        out.flush();
+    }
+
+    private String receive(InputStream in) throws IOException {
+        byte[] frame = TCPFrameUtils.readFrame(in, Integer.MAX_VALUE);
+        assertNotNull("Connection closed by the server", frame);
+        return new String(frame, "UTF-8");
+    }
+
+    /**
+     * Responses to pipelined requests are sent in the order of the requests, even if an
+     * earlier request takes longer to process.
+     */
+    public void testPipelinedRequestsAnsweredInOrder() throws Exception {
+        send(createRequest(SLOW + "-1"), createRequest("fast-2"), createRequest("fast-3"));
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        assertTrue(receive(in).contains(SLOW + "-1"));
+        assertTrue(receive(in).contains("fast-2"));
+        assertTrue(receive(in).contains("fast-3"));
+    }
+
+    /**
+     * The response of an operation is sent asynchronously, after the message receiver has
+     * returned; the next pipelined request must not be answered before it.
+     */
+    public void testPipelinedRequestsAnsweredInOrderWithAsyncReceiver() throws Exception {
+        send(createRequest("asyncEcho", "async-1"), createRequest("fast-2"));
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        assertTrue(receive(in).contains("async-1"));
+        assertTrue(receive(in).contains("fast-2"));
+    }
+
+    /**
+     * More requests than the connection buffers are pipelined; reading is suspended and
+     * resumed without losing any of them.
+     */
+    public void testManyPipelinedRequests() throws Exception {
+        int count = TCPNIOConnection.MAX_PENDING_FRAMES * 3;
+        byte[][] frames = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            frames[i] = createRequest("request-" + i + ".");
+        }
+        send(frames);
+        InputStream in = new BufferedInputStream(socket.getInputStream());
+        for (int i = 0; i < count; i++) {
+            assertTrue(receive(in).contains("request-" + i + "."));
+        }
+    }
+
+    /**
+     * A request larger than the initial frame buffer is received completely.
+     */
+    public void testLargeRequest() throws Exception {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < TCPFrameUtils.INITIAL_BUFFER_SIZE * 2) {
+            text.append("0123456789");
+        }
+        send(createRequest(text.toString()));
+        assertTrue(receive(new BufferedInputStream(socket.getInputStream()))
+                .contains(text.toString()));
+    }
+
+    public void testOversizedFrameClosesConnection() throws Exception {
+        OutputStream out = socket.getOutputStream();
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(MAX_FRAME_SIZE + 1);
+        dataOut.write(new byte[100]);
+        dataOut.flush();
+        try {
+            assertEquals(-1, socket.getInputStream().read());
+        } catch (IOException expected) {
+            // the connection may also be reset
+        }
+    }
+
+    private static class EchoReceiver extends AbstractInOutMessageReceiver {
+        public void invokeBusinessLogic(MessageContext inMessage, MessageContext outMessage)
+                throws AxisFault {
+            String text = inMessage.getEnvelope().getBody().getFirstElement().getText();
+            if (text.startsWith(SLOW)) {
+                try {
+                    Thread.sleep(DELAY);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            outMessage.setEnvelope(createResponse(text));
+        }
+    }
+
+    /**
+     * Sends the response from another thread, after a delay.
+     */
+    private static class AsyncEchoReceiver implements MessageReceiver {
+        public void receive(MessageContext inMessage) throws AxisFault {
+            final String text = inMessage.getEnvelope().getBody().getFirstElement().getText();
+            final MessageContext outMessage =
+                    MessageContextBuilder.createOutMessageContext(inMessage);
+            outMessage.getOperationContext().addMessageContext(outMessage);
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(DELAY);
+                        outMessage.setEnvelope(createResponse(text));
+                        AxisEngine.send(outMessage);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            }.start();
+        }
+    }
+}